@@ -0,0 +1,197 @@
+package com.thiagoamorimm.takeatask.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Teste de carga em malha fechada contra uma instância já em execução: cada cliente (uma virtual
+ * thread) envia a próxima requisição assim que recebe a resposta da anterior. Mede vazão e
+ * latência na janela após o aquecimento.
+ *
+ * Para comparar os modos de execução, suba a aplicação com o profile Spring "carga" duas vezes,
+ * com VIRTUAL_THREADS=false e VIRTUAL_THREADS=true, e rode em cada uma:
+ *
+ *   mvn -Pcarga test-compile exec:exec -Dcarga.args="--clientes 5000 --rotulo virtual"
+ *
+ * Opções (padrões entre parênteses): --url (http://localhost:8080), --login (admin),
+ * --senha (senha123), --clientes (5000), --rampa (PT10S), --aquecimento (PT15S),
+ * --duracao (PT60S), --caminhos (lista separada por vírgula), --rotulo.
+ * Com 5 mil conexões o limite de arquivos abertos (ulimit -n) do cliente e do servidor
+ * precisa estar acima disso.
+ */
+public class GeradorCarga {
+
+    private static final String CAMINHOS_PADRAO =
+            "/api/tarefas?view=summary&limit=20,/api/tarefas/stats,/api/tags";
+
+    // Cada HttpClient tem um único seletor; dividir as conexões evita que o cliente vire o gargalo
+    private static final int CONEXOES_POR_HTTP_CLIENT = 250;
+
+    // Histograma de latência em milissegundos; o último balde acumula tudo acima de 60 s
+    private static final int MAX_LATENCIA_MS = 60_000;
+
+    private final AtomicLongArray latencias = new AtomicLongArray(MAX_LATENCIA_MS + 1);
+    private final LongAdder requisicoes = new LongAdder();
+    private final Map<String, LongAdder> erros = new ConcurrentHashMap<>();
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = lerOpcoes(args);
+        new GeradorCarga().executar(opcoes);
+    }
+
+    private void executar(Map<String, String> opcoes) throws Exception {
+        String url = opcoes.getOrDefault("url", "http://localhost:8080");
+        int clientes = Integer.parseInt(opcoes.getOrDefault("clientes", "5000"));
+        Duration rampa = Duration.parse(opcoes.getOrDefault("rampa", "PT10S"));
+        Duration aquecimento = Duration.parse(opcoes.getOrDefault("aquecimento", "PT15S"));
+        Duration duracao = Duration.parse(opcoes.getOrDefault("duracao", "PT60S"));
+        List<String> caminhos = List.of(opcoes.getOrDefault("caminhos", CAMINHOS_PADRAO).split(","));
+        String rotulo = opcoes.getOrDefault("rotulo", "");
+
+        HttpClient[] httpClients = new HttpClient[(clientes + CONEXOES_POR_HTTP_CLIENT - 1) / CONEXOES_POR_HTTP_CLIENT];
+        for (int i = 0; i < httpClients.length; i++) {
+            httpClients[i] = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+        }
+        String token = autenticar(httpClients[0], url, opcoes.getOrDefault("login", "admin"),
+                opcoes.getOrDefault("senha", "senha123"));
+
+        long inicio = System.nanoTime();
+        long inicioMedicao = inicio + aquecimento.toNanos();
+        long fim = inicioMedicao + duracao.toNanos();
+        System.out.printf("Iniciando %d clientes (rampa %ss, aquecimento %ss, medição %ss)%n", clientes,
+                rampa.toSeconds(), aquecimento.toSeconds(), duracao.toSeconds());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clientes; i++) {
+                int cliente = i;
+                long partida = inicio + rampa.toNanos() * i / clientes;
+                executor.submit(() -> cliente(httpClients[cliente / CONEXOES_POR_HTTP_CLIENT], url, token,
+                        caminhos, cliente, partida, inicioMedicao, fim));
+            }
+        } // close() aguarda todos os clientes terminarem
+
+        imprimirResultado(rotulo, clientes, duracao);
+    }
+
+    private void cliente(HttpClient httpClient, String url, String token, List<String> caminhos, int cliente,
+            long partida, long inicioMedicao, long fim) {
+        try {
+            long espera = partida - System.nanoTime();
+            if (espera > 0) {
+                Thread.sleep(Duration.ofNanos(espera));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        // Cada cliente começa em um caminho diferente para que a mistura seja uniforme a todo instante
+        int proximo = cliente;
+        while (System.nanoTime() < fim) {
+            HttpRequest requisicao = HttpRequest.newBuilder(URI.create(url + caminhos.get(proximo++ % caminhos.size())))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            long enviadaEm = System.nanoTime();
+            String erro = null;
+            try {
+                HttpResponse<Void> resposta = httpClient.send(requisicao, HttpResponse.BodyHandlers.discarding());
+                if (resposta.statusCode() >= 400) {
+                    erro = "HTTP " + resposta.statusCode();
+                }
+            } catch (IOException e) {
+                erro = e.getClass().getSimpleName();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long recebidaEm = System.nanoTime();
+            if (enviadaEm >= inicioMedicao && recebidaEm <= fim) {
+                registrar(Duration.ofNanos(recebidaEm - enviadaEm).toMillis(), erro);
+            }
+        }
+    }
+
+    private void registrar(long latenciaMs, String erro) {
+        requisicoes.increment();
+        latencias.incrementAndGet((int) Math.min(latenciaMs, MAX_LATENCIA_MS));
+        if (erro != null) {
+            erros.computeIfAbsent(erro, chave -> new LongAdder()).increment();
+        }
+    }
+
+    private void imprimirResultado(String rotulo, int clientes, Duration duracao) {
+        long total = requisicoes.sum();
+        long totalErros = erros.values().stream().mapToLong(LongAdder::sum).sum();
+        System.out.println();
+        System.out.printf("Resultado %s(%d clientes, %ss)%n", rotulo.isEmpty() ? "" : "[" + rotulo + "] ", clientes,
+                duracao.toSeconds());
+        System.out.printf("  Requisições: %d (%d com erro)%n", total, totalErros);
+        System.out.printf("  Vazão:       %.1f req/s (%.1f req/s sem erro)%n", (double) total / duracao.toSeconds(),
+                (double) (total - totalErros) / duracao.toSeconds());
+        System.out.printf("  Latência:    p50 %d ms | p90 %d ms | p99 %d ms | máx %d ms%n", percentil(total, 0.50),
+                percentil(total, 0.90), percentil(total, 0.99), percentil(total, 1.0));
+        if (!erros.isEmpty()) {
+            Map<String, Long> porTipo = new TreeMap<>();
+            erros.forEach((tipo, quantidade) -> porTipo.put(tipo, quantidade.sum()));
+            System.out.println("  Erros:       " + porTipo);
+        }
+    }
+
+    private long percentil(long total, double fracao) {
+        long alvo = Math.max(1, (long) Math.ceil(total * fracao));
+        long acumulado = 0;
+        for (int ms = 0; ms <= MAX_LATENCIA_MS; ms++) {
+            acumulado += latencias.get(ms);
+            if (acumulado >= alvo) {
+                return ms;
+            }
+        }
+        return 0;
+    }
+
+    private static String autenticar(HttpClient httpClient, String url, String login, String senha)
+            throws IOException, InterruptedException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create(url + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        objectMapper.writeValueAsString(Map.of("login", login, "senha", senha))))
+                .build();
+        HttpResponse<String> resposta = httpClient.send(requisicao, HttpResponse.BodyHandlers.ofString());
+        if (resposta.statusCode() != 200) {
+            throw new IllegalStateException("Falha no login de " + login + ": HTTP " + resposta.statusCode());
+        }
+        return objectMapper.readTree(resposta.body()).get("token").asText();
+    }
+
+    private static Map<String, String> lerOpcoes(String[] args) {
+        Map<String, String> opcoes = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Opção inválida: " + args[i] + " (use --chave valor)");
+            }
+            opcoes.put(args[i].substring(2), args[++i]);
+        }
+        return opcoes;
+    }
+}
@@ -0,0 +1,77 @@
+package com.thiagoamorimm.takeatask.security;
+
+import com.thiagoamorimm.takeatask.enums.PerfilUsuario;
+import com.thiagoamorimm.takeatask.model.Usuario;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo da validação de token no filtro de autenticação (tokens/s).
+ * Com o profile padrão (-prof gc) o relatório inclui gc.alloc.rate.norm,
+ * isto é, bytes alocados por validação.
+ *
+ * Execução: mvn -Pjmh test-compile exec:exec
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+
+    // Mesma chave usada pelo JwtUtil, para comparar com o parser construído a cada chamada
+    private static final SecretKey KEY = Keys.hmacShaKeyFor(
+            "sua-chave-secreta-muito-segura-e-longa-para-garantir-seguranca".getBytes());
+
+    private JwtUtil jwtUtil;
+    private String token;
+    private String tokenInvalido;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        Usuario usuario = new Usuario("Usuário Benchmark", "benchmark", "benchmark@takeatask.com", "senha123",
+                PerfilUsuario.USUARIO_PADRAO, "Analista", "11999999999", "TI");
+        usuario.setAtivo(true);
+        token = jwtUtil.generateToken(usuario);
+        // Altera um caractere no meio da assinatura (o último carrega bits de padding)
+        int posicao = token.length() - 5;
+        char trocado = token.charAt(posicao) == 'A' ? 'B' : 'A';
+        tokenInvalido = token.substring(0, posicao) + trocado + token.substring(posicao + 1);
+    }
+
+    @Benchmark
+    public Claims parseAndValidate() {
+        return jwtUtil.parseAndValidate(token);
+    }
+
+    @Benchmark
+    public Claims parseAndValidateAssinaturaInvalida() {
+        return jwtUtil.parseAndValidate(tokenInvalido);
+    }
+
+    // Referência: comportamento anterior, com um parser novo por requisição
+    @Benchmark
+    public Claims parserPorChamada() {
+        return Jwts.parserBuilder()
+                .setSigningKey(KEY)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
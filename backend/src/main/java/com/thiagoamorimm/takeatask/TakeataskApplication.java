@@ -1,6 +1,5 @@
 package com.thiagoamorimm.takeatask;
 
-import jakarta.annotation.PostConstruct;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
@@ -9,9 +8,9 @@ import java.util.TimeZone;
 @SpringBootApplication
 public class TakeataskApplication {
 
-	@PostConstruct
-	public void init() {
-		// Define o fuso horário padrão da JVM para America/Sao_Paulo
+	// Define o fuso horário padrão da JVM para America/Sao_Paulo. Na carga da classe, antes do
+	// contexto: o Hibernate guarda o relógio de @CreationTimestamp/@UpdateTimestamp ao subir
+	static {
 		TimeZone.setDefault(TimeZone.getTimeZone("America/Sao_Paulo"));
 	}
 
@@ -0,0 +1,57 @@
+package com.thiagoamorimm.takeatask.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Limita as requisições em processamento quando o Tomcat usa virtual threads.
+ *
+ * Com threads de plataforma o próprio pool do Tomcat (server.tomcat.threads.max) faz esse papel.
+ * Com virtual threads todas as conexões aceitas são processadas ao mesmo tempo: sob pico, a
+ * thread que já tem uma conexão do Hikari disputa CPU com milhares de outras e demora a
+ * devolvê-la, e as demais estouram o connection-timeout com o pool ocioso. Aqui a espera
+ * acontece antes de qualquer trabalho, em fila justa e sem ocupar threads de plataforma.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class LimiteRequisicoesFilter extends OncePerRequestFilter {
+
+    private final Semaphore permissoes;
+
+    public LimiteRequisicoesFilter(@Value("${requisicoes.max-simultaneas:200}") int maxSimultaneas) {
+        this.permissoes = new Semaphore(maxSimultaneas, true);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        try {
+            permissoes.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permissoes.release();
+        }
+    }
+}
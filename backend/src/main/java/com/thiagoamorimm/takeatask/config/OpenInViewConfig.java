@@ -0,0 +1,36 @@
+package com.thiagoamorimm.takeatask.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Open-in-view registrado aqui no lugar do automático (spring.jpa.open-in-view=false), para
+ * deixar de fora as requisições longas. Com o EntityManager aberto até o fim da requisição, a
+ * conexão usada na primeira consulta só volta ao pool no fim da resposta: um upload de vários
+ * GB ou uma assinatura do feed prenderiam uma conexão enquanto durassem.
+ */
+@Configuration
+public class OpenInViewConfig implements WebMvcConfigurer {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public OpenInViewConfig(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void addInterceptors(@NonNull InterceptorRegistry registry) {
+        OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+        interceptor.setEntityManagerFactory(entityManagerFactory);
+        registry.addWebRequestInterceptor(interceptor).excludePathPatterns(
+                "/api/tarefas/stream",
+                "/api/tarefas/*/anexos/conteudo",
+                "/api/tarefas/*/anexos/uploads/**",
+                "/api/tarefas/*/anexos/*/download",
+                "/api/tarefas/*/anexos/*/thumbnail");
+    }
+}
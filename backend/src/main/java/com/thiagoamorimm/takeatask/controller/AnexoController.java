@@ -1,7 +1,8 @@
 package com.thiagoamorimm.takeatask.controller;
 
 import com.thiagoamorimm.takeatask.dto.AnexoDTO;
-import com.thiagoamorimm.takeatask.exception.ResourceNotFoundException;
+import com.thiagoamorimm.takeatask.dto.UploadAnexoCreateDTO;
+import com.thiagoamorimm.takeatask.dto.UploadAnexoDTO;
 import com.thiagoamorimm.takeatask.model.Usuario; // Para simular usuário autenticado
 import com.thiagoamorimm.takeatask.service.AnexoService;
 import com.thiagoamorimm.takeatask.service.UsuarioService; // Para simular usuário autenticado
@@ -11,9 +12,10 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -72,6 +74,122 @@ public class AnexoController {
         }
     }
 
+    @Operation(summary = "Envia um anexo no corpo da requisição", description = "O corpo é o próprio arquivo, "
+            + "com o tipo em Content-Type, gravado direto no armazenamento enquanto o hash é calculado. "
+            + "Aceita Transfer-Encoding: chunked; com Content-Length, um corpo incompleto é recusado.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Anexo enviado com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Nome do arquivo ausente ou corpo incompleto"),
+            @ApiResponse(responseCode = "404", description = "Tarefa não encontrada ou sem permissão"),
+            @ApiResponse(responseCode = "413", description = "Arquivo acima do tamanho máximo"),
+            @ApiResponse(responseCode = "415", description = "Corpo de formulário; use o upload multipart")
+    })
+    @PostMapping("/conteudo")
+    public ResponseEntity<AnexoDTO> enviarConteudo(@PathVariable Long tarefaId,
+            @Parameter(description = "Nome do arquivo", required = true) @RequestParam String nomeArquivo,
+            HttpServletRequest request) throws IOException {
+        Usuario usuarioAutenticado = getUsuarioAutenticadoSimulado();
+        if (usuarioAutenticado == null)
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        if (!CorpoRequisicao.aceito(request))
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).build();
+
+        AnexoDTO anexoDTO = anexoService.receberAnexo(tarefaId, nomeArquivo, request.getContentType(),
+                request.getContentLengthLong(), CorpoRequisicao.canal(request), usuarioAutenticado);
+        return new ResponseEntity<>(anexoDTO, HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "Inicia um upload retomável", description = "Para arquivos grandes: as partes vão por "
+            + "PATCH em /uploads/{uploadId} e o anexo é criado em /uploads/{uploadId}/concluir.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Upload criado"),
+            @ApiResponse(responseCode = "400", description = "Dados inválidos"),
+            @ApiResponse(responseCode = "404", description = "Tarefa não encontrada ou sem permissão"),
+            @ApiResponse(responseCode = "413", description = "Arquivo acima do tamanho máximo")
+    })
+    @PostMapping("/uploads")
+    public ResponseEntity<UploadAnexoDTO> iniciarUpload(@PathVariable Long tarefaId,
+            @Valid @RequestBody UploadAnexoCreateDTO uploadAnexoCreateDTO) throws IOException {
+        Usuario usuarioAutenticado = getUsuarioAutenticadoSimulado();
+        if (usuarioAutenticado == null)
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+
+        UploadAnexoDTO upload = anexoService.iniciarUpload(tarefaId, uploadAnexoCreateDTO, usuarioAutenticado);
+        return new ResponseEntity<>(upload, HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "Consulta um upload retomável", description = "O campo recebido é o offset da próxima "
+            + "parte, inclusive depois de uma conexão interrompida.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Upload encontrado"),
+            @ApiResponse(responseCode = "404", description = "Upload não encontrado, expirado ou de outro usuário")
+    })
+    @GetMapping("/uploads/{uploadId}")
+    public ResponseEntity<UploadAnexoDTO> buscarUpload(@PathVariable Long tarefaId, @PathVariable String uploadId)
+            throws IOException {
+        Usuario usuarioAutenticado = getUsuarioAutenticadoSimulado();
+        if (usuarioAutenticado == null)
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+
+        return ResponseEntity.ok(anexoService.buscarUpload(tarefaId, uploadId, usuarioAutenticado));
+    }
+
+    @Operation(summary = "Envia uma parte de um upload retomável", description = "O corpo é a parte, gravada a "
+            + "partir de Upload-Offset, que deve ser igual ao recebido até aqui.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Parte gravada"),
+            @ApiResponse(responseCode = "404", description = "Upload não encontrado, expirado ou de outro usuário"),
+            @ApiResponse(responseCode = "409", description = "Offset diferente do recebido ou outra parte em envio"),
+            @ApiResponse(responseCode = "413", description = "Parte além do tamanho anunciado"),
+            @ApiResponse(responseCode = "415", description = "Corpo de formulário")
+    })
+    @PatchMapping("/uploads/{uploadId}")
+    public ResponseEntity<UploadAnexoDTO> enviarParteUpload(@PathVariable Long tarefaId, @PathVariable String uploadId,
+            @RequestHeader("Upload-Offset") long offset, HttpServletRequest request) throws IOException {
+        Usuario usuarioAutenticado = getUsuarioAutenticadoSimulado();
+        if (usuarioAutenticado == null)
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        if (!CorpoRequisicao.aceito(request))
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).build();
+
+        UploadAnexoDTO upload = anexoService.receberParteUpload(tarefaId, uploadId, offset,
+                CorpoRequisicao.canal(request), usuarioAutenticado);
+        return ResponseEntity.ok().header("Upload-Offset", String.valueOf(upload.getRecebido())).body(upload);
+    }
+
+    @Operation(summary = "Conclui um upload retomável, criando o anexo")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Anexo criado"),
+            @ApiResponse(responseCode = "404", description = "Upload não encontrado, expirado ou de outro usuário"),
+            @ApiResponse(responseCode = "409", description = "Upload incompleto ou recebendo uma parte")
+    })
+    @PostMapping("/uploads/{uploadId}/concluir")
+    public ResponseEntity<AnexoDTO> concluirUpload(@PathVariable Long tarefaId, @PathVariable String uploadId)
+            throws IOException {
+        Usuario usuarioAutenticado = getUsuarioAutenticadoSimulado();
+        if (usuarioAutenticado == null)
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+
+        return new ResponseEntity<>(anexoService.concluirUpload(tarefaId, uploadId, usuarioAutenticado),
+                HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "Cancela um upload retomável")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Upload cancelado"),
+            @ApiResponse(responseCode = "404", description = "Upload não encontrado, expirado ou de outro usuário")
+    })
+    @DeleteMapping("/uploads/{uploadId}")
+    public ResponseEntity<Void> cancelarUpload(@PathVariable Long tarefaId, @PathVariable String uploadId)
+            throws IOException {
+        Usuario usuarioAutenticado = getUsuarioAutenticadoSimulado();
+        if (usuarioAutenticado == null)
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+
+        anexoService.cancelarUpload(tarefaId, uploadId, usuarioAutenticado);
+        return ResponseEntity.noContent().build();
+    }
+
     @Operation(summary = "Busca um anexo pelo seu ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Anexo encontrado"),
@@ -133,44 +251,46 @@ public class AnexoController {
         }
     }
 
-    // Endpoint para download de arquivo pode ser adicionado aqui, retornando
-    // ResponseEntity<Resource>
-
-    @Operation(summary = "Baixa um anexo")
+    @Operation(summary = "Baixa um anexo", description = "Aceita Range (um intervalo) e If-Range para retomar "
+            + "downloads, e If-None-Match / If-Modified-Since para revalidar o cache.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Arquivo retornado com sucesso"),
-            @ApiResponse(responseCode = "404", description = "Anexo não encontrado ou sem permissão")
+            @ApiResponse(responseCode = "206", description = "Intervalo solicitado do arquivo"),
+            @ApiResponse(responseCode = "304", description = "Arquivo não mudou desde o ETag ou a data informados"),
+            @ApiResponse(responseCode = "404", description = "Anexo não encontrado ou sem permissão"),
+            @ApiResponse(responseCode = "416", description = "Intervalo fora do tamanho do arquivo")
     })
     @GetMapping("/{anexoId}/download")
-    public ResponseEntity<Resource> baixarAnexo(@PathVariable Long tarefaId, @PathVariable Long anexoId) {
+    public void baixarAnexo(@PathVariable Long tarefaId, @PathVariable Long anexoId, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
         Usuario usuarioAutenticado = getUsuarioAutenticadoSimulado();
         if (usuarioAutenticado == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            return;
         }
 
-        try {
-            // Primeiro, buscar metadados do anexo para Content-Type e nome do arquivo
-            AnexoDTO anexoDTO = anexoService.buscarAnexoPorId(anexoId, usuarioAutenticado);
-            if (!anexoDTO.getTarefaId().equals(tarefaId)) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).build(); // Anexo não pertence a esta tarefa
-            }
-
-            Resource resource = anexoService.baixarAnexo(anexoId, usuarioAutenticado);
-            String contentType = anexoDTO.getTipoArquivo();
-            if (contentType == null || contentType.isBlank()) {
-                contentType = "application/octet-stream"; // Tipo padrão
-            }
-
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION,
-                            "attachment; filename=\"" + anexoDTO.getNomeArquivo() + "\"")
-                    .body(resource);
-        } catch (IOException e) {
-            // Logar o erro
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        } catch (ResourceNotFoundException e) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        // Uma consulta traz os metadados e a permissão; o corpo sai direto do arquivo
+        EnvioArquivo.enviar(request, response, anexoService.baixarAnexo(tarefaId, anexoId, usuarioAutenticado));
+    }
+
+    @Operation(summary = "Miniatura de um anexo", description = "JPEG de até 320 pixels no maior lado, gerado em "
+            + "segundo plano para imagens e PDFs (primeira página). Disponível quando o anexo traz "
+            + "miniaturaDisponivel = true.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Miniatura retornada com sucesso"),
+            @ApiResponse(responseCode = "304", description = "Miniatura não mudou desde o ETag ou a data informados"),
+            @ApiResponse(responseCode = "404", description = "Anexo sem miniatura, não encontrado ou sem permissão")
+    })
+    @GetMapping("/{anexoId}/thumbnail")
+    public void baixarMiniatura(@PathVariable Long tarefaId, @PathVariable Long anexoId, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Usuario usuarioAutenticado = getUsuarioAutenticadoSimulado();
+        if (usuarioAutenticado == null) {
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            return;
         }
+
+        EnvioArquivo.enviar(request, response, anexoService.baixarMiniatura(tarefaId, anexoId, usuarioAutenticado),
+                true);
     }
 }
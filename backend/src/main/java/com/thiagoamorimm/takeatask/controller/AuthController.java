@@ -49,7 +49,7 @@ public class AuthController {
                 );
                 SecurityContextHolder.getContext().setAuthentication(authentication);
 
-                String jwt = jwtUtil.generateToken(loginRequest.getLogin());
+                String jwt = jwtUtil.generateToken(usuario);
                 
                 return ResponseEntity.ok(new JwtResponse(jwt, usuario.getNome(), usuario.getLogin(), 
                                       usuario.getPerfil() != null ? usuario.getPerfil().name() : "USUARIO_PADRAO"));
@@ -2,10 +2,12 @@ package com.thiagoamorimm.takeatask.controller;
 
 import com.thiagoamorimm.takeatask.dto.ComentarioCreateDTO;
 import com.thiagoamorimm.takeatask.dto.ComentarioDTO;
+import com.thiagoamorimm.takeatask.dto.PaginaCursorDTO;
 import com.thiagoamorimm.takeatask.model.Usuario; // Para simular usuário autenticado
 import com.thiagoamorimm.takeatask.service.ComentarioService;
 import com.thiagoamorimm.takeatask.service.UsuarioService; // Para simular usuário autenticado
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -79,17 +81,30 @@ public class ComentarioController {
         return ResponseEntity.ok(comentarioDTO);
     }
 
-    @Operation(summary = "Lista todos os comentários de uma tarefa específica")
+    @Operation(summary = "Lista os comentários de uma tarefa específica", description = "Com 'after', 'since' ou "
+            + "'limit' a resposta é uma página keyset: sem cursor, os mais recentes; 'after' continua para os mais "
+            + "antigos; 'since' (cursor de um comentário já recebido) traz só os mais novos, em ordem de criação. "
+            + "Sem esses parâmetros, a lista completa.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Lista de comentários retornada"),
+            @ApiResponse(responseCode = "200", description = "Lista ou página de comentários retornada"),
+            @ApiResponse(responseCode = "400", description = "Cursor inválido, ou 'after' e 'since' juntos"),
             @ApiResponse(responseCode = "404", description = "Tarefa não encontrada ou sem permissão")
     })
     @GetMapping
-    public ResponseEntity<List<ComentarioDTO>> listarComentariosPorTarefaId(@PathVariable Long tarefaId) {
+    public ResponseEntity<?> listarComentariosPorTarefaId(@PathVariable Long tarefaId,
+            @Parameter(description = "Cursor opaco (nextCursor da página anterior) para os comentários mais antigos") @RequestParam(required = false) String after,
+            @Parameter(description = "Cursor de um comentário já recebido: retorna só os mais novos que ele") @RequestParam(required = false) String since,
+            @Parameter(description = "Tamanho máximo da página (padrão 20, máximo 100)") @RequestParam(required = false) Integer limit) {
         Usuario usuarioAutenticado = getUsuarioAutenticadoSimulado();
         if (usuarioAutenticado == null)
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
 
+        if (after != null || since != null || limit != null) {
+            PaginaCursorDTO<ComentarioDTO> pagina = comentarioService.listarComentariosPaginados(tarefaId,
+                    usuarioAutenticado, after, since, limit);
+            return ResponseEntity.ok(pagina);
+        }
+
         List<ComentarioDTO> comentarios = comentarioService.listarComentariosPorTarefaId(tarefaId, usuarioAutenticado);
         return ResponseEntity.ok(comentarios);
     }
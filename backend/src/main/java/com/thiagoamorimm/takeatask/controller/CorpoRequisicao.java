@@ -0,0 +1,71 @@
+package com.thiagoamorimm.takeatask.controller;
+
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.catalina.connector.CoyoteInputStream;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Corpo cru da requisição como canal, para uploads gravados direto no disco. No Tomcat o
+ * CoyoteInputStream copia do buffer do conector para o ByteBuffer de quem lê; em outro container
+ * vale o Channels.newChannel, que passa por um byte[] intermediário.
+ */
+final class CorpoRequisicao {
+
+    private CorpoRequisicao() {
+    }
+
+    static ReadableByteChannel canal(HttpServletRequest request) throws IOException {
+        ServletInputStream entrada = request.getInputStream();
+        if (entrada instanceof CoyoteInputStream coyote) {
+            return new CanalCoyote(coyote);
+        }
+        return Channels.newChannel(entrada);
+    }
+
+    // Formulários são lidos pelo container ou pelo Spring como parâmetros e partes antes do
+    // controller: o corpo já não estaria disponível
+    static boolean aceito(HttpServletRequest request) {
+        if (request.getContentType() == null) {
+            return true;
+        }
+        try {
+            MediaType tipo = MediaType.parseMediaType(request.getContentType());
+            return !MediaType.APPLICATION_FORM_URLENCODED.includes(tipo) && !MediaType.MULTIPART_FORM_DATA.includes(tipo);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private record CanalCoyote(CoyoteInputStream entrada) implements ReadableByteChannel {
+
+        // O Tomcat devolve o buffer pronto para leitura (position no início dos bytes novos, limit
+        // no fim); aqui ele volta ao contrato de ReadableByteChannel, com position depois dos lidos
+        @Override
+        public int read(ByteBuffer destino) throws IOException {
+            int posicao = destino.position();
+            int limite = destino.limit();
+            int lidos = entrada.read(destino);
+            if (lidos > 0) {
+                destino.limit(limite).position(posicao + lidos);
+            }
+            return lidos;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            entrada.close();
+        }
+    }
+}
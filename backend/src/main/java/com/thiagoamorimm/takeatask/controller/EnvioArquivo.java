@@ -0,0 +1,144 @@
+package com.thiagoamorimm.takeatask.controller;
+
+import com.thiagoamorimm.takeatask.service.ArquivoAnexo;
+import com.thiagoamorimm.takeatask.service.VersaoRecurso;
+import com.thiagoamorimm.takeatask.storage.ConteudoBlob;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Envio do arquivo de um anexo com requisições condicionais e Range (RFC 9110).
+ *
+ * - If-None-Match / If-Modified-Since respondem 304 sem abrir o arquivo.
+ * - Um único intervalo em Range responde 206, desde que o If-Range (se enviado) ainda
+ *   corresponda à versão atual; senão vai o arquivo inteiro. Vários intervalos também recebem
+ *   o arquivo inteiro, o que a RFC permite e dispensa montar multipart/byteranges.
+ * - Conteúdo em arquivo local sai, no Tomcat, por sendfile: a thread da requisição termina
+ *   depois dos cabeçalhos e o conector copia do arquivo para o socket (FileChannel.transferTo),
+ *   sem passar pelo heap. Sem esse suporte (HTTPS no conector NIO, outro container) ou com
+ *   armazenamento remoto, a cópia é feita aqui pelo ConteudoBlob.
+ */
+final class EnvioArquivo {
+
+    // Atributos de requisição do conector do Tomcat, os mesmos que o DefaultServlet usa
+    private static final String SENDFILE_SUPORTADO = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_ARQUIVO = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIM = "org.apache.tomcat.sendfile.end";
+
+    // Abaixo disso copiar direto sai mais barato que repassar o arquivo ao poller (limite do DefaultServlet)
+    private static final long TAMANHO_MINIMO_SENDFILE = 48 * 1024;
+
+    private EnvioArquivo() {
+    }
+
+    static void enviar(HttpServletRequest request, HttpServletResponse response, ArquivoAnexo arquivo)
+            throws IOException {
+        enviar(request, response, arquivo, false);
+    }
+
+    // inline: exibido pelo navegador (miniaturas em <img>) em vez de oferecido para salvar
+    static void enviar(HttpServletRequest request, HttpServletResponse response, ArquivoAnexo arquivo,
+            boolean inline) throws IOException {
+        VersaoRecurso versao = arquivo.versao();
+        // Privado porque depende da permissão na tarefa; no-cache para que cada uso revalide
+        // (304 barato) e um acesso revogado não continue servido pelo cache
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        if (new ServletWebRequest(request, response).checkNotModified(versao.etag(), versao.ultimaAlteracaoEmMillis())) {
+            return;
+        }
+
+        ConteudoBlob conteudo = arquivo.conteudo();
+        long tamanho = conteudo.tamanho();
+        long inicio = 0;
+        long fim = tamanho - 1;
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && atendeIfRange(request, versao)) {
+            List<HttpRange> intervalos = intervalos(range);
+            if (intervalos.size() == 1) {
+                inicio = intervalos.get(0).getRangeStart(tamanho);
+                fim = intervalos.get(0).getRangeEnd(tamanho);
+                if (inicio >= tamanho || inicio > fim) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + tamanho);
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + inicio + "-" + fim + "/" + tamanho);
+            }
+        }
+
+        long quantidade = fim - inicio + 1;
+        response.setContentType(StringUtils.hasText(arquivo.tipoArquivo())
+                ? MediaType.parseMediaType(arquivo.tipoArquivo()).toString()
+                : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition(arquivo.nomeArquivo(), inline));
+        response.setContentLengthLong(quantidade);
+        if (quantidade == 0 || HttpMethod.HEAD.matches(request.getMethod())) {
+            return;
+        }
+
+        Optional<Path> arquivoLocal = conteudo.arquivoLocal();
+        if (arquivoLocal.isPresent() && quantidade >= TAMANHO_MINIMO_SENDFILE
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPORTADO))) {
+            request.setAttribute(SENDFILE_ARQUIVO, arquivoLocal.get().toString());
+            request.setAttribute(SENDFILE_INICIO, inicio);
+            request.setAttribute(SENDFILE_FIM, fim + 1); // Exclusivo
+            return;
+        }
+        conteudo.copiar(inicio, fim, response.getOutputStream());
+    }
+
+    // Nome fora de ASCII vai também em filename* (RFC 6266); os demais ficam só em filename, legível
+    private static String contentDisposition(String nomeArquivo, boolean inline) {
+        ContentDisposition.Builder builder = inline ? ContentDisposition.inline() : ContentDisposition.attachment();
+        if (StandardCharsets.US_ASCII.newEncoder().canEncode(nomeArquivo)) {
+            builder.filename(nomeArquivo);
+        } else {
+            builder.filename(nomeArquivo, StandardCharsets.UTF_8);
+        }
+        return builder.build().toString();
+    }
+
+    // If-Range (RFC 9110, 13.1.5): ETag comparado de forma forte, data comparada exatamente
+    private static boolean atendeIfRange(HttpServletRequest request, VersaoRecurso versao) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals('"' + versao.etag() + '"');
+        }
+        long ultimaAlteracao = versao.ultimaAlteracaoEmMillis();
+        try {
+            return ultimaAlteracao >= 0 && request.getDateHeader(HttpHeaders.IF_RANGE) == ultimaAlteracao / 1000 * 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // Range malformado é ignorado (arquivo inteiro), como manda a RFC
+    private static List<HttpRange> intervalos(String range) {
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+}
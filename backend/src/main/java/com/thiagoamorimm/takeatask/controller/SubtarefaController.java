@@ -3,6 +3,8 @@ package com.thiagoamorimm.takeatask.controller;
 import com.thiagoamorimm.takeatask.dto.SubtarefaCreateDTO;
 import com.thiagoamorimm.takeatask.dto.SubtarefaDTO;
 import com.thiagoamorimm.takeatask.dto.SubtarefaUpdateDTO;
+import com.thiagoamorimm.takeatask.model.Usuario;
+import com.thiagoamorimm.takeatask.security.UsuarioLogado;
 import com.thiagoamorimm.takeatask.service.SubtarefaService;
 import com.thiagoamorimm.takeatask.service.UsuarioService; // Para simular usuário autenticado
 import io.swagger.v3.oas.annotations.Operation;
@@ -23,10 +25,13 @@ import java.util.List;
 public class SubtarefaController {
 
     private final SubtarefaService subtarefaService;
+    private final UsuarioLogado usuarioLogado;
 
     @Autowired
-    public SubtarefaController(SubtarefaService subtarefaService, UsuarioService usuarioService) {
+    public SubtarefaController(SubtarefaService subtarefaService, UsuarioService usuarioService,
+            UsuarioLogado usuarioLogado) {
         this.subtarefaService = subtarefaService;
+        this.usuarioLogado = usuarioLogado;
     }
 
     @Operation(summary = "Cria uma nova subtarefa para uma tarefa específica")
@@ -38,13 +43,12 @@ public class SubtarefaController {
     @PostMapping
     public ResponseEntity<SubtarefaDTO> criarSubtarefa(@PathVariable Long tarefaId,
             @Valid @RequestBody SubtarefaCreateDTO subtarefaCreateDTO) {
-        // A lógica de permissão para criar subtarefa está em
-        // TarefaService/SubtarefaService
-        // (ex: só pode adicionar subtarefa se tiver acesso à tarefa principal)
-        // O usuário autenticado será pego no service, se necessário para definir
-        // responsável padrão.
-        // Aqui, o `tarefaId` já define o contexto.
-        SubtarefaDTO novaSubtarefa = subtarefaService.criarSubtarefa(subtarefaCreateDTO, tarefaId);
+        Usuario usuarioAutenticado = usuarioLogado.atual();
+        if (usuarioAutenticado == null)
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+
+        // Só pode adicionar subtarefa quem tem acesso à tarefa principal (verificado no service)
+        SubtarefaDTO novaSubtarefa = subtarefaService.criarSubtarefa(subtarefaCreateDTO, tarefaId, usuarioAutenticado);
         return new ResponseEntity<>(novaSubtarefa, HttpStatus.CREATED);
     }
 
@@ -56,8 +60,12 @@ public class SubtarefaController {
     @GetMapping("/{subtarefaId}")
     public ResponseEntity<SubtarefaDTO> buscarSubtarefaPorId(@PathVariable Long tarefaId,
             @PathVariable Long subtarefaId) {
+        Usuario usuarioAutenticado = usuarioLogado.atual();
+        if (usuarioAutenticado == null)
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+
         // A verificação de permissão da tarefa pai é feita no service
-        SubtarefaDTO subtarefaDTO = subtarefaService.buscarSubtarefaPorId(subtarefaId);
+        SubtarefaDTO subtarefaDTO = subtarefaService.buscarSubtarefaPorId(subtarefaId, usuarioAutenticado);
         // Adicionalmente, verificar se a subtarefa pertence à tarefaId do path
         if (!subtarefaDTO.getTarefaPrincipalId().equals(tarefaId)) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build(); // Ou bad request
@@ -72,8 +80,12 @@ public class SubtarefaController {
     })
     @GetMapping
     public ResponseEntity<List<SubtarefaDTO>> listarSubtarefasPorTarefaId(@PathVariable Long tarefaId) {
+        Usuario usuarioAutenticado = usuarioLogado.atual();
+        if (usuarioAutenticado == null)
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+
         // A verificação de permissão da tarefa pai é feita no service
-        List<SubtarefaDTO> subtarefas = subtarefaService.listarSubtarefasPorTarefaId(tarefaId);
+        List<SubtarefaDTO> subtarefas = subtarefaService.listarSubtarefasPorTarefaId(tarefaId, usuarioAutenticado);
         return ResponseEntity.ok(subtarefas);
     }
 
@@ -87,9 +99,14 @@ public class SubtarefaController {
     public ResponseEntity<SubtarefaDTO> atualizarSubtarefa(@PathVariable Long tarefaId,
             @PathVariable Long subtarefaId,
             @Valid @RequestBody SubtarefaUpdateDTO subtarefaUpdateDTO) {
+        Usuario usuarioAutenticado = usuarioLogado.atual();
+        if (usuarioAutenticado == null)
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+
         // Validações de permissão e se subtarefa pertence à tarefaId são feitas no
         // service
-        SubtarefaDTO subtarefaAtualizada = subtarefaService.atualizarSubtarefa(subtarefaId, subtarefaUpdateDTO);
+        SubtarefaDTO subtarefaAtualizada = subtarefaService.atualizarSubtarefa(subtarefaId, subtarefaUpdateDTO,
+                usuarioAutenticado);
         if (!subtarefaAtualizada.getTarefaPrincipalId().equals(tarefaId)) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build(); // Subtarefa não pertence a esta tarefa
         }
@@ -103,15 +120,19 @@ public class SubtarefaController {
     })
     @DeleteMapping("/{subtarefaId}")
     public ResponseEntity<Void> deletarSubtarefa(@PathVariable Long tarefaId, @PathVariable Long subtarefaId) {
+        Usuario usuarioAutenticado = usuarioLogado.atual();
+        if (usuarioAutenticado == null)
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+
         // Validações de permissão e se subtarefa pertence à tarefaId são feitas no
         // service
         // Primeiro, buscar a subtarefa para garantir que pertence à tarefaId antes de
         // deletar
-        SubtarefaDTO subtarefaDTO = subtarefaService.buscarSubtarefaPorId(subtarefaId);
+        SubtarefaDTO subtarefaDTO = subtarefaService.buscarSubtarefaPorId(subtarefaId, usuarioAutenticado);
         if (!subtarefaDTO.getTarefaPrincipalId().equals(tarefaId)) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
-        subtarefaService.deletarSubtarefa(subtarefaId);
+        subtarefaService.deletarSubtarefa(subtarefaId, usuarioAutenticado);
         return ResponseEntity.noContent().build();
     }
 }
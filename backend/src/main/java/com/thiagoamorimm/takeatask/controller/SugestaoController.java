@@ -0,0 +1,48 @@
+package com.thiagoamorimm.takeatask.controller;
+
+import com.thiagoamorimm.takeatask.dto.SugestoesDTO;
+import com.thiagoamorimm.takeatask.model.Usuario;
+import com.thiagoamorimm.takeatask.security.UsuarioLogado;
+import com.thiagoamorimm.takeatask.service.SugestaoService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/search")
+@Tag(name = "Pesquisa", description = "Sugestões para a caixa de busca instantânea")
+public class SugestaoController {
+
+    private final SugestaoService sugestaoService;
+    private final UsuarioLogado usuarioLogado;
+
+    @Autowired
+    public SugestaoController(SugestaoService sugestaoService, UsuarioLogado usuarioLogado) {
+        this.sugestaoService = sugestaoService;
+        this.usuarioLogado = usuarioLogado;
+    }
+
+    @Operation(summary = "Sugere tarefas, tags e usuários pelo prefixo digitado", description = "Servido de um índice em memória; tarefas respeitam as mesmas regras de visibilidade da listagem.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Sugestões retornadas")
+    })
+    @GetMapping("/suggest")
+    public ResponseEntity<SugestoesDTO> sugerir(
+            @Parameter(description = "Texto digitado; cada termo casa por prefixo, sem diferenciar acentos") @RequestParam String q,
+            @Parameter(description = "Máximo de sugestões por tipo (padrão 5, máximo 20)") @RequestParam(required = false) Integer limit) {
+        Usuario usuarioAutenticado = usuarioLogado.atual();
+        if (usuarioAutenticado == null)
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+
+        return ResponseEntity.ok(sugestaoService.sugerir(q, usuarioAutenticado, limit));
+    }
+}
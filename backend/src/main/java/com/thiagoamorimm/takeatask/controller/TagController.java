@@ -3,15 +3,18 @@ package com.thiagoamorimm.takeatask.controller;
 import com.thiagoamorimm.takeatask.dto.TagCreateDTO;
 import com.thiagoamorimm.takeatask.dto.TagDTO;
 import com.thiagoamorimm.takeatask.service.TagService;
+import com.thiagoamorimm.takeatask.service.VersaoRecurso;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -65,15 +68,20 @@ public class TagController {
         return ResponseEntity.ok(tagDTO);
     }
 
-    @Operation(summary = "Lista todas as tags")
+    @Operation(summary = "Lista todas as tags", description = "Responde com ETag e Last-Modified da coleção; retorna 304 se nenhuma tag mudou desde a versão informada.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Lista de tags retornada")
+            @ApiResponse(responseCode = "200", description = "Lista de tags retornada"),
+            @ApiResponse(responseCode = "304", description = "Nenhuma tag alterada")
     })
     @GetMapping
     public ResponseEntity<List<TagDTO>> listarTodasTags(
-            @RequestParam(required = false) String q) {
+            @RequestParam(required = false) String q, WebRequest webRequest) {
+        VersaoRecurso versao = tagService.versaoTags();
+        if (webRequest.checkNotModified(versao.etag(), versao.ultimaAlteracaoEmMillis())) {
+            return null;
+        }
         List<TagDTO> tags = tagService.listarTodasTags(q); // Passar o parâmetro de busca para o serviço
-        return ResponseEntity.ok(tags);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(tags);
     }
 
     @Operation(summary = "Atualiza uma tag existente")
@@ -1,13 +1,26 @@
 package com.thiagoamorimm.takeatask.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.thiagoamorimm.takeatask.dto.ImportacaoResultadoDTO;
+import com.thiagoamorimm.takeatask.dto.PaginaCursorDTO;
 import com.thiagoamorimm.takeatask.dto.TarefaCreateDTO;
 import com.thiagoamorimm.takeatask.dto.TarefaDTO;
+import com.thiagoamorimm.takeatask.dto.TarefaLoteResultadoDTO;
+import com.thiagoamorimm.takeatask.dto.TarefaLoteUpdateDTO;
+import com.thiagoamorimm.takeatask.dto.TarefaSummaryDTO;
 import com.thiagoamorimm.takeatask.dto.TarefaUpdateDTO;
+import com.thiagoamorimm.takeatask.enums.FormatoArquivo;
 import com.thiagoamorimm.takeatask.enums.PrioridadeTarefa;
 import com.thiagoamorimm.takeatask.enums.StatusTarefa;
+import com.thiagoamorimm.takeatask.exception.BadRequestException;
 import com.thiagoamorimm.takeatask.model.Usuario;
+import com.thiagoamorimm.takeatask.service.TarefaComVersao;
+import com.thiagoamorimm.takeatask.service.TarefaEventosBroadcaster;
+import com.thiagoamorimm.takeatask.service.TarefaExportador;
+import com.thiagoamorimm.takeatask.service.TarefaImportador;
 import com.thiagoamorimm.takeatask.service.TarefaService;
 import com.thiagoamorimm.takeatask.service.UsuarioService; // Para buscar o usuário "autenticado"
+import com.thiagoamorimm.takeatask.service.VersaoRecurso;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -16,12 +29,22 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Set;
 import com.thiagoamorimm.takeatask.dto.TarefaStatsDTO; // Adicionado
 
@@ -32,11 +55,19 @@ public class TarefaController {
 
     private final TarefaService tarefaService;
     private final UsuarioService usuarioService; // Simular obtenção do usuário autenticado
+    private final TarefaEventosBroadcaster tarefaEventosBroadcaster;
+    private final TarefaExportador tarefaExportador;
+    private final TarefaImportador tarefaImportador;
 
     @Autowired
-    public TarefaController(TarefaService tarefaService, UsuarioService usuarioService) {
+    public TarefaController(TarefaService tarefaService, UsuarioService usuarioService,
+            TarefaEventosBroadcaster tarefaEventosBroadcaster, TarefaExportador tarefaExportador,
+            TarefaImportador tarefaImportador) {
         this.tarefaService = tarefaService;
         this.usuarioService = usuarioService;
+        this.tarefaEventosBroadcaster = tarefaEventosBroadcaster;
+        this.tarefaExportador = tarefaExportador;
+        this.tarefaImportador = tarefaImportador;
     }
 
     // Método simulado para obter o usuário autenticado
@@ -85,6 +116,29 @@ public class TarefaController {
         return new ResponseEntity<>(novaTarefa, HttpStatus.CREATED);
     }
 
+    @Operation(summary = "Importa tarefas em massa a partir de CSV ou NDJSON", description = "Cada registro segue as regras de POST /api/tarefas. Registros inválidos são reportados individualmente sem interromper a importação; os válidos são gravados em lotes. CSV: cabeçalho com nome, descricao, status, prioridade, responsavelId, dataPrazo e tags (separadas por ';').")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Importação processada; veja 'erros' para registros rejeitados"),
+            @ApiResponse(responseCode = "400", description = "Arquivo sem o cabeçalho esperado"),
+            @ApiResponse(responseCode = "415", description = "Content-Type diferente de text/csv ou application/x-ndjson")
+    })
+    @PostMapping(value = "/bulk", consumes = { "text/csv", "application/x-ndjson" })
+    public ResponseEntity<ImportacaoResultadoDTO> importarTarefas(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream corpo) throws IOException {
+        Usuario usuarioAutenticado = getUsuarioAutenticadoSimulado();
+        if (usuarioAutenticado == null)
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+
+        MediaType tipo = MediaType.parseMediaType(contentType);
+        FormatoArquivo formato = tipo.isCompatibleWith(MediaType.parseMediaType(FormatoArquivo.CSV.getContentType()))
+                ? FormatoArquivo.CSV
+                : FormatoArquivo.NDJSON;
+        Charset charset = tipo.getCharset() != null ? tipo.getCharset() : StandardCharsets.UTF_8;
+
+        ImportacaoResultadoDTO resultado = tarefaImportador.importar(corpo, formato, charset, usuarioAutenticado);
+        return ResponseEntity.ok(resultado);
+    }
+
     @Operation(summary = "Obtém estatísticas das tarefas")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Estatísticas obtidas com sucesso"),
@@ -100,24 +154,49 @@ public class TarefaController {
         return ResponseEntity.ok(stats);
     }
 
-    @Operation(summary = "Busca uma tarefa pelo ID")
+    @Operation(summary = "Busca uma tarefa pelo ID", description = "Responde com ETag e Last-Modified; com If-None-Match/If-Modified-Since ainda válidos retorna 304 sem corpo.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Tarefa encontrada"),
+            @ApiResponse(responseCode = "304", description = "Tarefa não alterada desde a versão informada"),
             @ApiResponse(responseCode = "404", description = "Tarefa não encontrada ou sem permissão")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<TarefaDTO> buscarTarefaPorId(@PathVariable Long id) {
+    public ResponseEntity<TarefaDTO> buscarTarefaPorId(@PathVariable Long id, WebRequest webRequest) {
         Usuario usuarioAutenticado = getUsuarioAutenticadoSimulado();
         if (usuarioAutenticado == null)
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
 
+        // Versão lida antes do DTO: se a tarefa mudar entre as duas leituras, o cliente recebe
+        // dados mais novos com o ETag antigo e apenas deixa de ganhar um 304 na próxima vez
+        VersaoRecurso versao = tarefaService.versaoTarefa(id, usuarioAutenticado);
+        if (webRequest.checkNotModified(versao.etag(), versao.ultimaAlteracaoEmMillis())) {
+            return null; // 304 já preparado pelo checkNotModified
+        }
         TarefaDTO tarefaDTO = tarefaService.buscarTarefaPorId(id, usuarioAutenticado);
-        return ResponseEntity.ok(tarefaDTO);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(tarefaDTO);
+    }
+
+    @Operation(summary = "Acompanha alterações de tarefas em tempo real (Server-Sent Events)", description = "Eventos "
+            + "'tarefa' com {tipo, tarefaId, comentarioId} para criação, alteração, remoção e comentários das tarefas "
+            + "visíveis ao usuário, enviados após o commit. Um evento 'descartados' indica que o cliente ficou para "
+            + "trás e perdeu eventos: recarregue a listagem. Eventos ocorridos enquanto desconectado não são "
+            + "reenviados na reconexão.")
+    @ApiResponse(responseCode = "200", description = "Fluxo text/event-stream aberto")
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> acompanharTarefas() {
+        Usuario usuarioAutenticado = getUsuarioAutenticadoSimulado();
+        if (usuarioAutenticado == null)
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .header("X-Accel-Buffering", "no") // Sem buffer em proxies nginx
+                .body(tarefaEventosBroadcaster.assinar(usuarioAutenticado));
     }
 
-    @Operation(summary = "Lista tarefas com filtros e pesquisa por palavra-chave")
+    @Operation(summary = "Lista tarefas com filtros e pesquisa por palavra-chave", description = "Resposta sempre paginada (keyset): sem 'limit', páginas de 20 tarefas; siga nextCursor em 'after' para as próximas.")
     @GetMapping
-    public ResponseEntity<List<TarefaDTO>> listarTarefas(
+    public ResponseEntity<?> listarTarefas(
             @Parameter(description = "Filtrar por status da tarefa") @RequestParam(required = false) StatusTarefa status,
             @Parameter(description = "Filtrar por prioridade da tarefa") @RequestParam(required = false) PrioridadeTarefa prioridade,
             @Parameter(description = "Filtrar pelo ID do responsável") @RequestParam(required = false) Long responsavelId,
@@ -125,50 +204,149 @@ public class TarefaController {
             @Parameter(description = "Data de fim para filtro de prazo (formato YYYY-MM-DDTHH:mm:ss)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dataPrazoFim,
             @Parameter(description = "Filtrar por IDs de tags (separados por vírgula)") @RequestParam(required = false) Set<Long> tagIds,
             @Parameter(description = "Palavra-chave para busca no nome ou descrição") @RequestParam(required = false) String q,
-            @Parameter(description = "Tipo de filtro de tarefas (minhas, equipe, todas)") @RequestParam(required = false, defaultValue = "todas") String tipo) {
+            @Parameter(description = "Tipo de filtro de tarefas (minhas, equipe, todas)") @RequestParam(required = false, defaultValue = "todas") String tipo,
+            @Parameter(description = "Cursor opaco (nextCursor da página anterior) para paginação keyset") @RequestParam(required = false) String after,
+            @Parameter(description = "Tamanho máximo da página (padrão 20, máximo 100)") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Formato da resposta: 'summary' retorna a visão resumida, sempre paginada") @RequestParam(required = false) String view) {
 
         Usuario usuarioAutenticado = getUsuarioAutenticadoSimulado();
         if (usuarioAutenticado == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        // A lógica de filtragem por 'tipo' e 'q' (keyword) será movida para o
-        // TarefaService
-        List<TarefaDTO> tarefas = tarefaService.listarTarefasFiltradas(
+        if ("summary".equalsIgnoreCase(view)) {
+            PaginaCursorDTO<TarefaSummaryDTO> resumos = tarefaService.listarResumosPaginados(
+                    usuarioAutenticado, status, prioridade, responsavelId,
+                    dataPrazoInicio, dataPrazoFim, tagIds, q, tipo, after, limit);
+            return ResponseEntity.ok(resumos);
+        }
+
+        // Sempre uma página keyset: a lista completa de 'todas' não cabe na memória
+        PaginaCursorDTO<TarefaDTO> pagina = tarefaService.listarTarefasPaginadas(
                 usuarioAutenticado, status, prioridade, responsavelId,
-                dataPrazoInicio, dataPrazoFim, tagIds, q, tipo);
-        return ResponseEntity.ok(tarefas);
+                dataPrazoInicio, dataPrazoFim, tagIds, q, tipo, after, limit);
+        return ResponseEntity.ok(pagina);
+    }
+
+    @Operation(summary = "Exporta as tarefas em CSV ou NDJSON", description = "Aplica os mesmos filtros e permissões da listagem. As linhas são enviadas à medida que são lidas do banco, sem montar a lista completa em memória.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exportação iniciada"),
+            @ApiResponse(responseCode = "400", description = "Formato ou filtros inválidos")
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportarTarefas(
+            @Parameter(description = "Formato do arquivo (csv ou ndjson)") @RequestParam(required = false, defaultValue = "csv") String format,
+            @Parameter(description = "Filtrar por status da tarefa") @RequestParam(required = false) StatusTarefa status,
+            @Parameter(description = "Filtrar por prioridade da tarefa") @RequestParam(required = false) PrioridadeTarefa prioridade,
+            @Parameter(description = "Filtrar pelo ID do responsável") @RequestParam(required = false) Long responsavelId,
+            @Parameter(description = "Data de início para filtro de prazo (formato YYYY-MM-DDTHH:mm:ss)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dataPrazoInicio,
+            @Parameter(description = "Data de fim para filtro de prazo (formato YYYY-MM-DDTHH:mm:ss)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dataPrazoFim,
+            @Parameter(description = "Filtrar por IDs de tags (separados por vírgula)") @RequestParam(required = false) Set<Long> tagIds,
+            @Parameter(description = "Palavra-chave para busca no nome ou descrição") @RequestParam(required = false) String q,
+            @Parameter(description = "Tipo de filtro de tarefas (minhas, equipe, todas)") @RequestParam(required = false, defaultValue = "todas") String tipo) {
+
+        Usuario usuarioAutenticado = getUsuarioAutenticadoSimulado();
+        if (usuarioAutenticado == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        FormatoArquivo formato;
+        try {
+            formato = FormatoArquivo.valueOf(format.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Formato de exportação inválido: '" + format + "'. Use csv ou ndjson.");
+        }
+
+        StreamingResponseBody corpo = tarefaExportador.exportar(usuarioAutenticado, status, prioridade,
+                responsavelId, dataPrazoInicio, dataPrazoFim, tagIds, q, tipo, formato);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formato.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("tarefas." + formato.getExtensao()).build().toString())
+                .body(corpo);
     }
 
     // O endpoint /pesquisar pode ser removido se a funcionalidade for totalmente
     // incorporada em /api/tarefas
     // Por enquanto, vou mantê-lo, mas a ideia é centralizar no GET /api/tarefas
-    @Operation(summary = "Pesquisa tarefas por palavra-chave (alternativo)")
+    @Operation(summary = "Pesquisa tarefas por palavra-chave (alternativo)", description = "No PostgreSQL usa busca textual em nome, descrição e comentários, com casamento por prefixo e resultados ordenados por relevância. Resposta paginada como em GET /api/tarefas.")
     @GetMapping("/pesquisar")
-    public ResponseEntity<List<TarefaDTO>> pesquisarTarefas(@RequestParam String keyword) {
+    public ResponseEntity<PaginaCursorDTO<TarefaDTO>> pesquisarTarefas(@RequestParam String keyword,
+            @Parameter(description = "Cursor opaco (nextCursor da página anterior) para paginação keyset") @RequestParam(required = false) String after,
+            @Parameter(description = "Tamanho máximo da página (padrão 20, máximo 100)") @RequestParam(required = false) Integer limit) {
         Usuario usuarioAutenticado = getUsuarioAutenticadoSimulado();
         if (usuarioAutenticado == null)
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
 
-        List<TarefaDTO> tarefas = tarefaService.pesquisarTarefas(keyword, usuarioAutenticado);
-        return ResponseEntity.ok(tarefas);
+        return ResponseEntity.ok(tarefaService.pesquisarTarefasPaginadas(keyword, usuarioAutenticado, after, limit));
     }
 
-    @Operation(summary = "Atualiza uma tarefa existente")
+    @Operation(summary = "Atualiza uma tarefa existente", description = "Campos nulos são mantidos. Com If-Match "
+            + "(ETag de GET /api/tarefas/{id}), a alteração só é aplicada se a tarefa não mudou desde aquela leitura. "
+            + "A resposta traz o novo ETag.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Tarefa atualizada com sucesso"),
             @ApiResponse(responseCode = "400", description = "Requisição inválida"),
-            @ApiResponse(responseCode = "404", description = "Tarefa não encontrada ou sem permissão")
+            @ApiResponse(responseCode = "404", description = "Tarefa não encontrada ou sem permissão"),
+            @ApiResponse(responseCode = "409", description = "Tarefa alterada por outra requisição durante a gravação"),
+            @ApiResponse(responseCode = "412", description = "If-Match não corresponde à versão atual da tarefa")
     })
     @PutMapping("/{id}")
     public ResponseEntity<TarefaDTO> atualizarTarefa(@PathVariable Long id,
-            @Valid @RequestBody TarefaUpdateDTO tarefaUpdateDTO) {
+            @Valid @RequestBody TarefaUpdateDTO tarefaUpdateDTO,
+            @Parameter(description = "ETag obtido na leitura da tarefa") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Usuario usuarioAutenticado = getUsuarioAutenticadoSimulado();
+        if (usuarioAutenticado == null)
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+
+        return respostaComVersao(tarefaService.atualizarTarefa(id, tarefaUpdateDTO, ifMatch, usuarioAutenticado));
+    }
+
+    @Operation(summary = "Altera campos de uma tarefa (JSON Merge Patch)", description = "Corpo "
+            + "application/merge-patch+json (RFC 7396): só os campos enviados mudam e null remove descricao, "
+            + "responsavelId, dataPrazo ou tags. O UPDATE grava apenas as colunas alteradas. Aceita If-Match "
+            + "como o PUT.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tarefa atualizada com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Patch inválido, vazio ou sem permissão"),
+            @ApiResponse(responseCode = "404", description = "Tarefa não encontrada ou sem permissão"),
+            @ApiResponse(responseCode = "409", description = "Tarefa alterada por outra requisição durante a gravação"),
+            @ApiResponse(responseCode = "412", description = "If-Match não corresponde à versão atual da tarefa")
+    })
+    @PatchMapping(value = "/{id}", consumes = "application/merge-patch+json")
+    public ResponseEntity<TarefaDTO> aplicarMergePatch(@PathVariable Long id, @RequestBody JsonNode patch,
+            @Parameter(description = "ETag obtido na leitura da tarefa") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Usuario usuarioAutenticado = getUsuarioAutenticadoSimulado();
+        if (usuarioAutenticado == null)
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+
+        return respostaComVersao(tarefaService.aplicarMergePatch(id, patch, ifMatch, usuarioAutenticado));
+    }
+
+    private ResponseEntity<TarefaDTO> respostaComVersao(TarefaComVersao resultado) {
+        return ResponseEntity.ok()
+                .eTag(resultado.versao().etag())
+                .lastModified(resultado.versao().ultimaAlteracaoEmMillis())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(resultado.tarefa());
+    }
+
+    @Operation(summary = "Atualiza várias tarefas de uma vez", description = "Aplica as mesmas alterações às tarefas "
+            + "informadas em 'ids' ou selecionadas por 'filtro' (máximo de 1000). A operação é atômica: se alguma "
+            + "tarefa não existir ou não puder ser modificada pelo usuário, nenhuma é alterada.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tarefas atualizadas com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Requisição inválida ou sem permissão"),
+            @ApiResponse(responseCode = "404", description = "Tarefa ou responsável não encontrado")
+    })
+    @PatchMapping("/batch")
+    public ResponseEntity<TarefaLoteResultadoDTO> atualizarTarefasEmLote(
+            @Valid @RequestBody TarefaLoteUpdateDTO tarefaLoteUpdateDTO) {
         Usuario usuarioAutenticado = getUsuarioAutenticadoSimulado();
         if (usuarioAutenticado == null)
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
 
-        TarefaDTO tarefaAtualizada = tarefaService.atualizarTarefa(id, tarefaUpdateDTO, usuarioAutenticado);
-        return ResponseEntity.ok(tarefaAtualizada);
+        return ResponseEntity.ok(tarefaService.atualizarTarefasEmLote(tarefaLoteUpdateDTO, usuarioAutenticado));
     }
 
     @Operation(summary = "Deleta uma tarefa")
@@ -4,15 +4,18 @@ import com.thiagoamorimm.takeatask.dto.UsuarioCreateDTO;
 import com.thiagoamorimm.takeatask.dto.UsuarioDTO;
 import com.thiagoamorimm.takeatask.dto.UsuarioUpdateDTO;
 import com.thiagoamorimm.takeatask.service.UsuarioService;
+import com.thiagoamorimm.takeatask.service.VersaoRecurso;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -66,16 +69,21 @@ public class UsuarioController {
         return ResponseEntity.ok(usuarioDTO);
     }
 
-    @Operation(summary = "Lista todos os usuários")
+    @Operation(summary = "Lista todos os usuários", description = "Responde com ETag e Last-Modified da coleção; retorna 304 se nenhum usuário mudou desde a versão informada.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Lista de usuários retornada")
+            @ApiResponse(responseCode = "200", description = "Lista de usuários retornada"),
+            @ApiResponse(responseCode = "304", description = "Nenhum usuário alterado")
     })
     @GetMapping
     public ResponseEntity<List<UsuarioDTO>> listarTodosUsuarios(
-            @RequestParam(required = false) String q) {
+            @RequestParam(required = false) String q, WebRequest webRequest) {
         // Geralmente restrito a administradores
+        VersaoRecurso versao = usuarioService.versaoUsuarios();
+        if (webRequest.checkNotModified(versao.etag(), versao.ultimaAlteracaoEmMillis())) {
+            return null;
+        }
         List<UsuarioDTO> usuarios = usuarioService.listarTodosUsuarios(q); // Passar o parâmetro de busca
-        return ResponseEntity.ok(usuarios);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(usuarios);
     }
 
     @Operation(summary = "Atualiza um usuário existente")
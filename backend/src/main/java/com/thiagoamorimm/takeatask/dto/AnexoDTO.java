@@ -17,6 +17,7 @@ public class AnexoDTO {
     private Long usuarioUploadId;
     private String nomeUsuarioUpload;
     private LocalDateTime dataUpload;
+    private boolean miniaturaDisponivel; // Em GET /api/tarefas/{tarefaId}/anexos/{id}/thumbnail
 
     public AnexoDTO(Long id, String nomeArquivo, String tipoArquivo, Long tamanhoArquivo, String caminhoArquivo,
             Long tarefaId, Long usuarioUploadId, String nomeUsuarioUpload, LocalDateTime dataUpload) {
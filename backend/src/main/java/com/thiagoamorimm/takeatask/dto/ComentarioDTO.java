@@ -15,6 +15,7 @@ public class ComentarioDTO {
     private String nomeAutor;
     private LocalDateTime dataCriacao;
     private LocalDateTime dataAtualizacao;
+    private String cursor; // Posição do comentário para ?after= e ?since= em GET .../comentarios
 
     public ComentarioDTO(Long id, String texto, Long tarefaId, Long autorId, String nomeAutor,
             LocalDateTime dataCriacao, LocalDateTime dataAtualizacao) {
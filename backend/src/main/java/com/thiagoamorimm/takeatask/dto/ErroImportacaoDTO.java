@@ -0,0 +1,16 @@
+package com.thiagoamorimm.takeatask.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class ErroImportacaoDTO {
+    private int linha; // Linha do arquivo (a partir de 1) em que o registro começa
+    private String mensagem;
+
+    public ErroImportacaoDTO(int linha, String mensagem) {
+        this.linha = linha;
+        this.mensagem = mensagem;
+    }
+}
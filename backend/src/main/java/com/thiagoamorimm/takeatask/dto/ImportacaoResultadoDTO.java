@@ -0,0 +1,23 @@
+package com.thiagoamorimm.takeatask.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ImportacaoResultadoDTO {
+    private int totalLinhas;
+    private int importadas;
+    private int falhas;
+    private List<ErroImportacaoDTO> erros = new ArrayList<>(); // Limitada; 'falhas' traz o total
+
+    public ImportacaoResultadoDTO(int totalLinhas, int importadas, int falhas, List<ErroImportacaoDTO> erros) {
+        this.totalLinhas = totalLinhas;
+        this.importadas = importadas;
+        this.falhas = falhas;
+        this.erros = erros;
+    }
+}
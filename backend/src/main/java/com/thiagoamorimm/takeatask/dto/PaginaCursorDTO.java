@@ -0,0 +1,22 @@
+package com.thiagoamorimm.takeatask.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class PaginaCursorDTO<T> {
+    private List<T> itens;
+    private String nextCursor; // Nulo quando não há próxima página
+    private boolean hasMore;
+    private int limit;
+
+    public PaginaCursorDTO(List<T> itens, String nextCursor, boolean hasMore, int limit) {
+        this.itens = itens;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+        this.limit = limit;
+    }
+}
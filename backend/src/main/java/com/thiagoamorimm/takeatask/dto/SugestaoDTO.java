@@ -0,0 +1,18 @@
+package com.thiagoamorimm.takeatask.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class SugestaoDTO {
+    private Long id;
+    private String texto; // Nome da tarefa/tag/usuário
+    private String detalhe; // Login do usuário, cor da tag; nulo para tarefas
+
+    public SugestaoDTO(Long id, String texto, String detalhe) {
+        this.id = id;
+        this.texto = texto;
+        this.detalhe = detalhe;
+    }
+}
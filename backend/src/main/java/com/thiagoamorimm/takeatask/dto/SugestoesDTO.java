@@ -0,0 +1,21 @@
+package com.thiagoamorimm.takeatask.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class SugestoesDTO {
+    private List<SugestaoDTO> tarefas = new ArrayList<>();
+    private List<SugestaoDTO> tags = new ArrayList<>();
+    private List<SugestaoDTO> usuarios = new ArrayList<>();
+
+    public SugestoesDTO(List<SugestaoDTO> tarefas, List<SugestaoDTO> tags, List<SugestaoDTO> usuarios) {
+        this.tarefas = tarefas;
+        this.tags = tags;
+        this.usuarios = usuarios;
+    }
+}
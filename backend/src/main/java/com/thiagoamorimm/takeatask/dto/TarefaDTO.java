@@ -26,7 +26,8 @@ public class TarefaDTO {
     private LocalDateTime dataPrazo;
     private Set<TagDTO> tags;
     private List<AnexoDTO> anexos;
-    private List<ComentarioDTO> comentarios;
+    private List<ComentarioDTO> comentarios; // Só os mais recentes; os demais em GET .../comentarios
+    private long totalComentarios;
     // Histórico de Alterações pode ser um DTO separado se necessário
 
     public TarefaDTO(Long id, String nome, String descricao, StatusTarefa status, PrioridadeTarefa prioridade,
@@ -0,0 +1,21 @@
+package com.thiagoamorimm.takeatask.dto;
+
+import com.thiagoamorimm.takeatask.enums.TipoAlteracaoTarefa;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Dados de um evento "tarefa" de GET /api/tarefas/stream. Só identifica o que mudou: o cliente
+// relê a tarefa em GET /api/tarefas/{id}, que com If-None-Match custa um 304 quando nada mudou
+@Data
+@NoArgsConstructor
+public class TarefaEventoDTO {
+    private TipoAlteracaoTarefa tipo;
+    private Long tarefaId;
+    private Long comentarioId; // Apenas em COMENTARIO_ADICIONADO e COMENTARIO_REMOVIDO
+
+    public TarefaEventoDTO(TipoAlteracaoTarefa tipo, Long tarefaId, Long comentarioId) {
+        this.tipo = tipo;
+        this.tarefaId = tarefaId;
+        this.comentarioId = comentarioId;
+    }
+}
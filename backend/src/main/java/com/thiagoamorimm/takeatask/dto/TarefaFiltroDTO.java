@@ -0,0 +1,35 @@
+package com.thiagoamorimm.takeatask.dto;
+
+import com.thiagoamorimm.takeatask.enums.PrioridadeTarefa;
+import com.thiagoamorimm.takeatask.enums.StatusTarefa;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+// Mesmos filtros de GET /api/tarefas, para operações que selecionam tarefas no corpo da requisição
+@Data
+@NoArgsConstructor
+public class TarefaFiltroDTO {
+    private StatusTarefa status;
+    private PrioridadeTarefa prioridade;
+    private Long responsavelId;
+    private LocalDateTime dataPrazoInicio;
+    private LocalDateTime dataPrazoFim;
+    private Set<Long> tagIds;
+    private String q;
+    private String tipo; // minhas, equipe, todas (padrão)
+
+    public TarefaFiltroDTO(StatusTarefa status, PrioridadeTarefa prioridade, Long responsavelId,
+            LocalDateTime dataPrazoInicio, LocalDateTime dataPrazoFim, Set<Long> tagIds, String q, String tipo) {
+        this.status = status;
+        this.prioridade = prioridade;
+        this.responsavelId = responsavelId;
+        this.dataPrazoInicio = dataPrazoInicio;
+        this.dataPrazoFim = dataPrazoFim;
+        this.tagIds = tagIds;
+        this.q = q;
+        this.tipo = tipo;
+    }
+}
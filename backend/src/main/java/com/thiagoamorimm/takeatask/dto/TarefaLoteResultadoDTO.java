@@ -0,0 +1,18 @@
+package com.thiagoamorimm.takeatask.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class TarefaLoteResultadoDTO {
+    private int atualizadas;
+    private List<Long> ids;
+
+    public TarefaLoteResultadoDTO(int atualizadas, List<Long> ids) {
+        this.atualizadas = atualizadas;
+        this.ids = ids;
+    }
+}
@@ -0,0 +1,27 @@
+package com.thiagoamorimm.takeatask.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+public class TarefaLoteUpdateDTO {
+
+    private Set<Long> ids; // Informe 'ids' ou 'filtro'
+
+    private TarefaFiltroDTO filtro;
+
+    @Valid
+    @NotNull(message = "As alterações são obrigatórias.")
+    private TarefaUpdateDTO alteracoes; // Apenas os campos não nulos são aplicados
+
+    public TarefaLoteUpdateDTO(Set<Long> ids, TarefaFiltroDTO filtro, TarefaUpdateDTO alteracoes) {
+        this.ids = ids;
+        this.filtro = filtro;
+        this.alteracoes = alteracoes;
+    }
+}
@@ -1,10 +1,18 @@
 package com.thiagoamorimm.takeatask.dto;
 
+import com.thiagoamorimm.takeatask.enums.PrioridadeTarefa;
+import com.thiagoamorimm.takeatask.enums.StatusTarefa;
+
+import java.util.EnumMap;
+import java.util.Map;
+
 public class TarefaStatsDTO {
     private long totalTarefas;
     private long tarefasConcluidas;
     private long tarefasEmAndamento;
     private long tarefasAtrasadas;
+    private Map<StatusTarefa, Long> porStatus = new EnumMap<>(StatusTarefa.class);
+    private Map<PrioridadeTarefa, Long> porPrioridade = new EnumMap<>(PrioridadeTarefa.class);
 
     // Construtor padrão (necessário para algumas bibliotecas de
     // serialização/deserialização)
@@ -50,4 +58,36 @@ public class TarefaStatsDTO {
     public void setTarefasAtrasadas(long tarefasAtrasadas) {
         this.tarefasAtrasadas = tarefasAtrasadas;
     }
+
+    public Map<StatusTarefa, Long> getPorStatus() {
+        return porStatus;
+    }
+
+    public void setPorStatus(Map<StatusTarefa, Long> porStatus) {
+        this.porStatus = porStatus;
+    }
+
+    public Map<PrioridadeTarefa, Long> getPorPrioridade() {
+        return porPrioridade;
+    }
+
+    public void setPorPrioridade(Map<PrioridadeTarefa, Long> porPrioridade) {
+        this.porPrioridade = porPrioridade;
+    }
+
+    // Soma um bucket (status, prioridade) aos totais e às distribuições
+    public void acumular(StatusTarefa status, PrioridadeTarefa prioridade, long quantidade) {
+        totalTarefas += quantidade;
+        if (status == StatusTarefa.CONCLUIDA) {
+            tarefasConcluidas += quantidade;
+        } else if (status == StatusTarefa.EM_ANDAMENTO) {
+            tarefasEmAndamento += quantidade;
+        }
+        if (status != null) {
+            porStatus.merge(status, quantidade, Long::sum);
+        }
+        if (prioridade != null) {
+            porPrioridade.merge(prioridade, quantidade, Long::sum);
+        }
+    }
 }
@@ -0,0 +1,45 @@
+package com.thiagoamorimm.takeatask.dto;
+
+import com.thiagoamorimm.takeatask.enums.PrioridadeTarefa;
+import com.thiagoamorimm.takeatask.enums.StatusTarefa;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+// Visão resumida para listagens (?view=summary): sem descrição, anexos ou comentários,
+// apenas os contadores
+@Data
+@NoArgsConstructor
+public class TarefaSummaryDTO {
+    private Long id;
+    private String nome;
+    private StatusTarefa status;
+    private PrioridadeTarefa prioridade;
+    private LocalDateTime dataPrazo;
+    private LocalDateTime dataCriacao;
+    private Long responsavelId;
+    private String nomeResponsavel;
+    private Set<Long> tagIds;
+    private long quantidadeAnexos;
+    private long quantidadeComentarios;
+    private long quantidadeSubtarefas;
+
+    // Usado pela projeção por construtor em TarefaRepositoryCustomImpl (tagIds é preenchido à parte)
+    public TarefaSummaryDTO(Long id, String nome, StatusTarefa status, PrioridadeTarefa prioridade,
+            LocalDateTime dataPrazo, LocalDateTime dataCriacao, Long responsavelId, String nomeResponsavel,
+            Long quantidadeAnexos, Long quantidadeComentarios, Long quantidadeSubtarefas) {
+        this.id = id;
+        this.nome = nome;
+        this.status = status;
+        this.prioridade = prioridade;
+        this.dataPrazo = dataPrazo;
+        this.dataCriacao = dataCriacao;
+        this.responsavelId = responsavelId;
+        this.nomeResponsavel = nomeResponsavel;
+        this.quantidadeAnexos = quantidadeAnexos != null ? quantidadeAnexos : 0;
+        this.quantidadeComentarios = quantidadeComentarios != null ? quantidadeComentarios : 0;
+        this.quantidadeSubtarefas = quantidadeSubtarefas != null ? quantidadeSubtarefas : 0;
+    }
+}
@@ -0,0 +1,30 @@
+package com.thiagoamorimm.takeatask.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class UploadAnexoCreateDTO {
+
+    @NotBlank(message = "O nome do arquivo é obrigatório.")
+    @Size(max = 255, message = "O nome do arquivo deve ter no máximo 255 caracteres.")
+    private String nomeArquivo;
+
+    @Size(max = 100, message = "O tipo do arquivo deve ter no máximo 100 caracteres.")
+    private String tipoArquivo; // Sem tipo, application/octet-stream
+
+    @NotNull(message = "O tamanho do arquivo é obrigatório.")
+    @PositiveOrZero(message = "O tamanho do arquivo não pode ser negativo.")
+    private Long tamanhoArquivo; // Total em bytes; as partes são aceitas até completá-lo
+
+    public UploadAnexoCreateDTO(String nomeArquivo, String tipoArquivo, Long tamanhoArquivo) {
+        this.nomeArquivo = nomeArquivo;
+        this.tipoArquivo = tipoArquivo;
+        this.tamanhoArquivo = tamanhoArquivo;
+    }
+}
@@ -0,0 +1,29 @@
+package com.thiagoamorimm.takeatask.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+public class UploadAnexoDTO {
+    private String id;
+    private Long tarefaId;
+    private String nomeArquivo;
+    private String tipoArquivo;
+    private Long tamanhoArquivo;
+    private Long recebido; // Bytes já gravados: offset da próxima parte
+    private LocalDateTime dataCriacao;
+
+    public UploadAnexoDTO(String id, Long tarefaId, String nomeArquivo, String tipoArquivo, Long tamanhoArquivo,
+            Long recebido, LocalDateTime dataCriacao) {
+        this.id = id;
+        this.tarefaId = tarefaId;
+        this.nomeArquivo = nomeArquivo;
+        this.tipoArquivo = tipoArquivo;
+        this.tamanhoArquivo = tamanhoArquivo;
+        this.recebido = recebido;
+        this.dataCriacao = dataCriacao;
+    }
+}
@@ -0,0 +1,18 @@
+package com.thiagoamorimm.takeatask.enums;
+
+public enum StatusNotificacao {
+    PENDENTE("Pendente"),
+    EM_ENVIO("Em envio"), // Reservada por uma instância até proximaTentativa
+    ENVIADA("Enviada"),
+    FALHA("Falha");
+
+    private final String descricao;
+
+    StatusNotificacao(String descricao) {
+        this.descricao = descricao;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+}
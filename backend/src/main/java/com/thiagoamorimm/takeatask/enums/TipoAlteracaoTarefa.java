@@ -0,0 +1,19 @@
+package com.thiagoamorimm.takeatask.enums;
+
+public enum TipoAlteracaoTarefa {
+    CRIADA("Tarefa criada"),
+    ATUALIZADA("Tarefa atualizada"),
+    REMOVIDA("Tarefa removida"),
+    COMENTARIO_ADICIONADO("Comentário adicionado"),
+    COMENTARIO_REMOVIDO("Comentário removido");
+
+    private final String descricao;
+
+    TipoAlteracaoTarefa(String descricao) {
+        this.descricao = descricao;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+}
@@ -0,0 +1,8 @@
+package com.thiagoamorimm.takeatask.event;
+
+/**
+ * Publicado na transação que grava um anexo; depois do commit o conteúdo segue para a geração
+ * de miniatura (MiniaturasAnexos).
+ */
+public record AnexoCriadoEvent(Long anexoId, Long tarefaId, String hashConteudo) {
+}
@@ -0,0 +1,4 @@
+package com.thiagoamorimm.takeatask.event;
+
+public record NotificacaoEnfileiradaEvent(String destinatario) {
+}
@@ -0,0 +1,27 @@
+package com.thiagoamorimm.takeatask.event;
+
+import com.thiagoamorimm.takeatask.enums.TipoAlteracaoTarefa;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Publicado na transação que cria, altera, remove ou comenta uma tarefa; o feed de
+ * GET /api/tarefas/stream o repassa após o commit. 'usuarioIds' são os usuários que enxergam
+ * a tarefa (criador e responsável, inclusive o anterior quando ela foi reatribuída);
+ * administradores recebem todos os eventos.
+ */
+public record TarefaAlteradaEvent(TipoAlteracaoTarefa tipo, Long tarefaId, Long comentarioId, Set<Long> usuarioIds) {
+
+    // Ids nulos (tarefa sem responsável) são ignorados
+    public static TarefaAlteradaEvent de(TipoAlteracaoTarefa tipo, Long tarefaId, Long comentarioId,
+            Long... usuarioIds) {
+        Set<Long> usuarios = new HashSet<>();
+        for (Long usuarioId : usuarioIds) {
+            if (usuarioId != null) {
+                usuarios.add(usuarioId);
+            }
+        }
+        return new TarefaAlteradaEvent(tipo, tarefaId, comentarioId, usuarios);
+    }
+}
@@ -0,0 +1,10 @@
+package com.thiagoamorimm.takeatask.event;
+
+import java.util.List;
+
+/**
+ * Publicado por atualizações em massa (UPDATE ... WHERE id IN), que não passam pelos
+ * eventos de entidade do Hibernate. Carrega os ids das tarefas alteradas.
+ */
+public record TarefasAtualizadasEmLoteEvent(List<Long> ids) {
+}
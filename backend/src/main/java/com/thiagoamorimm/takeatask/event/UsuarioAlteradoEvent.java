@@ -0,0 +1,10 @@
+package com.thiagoamorimm.takeatask.event;
+
+import java.util.Set;
+
+/**
+ * Publicado quando dados de um usuário que afetam a autenticação (perfil, ativo, login,
+ * senha) podem ter mudado. Carrega os logins envolvidos (antigo e novo, se houve troca).
+ */
+public record UsuarioAlteradoEvent(Set<String> logins) {
+}
@@ -7,6 +7,7 @@ import jakarta.validation.constraints.Size;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Formula;
 
 import java.time.LocalDateTime;
 
@@ -34,9 +35,13 @@ public class Anexo {
     @Column(nullable = false)
     private Long tamanhoArquivo; // Em bytes
 
-    @NotBlank(message = "O caminho ou URL do arquivo é obrigatório.")
-    @Column(nullable = false, columnDefinition = "TEXT")
-    private String caminhoArquivo; // Pode ser um caminho no servidor ou uma URL para um S3 bucket, etc.
+    // Só anexos anteriores ao armazenamento por conteúdo; os novos usam hashConteudo
+    @Column(columnDefinition = "TEXT")
+    private String caminhoArquivo;
+
+    // SHA-256 do conteúdo, chave do blob em BlobAnexo / ArmazenamentoBlobs
+    @Column(length = 64)
+    private String hashConteudo;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "tarefa_id", nullable = false)
@@ -50,6 +55,10 @@ public class Anexo {
     @CreationTimestamp
     private LocalDateTime dataUpload;
 
+    // Da linha do blob, na mesma consulta que carrega o anexo
+    @Formula("(select b.tamanho_miniatura from blobs_anexos b where b.hash = hash_conteudo)")
+    private Long tamanhoMiniatura;
+
     public Anexo(String nomeArquivo, String tipoArquivo, Long tamanhoArquivo, String caminhoArquivo, Tarefa tarefa,
             Usuario usuarioUpload) {
         this.nomeArquivo = nomeArquivo;
@@ -59,4 +68,8 @@ public class Anexo {
         this.tarefa = tarefa;
         this.usuarioUpload = usuarioUpload;
     }
+
+    public boolean isMiniaturaDisponivel() {
+        return tamanhoMiniatura != null && tamanhoMiniatura > 0;
+    }
 }
@@ -0,0 +1,37 @@
+package com.thiagoamorimm.takeatask.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Conteúdo de anexo armazenado uma única vez, identificado pelo SHA-256, e quantos anexos o
+ * usam. Ao chegar a zero referências a linha fica marcada (semReferenciasDesde) e o blob só é
+ * apagado pela limpeza de BlobsAnexos, depois do prazo de retenção.
+ */
+@Entity
+@Table(name = "blobs_anexos")
+@Data
+@NoArgsConstructor
+public class BlobAnexo {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(nullable = false)
+    private Long tamanho;
+
+    @Column(nullable = false)
+    private int referencias;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime dataCriacao;
+
+    private LocalDateTime semReferenciasDesde;
+
+    // Miniatura gerada por MiniaturasAnexos: null enquanto não processado, 0 se o conteúdo não tem
+    private Long tamanhoMiniatura;
+}
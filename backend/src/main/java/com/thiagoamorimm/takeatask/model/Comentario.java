@@ -38,6 +38,10 @@ public class Comentario {
     @UpdateTimestamp
     private LocalDateTime dataAtualizacao;
 
+    @Version
+    @Column(nullable = false)
+    private Long versao;
+
     public Comentario(String texto, Tarefa tarefa, Usuario autor) {
         this.texto = texto;
         this.tarefa = tarefa;
@@ -0,0 +1,59 @@
+package com.thiagoamorimm.takeatask.model;
+
+import com.thiagoamorimm.takeatask.enums.StatusNotificacao;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox de notificações por email. Gravada na mesma transação da alteração que a
+ * originou e enviada depois do commit pelo NotificacaoEmailDispatcher.
+ */
+@Entity
+@Table(name = "notificacoes_email", indexes = @Index(name = "idx_notificacoes_email_pendentes", columnList = "status, proxima_tentativa"))
+@Data
+@NoArgsConstructor
+public class NotificacaoEmail {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String destinatario;
+
+    @Column(nullable = false)
+    private String assunto;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String mensagem;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StatusNotificacao status = StatusNotificacao.PENDENTE;
+
+    @Column(nullable = false)
+    private int tentativas;
+
+    @Column(name = "proxima_tentativa", nullable = false)
+    private LocalDateTime proximaTentativa;
+
+    @Column(columnDefinition = "TEXT")
+    private String ultimoErro;
+
+    @Column(nullable = false, updatable = false)
+    @CreationTimestamp
+    private LocalDateTime dataCriacao;
+
+    private LocalDateTime dataEnvio;
+
+    public NotificacaoEmail(String destinatario, String assunto, String mensagem) {
+        this.destinatario = destinatario;
+        this.assunto = assunto;
+        this.mensagem = mensagem;
+        this.proximaTentativa = LocalDateTime.now();
+    }
+}
@@ -43,6 +43,10 @@ public class Subtarefa {
     @UpdateTimestamp
     private LocalDateTime dataAtualizacao;
 
+    @Version
+    @Column(nullable = false)
+    private Long versao;
+
     public Subtarefa(String descricao, Tarefa tarefaPrincipal) {
         this.descricao = descricao;
         this.tarefaPrincipal = tarefaPrincipal;
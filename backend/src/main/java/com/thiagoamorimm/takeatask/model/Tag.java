@@ -5,7 +5,10 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -13,6 +16,8 @@ import java.util.Set;
 
 @Entity
 @Table(name = "tags")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tags")
 @Data
 @NoArgsConstructor
 public class Tag {
@@ -36,6 +41,10 @@ public class Tag {
     @CreationTimestamp
     private LocalDateTime dataCriacao;
 
+    // Compõe a versão da listagem de tags (ETag); não faz parte do TagDTO
+    @UpdateTimestamp
+    private LocalDateTime dataAtualizacao;
+
     @ManyToMany(mappedBy = "tags")
     private Set<Tarefa> tarefas = new HashSet<>();
 
@@ -9,6 +9,8 @@ import jakarta.validation.constraints.Size;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.OptimisticLock;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -19,12 +21,18 @@ import java.util.Set;
 
 @Entity
 @Table(name = "tarefas")
+// UPDATE apenas com as colunas alteradas: uma mudança de status não regrava a descrição (TEXT)
+// nem as demais colunas, e o SQL passa a refletir exatamente o que o PATCH enviou
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 public class Tarefa {
 
+    // Sequência com alocação em blocos (pooled): o Hibernate conhece o id antes do INSERT
+    // e pode agrupar as inserções em lote (com IDENTITY cada linha exige uma ida ao banco)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tarefas_seq")
+    @SequenceGenerator(name = "tarefas_seq", sequenceName = "tarefas_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "O nome da tarefa é obrigatório.")
@@ -63,13 +71,28 @@ public class Tarefa {
 
     private LocalDateTime dataPrazo;
 
+    // Lock otimista: alterações concorrentes da mesma tarefa falham em vez de se sobrescreverem.
+    // Também entra no ETag de GET /api/tarefas/{id}, usado no If-Match de PUT e PATCH
+    @Version
+    @Column(nullable = false)
+    private Long versao;
+
+    // Alterações em comentários e anexos, fora do lock otimista: incrementada só pelo UPDATE
+    // atômico de TarefaRepository.registrarAlteracaoFilhos e somada a versao no ETag
+    @OptimisticLock(excluded = true)
+    @Column(nullable = false)
+    private Long versaoFilhos = 0L;
+
     @ManyToMany 
     @JoinTable(name = "tarefa_tags", joinColumns = @JoinColumn(name = "tarefa_id"), inverseJoinColumns = @JoinColumn(name = "tag_id"))
     private Set<Tag> tags = new HashSet<>();
 
+    // Mudanças nas coleções não incrementam versao (ver versaoFilhos)
+    @OptimisticLock(excluded = true)
     @OneToMany(mappedBy = "tarefa", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Anexo> anexos = new ArrayList<>();
 
+    @OptimisticLock(excluded = true)
     @OneToMany(mappedBy = "tarefa", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Comentario> comentarios = new ArrayList<>();
 
@@ -121,6 +144,16 @@ public class Tarefa {
         comentario.setTarefa(null);
     }
 
+    /**
+     * Marca a tarefa como alterada quando mudam as tags, que não são coluna de tarefas. Com
+     * dataAtualizacao suja o flush grava a tarefa, o que incrementa versao (e o ETag) e confere
+     * a versão carregada como qualquer outra edição. Comentários e anexos não passam por aqui:
+     * usam TarefaRepository.registrarAlteracaoFilhos, que não entra no lock otimista.
+     */
+    public void registrarAlteracao() {
+        this.dataAtualizacao = LocalDateTime.now();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -0,0 +1,39 @@
+package com.thiagoamorimm.takeatask.model;
+
+import com.thiagoamorimm.takeatask.enums.PrioridadeTarefa;
+import com.thiagoamorimm.takeatask.enums.StatusTarefa;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Contador materializado de tarefas por (responsável, status, prioridade), mantido na
+ * mesma transação das escritas em Tarefa quando tarefa.stats.contadores.enabled=true.
+ */
+@Entity
+@Table(name = "tarefa_stats", uniqueConstraints = @UniqueConstraint(name = "uk_tarefa_stats_bucket", columnNames = {
+        "responsavel_id", "status", "prioridade" }))
+@Data
+@NoArgsConstructor
+public class TarefaStatsContador {
+
+    public static final long SEM_RESPONSAVEL = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "responsavel_id", nullable = false)
+    private Long responsavelId; // SEM_RESPONSAVEL quando a tarefa não tem responsável
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private StatusTarefa status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private PrioridadeTarefa prioridade;
+
+    @Column(nullable = false)
+    private long quantidade;
+}
@@ -0,0 +1,29 @@
+package com.thiagoamorimm.takeatask.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Linha única que diz se os contadores de tarefa_stats estão válidos, isto é, se nenhuma
+ * escrita em Tarefa deixou de atualizá-los desde a última reconstrução.
+ */
+@Entity
+@Table(name = "tarefa_stats_estado")
+@Data
+@NoArgsConstructor
+public class TarefaStatsEstado {
+
+    public static final short ID = 1;
+
+    @Id
+    private Short id = ID;
+
+    @Column(nullable = false)
+    private boolean valido;
+
+    @Column(name = "atualizado_em", nullable = false)
+    private LocalDateTime atualizadoEm;
+}
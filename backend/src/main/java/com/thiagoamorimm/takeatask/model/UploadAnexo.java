@@ -0,0 +1,58 @@
+package com.thiagoamorimm.takeatask.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * Upload retomável em andamento. Os bytes ficam em um arquivo parcial (UploadsRetomaveis) cujo
+ * tamanho é o quanto já foi recebido; a linha guarda só o que o anexo vai precisar na conclusão.
+ */
+@Entity
+@Table(name = "uploads_anexos")
+@Data
+@NoArgsConstructor
+public class UploadAnexo {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "tarefa_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Tarefa tarefa;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Usuario usuarioUpload;
+
+    @Column(nullable = false)
+    private String nomeArquivo;
+
+    @Column(nullable = false, length = 100)
+    private String tipoArquivo;
+
+    @Column(nullable = false)
+    private Long tamanhoArquivo; // Total anunciado na criação
+
+    @Column(nullable = false, updatable = false)
+    @CreationTimestamp
+    private LocalDateTime dataCriacao;
+
+    public UploadAnexo(String id, Tarefa tarefa, Usuario usuarioUpload, String nomeArquivo, String tipoArquivo,
+            Long tamanhoArquivo) {
+        this.id = id;
+        this.tarefa = tarefa;
+        this.usuarioUpload = usuarioUpload;
+        this.nomeArquivo = nomeArquivo;
+        this.tipoArquivo = tipoArquivo;
+        this.tamanhoArquivo = tamanhoArquivo;
+    }
+}
@@ -8,14 +8,19 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 
 
 @Entity
 @Table(name = "usuarios")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuarios") // Lido em toda requisição, alterado raramente
 @Data
 @NoArgsConstructor
 public class Usuario {
@@ -73,6 +78,10 @@ public class Usuario {
 
     private boolean ativo = true;
 
+    // Tokens emitidos até este instante têm perfil/ativo desatualizados nas claims
+    @Column(nullable = false)
+    private Instant tokensInvalidosAntes = Instant.EPOCH;
+
     // Campos para Configurações Gerais
     @Column(length = 20)
     private String tema; // "claro", "escuro", "sistema"
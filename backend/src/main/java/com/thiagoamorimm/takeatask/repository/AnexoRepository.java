@@ -3,12 +3,35 @@ package com.thiagoamorimm.takeatask.repository;
 import com.thiagoamorimm.takeatask.model.Anexo;
 import com.thiagoamorimm.takeatask.model.Tarefa;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface AnexoRepository extends JpaRepository<Anexo, Long> {
     List<Anexo> findByTarefa(Tarefa tarefa);
+
+    // Anexos de várias tarefas de uma vez, já com o usuário do upload (listagens)
+    @Query("SELECT a FROM Anexo a LEFT JOIN FETCH a.usuarioUpload WHERE a.tarefa.id IN :tarefaIds ORDER BY a.id")
+    List<Anexo> findByTarefaIdInComUsuario(@Param("tarefaIds") Collection<Long> tarefaIds);
+
+    // (nome, tipo, caminho, data do upload, criadorId, responsavelId, hash, tamanho) para o download:
+    // metadados do arquivo e a permissão da tarefa em uma única consulta, sem carregar entidades
+    @Query("SELECT a.nomeArquivo, a.tipoArquivo, a.caminhoArquivo, a.dataUpload, t.criador.id, t.responsavel.id, "
+            + "a.hashConteudo, a.tamanhoArquivo FROM Anexo a JOIN a.tarefa t WHERE a.id = :id AND t.id = :tarefaId")
+    List<Object[]> findDadosDownload(@Param("id") Long id, @Param("tarefaId") Long tarefaId);
+
+    // Como findDadosDownload, para a miniatura do blob do anexo
+    @Query("SELECT a.hashConteudo, b.tamanhoMiniatura, a.dataUpload, t.criador.id, t.responsavel.id "
+            + "FROM Anexo a JOIN a.tarefa t JOIN BlobAnexo b ON b.hash = a.hashConteudo "
+            + "WHERE a.id = :id AND t.id = :tarefaId")
+    List<Object[]> findDadosMiniatura(@Param("id") Long id, @Param("tarefaId") Long tarefaId);
+
+    // Hashes dos blobs usados pelos anexos de uma tarefa, um por anexo (repetidos inclusive)
+    @Query("SELECT a.hashConteudo FROM Anexo a WHERE a.tarefa.id = :tarefaId AND a.hashConteudo IS NOT NULL")
+    List<String> findHashesConteudoByTarefaId(@Param("tarefaId") Long tarefaId);
     // Outros métodos de consulta personalizados podem ser adicionados aqui
 }
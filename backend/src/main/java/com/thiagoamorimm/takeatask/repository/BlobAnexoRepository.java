@@ -0,0 +1,57 @@
+package com.thiagoamorimm.takeatask.repository;
+
+import com.thiagoamorimm.takeatask.model.BlobAnexo;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BlobAnexoRepository extends JpaRepository<BlobAnexo, String> {
+
+    // INSERT explícito: save() faria merge e, numa corrida, sobrescreveria a contagem de outra transação
+    @Modifying
+    @Query("INSERT INTO BlobAnexo (hash, tamanho, referencias, dataCriacao, semReferenciasDesde) "
+            + "VALUES (:hash, :tamanho, 0, :agora, :agora)")
+    int inserir(@Param("hash") String hash, @Param("tamanho") long tamanho, @Param("agora") LocalDateTime agora);
+
+    // O UPDATE trava a linha até o commit, o que impede a limpeza de apagar o blob nesse meio tempo
+    @Modifying
+    @Query("UPDATE BlobAnexo b SET b.referencias = b.referencias + 1, b.semReferenciasDesde = NULL "
+            + "WHERE b.hash = :hash")
+    int incrementarReferencias(@Param("hash") String hash);
+
+    @Modifying
+    @Query("UPDATE BlobAnexo b SET b.referencias = b.referencias - :quantidade WHERE b.hash = :hash")
+    int decrementarReferencias(@Param("hash") String hash, @Param("quantidade") int quantidade);
+
+    // Início do prazo de retenção, contado a partir da última referência removida
+    @Modifying
+    @Query("UPDATE BlobAnexo b SET b.semReferenciasDesde = :agora WHERE b.hash = :hash AND b.referencias = 0")
+    int marcarSemReferencias(@Param("hash") String hash, @Param("agora") LocalDateTime agora);
+
+    @Query("SELECT b.hash FROM BlobAnexo b WHERE b.referencias = 0 AND b.semReferenciasDesde < :limite")
+    List<String> findHashesSemReferenciasDesde(@Param("limite") LocalDateTime limite, Pageable pageable);
+
+    // Blobs em uso ainda não processados pelo gerador de miniaturas
+    @Query("SELECT b.hash FROM BlobAnexo b WHERE b.tamanhoMiniatura IS NULL AND b.referencias > 0")
+    List<String> findHashesSemMiniatura(Pageable pageable);
+
+    // Zero linhas: o blob foi removido durante a geração
+    @Modifying
+    @Query("UPDATE BlobAnexo b SET b.tamanhoMiniatura = :tamanho WHERE b.hash = :hash AND b.tamanhoMiniatura IS NULL")
+    int registrarMiniatura(@Param("hash") String hash, @Param("tamanho") long tamanho);
+
+    // Confirma, já com a linha travada, que ninguém voltou a usar o blob
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM BlobAnexo b WHERE b.hash = :hash AND b.referencias = 0")
+    Optional<BlobAnexo> findSemReferenciasParaRemocao(@Param("hash") String hash);
+}
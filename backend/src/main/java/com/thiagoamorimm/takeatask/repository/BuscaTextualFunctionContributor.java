@@ -0,0 +1,27 @@
+package com.thiagoamorimm.takeatask.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registra a função tarefa_busca_textual(id, consulta) para uso em Criteria/JPQL.
+ * Renderiza uma semi-join sobre os índices GIN de tarefas.search_vector e
+ * comentarios.search_vector (ver db/migration/V12__busca_comentarios.sql); só deve ser usada
+ * quando BuscaTextualService.isDisponivel().
+ */
+public class BuscaTextualFunctionContributor implements FunctionContributor {
+
+    public static final String FUNCAO = "tarefa_busca_textual";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        functionContributions.getFunctionRegistry().registerPattern(
+                FUNCAO,
+                "(?1 in (select bm.id from to_tsquery('portuguese', ?2) bq, lateral ("
+                        + "select bt.id as id from tarefas bt where bt.search_vector @@ bq "
+                        + "union all select bc.tarefa_id from comentarios bc where bc.search_vector @@ bq) bm))",
+                functionContributions.getTypeConfiguration().getBasicTypeRegistry()
+                        .resolve(StandardBasicTypes.BOOLEAN));
+    }
+}
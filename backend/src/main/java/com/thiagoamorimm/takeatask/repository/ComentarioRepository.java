@@ -2,13 +2,50 @@ package com.thiagoamorimm.takeatask.repository;
 
 import com.thiagoamorimm.takeatask.model.Comentario;
 import com.thiagoamorimm.takeatask.model.Tarefa;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ComentarioRepository extends JpaRepository<Comentario, Long> {
     List<Comentario> findByTarefaOrderByDataCriacaoDesc(Tarefa tarefa);
+
+    // Paginação keyset (CursorKeyset por dataCriacao), todas na ordem do índice idx_comentarios_tarefa.
+    // Primeira página: os mais recentes (Pageable.unpaged(): a lista completa)
+    @Query("SELECT c FROM Comentario c LEFT JOIN FETCH c.autor WHERE c.tarefa.id = :tarefaId "
+            + "ORDER BY c.dataCriacao DESC, c.id DESC")
+    List<Comentario> findMaisRecentes(@Param("tarefaId") Long tarefaId, Pageable pageable);
+
+    // Páginas seguintes (?after=): mais antigos que o cursor, continuando do mais recente
+    @Query("SELECT c FROM Comentario c LEFT JOIN FETCH c.autor WHERE c.tarefa.id = :tarefaId "
+            + "AND (c.dataCriacao, c.id) < (:dataCriacao, :id) ORDER BY c.dataCriacao DESC, c.id DESC")
+    List<Comentario> findAnteriores(@Param("tarefaId") Long tarefaId, @Param("dataCriacao") LocalDateTime dataCriacao,
+            @Param("id") Long id, Pageable pageable);
+
+    // ?since=: mais novos que o cursor, do mais antigo para o mais recente
+    @Query("SELECT c FROM Comentario c LEFT JOIN FETCH c.autor WHERE c.tarefa.id = :tarefaId "
+            + "AND (c.dataCriacao, c.id) > (:dataCriacao, :id) ORDER BY c.dataCriacao, c.id")
+    List<Comentario> findPosteriores(@Param("tarefaId") Long tarefaId, @Param("dataCriacao") LocalDateTime dataCriacao,
+            @Param("id") Long id, Pageable pageable);
+
+    // Os 'quantidade' comentários mais recentes de cada tarefa, com o autor (TarefaDTO). A numeração
+    // por tarefa percorre só o índice; entidades são carregadas apenas para as linhas escolhidas
+    @Query("SELECT c FROM Comentario c LEFT JOIN FETCH c.autor WHERE c.id IN ("
+            + "SELECT r.id FROM (SELECT c2.id AS id, ROW_NUMBER() OVER (PARTITION BY c2.tarefa.id "
+            + "ORDER BY c2.dataCriacao DESC, c2.id DESC) AS posicao "
+            + "FROM Comentario c2 WHERE c2.tarefa.id IN :tarefaIds) r WHERE r.posicao <= :quantidade) "
+            + "ORDER BY c.dataCriacao DESC, c.id DESC")
+    List<Comentario> findMaisRecentesPorTarefa(@Param("tarefaIds") Collection<Long> tarefaIds,
+            @Param("quantidade") long quantidade);
+
+    // [tarefaId, quantidade] das tarefas que têm comentários
+    @Query("SELECT c.tarefa.id, COUNT(c) FROM Comentario c WHERE c.tarefa.id IN :tarefaIds GROUP BY c.tarefa.id")
+    List<Object[]> countByTarefaIds(@Param("tarefaIds") Collection<Long> tarefaIds);
     // Outros métodos de consulta personalizados podem ser adicionados aqui
 }
@@ -0,0 +1,64 @@
+package com.thiagoamorimm.takeatask.repository;
+
+import com.thiagoamorimm.takeatask.enums.StatusNotificacao;
+import com.thiagoamorimm.takeatask.model.NotificacaoEmail;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.LockOptions;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificacaoEmailRepository extends JpaRepository<NotificacaoEmail, Long> {
+
+    // Notificações prontas para envio de um destinatário, da mais antiga para a mais nova, travadas
+    // (FOR UPDATE SKIP LOCKED): linhas que outra instância está reservando ao mesmo tempo ficam de fora
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = "" + LockOptions.SKIP_LOCKED))
+    @Query("SELECT n FROM NotificacaoEmail n WHERE n.destinatario = :destinatario AND n.status IN :status " +
+           "AND n.proximaTentativa <= :agora ORDER BY n.id")
+    List<NotificacaoEmail> findProntasParaEnvio(@Param("destinatario") String destinatario,
+                                                @Param("status") Collection<StatusNotificacao> status,
+                                                @Param("agora") LocalDateTime agora,
+                                                Pageable pageable);
+
+    @Query("SELECT DISTINCT n.destinatario FROM NotificacaoEmail n WHERE n.status IN :status " +
+           "AND n.proximaTentativa <= :agora")
+    List<String> findDestinatariosComPendencias(@Param("status") Collection<StatusNotificacao> status,
+                                                @Param("agora") LocalDateTime agora,
+                                                Pageable pageable);
+
+    // Reserva para envio até 'expiraEm'; só muda linhas ainda no status em que foram lidas
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE NotificacaoEmail n SET n.status = com.thiagoamorimm.takeatask.enums.StatusNotificacao.EM_ENVIO, " +
+           "n.proximaTentativa = :expiraEm WHERE n.id IN :ids AND n.status IN :status")
+    int reservar(@Param("ids") Collection<Long> ids, @Param("status") Collection<StatusNotificacao> status,
+                 @Param("expiraEm") LocalDateTime expiraEm);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE NotificacaoEmail n SET n.status = com.thiagoamorimm.takeatask.enums.StatusNotificacao.ENVIADA, " +
+           "n.dataEnvio = :agora, n.ultimoErro = null WHERE n.id IN :ids " +
+           "AND n.status = com.thiagoamorimm.takeatask.enums.StatusNotificacao.EM_ENVIO")
+    int marcarEnviadas(@Param("ids") Collection<Long> ids, @Param("agora") LocalDateTime agora);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE NotificacaoEmail n SET n.status = :status, n.tentativas = :tentativas, " +
+           "n.proximaTentativa = :proximaTentativa, n.ultimoErro = :erro WHERE n.id IN :ids " +
+           "AND n.status = com.thiagoamorimm.takeatask.enums.StatusNotificacao.EM_ENVIO")
+    int registrarFalha(@Param("ids") Collection<Long> ids,
+                       @Param("status") StatusNotificacao status,
+                       @Param("tentativas") int tentativas,
+                       @Param("proximaTentativa") LocalDateTime proximaTentativa,
+                       @Param("erro") String erro);
+}
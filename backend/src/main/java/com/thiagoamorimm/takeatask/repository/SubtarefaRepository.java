@@ -3,6 +3,8 @@ package com.thiagoamorimm.takeatask.repository;
 import com.thiagoamorimm.takeatask.model.Subtarefa;
 import com.thiagoamorimm.takeatask.model.Tarefa;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,5 +12,10 @@ import java.util.List;
 @Repository
 public interface SubtarefaRepository extends JpaRepository<Subtarefa, Long> {
     List<Subtarefa> findByTarefaPrincipal(Tarefa tarefaPrincipal);
+
+    // Subtarefas de uma tarefa pelo id, já com o responsável
+    @Query("SELECT s FROM Subtarefa s LEFT JOIN FETCH s.responsavel WHERE s.tarefaPrincipal.id = :tarefaId "
+            + "ORDER BY s.id")
+    List<Subtarefa> findByTarefaPrincipalIdComResponsavel(@Param("tarefaId") Long tarefaId);
     // Outros métodos de consulta personalizados podem ser adicionados aqui
 }
@@ -1,17 +1,49 @@
 package com.thiagoamorimm.takeatask.repository;
 
 import com.thiagoamorimm.takeatask.model.Tag;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 
 import java.util.List; // Adicionar import para List
 
 @Repository
 public interface TagRepository extends JpaRepository<Tag, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Tag> findByNome(String nome);
 
+    // Listagem de tags no cache de consultas; invalidada automaticamente a cada escrita em tags
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Tag> findAll();
+
+    List<Tag> findByNomeIn(Collection<String> nomes);
+
+    // Versão da coleção (quantidade, maior id, última alteração): muda a cada inclusão, alteração
+    // ou exclusão. Também fica no cache de consultas, invalidado pelas mesmas escritas em tags
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT COUNT(t), MAX(t.id), MAX(COALESCE(t.dataAtualizacao, t.dataCriacao)) FROM Tag t")
+    List<Object[]> findVersaoColecao();
+
+    // Insere várias tags em um único comando; nomes já existentes (inclusive os criados por
+    // uma transação concorrente) são ignorados em vez de violar a unique de nome
+    // HINT_NATIVE_SPACES: invalida só o cache de tags (sem ele o Hibernate limpa todo o cache de segundo nível)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tags"))
+    @Query(value = "INSERT INTO tags (nome, data_criacao) " +
+            "SELECT novas.nome, CURRENT_TIMESTAMP FROM unnest(:nomes) AS novas(nome) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int inserirIgnorandoExistentes(@Param("nomes") String[] nomes);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Tag> findByNomeContainingIgnoreCaseOrDescricaoContainingIgnoreCase(String nome, String descricao);
     // Outros métodos de consulta personalizados podem ser adicionados aqui
 }
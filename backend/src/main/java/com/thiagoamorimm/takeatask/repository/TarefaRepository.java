@@ -4,18 +4,26 @@ import com.thiagoamorimm.takeatask.enums.PrioridadeTarefa;
 import com.thiagoamorimm.takeatask.enums.StatusTarefa;
 import com.thiagoamorimm.takeatask.model.Tarefa;
 import com.thiagoamorimm.takeatask.model.Usuario;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor; // Adicionado
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
 @Repository
-public interface TarefaRepository extends JpaRepository<Tarefa, Long>, JpaSpecificationExecutor<Tarefa> {
+public interface TarefaRepository extends JpaRepository<Tarefa, Long>, JpaSpecificationExecutor<Tarefa>,
+                TarefaRepositoryCustom {
 
         // Para Usuário Padrão: tarefas atribuídas a ele ou criadas por ele e atribuídas
         // a si mesmo
@@ -51,6 +59,60 @@ public interface TarefaRepository extends JpaRepository<Tarefa, Long>, JpaSpecif
                         @Param("dataPrazoFim") LocalDateTime dataPrazoFim,
                         @Param("tagIds") Set<Long> tagIds);
 
+        // Tags de várias tarefas em uma única query (listagens paginadas, sem fetch join)
+        @Query("SELECT t.id, tag FROM Tarefa t JOIN t.tags tag WHERE t.id IN :tarefaIds")
+        List<Object[]> findTagsByTarefaIds(@Param("tarefaIds") Collection<Long> tarefaIds);
+
+        // Apenas os ids das tags (visão resumida das listagens)
+        @Query("SELECT t.id, tag.id FROM Tarefa t JOIN t.tags tag WHERE t.id IN :tarefaIds")
+        List<Object[]> findTagIdsByTarefaIds(@Param("tarefaIds") Collection<Long> tarefaIds);
+
+        // Apenas os nomes das tags (exportação, sem hidratar entidades Tag)
+        @Query("SELECT t.id, tag.nome FROM Tarefa t JOIN t.tags tag WHERE t.id IN :tarefaIds ORDER BY tag.nome")
+        List<Object[]> findTagNomesByTarefaIds(@Param("tarefaIds") Collection<Long> tarefaIds);
+
+        // (criadorId, responsavelId, versão, versão dos filhos, última alteração) para o ETag de uma
+        // tarefa, sem carregá-la
+        @Query("SELECT t.criador.id, t.responsavel.id, t.versao, t.versaoFilhos, "
+                        + "COALESCE(t.dataAtualizacao, t.dataCriacao) FROM Tarefa t WHERE t.id = :id")
+        List<Object[]> findVersao(@Param("id") Long id);
+
+        // Comentário ou anexo gravado: UPDATE atômico (sem perder incrementos concorrentes) que não
+        // passa pelo @Version, então não invalida edições nem outros comentários em andamento
+        @Modifying(flushAutomatically = true)
+        @Query("UPDATE Tarefa t SET t.versaoFilhos = t.versaoFilhos + 1, t.dataAtualizacao = :agora "
+                        + "WHERE t.id = :id")
+        int registrarAlteracaoFilhos(@Param("id") Long id, @Param("agora") LocalDateTime agora);
+
+        // Tarefa visível a um usuário padrão (criador ou responsável): pela chave primária, sem carregá-la
+        @Query("SELECT COUNT(t) > 0 FROM Tarefa t WHERE t.id = :id "
+                        + "AND (t.criador.id = :usuarioId OR t.responsavel.id = :usuarioId)")
+        boolean existsVisivelPara(@Param("id") Long id, @Param("usuarioId") Long usuarioId);
+
+        // Carrega as tarefas de uma página já decidida (ex.: ids vindos da busca textual)
+        @Query("SELECT t FROM Tarefa t LEFT JOIN FETCH t.criador LEFT JOIN FETCH t.responsavel WHERE t.id IN :ids")
+        List<Tarefa> findByIdInComUsuarios(@Param("ids") Collection<Long> ids);
+
+        // Linhas (id, nome, criadorId, responsavelId) para montar o índice de sugestões
+        @Query("SELECT t.id, t.nome, t.criador.id, t.responsavel.id FROM Tarefa t")
+        List<Object[]> findDadosSugestao();
+
+        @Query("SELECT t.id, t.nome, t.criador.id, t.responsavel.id FROM Tarefa t WHERE t.id IN :ids")
+        List<Object[]> findDadosSugestaoByIdIn(@Param("ids") Collection<Long> ids);
+
+        // Troca das tags de várias tarefas (atualização em lote): remove as associações e
+        // insere o produto tarefas x tags em um único comando
+        @Modifying
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tarefa_tags"))
+        @Query(value = "DELETE FROM tarefa_tags WHERE tarefa_id IN (:tarefaIds)", nativeQuery = true)
+        int removerTags(@Param("tarefaIds") Collection<Long> tarefaIds);
+
+        @Modifying
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tarefa_tags"))
+        @Query(value = "INSERT INTO tarefa_tags (tarefa_id, tag_id) SELECT t.id, g.id FROM tarefas t CROSS JOIN tags g "
+                        + "WHERE t.id IN (:tarefaIds) AND g.id IN (:tagIds)", nativeQuery = true)
+        int associarTags(@Param("tarefaIds") Collection<Long> tarefaIds, @Param("tagIds") Collection<Long> tagIds);
+
         // Pesquisa global (exemplo inicial)
         @Query("SELECT t FROM Tarefa t WHERE " +
                         "LOWER(t.nome) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
@@ -78,4 +140,24 @@ public interface TarefaRepository extends JpaRepository<Tarefa, Long>, JpaSpecif
 
         // Para tarefas atrasadas globais (ADMIN)
         long countByStatusNotAndDataPrazoBefore(StatusTarefa statusExcluido, LocalDateTime dataReferencia);
+
+        // Estatísticas do dashboard em uma única ida ao banco: uma linha por (status,
+        // prioridade) com o total e quantas estão atrasadas
+        @Query("SELECT t.status, t.prioridade, COUNT(t), " +
+                        "SUM(CASE WHEN t.status <> :concluida AND t.dataPrazo < :agora THEN 1 ELSE 0 END) " +
+                        "FROM Tarefa t GROUP BY t.status, t.prioridade")
+        List<Object[]> agregarEstatisticas(@Param("concluida") StatusTarefa concluida,
+                        @Param("agora") LocalDateTime agora);
+
+        @Query("SELECT t.status, t.prioridade, COUNT(t), " +
+                        "SUM(CASE WHEN t.status <> :concluida AND t.dataPrazo < :agora THEN 1 ELSE 0 END) " +
+                        "FROM Tarefa t WHERE t.responsavel = :responsavel GROUP BY t.status, t.prioridade")
+        List<Object[]> agregarEstatisticasPorResponsavel(@Param("responsavel") Usuario responsavel,
+                        @Param("concluida") StatusTarefa concluida, @Param("agora") LocalDateTime agora);
+
+        // Trava as tarefas para escrita (FOR NO KEY UPDATE no PostgreSQL) em ordem de id, para que
+        // lotes concorrentes não entrem em deadlock
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @Query("SELECT t.id FROM Tarefa t WHERE t.id IN :ids ORDER BY t.id")
+        List<Long> travarParaAtualizacao(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,50 @@
+package com.thiagoamorimm.takeatask.repository;
+
+import com.thiagoamorimm.takeatask.dto.TarefaSummaryDTO;
+import com.thiagoamorimm.takeatask.enums.PrioridadeTarefa;
+import com.thiagoamorimm.takeatask.enums.StatusTarefa;
+import com.thiagoamorimm.takeatask.model.Tarefa;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public interface TarefaRepositoryCustom {
+
+    // Estado atual de uma tarefa alvo de atualização em lote (sem hidratar a entidade)
+    record AlvoAtualizacao(Long id, String nome, StatusTarefa status, PrioridadeTarefa prioridade, Long criadorId,
+            Long responsavelId, String loginResponsavel) {
+    }
+
+    // Projeção por construtor (sem hidratar entidades) aplicando a mesma Specification das listagens
+    List<TarefaSummaryDTO> findSummaries(Specification<Tarefa> spec, Sort sort, int limit);
+
+    /**
+     * Percorre as tarefas da Specification com um cursor do banco (fetchSize linhas por ida),
+     * somente leitura e sem passar pelo cache de segundo nível. O Stream deve ser fechado e
+     * consumido dentro de uma transação.
+     */
+    Stream<Tarefa> streamAll(Specification<Tarefa> spec, Sort sort, int fetchSize);
+
+    // Tarefas selecionadas pela Specification, em ordem de id, no máximo 'limit'
+    List<AlvoAtualizacao> findAlvosAtualizacao(Specification<Tarefa> spec, int limit);
+
+    /**
+     * UPDATE único sobre as tarefas informadas. 'campos' mapeia atributo de Tarefa para o
+     * novo valor; dataAtualizacao é sempre preenchida, já que o UPDATE em massa não passa
+     * por @UpdateTimestamp.
+     */
+    int atualizarCampos(Collection<Long> ids, Map<String, Object> campos);
+
+    /**
+     * Busca textual ordenada por relevância (PostgreSQL, ver db/migration/V12__busca_comentarios.sql).
+     * Retorna linhas (id, rank). usuarioId restringe às tarefas em que o usuário é
+     * responsável ou criador (null = sem restrição); rankApos/idApos formam o cursor
+     * keyset e limit pode ser null para trazer todas.
+     */
+    List<Object[]> buscarIdsPorRelevancia(String consulta, Long usuarioId, Float rankApos, Long idApos,
+            Integer limit);
+}
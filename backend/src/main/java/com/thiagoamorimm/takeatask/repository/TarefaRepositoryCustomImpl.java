@@ -0,0 +1,191 @@
+package com.thiagoamorimm.takeatask.repository;
+
+import com.thiagoamorimm.takeatask.dto.TarefaSummaryDTO;
+import com.thiagoamorimm.takeatask.model.Anexo;
+import com.thiagoamorimm.takeatask.model.Comentario;
+import com.thiagoamorimm.takeatask.model.Subtarefa;
+import com.thiagoamorimm.takeatask.model.Tarefa;
+import com.thiagoamorimm.takeatask.model.Usuario;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.hibernate.CacheMode;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class TarefaRepositoryCustomImpl implements TarefaRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TarefaSummaryDTO> findSummaries(Specification<Tarefa> spec, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TarefaSummaryDTO> query = cb.createQuery(TarefaSummaryDTO.class);
+        Root<Tarefa> root = query.from(Tarefa.class);
+        Join<Tarefa, Usuario> responsavel = root.join("responsavel", JoinType.LEFT);
+
+        // Contadores como subqueries correlacionadas: uma única ida ao banco por página
+        Subquery<Long> anexos = query.subquery(Long.class);
+        Root<Anexo> anexo = anexos.from(Anexo.class);
+        anexos.select(cb.count(anexo)).where(cb.equal(anexo.get("tarefa"), root));
+
+        Subquery<Long> comentarios = query.subquery(Long.class);
+        Root<Comentario> comentario = comentarios.from(Comentario.class);
+        comentarios.select(cb.count(comentario)).where(cb.equal(comentario.get("tarefa"), root));
+
+        Subquery<Long> subtarefas = query.subquery(Long.class);
+        Root<Subtarefa> subtarefa = subtarefas.from(Subtarefa.class);
+        subtarefas.select(cb.count(subtarefa)).where(cb.equal(subtarefa.get("tarefaPrincipal"), root));
+
+        query.select(cb.construct(TarefaSummaryDTO.class,
+                root.get("id"),
+                root.get("nome"),
+                root.get("status"),
+                root.get("prioridade"),
+                root.get("dataPrazo"),
+                root.get("dataCriacao"),
+                responsavel.get("id"),
+                responsavel.get("nome"),
+                anexos,
+                comentarios,
+                subtarefas));
+
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        if (sort != null && sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<Tarefa> streamAll(Specification<Tarefa> spec, Sort sort, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tarefa> query = cb.createQuery(Tarefa.class);
+        Root<Tarefa> root = query.from(Tarefa.class);
+
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        if (sort != null && sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_CACHE_MODE, CacheMode.IGNORE)
+                .getResultStream();
+    }
+
+    @Override
+    public List<AlvoAtualizacao> findAlvosAtualizacao(Specification<Tarefa> spec, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AlvoAtualizacao> query = cb.createQuery(AlvoAtualizacao.class);
+        Root<Tarefa> root = query.from(Tarefa.class);
+        Join<Tarefa, Usuario> responsavel = root.join("responsavel", JoinType.LEFT);
+
+        query.select(cb.construct(AlvoAtualizacao.class,
+                root.get("id"),
+                root.get("nome"),
+                root.get("status"),
+                root.get("prioridade"),
+                root.get("criador").get("id"),
+                responsavel.get("id"),
+                responsavel.get("login")));
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        query.orderBy(cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public int atualizarCampos(Collection<Long> ids, Map<String, Object> campos) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Tarefa> update = cb.createCriteriaUpdate(Tarefa.class);
+        Root<Tarefa> root = update.from(Tarefa.class);
+        campos.forEach((campo, valor) -> update.set(root.get(campo), valor));
+        update.set(root.<LocalDateTime>get("dataAtualizacao"), LocalDateTime.now());
+        // UPDATE em massa não passa pelo @Version: sem incrementar, uma edição individual
+        // carregada antes do lote gravaria por cima dele
+        update.set(root.<Long>get("versao"), cb.sum(root.<Long>get("versao"), 1L));
+        update.where(root.get("id").in(ids));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Object[]> buscarIdsPorRelevancia(String consulta, Long usuarioId, Float rankApos, Long idApos,
+            Integer limit) {
+        // Relevância = rank da tarefa (nome, descrição) + rank do comentário que melhor casa
+        StringBuilder sql = new StringBuilder(
+                "SELECT r.id, r.rank FROM (" +
+                "SELECT m.id AS id, SUM(m.rank) AS rank " +
+                "FROM to_tsquery('portuguese', :consulta) q, LATERAL (" +
+                "SELECT t.id AS id, ts_rank(t.search_vector, q) AS rank FROM tarefas t WHERE t.search_vector @@ q " +
+                "UNION ALL SELECT c.tarefa_id, MAX(ts_rank(c.search_vector, q)) FROM comentarios c " +
+                "WHERE c.search_vector @@ q GROUP BY c.tarefa_id) m");
+        if (usuarioId != null) {
+            sql.append(" JOIN tarefas u ON u.id = m.id AND (u.responsavel_id = :usuarioId OR u.criador_id = :usuarioId)");
+        }
+        sql.append(" GROUP BY m.id) r");
+        if (rankApos != null && idApos != null) {
+            sql.append(" WHERE r.rank < :rankApos OR (r.rank = :rankApos AND r.id < :idApos)");
+        }
+        sql.append(" ORDER BY r.rank DESC, r.id DESC");
+
+        Query query = entityManager.createNativeQuery(sql.toString())
+                .setParameter("consulta", consulta);
+        if (usuarioId != null) {
+            query.setParameter("usuarioId", usuarioId);
+        }
+        if (rankApos != null && idApos != null) {
+            query.setParameter("rankApos", rankApos);
+            query.setParameter("idApos", idApos);
+        }
+        if (limit != null) {
+            query.setMaxResults(limit);
+        }
+
+        List<Object[]> linhas = query.getResultList();
+        for (Object[] linha : linhas) {
+            linha[0] = ((Number) linha[0]).longValue();
+            linha[1] = ((Number) linha[1]).floatValue();
+        }
+        return linhas;
+    }
+}
@@ -0,0 +1,50 @@
+package com.thiagoamorimm.takeatask.repository;
+
+import com.thiagoamorimm.takeatask.model.TarefaStatsContador;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TarefaStatsContadorRepository extends JpaRepository<TarefaStatsContador, Long> {
+
+    // Upsert atômico: evita corrida entre transações que criam o mesmo bucket ao mesmo tempo
+    @Modifying
+    @Query(value = "INSERT INTO tarefa_stats (responsavel_id, status, prioridade, quantidade) " +
+            "VALUES (:responsavelId, :status, :prioridade, :delta) " +
+            "ON CONFLICT (responsavel_id, status, prioridade) " +
+            "DO UPDATE SET quantidade = tarefa_stats.quantidade + EXCLUDED.quantidade", nativeQuery = true)
+    int incrementar(@Param("responsavelId") long responsavelId, @Param("status") String status,
+            @Param("prioridade") String prioridade, @Param("delta") long delta);
+
+    @Query("SELECT c.status, c.prioridade, SUM(c.quantidade) FROM TarefaStatsContador c GROUP BY c.status, c.prioridade")
+    List<Object[]> somarPorStatusEPrioridade();
+
+    @Query("SELECT c.status, c.prioridade, c.quantidade FROM TarefaStatsContador c WHERE c.responsavelId = :responsavelId")
+    List<Object[]> findByResponsavelIdAgrupado(@Param("responsavelId") Long responsavelId);
+
+    // Uma reconstrução por vez entre as instâncias; sem esperar, e liberado no fim da transação
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('tarefa_stats'))", nativeQuery = true)
+    boolean travarReconstrucao();
+
+    // Bloqueia os upserts de incrementar() até o fim da transação; escritas já em andamento
+    // terminam antes. Leituras continuam liberadas.
+    @Modifying
+    @Query(value = "LOCK TABLE tarefa_stats IN SHARE ROW EXCLUSIVE MODE", nativeQuery = true)
+    void bloquearAlteracoes();
+
+    @Modifying
+    @Query(value = "DELETE FROM tarefa_stats", nativeQuery = true)
+    int removerTodos();
+
+    // Reconstrução completa a partir da tabela de tarefas (inicialização dos contadores)
+    @Modifying
+    @Query(value = "INSERT INTO tarefa_stats (responsavel_id, status, prioridade, quantidade) " +
+            "SELECT COALESCE(responsavel_id, 0), status, prioridade, COUNT(*) FROM tarefas " +
+            "GROUP BY COALESCE(responsavel_id, 0), status, prioridade", nativeQuery = true)
+    int recalcularAPartirDeTarefas();
+}
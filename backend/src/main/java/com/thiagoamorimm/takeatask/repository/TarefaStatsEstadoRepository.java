@@ -0,0 +1,9 @@
+package com.thiagoamorimm.takeatask.repository;
+
+import com.thiagoamorimm.takeatask.model.TarefaStatsEstado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TarefaStatsEstadoRepository extends JpaRepository<TarefaStatsEstado, Short> {
+}
@@ -0,0 +1,36 @@
+package com.thiagoamorimm.takeatask.repository;
+
+import com.thiagoamorimm.takeatask.model.UploadAnexo;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UploadAnexoRepository extends JpaRepository<UploadAnexo, String> {
+
+    @Query("SELECT u FROM UploadAnexo u JOIN FETCH u.tarefa WHERE u.id = :id AND u.tarefa.id = :tarefaId "
+            + "AND u.usuarioUpload.id = :usuarioId")
+    Optional<UploadAnexo> findDoUsuario(@Param("id") String id, @Param("tarefaId") Long tarefaId,
+            @Param("usuarioId") Long usuarioId);
+
+    // Duas conclusões simultâneas do mesmo upload: a segunda espera e já não encontra a sessão
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM UploadAnexo u WHERE u.id = :id")
+    Optional<UploadAnexo> findParaConclusao(@Param("id") String id);
+
+    @Query("SELECT u.id FROM UploadAnexo u WHERE u.dataCriacao < :limite ORDER BY u.dataCriacao")
+    List<String> findIdsCriadosAntesDe(@Param("limite") LocalDateTime limite, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM UploadAnexo u WHERE u.id = :id")
+    int removerPorId(@Param("id") String id);
+}
@@ -1,19 +1,42 @@
 package com.thiagoamorimm.takeatask.repository;
 
 import com.thiagoamorimm.takeatask.model.Usuario;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.Optional;
 
 import java.util.List; // Adicionar import para List
 
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
+    // Consultas em cache: o resultado guarda só ids, as entidades vêm do cache de segundo nível
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Usuario> findByLogin(String login);
+
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Usuario> findAll();
+
+    // (quantidade, maior id, última alteração), como TagRepository.findVersaoColecao
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT COUNT(u), MAX(u.id), MAX(COALESCE(u.dataAtualizacao, u.dataCriacao)) FROM Usuario u")
+    List<Object[]> findVersaoColecao();
+
+    // Vazio se o usuário não existe mais (ex.: excluído depois da emissão do token)
+    @Query("SELECT u.tokensInvalidosAntes FROM Usuario u WHERE u.login = :login")
+    Optional<Instant> findTokensInvalidosAntesByLogin(@Param("login") String login);
+
     Optional<Usuario> findByEmail(String email); // Novo método
     Optional<Usuario> findByEmailAndIdNot(String email, Long id); // Novo método
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Usuario> findByNomeContainingIgnoreCaseOrLoginContainingIgnoreCase(String nome, String login);
     // Outros métodos de consulta personalizados podem ser adicionados aqui
 }
@@ -0,0 +1,262 @@
+package com.thiagoamorimm.takeatask.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido em memória por prefixo de termo (edge n-grams), para autocomplete.
+ *
+ * Cada termo do texto indexado (sem acentos, minúsculo) gera as chaves de seus prefixos
+ * até TAMANHO_MAXIMO_PREFIXO caracteres; uma consulta é a interseção das listas dos
+ * seus termos. Termos mais longos que o limite são conferidos contra o documento.
+ * Leituras concorrentes; escritas exclusivas.
+ *
+ * As listas ficam na ordem do resultado (texto mais curto, depois id mais recente) e há
+ * também uma lista por termo completo: a busca percorre primeiro quem casa algum termo por
+ * inteiro e depois a lista de prefixos, parando ao juntar 'limite' documentos. Prefixos
+ * curtos demais (tamanhoMinimoConsulta), que casariam boa parte do índice, não são buscados.
+ *
+ * @param <D> documento devolvido nas buscas
+ */
+public class IndicePrefixos<D> {
+
+    static final int TAMANHO_MAXIMO_PREFIXO = 12;
+    static final int TAMANHO_MINIMO_CONSULTA = 3;
+
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+
+    private record Entrada<D>(List<String> termos, Posicao posicao, D documento) {
+    }
+
+    // Ordem das listas: texto mais curto primeiro, depois id mais recente
+    private record Posicao(int tamanhoTexto, long id) implements Comparable<Posicao> {
+        @Override
+        public int compareTo(Posicao outra) {
+            int porTamanho = Integer.compare(tamanhoTexto, outra.tamanhoTexto);
+            return porTamanho != 0 ? porTamanho : Long.compare(outra.id, id);
+        }
+    }
+
+    private final int tamanhoMinimoConsulta;
+    private final Map<String, NavigableSet<Posicao>> postings = new HashMap<>();
+    private final Map<String, NavigableSet<Posicao>> termosCompletos = new HashMap<>();
+    private final Map<Long, Entrada<D>> entradas = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public IndicePrefixos() {
+        this(TAMANHO_MINIMO_CONSULTA);
+    }
+
+    // Consultas precisam de ao menos um termo com tamanhoMinimoConsulta caracteres
+    public IndicePrefixos(int tamanhoMinimoConsulta) {
+        this.tamanhoMinimoConsulta = Math.max(1, tamanhoMinimoConsulta);
+    }
+
+    public void indexar(Long id, String texto, D documento) {
+        List<String> termos = tokenizar(texto);
+        Posicao posicao = new Posicao(texto != null ? texto.length() : 0, id);
+        lock.writeLock().lock();
+        try {
+            removerSemLock(id);
+            entradas.put(id, new Entrada<>(termos, posicao, documento));
+            for (String chave : prefixos(termos)) {
+                postings.computeIfAbsent(chave, k -> new TreeSet<>()).add(posicao);
+            }
+            for (String termo : new HashSet<>(termos)) {
+                termosCompletos.computeIfAbsent(termo, k -> new TreeSet<>()).add(posicao);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remover(Long id) {
+        lock.writeLock().lock();
+        try {
+            removerSemLock(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void limpar() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            termosCompletos.clear();
+            entradas.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int tamanho() {
+        lock.readLock().lock();
+        try {
+            return entradas.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Documentos que contêm, para cada termo da consulta, um termo começando por ele.
+     * Ordena por termos casados por inteiro, depois texto mais curto, depois id mais recente.
+     */
+    public List<D> buscar(String consulta, Predicate<D> filtro, int limite) {
+        List<String> termos = tokenizar(consulta);
+        if (termos.isEmpty() || limite <= 0 || termos.stream().allMatch(t -> t.length() < tamanhoMinimoConsulta)) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<NavigableSet<Posicao>> listas = new ArrayList<>(termos.size());
+            for (String termo : termos) {
+                NavigableSet<Posicao> posicoes = postings.get(chave(termo));
+                if (posicoes == null) {
+                    return Collections.emptyList();
+                }
+                listas.add(posicoes);
+            }
+            listas.sort(Comparator.comparingInt(Set::size));
+
+            // Os melhores 'limite' até aqui; o pior fica no topo para ser substituído
+            Comparator<Resultado<D>> ordem = Comparator.comparingInt((Resultado<D> r) -> -r.exatos())
+                    .thenComparing(Resultado::posicao);
+            PriorityQueue<Resultado<D>> melhores = new PriorityQueue<>(ordem.reversed());
+
+            // 1) Quem casa algum termo por inteiro: poucos documentos, e todos à frente dos demais
+            Set<Long> vistos = new HashSet<>();
+            for (String termo : new HashSet<>(termos)) {
+                for (Posicao posicao : termosCompletos.getOrDefault(termo, Collections.emptyNavigableSet())) {
+                    if (vistos.add(posicao.id())) {
+                        Resultado<D> resultado = avaliar(posicao, termos, listas, filtro);
+                        if (resultado != null) {
+                            melhores.add(resultado);
+                            if (melhores.size() > limite) {
+                                melhores.poll();
+                            }
+                        }
+                    }
+                }
+            }
+
+            // 2) Só casamentos por prefixo, já na ordem do resultado: basta completar o limite
+            for (Posicao posicao : listas.get(0)) {
+                if (melhores.size() >= limite) {
+                    break;
+                }
+                if (!vistos.contains(posicao.id())) {
+                    Resultado<D> resultado = avaliar(posicao, termos, listas, filtro);
+                    if (resultado != null) {
+                        melhores.add(resultado);
+                    }
+                }
+            }
+
+            List<Resultado<D>> resultados = new ArrayList<>(melhores);
+            resultados.sort(ordem);
+            return resultados.stream().map(Resultado::documento).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private record Resultado<D>(Posicao posicao, int exatos, D documento) {
+    }
+
+    // null se o documento não casa todos os termos ou não passa no filtro
+    private Resultado<D> avaliar(Posicao posicao, List<String> termos, List<NavigableSet<Posicao>> listas,
+            Predicate<D> filtro) {
+        for (NavigableSet<Posicao> lista : listas) {
+            if (!lista.contains(posicao)) {
+                return null;
+            }
+        }
+        Entrada<D> entrada = entradas.get(posicao.id());
+        int exatos = 0;
+        for (String termo : termos) {
+            if (entrada.termos().contains(termo)) {
+                exatos++;
+            } else if (termo.length() > TAMANHO_MAXIMO_PREFIXO
+                    && entrada.termos().stream().noneMatch(t -> t.startsWith(termo))) {
+                return null;
+            }
+        }
+        if (filtro != null && !filtro.test(entrada.documento())) {
+            return null;
+        }
+        return new Resultado<>(posicao, exatos, entrada.documento());
+    }
+
+    private void removerSemLock(Long id) {
+        Entrada<D> anterior = entradas.remove(id);
+        if (anterior == null) {
+            return;
+        }
+        for (String chave : prefixos(anterior.termos())) {
+            removerDaLista(postings, chave, anterior.posicao());
+        }
+        for (String termo : anterior.termos()) {
+            removerDaLista(termosCompletos, termo, anterior.posicao());
+        }
+    }
+
+    private static void removerDaLista(Map<String, NavigableSet<Posicao>> listas, String chave, Posicao posicao) {
+        NavigableSet<Posicao> posicoes = listas.get(chave);
+        if (posicoes != null) {
+            posicoes.remove(posicao);
+            if (posicoes.isEmpty()) {
+                listas.remove(chave);
+            }
+        }
+    }
+
+    private static Set<String> prefixos(List<String> termos) {
+        Set<String> chaves = new HashSet<>();
+        for (String termo : termos) {
+            int fim = Math.min(termo.length(), TAMANHO_MAXIMO_PREFIXO);
+            for (int i = 1; i <= fim; i++) {
+                chaves.add(termo.substring(0, i));
+            }
+        }
+        return chaves;
+    }
+
+    private static String chave(String termo) {
+        return termo.length() > TAMANHO_MAXIMO_PREFIXO ? termo.substring(0, TAMANHO_MAXIMO_PREFIXO) : termo;
+    }
+
+    // "Relatório Financeiro" -> [relatorio, financeiro]
+    static List<String> tokenizar(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return Collections.emptyList();
+        }
+        String normalizado = DIACRITICOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> termos = new ArrayList<>();
+        for (String termo : SEPARADORES.split(normalizado)) {
+            if (!termo.isEmpty()) {
+                termos.add(termo);
+            }
+        }
+        return termos;
+    }
+}
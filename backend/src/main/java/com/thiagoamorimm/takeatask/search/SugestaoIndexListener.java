@@ -0,0 +1,98 @@
+package com.thiagoamorimm.takeatask.search;
+
+import com.thiagoamorimm.takeatask.model.Tag;
+import com.thiagoamorimm.takeatask.model.Tarefa;
+import com.thiagoamorimm.takeatask.model.Usuario;
+import com.thiagoamorimm.takeatask.service.SugestaoService;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mantém os índices do SugestaoService em dia com as escritas de Tarefa, Tag e Usuario.
+ * Usa os eventos pós-commit do Hibernate, então rollbacks não chegam ao índice.
+ * Atualizações em massa via JPQL (UPDATE/DELETE) não passam por aqui.
+ */
+@Component
+public class SugestaoIndexListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final SugestaoService sugestaoService;
+
+    public SugestaoIndexListener(EntityManagerFactory entityManagerFactory, SugestaoService sugestaoService) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.sugestaoService = sugestaoService;
+    }
+
+    @PostConstruct
+    void registrar() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        Class<?> classe = persister.getMappedClass();
+        return classe == Tarefa.class || classe == Tag.class || classe == Usuario.class;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        indexar(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        indexar(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        Object entidade = event.getEntity();
+        Long id = (Long) event.getId();
+        if (entidade instanceof Tarefa) {
+            sugestaoService.removerTarefa(id);
+        } else if (entidade instanceof Tag) {
+            sugestaoService.removerTag(id);
+        } else if (entidade instanceof Usuario) {
+            sugestaoService.removerUsuario(id);
+        }
+    }
+
+    // Falhas de commit: nada a fazer, o índice só é alterado após commit bem-sucedido
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    private void indexar(Object entidade) {
+        if (entidade instanceof Tarefa tarefa) {
+            sugestaoService.indexarTarefa(tarefa);
+        } else if (entidade instanceof Tag tag) {
+            sugestaoService.indexarTag(tag);
+        } else if (entidade instanceof Usuario usuario) {
+            sugestaoService.indexarUsuario(usuario);
+        }
+    }
+}
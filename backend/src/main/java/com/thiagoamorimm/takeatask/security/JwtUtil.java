@@ -1,6 +1,9 @@
 package com.thiagoamorimm.takeatask.security;
 
+import com.thiagoamorimm.takeatask.model.Usuario;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.stereotype.Component;
@@ -9,9 +12,14 @@ import java.util.Date;
 
 @Component
 public class JwtUtil {
+    public static final String CLAIM_PERFIL = "perfil";
+    public static final String CLAIM_ATIVO = "ativo";
+
     private final String jwtSecret = "sua-chave-secreta-muito-segura-e-longa-para-garantir-seguranca";
     private final long jwtExpirationMs = 86400000; // 1 dia
     private final SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    // JwtParser é imutável e thread-safe: construído uma única vez e reutilizado
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
 
     public String generateToken(String username) {
         return Jwts.builder()
@@ -22,24 +30,40 @@ public class JwtUtil {
                 .compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();
+    // Inclui perfil e ativo nas claims para que o filtro não precise consultar o banco
+    public String generateToken(Usuario usuario) {
+        Date agora = new Date();
+        return Jwts.builder()
+                .setSubject(usuario.getLogin())
+                .claim(CLAIM_PERFIL, usuario.getPerfil() != null ? usuario.getPerfil().name() : "USUARIO_PADRAO")
+                .claim(CLAIM_ATIVO, usuario.isAtivo())
+                .setIssuedAt(agora)
+                .setExpiration(new Date(agora.getTime() + jwtExpirationMs))
+                .signWith(key)
+                .compact();
     }
 
-    public boolean validateJwtToken(String authToken) {
+    /**
+     * Valida assinatura/expiração e devolve as claims em um único parse.
+     * Retorna null se o token for inválido.
+     */
+    public Claims parseAndValidate(String token) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(authToken);
-            return true;
-        } catch (Exception e) {
-            return false;
+            return parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
         }
     }
+
+    public long getJwtExpirationMs() {
+        return jwtExpirationMs;
+    }
+
+    public String getUsernameFromToken(String token) {
+        return parser.parseClaimsJws(token).getBody().getSubject();
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return parseAndValidate(authToken) != null;
+    }
 } 
\ No newline at end of file
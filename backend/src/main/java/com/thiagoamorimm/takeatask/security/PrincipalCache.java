@@ -0,0 +1,100 @@
+package com.thiagoamorimm.takeatask.security;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thiagoamorimm.takeatask.event.UsuarioAlteradoEvent;
+import com.thiagoamorimm.takeatask.repository.UsuarioRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Cache limitado (tamanho + TTL) dos principais autenticados, por login, para que o
+ * filtro JWT não consulte o banco a cada requisição.
+ *
+ * Também guarda, por login, o instante persistido em Usuario.tokensInvalidosAntes: tokens
+ * emitidos até ele têm perfil/ativo desatualizados nas claims e devem passar pelo carregamento
+ * completo. Por vir do banco, a revogação vale após reinícios e nas demais réplicas; o preço é
+ * uma consulta por login a cada security.revogacao-tokens.ttl, que também é o atraso máximo
+ * para outra réplica perceber a alteração.
+ *
+ * O carregamento (consulta ao banco) roda fora de qualquer lock do cache: o get(chave, função)
+ * do Caffeine executa a função dentro do compute do ConcurrentHashMap, que é synchronized e
+ * prenderia a carrier thread de uma virtual thread durante todo o JDBC. Requisições simultâneas
+ * para o mesmo login aguardam o mesmo CompletableFuture.
+ */
+@Component
+public class PrincipalCache {
+
+    private final AsyncCache<String, UserDetails> principais;
+    // Vazio: o usuário não existe mais
+    private final AsyncCache<String, Optional<Instant>> revogacoes;
+    private final UsuarioRepository usuarioRepository;
+
+    public PrincipalCache(@Value("${security.principal-cache.max-size:10000}") long tamanhoMaximo,
+            @Value("${security.principal-cache.ttl:PT5M}") Duration ttl,
+            @Value("${security.revogacao-tokens.ttl:PT30S}") Duration ttlRevogacoes,
+            UsuarioRepository usuarioRepository) {
+        this.principais = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(ttl)
+                .buildAsync();
+        this.revogacoes = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(ttlRevogacoes)
+                .buildAsync();
+        this.usuarioRepository = usuarioRepository;
+    }
+
+    public UserDetails get(String login, Function<String, UserDetails> carregador) {
+        return obter(principais, login, carregador);
+    }
+
+    // true se o usuário foi alterado depois da emissão do token (claims não são confiáveis)
+    // ou não existe mais
+    public boolean alteradoApos(String login, Date emitidoEm) {
+        Optional<Instant> revogadoEm = obter(revogacoes, login, usuarioRepository::findTokensInvalidosAntesByLogin);
+        return revogadoEm.isEmpty() || emitidoEm == null || !emitidoEm.toInstant().isAfter(revogadoEm.get());
+    }
+
+    private static <V> V obter(AsyncCache<String, V> cache, String login, Function<String, V> carregador) {
+        CompletableFuture<V> novo = new CompletableFuture<>();
+        CompletableFuture<V> existente = cache.asMap().putIfAbsent(login, novo);
+        if (existente != null) {
+            try {
+                return existente.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException causa ? causa : e;
+            }
+        }
+        try {
+            V valor = carregador.apply(login);
+            novo.complete(valor);
+            return valor;
+        } catch (RuntimeException e) {
+            // Futuros concluídos com erro são descartados pelo cache
+            novo.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Após o commit, para que uma leitura concorrente não recoloque no cache o estado antigo.
+    // Nesta réplica a alteração vale na hora; nas demais, quando as entradas expirarem.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUsuarioAlterado(UsuarioAlteradoEvent evento) {
+        for (String login : evento.logins()) {
+            revogacoes.synchronous().invalidate(login);
+            principais.synchronous().invalidate(login);
+        }
+    }
+}
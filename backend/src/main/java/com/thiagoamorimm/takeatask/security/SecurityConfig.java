@@ -32,7 +32,9 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             // Configurar caminhos públicos e privados
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/api/auth/**", "/api/usuarios", "/swagger-ui/**", "/api-docs/**").permitAll()
+                // /error: despacho interno do Spring para exceções com @ResponseStatus (400, 404, 409, 412);
+                // sem ele o despacho não tem autenticação e o cliente recebia 401 no lugar do status real
+                .requestMatchers("/api/auth/**", "/api/usuarios", "/swagger-ui/**", "/api-docs/**", "/error").permitAll()
                 .anyRequest().authenticated()
             )
             // Adicionar filtro JWT antes do filtro de autenticação padrão
@@ -0,0 +1,31 @@
+package com.thiagoamorimm.takeatask.security;
+
+import com.thiagoamorimm.takeatask.model.Usuario;
+import com.thiagoamorimm.takeatask.repository.UsuarioRepository;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+/**
+ * Usuário da requisição atual, a partir do principal que o JwtAuthenticationFilter colocou no
+ * SecurityContext (o login é o subject do token).
+ */
+@Component
+public class UsuarioLogado {
+
+    private final UsuarioRepository usuarioRepository;
+
+    public UsuarioLogado(UsuarioRepository usuarioRepository) {
+        this.usuarioRepository = usuarioRepository;
+    }
+
+    // null sem autenticação ou se o login do token não existe mais
+    public Usuario atual() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetails principal)) {
+            return null;
+        }
+        return usuarioRepository.findByLogin(principal.getUsername()).orElse(null);
+    }
+}
@@ -0,0 +1,55 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.enums.PerfilUsuario;
+import com.thiagoamorimm.takeatask.exception.ResourceNotFoundException;
+import com.thiagoamorimm.takeatask.model.Tarefa;
+import com.thiagoamorimm.takeatask.model.Usuario;
+import com.thiagoamorimm.takeatask.repository.TarefaRepository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Permissão sobre uma tarefa para os recursos dentro dela (comentários, anexos, subtarefas).
+ *
+ * A regra é a de GET /api/tarefas/{id}: administradores enxergam todas as tarefas, os demais
+ * usuários só as que criaram ou de que são responsáveis. Sem permissão a resposta é a mesma de
+ * uma tarefa inexistente (404), e quem enxerga a tarefa pode comentar, anexar e criar subtarefas.
+ */
+@Component
+public class AcessoTarefas {
+
+    private final TarefaRepository tarefaRepository;
+
+    public AcessoTarefas(TarefaRepository tarefaRepository) {
+        this.tarefaRepository = tarefaRepository;
+    }
+
+    public static boolean podeVisualizar(Usuario usuario, Long criadorId, Long responsavelId) {
+        return usuario.getPerfil() == PerfilUsuario.ADMINISTRADOR_GESTOR
+                || usuario.getId().equals(criadorId) || usuario.getId().equals(responsavelId);
+    }
+
+    /** Só confere a permissão: uma consulta pela chave primária, sem carregar a tarefa. */
+    public void verificarVisualizacao(Long tarefaId, Usuario usuario) {
+        boolean visivel = usuario.getPerfil() == PerfilUsuario.ADMINISTRADOR_GESTOR
+                ? tarefaRepository.existsById(tarefaId)
+                : tarefaRepository.existsVisivelPara(tarefaId, usuario.getId());
+        if (!visivel) {
+            throw new ResourceNotFoundException("Tarefa", "id", tarefaId);
+        }
+    }
+
+    /**
+     * Para gravações que associam o recurso à tarefa e registram a alteração nela: a tarefa é
+     * carregada uma vez e a regra é conferida sobre ela, sem outra consulta.
+     */
+    public Tarefa tarefaVisivel(Long tarefaId, Usuario usuario) {
+        Tarefa tarefa = tarefaRepository.findById(tarefaId)
+                .orElseThrow(() -> new ResourceNotFoundException("Tarefa", "id", tarefaId));
+        // Os ids das associações lazy saem do proxy, sem carregar os usuários
+        Long responsavelId = tarefa.getResponsavel() != null ? tarefa.getResponsavel().getId() : null;
+        if (!podeVisualizar(usuario, tarefa.getCriador().getId(), responsavelId)) {
+            throw new ResourceNotFoundException("Tarefa", "id", tarefaId);
+        }
+        return tarefa;
+    }
+}
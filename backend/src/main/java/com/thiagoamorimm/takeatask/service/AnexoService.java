@@ -1,24 +1,45 @@
 package com.thiagoamorimm.takeatask.service;
 
 import com.thiagoamorimm.takeatask.dto.AnexoDTO;
+import com.thiagoamorimm.takeatask.dto.UploadAnexoCreateDTO;
+import com.thiagoamorimm.takeatask.dto.UploadAnexoDTO;
 import com.thiagoamorimm.takeatask.model.Anexo;
 import com.thiagoamorimm.takeatask.model.Usuario;
-import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
 import java.util.List;
 
 public interface AnexoService {
     AnexoDTO salvarAnexo(MultipartFile arquivo, Long tarefaId, Usuario usuarioUpload) throws IOException;
 
+    // Conteúdo lido direto do corpo da requisição; tamanhoDeclarado -1 quando desconhecido (chunked)
+    AnexoDTO receberAnexo(Long tarefaId, String nomeArquivo, String tipoArquivo, long tamanhoDeclarado,
+            ReadableByteChannel conteudo, Usuario usuarioUpload) throws IOException;
+
+    // Upload retomável: sessão, partes em sequência por offset e conclusão em anexo
+    UploadAnexoDTO iniciarUpload(Long tarefaId, UploadAnexoCreateDTO dados, Usuario usuarioUpload) throws IOException;
+
+    UploadAnexoDTO buscarUpload(Long tarefaId, String uploadId, Usuario usuarioUpload) throws IOException;
+
+    UploadAnexoDTO receberParteUpload(Long tarefaId, String uploadId, long offset, ReadableByteChannel conteudo,
+            Usuario usuarioUpload) throws IOException;
+
+    AnexoDTO concluirUpload(Long tarefaId, String uploadId, Usuario usuarioUpload) throws IOException;
+
+    void cancelarUpload(Long tarefaId, String uploadId, Usuario usuarioUpload) throws IOException;
+
     AnexoDTO buscarAnexoPorId(Long id, Usuario usuarioAutenticado); // Verificar permissão pela tarefa
 
     List<AnexoDTO> listarAnexosPorTarefaId(Long tarefaId, Usuario usuarioAutenticado);
 
     void deletarAnexo(Long id, Usuario usuarioAutenticado) throws IOException;
 
-    Resource baixarAnexo(Long id, Usuario usuarioAutenticado) throws IOException; // Para download direto
+    ArquivoAnexo baixarAnexo(Long tarefaId, Long anexoId, Usuario usuarioAutenticado) throws IOException;
+
+    // Miniatura JPEG gerada em segundo plano (imagens e PDFs); 404 enquanto não existir
+    ArquivoAnexo baixarMiniatura(Long tarefaId, Long anexoId, Usuario usuarioAutenticado) throws IOException;
 
     Anexo findAnexoEntityById(Long id); // Método auxiliar
 }
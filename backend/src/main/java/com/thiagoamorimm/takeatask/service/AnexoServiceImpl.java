@@ -1,30 +1,45 @@
 package com.thiagoamorimm.takeatask.service;
 
 import com.thiagoamorimm.takeatask.dto.AnexoDTO;
+import com.thiagoamorimm.takeatask.dto.UploadAnexoCreateDTO;
+import com.thiagoamorimm.takeatask.dto.UploadAnexoDTO;
 import com.thiagoamorimm.takeatask.enums.PerfilUsuario;
+import com.thiagoamorimm.takeatask.event.AnexoCriadoEvent;
 import com.thiagoamorimm.takeatask.exception.BadRequestException;
+import com.thiagoamorimm.takeatask.exception.PayloadTooLargeException;
 import com.thiagoamorimm.takeatask.exception.ResourceNotFoundException;
 import com.thiagoamorimm.takeatask.model.Anexo;
 import com.thiagoamorimm.takeatask.model.Tarefa;
+import com.thiagoamorimm.takeatask.model.UploadAnexo;
 import com.thiagoamorimm.takeatask.model.Usuario;
 import com.thiagoamorimm.takeatask.repository.AnexoRepository;
+import com.thiagoamorimm.takeatask.repository.TarefaRepository;
+import com.thiagoamorimm.takeatask.repository.UploadAnexoRepository;
+import com.thiagoamorimm.takeatask.storage.ConteudoBlob;
+import org.hibernate.Hibernate;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -33,64 +48,124 @@ import java.util.stream.Collectors;
 public class AnexoServiceImpl implements AnexoService {
 
     private final AnexoRepository anexoRepository;
-    private final TarefaService tarefaService;
-    private final Path fileStorageLocation;
+    private final TarefaRepository tarefaRepository;
+    private final AcessoTarefas acessoTarefas;
+    private final BlobsAnexos blobsAnexos;
+    private final UploadsRetomaveis uploadsRetomaveis;
+    private final UploadAnexoRepository uploadAnexoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long tamanhoMaximo;
 
     @Autowired
     public AnexoServiceImpl(AnexoRepository anexoRepository,
-            @Lazy TarefaService tarefaService,
-            @Value("${file.upload-dir:./uploads}") String uploadDir) { // Define um diretório padrão
+            TarefaRepository tarefaRepository,
+            AcessoTarefas acessoTarefas,
+            BlobsAnexos blobsAnexos,
+            UploadsRetomaveis uploadsRetomaveis,
+            UploadAnexoRepository uploadAnexoRepository,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${anexos.upload.tamanho-maximo:10GB}") DataSize tamanhoMaximo) {
         this.anexoRepository = anexoRepository;
-        this.tarefaService = tarefaService;
-        this.fileStorageLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.tarefaRepository = tarefaRepository;
+        this.acessoTarefas = acessoTarefas;
+        this.blobsAnexos = blobsAnexos;
+        this.uploadsRetomaveis = uploadsRetomaveis;
+        this.uploadAnexoRepository = uploadAnexoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.tamanhoMaximo = tamanhoMaximo.toBytes();
+    }
+
+    @Override
+    public AnexoDTO salvarAnexo(MultipartFile arquivo, Long tarefaId, Usuario usuarioUpload) throws IOException {
+        try (ReadableByteChannel conteudo = Channels.newChannel(arquivo.getInputStream())) {
+            return receberAnexo(tarefaId, arquivo.getOriginalFilename(), arquivo.getContentType(), arquivo.getSize(),
+                    conteudo, usuarioUpload);
+        }
+    }
+
+    // Sem transação aberta: a cópia pode levar minutos e não deve segurar uma conexão do pool
+    @Override
+    public AnexoDTO receberAnexo(Long tarefaId, String nomeArquivo, String tipoArquivo, long tamanhoDeclarado,
+            ReadableByteChannel conteudo, Usuario usuarioUpload) throws IOException {
+        // Quem enxerga a tarefa pode anexar; conferido de novo em registrarAnexo, depois do envio
+        acessoTarefas.verificarVisualizacao(tarefaId, usuarioUpload);
+        String nome = validarNomeArquivo(nomeArquivo);
+        String tipo = validarTipoArquivo(tipoArquivo);
+        validarTamanho(tamanhoDeclarado);
 
+        // Conteúdo idêntico a um anexo existente (desta ou de outra tarefa) não é gravado de novo
+        BlobsAnexos.BlobRecebido blob = blobsAnexos.receber(conteudo, tamanhoMaximo);
+        if (tamanhoDeclarado >= 0 && blob.tamanho() != tamanhoDeclarado) {
+            Files.deleteIfExists(blob.temporario());
+            throw new BadRequestException("Conteúdo incompleto: recebidos " + blob.tamanho() + " de "
+                    + tamanhoDeclarado + " bytes.");
+        }
+        return registrarAnexo(tarefaId, nome, tipo, blob, usuarioUpload, null);
+    }
+
+    @Override
+    @Transactional(rollbackFor = IOException.class)
+    public UploadAnexoDTO iniciarUpload(Long tarefaId, UploadAnexoCreateDTO dados, Usuario usuarioUpload)
+            throws IOException {
+        Tarefa tarefa = acessoTarefas.tarefaVisivel(tarefaId, usuarioUpload); // Mesma permissão do upload direto
+        validarTamanho(dados.getTamanhoArquivo());
+        UploadAnexo upload = new UploadAnexo(UUID.randomUUID().toString(), tarefa, usuarioUpload, validarNomeArquivo(dados.getNomeArquivo()), validarTipoArquivo(dados.getTipoArquivo()),
+                dados.getTamanhoArquivo());
+        uploadsRetomaveis.criar(upload.getId());
+        return convertToDTO(uploadAnexoRepository.saveAndFlush(upload), 0);
+    }
+
+    @Override
+    public UploadAnexoDTO buscarUpload(Long tarefaId, String uploadId, Usuario usuarioUpload) throws IOException {
+        UploadAnexo upload = findUpload(tarefaId, uploadId, usuarioUpload);
         try {
-            Files.createDirectories(this.fileStorageLocation);
-        } catch (Exception ex) {
-            throw new RuntimeException("Não foi possível criar o diretório para upload de arquivos.", ex);
+            return convertToDTO(upload, uploadsRetomaveis.recebido(uploadId));
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException("Upload", "id", uploadId, e);
         }
     }
 
+    // Também sem transação: cada parte vai do corpo da requisição ao arquivo parcial
     @Override
-    @Transactional
-    public AnexoDTO salvarAnexo(MultipartFile arquivo, Long tarefaId, Usuario usuarioUpload) throws IOException {
-        Tarefa tarefa = tarefaService.findTarefaEntityById(tarefaId);
-        // Verificar permissão para adicionar anexo à tarefa (ex: ser membro,
-        // responsável, etc.)
-        // Por simplicidade, vamos assumir que se pode buscar a tarefa, pode anexar.
-        // Idealmente, TarefaService teria um método para verificar permissão de
-        // modificação.
-        tarefaService.buscarTarefaPorId(tarefaId, usuarioUpload); // Isso implicitamente verifica a permissão de
-                                                                  // visualização
-
-        String nomeOriginal = StringUtils.cleanPath(arquivo.getOriginalFilename());
-        String extensao = StringUtils.getFilenameExtension(nomeOriginal);
-        if (extensao == null) {
-            extensao = "dat"; // Valor padrão caso não haja extensão
-        }
-        String nomeArquivoArmazenado = UUID.randomUUID().toString() + "." + extensao;
-
-        Path targetLocation = this.fileStorageLocation.resolve(nomeArquivoArmazenado);
-        Files.copy(arquivo.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-
-        Anexo anexo = new Anexo();
-        anexo.setNomeArquivo(nomeOriginal);
-        anexo.setTipoArquivo(arquivo.getContentType());
-        anexo.setTamanhoArquivo(arquivo.getSize());
-        anexo.setCaminhoArquivo(targetLocation.toString()); // Ou apenas nomeArquivoArmazenado se o base path for
-                                                            // conhecido
-        anexo.setTarefa(tarefa);
-        anexo.setUsuarioUpload(usuarioUpload);
-
-        Anexo anexoSalvo = anexoRepository.save(anexo);
-        return convertToDTO(anexoSalvo);
+    public UploadAnexoDTO receberParteUpload(Long tarefaId, String uploadId, long offset,
+            ReadableByteChannel conteudo, Usuario usuarioUpload) throws IOException {
+        UploadAnexo upload = findUpload(tarefaId, uploadId, usuarioUpload);
+        try {
+            long recebido = uploadsRetomaveis.anexar(uploadId, offset, conteudo, upload.getTamanhoArquivo());
+            return convertToDTO(upload, recebido);
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException("Upload", "id", uploadId, e);
+        }
+    }
+
+    @Override
+    public AnexoDTO concluirUpload(Long tarefaId, String uploadId, Usuario usuarioUpload) throws IOException {
+        // A permissão pode ter mudado durante o envio: registrarAnexo confere de novo
+        UploadAnexo upload = findUpload(tarefaId, uploadId, usuarioUpload);
+        try {
+            BlobsAnexos.BlobRecebido blob = uploadsRetomaveis.concluir(uploadId, upload.getTamanhoArquivo());
+            return registrarAnexo(tarefaId, upload.getNomeArquivo(), upload.getTipoArquivo(), blob, usuarioUpload,
+                    uploadId);
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException("Upload", "id", uploadId, e);
+        }
+    }
+
+    @Override
+    public void cancelarUpload(Long tarefaId, String uploadId, Usuario usuarioUpload) throws IOException {
+        findUpload(tarefaId, uploadId, usuarioUpload);
+        uploadAnexoRepository.deleteById(uploadId);
+        uploadsRetomaveis.descartar(uploadId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public AnexoDTO buscarAnexoPorId(Long id, Usuario usuarioAutenticado) {
         Anexo anexo = findAnexoEntityById(id);
-        tarefaService.buscarTarefaPorId(anexo.getTarefa().getId(), usuarioAutenticado); // Verifica permissão na tarefa
+        acessoTarefas.verificarVisualizacao(anexo.getTarefa().getId(), usuarioAutenticado); // Verifica permissão na tarefa
         return convertToDTO(anexo);
     }
 
@@ -104,16 +179,15 @@ public class AnexoServiceImpl implements AnexoService {
     @Override
     @Transactional(readOnly = true)
     public List<AnexoDTO> listarAnexosPorTarefaId(Long tarefaId, Usuario usuarioAutenticado) {
-        Tarefa tarefa = tarefaService.findTarefaEntityById(tarefaId);
-        tarefaService.buscarTarefaPorId(tarefaId, usuarioAutenticado); // Verifica permissão na tarefa
+        acessoTarefas.verificarVisualizacao(tarefaId, usuarioAutenticado); // Verifica permissão na tarefa
 
-        return anexoRepository.findByTarefa(tarefa).stream()
+        return anexoRepository.findByTarefaIdInComUsuario(List.of(tarefaId)).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
     @Override
-    @Transactional
+    @Transactional(rollbackFor = IOException.class)
     public void deletarAnexo(Long id, Usuario usuarioAutenticado) throws IOException {
         Anexo anexo = findAnexoEntityById(id);
         Tarefa tarefaDoAnexo = anexo.getTarefa();
@@ -135,32 +209,161 @@ public class AnexoServiceImpl implements AnexoService {
             throw new BadRequestException("Você não tem permissão para deletar este anexo.");
         }
 
-        Path filePath = Paths.get(anexo.getCaminhoArquivo());
-        Files.deleteIfExists(filePath);
+        if (anexo.getHashConteudo() != null) {
+            // O blob pode ser de outros anexos; a limpeza o apaga quando ninguém mais o usar
+            blobsAnexos.removerReferencias(anexo.getHashConteudo(), 1);
+        } else {
+            Files.deleteIfExists(Paths.get(anexo.getCaminhoArquivo()));
+        }
+        // Com a coleção da tarefa já carregada na sessão (open-in-view), o anexo ainda listado nela
+        // voltaria pelo cascade no flush e o DELETE seria descartado
+        if (Hibernate.isInitialized(tarefaDoAnexo.getAnexos())) {
+            tarefaDoAnexo.getAnexos().removeIf(item -> item.getId().equals(anexo.getId()));
+        }
         anexoRepository.delete(anexo);
+        tarefaRepository.registrarAlteracaoFilhos(tarefaDoAnexo.getId(), LocalDateTime.now());
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Resource baixarAnexo(Long id, Usuario usuarioAutenticado) throws IOException {
-        Anexo anexo = findAnexoEntityById(id);
-        tarefaService.buscarTarefaPorId(anexo.getTarefa().getId(), usuarioAutenticado); // Verifica permissão na tarefa
+    public ArquivoAnexo baixarAnexo(Long tarefaId, Long anexoId, Usuario usuarioAutenticado) throws IOException {
+        List<Object[]> linhas = anexoRepository.findDadosDownload(anexoId, tarefaId);
+        if (linhas.isEmpty()) {
+            throw new ResourceNotFoundException("Anexo", "id", anexoId);
+        }
+        Object[] linha = linhas.get(0);
+        verificarVisibilidade(anexoId, (Long) linha[4], (Long) linha[5], usuarioAutenticado);
 
+        LocalDateTime dataUpload = (LocalDateTime) linha[3];
+        String hash = (String) linha[6];
         try {
-            Path filePath = Paths.get(anexo.getCaminhoArquivo()).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-            if (resource.exists() && resource.isReadable()) {
-                return resource;
-            } else {
-                throw new ResourceNotFoundException("Arquivo do Anexo", "id",
-                        id + " (caminho: " + anexo.getCaminhoArquivo() + ")");
+            if (hash != null) {
+                // Conteúdo endereçado pelo hash: o próprio hash identifica a versão
+                return new ArquivoAnexo((String) linha[0], (String) linha[1],
+                        blobsAnexos.ler(hash, (Long) linha[7]), VersaoRecurso.de("anexo", dataUpload, anexoId, hash));
             }
-        } catch (MalformedURLException ex) {
-            throw new ResourceNotFoundException("Arquivo do Anexo", "id",
-                    id + " (URL malformada: " + anexo.getCaminhoArquivo() + ")", ex);
+            // Anexo anterior ao armazenamento por conteúdo: arquivo com nome único, nunca reescrito
+            String caminhoArquivo = (String) linha[2];
+            Path caminho = Paths.get(caminhoArquivo).normalize();
+            long tamanho = Files.size(caminho);
+            return new ArquivoAnexo((String) linha[0], (String) linha[1], ConteudoBlob.arquivo(caminho, tamanho),
+                    VersaoRecurso.de("anexo", dataUpload, anexoId, caminhoArquivo, tamanho));
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException("Arquivo do Anexo", "id", anexoId, e);
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ArquivoAnexo baixarMiniatura(Long tarefaId, Long anexoId, Usuario usuarioAutenticado) throws IOException {
+        List<Object[]> linhas = anexoRepository.findDadosMiniatura(anexoId, tarefaId);
+        if (linhas.isEmpty()) {
+            throw new ResourceNotFoundException("Miniatura do Anexo", "id", anexoId);
+        }
+        Object[] linha = linhas.get(0);
+        verificarVisibilidade(anexoId, (Long) linha[3], (Long) linha[4], usuarioAutenticado);
+
+        // Ainda não gerada, ou conteúdo sem prévia (tamanho 0)
+        Long tamanho = (Long) linha[1];
+        if (tamanho == null || tamanho == 0) {
+            throw new ResourceNotFoundException("Miniatura do Anexo", "id", anexoId);
+        }
+        String hash = (String) linha[0];
+        try {
+            return new ArquivoAnexo("miniatura.jpg", MediaType.IMAGE_JPEG_VALUE, blobsAnexos.lerMiniatura(hash, tamanho),
+                    VersaoRecurso.de("miniatura", (LocalDateTime) linha[2], anexoId, hash));
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException("Miniatura do Anexo", "id", anexoId, e);
+        }
+    }
+
+    // Mesma regra de visibilidade da tarefa; sem permissão, o anexo não existe para o usuário
+    private static void verificarVisibilidade(Long anexoId, Long criadorId, Long responsavelId,
+            Usuario usuarioAutenticado) {
+        if (!AcessoTarefas.podeVisualizar(usuarioAutenticado, criadorId, responsavelId)) {
+            throw new ResourceNotFoundException("Anexo", "id", anexoId);
+        }
+    }
+
+    // Transação curta, só depois do conteúdo no disco: referência ao blob, anexo e, no upload
+    // retomável, a remoção da sessão (travada, para que duas conclusões não gerem dois anexos)
+    private AnexoDTO registrarAnexo(Long tarefaId, String nomeArquivo, String tipoArquivo,
+            BlobsAnexos.BlobRecebido blob, Usuario usuarioUpload, String uploadId) throws IOException {
+        try {
+            return transactionTemplate.execute(status -> {
+                if (uploadId != null && uploadAnexoRepository.findParaConclusao(uploadId).isEmpty()) {
+                    throw new ResourceNotFoundException("Upload", "id", uploadId);
+                }
+                Tarefa tarefa = acessoTarefas.tarefaVisivel(tarefaId, usuarioUpload);
+                try {
+                    blobsAnexos.adicionarReferencia(blob);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // Exceção de runtime: desfaz a referência
+                }
+
+                Anexo anexo = new Anexo();
+                anexo.setNomeArquivo(nomeArquivo);
+                anexo.setTipoArquivo(tipoArquivo);
+                anexo.setTamanhoArquivo(blob.tamanho());
+                anexo.setHashConteudo(blob.hash());
+                anexo.setTarefa(tarefa);
+                anexo.setUsuarioUpload(usuarioUpload);
+                Anexo anexoSalvo = anexoRepository.save(anexo);
+                // Fora do lock otimista: edições e outros anexos da tarefa não fazem o upload,
+                // já consumido da sessão retomável, ser desfeito
+                tarefaRepository.registrarAlteracaoFilhos(tarefaId, LocalDateTime.now());
+                if (uploadId != null) {
+                    uploadAnexoRepository.removerPorId(uploadId);
+                }
+                eventPublisher.publishEvent(new AnexoCriadoEvent(anexoSalvo.getId(), tarefaId, blob.hash()));
+                return convertToDTO(anexoSalvo);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private UploadAnexo findUpload(Long tarefaId, String uploadId, Usuario usuarioUpload) {
+        try {
+            UUID.fromString(uploadId);
+        } catch (IllegalArgumentException e) {
+            throw new ResourceNotFoundException("Upload", "id", uploadId);
+        }
+        // Sessão de outro usuário ou de outra tarefa não existe para quem pergunta
+        return uploadAnexoRepository.findDoUsuario(uploadId, tarefaId, usuarioUpload.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Upload", "id", uploadId));
+    }
+
+    private String validarNomeArquivo(String nomeArquivo) {
+        String nome = nomeArquivo != null ? StringUtils.cleanPath(nomeArquivo).trim() : "";
+        if (nome.isEmpty() || nome.length() > 255) {
+            throw new BadRequestException("O nome do arquivo é obrigatório e deve ter no máximo 255 caracteres.");
+        }
+        return nome;
+    }
+
+    private String validarTipoArquivo(String tipoArquivo) {
+        if (!StringUtils.hasText(tipoArquivo)) {
+            return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        }
+        if (tipoArquivo.length() > 100) {
+            throw new BadRequestException("O tipo do arquivo deve ter no máximo 100 caracteres.");
+        }
+        return tipoArquivo;
+    }
+
+    // Tamanho anunciado (Content-Length ou sessão) recusado antes de ler o corpo
+    private void validarTamanho(long tamanho) {
+        if (tamanho > tamanhoMaximo) {
+            throw new PayloadTooLargeException("O arquivo excede o tamanho máximo de " + tamanhoMaximo + " bytes.");
+        }
+    }
+
+    private UploadAnexoDTO convertToDTO(UploadAnexo upload, long recebido) {
+        return new UploadAnexoDTO(upload.getId(), upload.getTarefa().getId(), upload.getNomeArquivo(),
+                upload.getTipoArquivo(), upload.getTamanhoArquivo(), recebido, upload.getDataCriacao());
+    }
+
     private AnexoDTO convertToDTO(Anexo anexo) {
         AnexoDTO dto = new AnexoDTO();
         BeanUtils.copyProperties(anexo, dto, "tarefa", "usuarioUpload");
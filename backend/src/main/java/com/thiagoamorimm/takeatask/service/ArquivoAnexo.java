@@ -0,0 +1,10 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.storage.ConteudoBlob;
+
+/**
+ * O necessário para servir o arquivo de um anexo: cabeçalhos da resposta, o conteúdo (local ou
+ * no armazenamento remoto) e os validadores para requisições condicionais e If-Range.
+ */
+public record ArquivoAnexo(String nomeArquivo, String tipoArquivo, ConteudoBlob conteudo, VersaoRecurso versao) {
+}
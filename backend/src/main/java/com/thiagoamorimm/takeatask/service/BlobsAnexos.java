@@ -0,0 +1,277 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.exception.PayloadTooLargeException;
+import com.thiagoamorimm.takeatask.repository.BlobAnexoRepository;
+import com.thiagoamorimm.takeatask.storage.ArmazenamentoBlobs;
+import com.thiagoamorimm.takeatask.storage.ConteudoBlob;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Conteúdo dos anexos por SHA-256, com contagem de referências no banco (blobs_anexos).
+ *
+ * - O upload é gravado em um temporário enquanto o hash é calculado e depois entregue ao
+ *   ArmazenamentoBlobs, que descarta o temporário se o conteúdo já existia. No armazenamento
+ *   local o temporário é renomeado para o lugar do blob: cada byte vai ao disco uma única vez.
+ * - Cada anexo soma uma referência na transação que o grava e subtrai na que o remove.
+ * - Um blob sem referências só é apagado pela limpeza periódica, depois de
+ *   anexos.blobs.retencao e com a linha travada. Assim um upload do mesmo conteúdo, que trava a
+ *   mesma linha ao somar a referência, nunca fica apontando para um blob apagado.
+ */
+@Component
+public class BlobsAnexos {
+
+    private static final Logger log = LoggerFactory.getLogger(BlobsAnexos.class);
+
+    // Leituras do corpo acumuladas até encher o buffer: gravações grandes e poucas chamadas ao SO
+    private static final int TAMANHO_BUFFER = 256 * 1024;
+
+    private final BlobAnexoRepository blobAnexoRepository;
+    private final ArmazenamentoBlobs armazenamento;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate novaTransacao;
+    private final ThreadPoolTaskScheduler scheduler;
+    private final Path diretorioTemporario;
+    private final Duration retencao;
+    private final BuffersDiretos buffers = new BuffersDiretos(16, TAMANHO_BUFFER);
+
+    public BlobsAnexos(BlobAnexoRepository blobAnexoRepository, ArmazenamentoBlobs armazenamento,
+            PlatformTransactionManager transactionManager,
+            @Value("${file.upload-dir:./uploads}") String uploadDir,
+            @Value("${anexos.blobs.retencao:PT1H}") Duration retencao,
+            @Value("${anexos.blobs.limpeza:PT15M}") Duration limpeza) {
+        this.blobAnexoRepository = blobAnexoRepository;
+        this.armazenamento = armazenamento;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.novaTransacao = new TransactionTemplate(transactionManager);
+        this.novaTransacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.retencao = retencao;
+        this.diretorioTemporario = Paths.get(uploadDir).toAbsolutePath().normalize().resolve("tmp");
+        try {
+            Files.createDirectories(diretorioTemporario);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível criar o diretório temporário de uploads", e);
+        }
+
+        this.scheduler = new ThreadPoolTaskScheduler();
+        this.scheduler.setThreadNamePrefix("blobs-anexos-");
+        this.scheduler.initialize();
+        this.scheduler.scheduleWithFixedDelay(this::removerSemReferencias, Instant.now().plus(limpeza), limpeza);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * Grava o conteúdo em um arquivo temporário calculando o SHA-256 na mesma passada.
+     * O temporário deve ir para adicionarReferencia, que sempre o consome.
+     */
+    BlobRecebido receber(ReadableByteChannel conteudo, long tamanhoMaximo) throws IOException {
+        MessageDigest sha256 = novoSha256();
+        Path temporario = Files.createTempFile(diretorioTemporario, "upload-", ".tmp");
+        try (FileChannel destino = FileChannel.open(temporario, StandardOpenOption.WRITE)) {
+            long tamanho = copiar(conteudo, destino, sha256, tamanhoMaximo);
+            return new BlobRecebido(hex(sha256), tamanho, temporario);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporario);
+            throw e;
+        }
+    }
+
+    /**
+     * Copia do canal para a posição atual do arquivo por um buffer direto do pool, alimentando o
+     * SHA-256 (se informado) com os bytes já gravados. Um bloco que passaria de limite interrompe
+     * a cópia antes de ser gravado; uma falha de leitura grava o que já estava no buffer, para
+     * que um upload retomável continue dali.
+     */
+    long copiar(ReadableByteChannel origem, FileChannel destino, MessageDigest sha256, long limite)
+            throws IOException {
+        ByteBuffer buffer = buffers.obter();
+        try {
+            long total = 0;
+            boolean fim = false;
+            while (!fim) {
+                try {
+                    while (buffer.hasRemaining() && !fim) {
+                        fim = origem.read(buffer) == -1;
+                    }
+                } catch (IOException e) {
+                    if (total + buffer.position() <= limite) {
+                        gravar(buffer.flip(), destino, sha256);
+                    }
+                    throw e;
+                }
+                buffer.flip();
+                total += buffer.remaining();
+                if (total > limite) {
+                    throw new PayloadTooLargeException("O arquivo excede o tamanho máximo de " + limite + " bytes.");
+                }
+                gravar(buffer, destino, sha256);
+                buffer.clear();
+            }
+            return total;
+        } finally {
+            buffers.devolver(buffer);
+        }
+    }
+
+    private static void gravar(ByteBuffer buffer, FileChannel destino, MessageDigest sha256) throws IOException {
+        ByteBuffer gravado = buffer.duplicate();
+        while (buffer.hasRemaining()) {
+            destino.write(buffer);
+        }
+        if (sha256 != null) {
+            sha256.update(gravado);
+        }
+    }
+
+    /** SHA-256 de um arquivo já gravado, lido do início pelo mesmo pool de buffers. */
+    String calcularHash(FileChannel arquivo) throws IOException {
+        MessageDigest sha256 = novoSha256();
+        ByteBuffer buffer = buffers.obter();
+        try {
+            long posicao = 0;
+            int lidos;
+            while ((lidos = arquivo.read(buffer, posicao)) != -1) {
+                posicao += lidos;
+                buffer.flip();
+                sha256.update(buffer);
+                buffer.clear();
+            }
+        } finally {
+            buffers.devolver(buffer);
+        }
+        return hex(sha256);
+    }
+
+    /** Soma uma referência ao blob, armazenando o conteúdo se ele ainda não existe. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void adicionarReferencia(BlobRecebido blob) throws IOException {
+        try {
+            // Linha criada e confirmada à parte, com zero referências: dois uploads simultâneos do
+            // mesmo conteúdo disputam só este INSERT, e o que perde segue para o incremento
+            try {
+                novaTransacao.executeWithoutResult(status -> {
+                    if (!blobAnexoRepository.existsById(blob.hash())) {
+                        blobAnexoRepository.inserir(blob.hash(), blob.tamanho(), LocalDateTime.now());
+                    }
+                });
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Blob {} criado por outro upload simultâneo", blob.hash());
+            }
+            if (blobAnexoRepository.incrementarReferencias(blob.hash()) != 1) {
+                throw new IllegalStateException("Blob " + blob.hash() + " removido durante o upload");
+            }
+            armazenamento.gravar(blob.hash(), blob.temporario());
+        } finally {
+            Files.deleteIfExists(blob.temporario());
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removerReferencias(String hash, int quantidade) {
+        blobAnexoRepository.decrementarReferencias(hash, quantidade);
+        blobAnexoRepository.marcarSemReferencias(hash, LocalDateTime.now());
+    }
+
+    public ConteudoBlob ler(String hash, long tamanho) throws IOException {
+        return armazenamento.ler(hash, tamanho);
+    }
+
+    public ConteudoBlob lerMiniatura(String hash, long tamanho) throws IOException {
+        return armazenamento.lerDerivado(hash, MiniaturasAnexos.SUFIXO, tamanho);
+    }
+
+    /** Apaga os blobs sem referências há mais que a retenção e temporários de uploads interrompidos. */
+    void removerSemReferencias() {
+        LocalDateTime limite = LocalDateTime.now().minus(retencao);
+        try {
+            List<String> hashes = blobAnexoRepository.findHashesSemReferenciasDesde(limite, PageRequest.of(0, 500));
+            for (String hash : hashes) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> removerSeSemReferencias(hash));
+                } catch (RuntimeException e) {
+                    log.warn("Blob {} não removido; nova tentativa na próxima limpeza", hash, e);
+                }
+            }
+            removerTemporariosAntigos();
+        } catch (RuntimeException | IOException e) {
+            log.error("Falha na limpeza de blobs de anexos", e);
+        }
+    }
+
+    private void removerSeSemReferencias(String hash) {
+        blobAnexoRepository.findSemReferenciasParaRemocao(hash).ifPresent(blob -> {
+            // A linha sai primeiro (a FK de anexos confere no flush); se o armazenamento falhar,
+            // o rollback a devolve e a próxima limpeza tenta de novo
+            blobAnexoRepository.delete(blob);
+            blobAnexoRepository.flush();
+            try {
+                armazenamento.remover(hash);
+                if (blob.getTamanhoMiniatura() != null && blob.getTamanhoMiniatura() > 0) {
+                    armazenamento.removerDerivado(hash, MiniaturasAnexos.SUFIXO);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void removerTemporariosAntigos() throws IOException {
+        Instant limite = Instant.now().minus(retencao);
+        try (DirectoryStream<Path> temporarios = Files.newDirectoryStream(diretorioTemporario, "upload-*.tmp")) {
+            for (Path temporario : temporarios) {
+                if (Files.getLastModifiedTime(temporario).toInstant().isBefore(limite)) {
+                    Files.deleteIfExists(temporario);
+                }
+            }
+        }
+    }
+
+    static MessageDigest novoSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // SHA-256 é obrigatório em toda JVM
+        }
+    }
+
+    static String hex(MessageDigest sha256) {
+        return HexFormat.of().formatHex(sha256.digest());
+    }
+
+    /** Upload já no disco local, com hash e tamanho calculados. */
+    record BlobRecebido(String hash, long tamanho, Path temporario) {
+    }
+}
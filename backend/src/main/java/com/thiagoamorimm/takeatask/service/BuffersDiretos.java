@@ -0,0 +1,31 @@
+package com.thiagoamorimm.takeatask.service;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * ByteBuffers diretos reaproveitados entre uploads. Alocar um buffer direto é caro e a memória
+ * nativa só volta com o GC; com o pool ficam no máximo {capacidade} buffers parados. Sob pico,
+ * os buffers além da capacidade são alocados na hora e descartados na devolução.
+ */
+final class BuffersDiretos {
+
+    private final BlockingQueue<ByteBuffer> livres;
+    private final int tamanho;
+
+    BuffersDiretos(int capacidade, int tamanho) {
+        this.livres = new ArrayBlockingQueue<>(capacidade);
+        this.tamanho = tamanho;
+    }
+
+    ByteBuffer obter() {
+        ByteBuffer buffer = livres.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(tamanho);
+    }
+
+    void devolver(ByteBuffer buffer) {
+        buffer.clear();
+        livres.offer(buffer);
+    }
+}
@@ -0,0 +1,84 @@
+package com.thiagoamorimm.takeatask.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Busca textual de tarefas (nome, descrição e comentários) via tsvector + índice GIN.
+ *
+ * Só fica disponível no PostgreSQL, onde as migrações V3__busca_textual.sql e
+ * V12__busca_comentarios.sql criam as colunas (tarefas e comentários), os índices e os
+ * triggers que mantêm os vetores a cada escrita. Em outros bancos, ou com
+ * tarefa.busca.textual.enabled=false, as listagens continuam usando LIKE.
+ */
+@Service
+public class BuscaTextualService {
+
+    private static final Logger log = LoggerFactory.getLogger(BuscaTextualService.class);
+
+    private final DataSource dataSource;
+    private final boolean habilitado;
+    private volatile boolean disponivel;
+
+    public BuscaTextualService(DataSource dataSource,
+            @Value("${tarefa.busca.textual.enabled:true}") boolean habilitado) {
+        this.dataSource = dataSource;
+        this.habilitado = habilitado;
+    }
+
+    public boolean isDisponivel() {
+        return disponivel;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        if (!habilitado) {
+            return;
+        }
+        try (Connection conexao = dataSource.getConnection()) {
+            String banco = conexao.getMetaData().getDatabaseProductName();
+            if (!"PostgreSQL".equalsIgnoreCase(banco)) {
+                log.info("Busca textual indisponível em {}; pesquisas usarão LIKE", banco);
+                return;
+            }
+            try (ResultSet coluna = conexao.getMetaData().getColumns(null, null, "tarefas", "search_vector")) {
+                if (!coluna.next()) {
+                    log.warn("Coluna tarefas.search_vector ausente (migrações não aplicadas?); pesquisas usarão LIKE");
+                    return;
+                }
+            }
+            disponivel = true;
+            log.info("Busca textual de tarefas habilitada");
+        } catch (SQLException e) {
+            log.warn("Não foi possível preparar a busca textual; pesquisas usarão LIKE", e);
+        }
+    }
+
+    /**
+     * Converte o texto digitado em uma tsquery com casamento por prefixo em todos os
+     * termos ("relat financ" -> "relat:* & financ:*"). Retorna null se não sobrar termo.
+     */
+    public String montarConsulta(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        // Só letras e dígitos chegam ao to_tsquery, então o usuário não injeta operadores
+        String consulta = Arrays.stream(texto.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(termo -> !termo.isEmpty())
+                .map(termo -> termo + ":*")
+                .collect(Collectors.joining(" & "));
+        return consulta.isEmpty() ? null : consulta;
+    }
+}
@@ -2,6 +2,7 @@ package com.thiagoamorimm.takeatask.service;
 
 import com.thiagoamorimm.takeatask.dto.ComentarioCreateDTO;
 import com.thiagoamorimm.takeatask.dto.ComentarioDTO;
+import com.thiagoamorimm.takeatask.dto.PaginaCursorDTO;
 import com.thiagoamorimm.takeatask.model.Usuario; // Para o autor do comentário
 
 import java.util.List;
@@ -13,6 +14,11 @@ public interface ComentarioService {
 
     List<ComentarioDTO> listarComentariosPorTarefaId(Long tarefaId, Usuario usuarioAutenticado);
 
+    // Paginação keyset: sem cursor, os mais recentes; 'after' (nextCursor) continua para os mais
+    // antigos; 'since' (cursor de um comentário já recebido) traz só os mais novos, em ordem de criação
+    PaginaCursorDTO<ComentarioDTO> listarComentariosPaginados(Long tarefaId, Usuario usuarioAutenticado,
+            String after, String since, Integer limit);
+
     // Comentários geralmente não são atualizados, mas podem ser deletados
     void deletarComentario(Long id, Usuario usuarioAutenticado);
 }
@@ -2,33 +2,49 @@ package com.thiagoamorimm.takeatask.service;
 
 import com.thiagoamorimm.takeatask.dto.ComentarioCreateDTO;
 import com.thiagoamorimm.takeatask.dto.ComentarioDTO;
+import com.thiagoamorimm.takeatask.dto.PaginaCursorDTO;
 import com.thiagoamorimm.takeatask.enums.PerfilUsuario;
+import com.thiagoamorimm.takeatask.enums.TipoAlteracaoTarefa;
+import com.thiagoamorimm.takeatask.event.TarefaAlteradaEvent;
 import com.thiagoamorimm.takeatask.exception.BadRequestException;
 import com.thiagoamorimm.takeatask.exception.ResourceNotFoundException;
 import com.thiagoamorimm.takeatask.model.Comentario;
 import com.thiagoamorimm.takeatask.model.Tarefa;
 import com.thiagoamorimm.takeatask.model.Usuario;
 import com.thiagoamorimm.takeatask.repository.ComentarioRepository;
+import com.thiagoamorimm.takeatask.repository.TarefaRepository;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
 public class ComentarioServiceImpl implements ComentarioService {
 
+    private static final int LIMITE_PADRAO_PAGINA = 20;
+    private static final int LIMITE_MAXIMO_PAGINA = 100;
+
     private final ComentarioRepository comentarioRepository;
-    private final TarefaService tarefaService; // Para buscar a tarefa e verificar permissões
+    private final TarefaRepository tarefaRepository;
+    private final AcessoTarefas acessoTarefas;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public ComentarioServiceImpl(ComentarioRepository comentarioRepository,
-            @Lazy TarefaService tarefaService) {
+            TarefaRepository tarefaRepository,
+            AcessoTarefas acessoTarefas,
+            ApplicationEventPublisher eventPublisher) {
         this.comentarioRepository = comentarioRepository;
-        this.tarefaService = tarefaService;
+        this.tarefaRepository = tarefaRepository;
+        this.acessoTarefas = acessoTarefas;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -36,8 +52,7 @@ public class ComentarioServiceImpl implements ComentarioService {
     public ComentarioDTO adicionarComentario(Long tarefaId, ComentarioCreateDTO dto, Usuario autor) {
         // Use the tarefaId from the path parameter, ignoring any tarefaId in the DTO
         // Verifica se o usuário tem permissão para ver a tarefa (e, portanto, comentar)
-        Tarefa tarefa = tarefaService.findTarefaEntityById(tarefaId);
-        tarefaService.buscarTarefaPorId(tarefaId, autor); // Verifica permissão de visualização
+        Tarefa tarefa = acessoTarefas.tarefaVisivel(tarefaId, autor);
 
         Comentario comentario = new Comentario();
         comentario.setTexto(dto.getTexto());
@@ -45,6 +60,8 @@ public class ComentarioServiceImpl implements ComentarioService {
         comentario.setAutor(autor);
 
         Comentario novoComentario = comentarioRepository.save(comentario);
+        tarefaRepository.registrarAlteracaoFilhos(tarefaId, LocalDateTime.now());
+        publicarAlteracao(TipoAlteracaoTarefa.COMENTARIO_ADICIONADO, novoComentario);
         return convertToDTO(novoComentario);
     }
 
@@ -53,7 +70,7 @@ public class ComentarioServiceImpl implements ComentarioService {
     public ComentarioDTO buscarComentarioPorId(Long id, Usuario usuarioAutenticado) {
         Comentario comentario = findComentarioEntityById(id);
         // Verifica se o usuário pode ver a tarefa associada ao comentário
-        tarefaService.buscarTarefaPorId(comentario.getTarefa().getId(), usuarioAutenticado);
+        acessoTarefas.verificarVisualizacao(comentario.getTarefa().getId(), usuarioAutenticado);
         return convertToDTO(comentario);
     }
 
@@ -61,14 +78,55 @@ public class ComentarioServiceImpl implements ComentarioService {
     @Transactional(readOnly = true)
     public List<ComentarioDTO> listarComentariosPorTarefaId(Long tarefaId, Usuario usuarioAutenticado) {
         // Verifica se o usuário pode ver a tarefa
-        Tarefa tarefa = tarefaService.findTarefaEntityById(tarefaId);
-        tarefaService.buscarTarefaPorId(tarefaId, usuarioAutenticado);
+        acessoTarefas.verificarVisualizacao(tarefaId, usuarioAutenticado);
 
-        return comentarioRepository.findByTarefaOrderByDataCriacaoDesc(tarefa).stream()
+        return comentarioRepository.findMaisRecentes(tarefaId, Pageable.unpaged()).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<ComentarioDTO> listarComentariosPaginados(Long tarefaId, Usuario usuarioAutenticado,
+            String after, String since, Integer limit) {
+        boolean temAfter = after != null && !after.isBlank();
+        boolean temSince = since != null && !since.isBlank();
+        if (temAfter && temSince) {
+            throw new BadRequestException("Informe 'after' ou 'since', não os dois.");
+        }
+        int limite = normalizarLimite(limit);
+        acessoTarefas.verificarVisualizacao(tarefaId, usuarioAutenticado);
+
+        // Um registro a mais apenas para saber se existe próxima página
+        PageRequest pagina = PageRequest.of(0, limite + 1);
+        List<Comentario> comentarios;
+        if (temSince) {
+            // Um comentário gravado por uma transação ainda aberta, com data anterior à do cursor,
+            // não aparece aqui; a janela é a duração de adicionarComentario
+            CursorKeyset<LocalDateTime> cursor = CursorKeyset.porData(since);
+            comentarios = comentarioRepository.findPosteriores(tarefaId, cursor.chave(), cursor.id(), pagina);
+        } else if (temAfter) {
+            CursorKeyset<LocalDateTime> cursor = CursorKeyset.porData(after);
+            comentarios = comentarioRepository.findAnteriores(tarefaId, cursor.chave(), cursor.id(), pagina);
+        } else {
+            comentarios = comentarioRepository.findMaisRecentes(tarefaId, pagina);
+        }
+
+        boolean temMais = comentarios.size() > limite;
+        if (temMais) {
+            comentarios = comentarios.subList(0, limite);
+        }
+        // No modo 'since' o próximo cursor continua para os mais novos; no fim, o cliente guarda o
+        // cursor do último comentário recebido para a próxima consulta
+        String nextCursor = null;
+        if (temMais) {
+            Comentario ultimo = comentarios.get(comentarios.size() - 1);
+            nextCursor = new CursorKeyset<>(ultimo.getDataCriacao(), ultimo.getId()).encode();
+        }
+        List<ComentarioDTO> itens = comentarios.stream().map(this::convertToDTO).collect(Collectors.toList());
+        return new PaginaCursorDTO<>(itens, nextCursor, temMais, limite);
+    }
+
     @Override
     @Transactional
     public void deletarComentario(Long id, Usuario usuarioAutenticado) {
@@ -92,7 +150,26 @@ public class ComentarioServiceImpl implements ComentarioService {
             throw new BadRequestException("Você não tem permissão para deletar este comentário.");
         }
 
+        publicarAlteracao(TipoAlteracaoTarefa.COMENTARIO_REMOVIDO, comentario);
         comentarioRepository.delete(comentario);
+        tarefaRepository.registrarAlteracaoFilhos(tarefaDoComentario.getId(), LocalDateTime.now());
+    }
+
+    // Feed GET /api/tarefas/stream: quem enxerga a tarefa recebe o evento após o commit
+    private void publicarAlteracao(TipoAlteracaoTarefa tipo, Comentario comentario) {
+        Tarefa tarefa = comentario.getTarefa();
+        eventPublisher.publishEvent(TarefaAlteradaEvent.de(tipo, tarefa.getId(), comentario.getId(),
+                tarefa.getCriador().getId(), tarefa.getResponsavel() != null ? tarefa.getResponsavel().getId() : null));
+    }
+
+    private int normalizarLimite(Integer limit) {
+        if (limit == null) {
+            return LIMITE_PADRAO_PAGINA;
+        }
+        if (limit < 1) {
+            throw new BadRequestException("O parâmetro 'limit' deve ser maior que zero.");
+        }
+        return Math.min(limit, LIMITE_MAXIMO_PAGINA);
     }
 
     private Comentario findComentarioEntityById(Long id) {
@@ -108,6 +185,7 @@ public class ComentarioServiceImpl implements ComentarioService {
             dto.setAutorId(comentario.getAutor().getId());
             dto.setNomeAutor(comentario.getAutor().getNome());
         }
+        dto.setCursor(new CursorKeyset<>(comentario.getDataCriacao(), comentario.getId()).encode());
         return dto;
     }
 }
@@ -0,0 +1,49 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Posição de paginação keyset: chave de ordenação + id como desempate, exposta ao cliente
+ * apenas como token opaco (Base64 URL-safe). Listagem de tarefas e comentários usam
+ * dataCriacao como chave; a pesquisa por relevância usa o rank da busca textual.
+ */
+record CursorKeyset<K>(K chave, Long id) {
+
+    private static final char SEPARADOR = '|';
+
+    String encode() {
+        String valor = chave.toString() + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // null quando o parâmetro não foi informado
+    static CursorKeyset<LocalDateTime> porData(String token) {
+        return decode(token, LocalDateTime::parse);
+    }
+
+    static CursorKeyset<Float> porRank(String token) {
+        return decode(token, Float::valueOf);
+    }
+
+    private static <K> CursorKeyset<K> decode(String token, Function<String, K> chave) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int idx = valor.lastIndexOf(SEPARADOR);
+            if (idx <= 0) {
+                throw new BadRequestException("Cursor de paginação inválido.");
+            }
+            return new CursorKeyset<>(chave.apply(valor.substring(0, idx)), Long.valueOf(valor.substring(idx + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Cursor de paginação inválido.");
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.enums.PerfilUsuario;
+import com.thiagoamorimm.takeatask.enums.PrioridadeTarefa;
+import com.thiagoamorimm.takeatask.enums.StatusTarefa;
+import com.thiagoamorimm.takeatask.exception.BadRequestException;
+import com.thiagoamorimm.takeatask.model.Tag;
+import com.thiagoamorimm.takeatask.model.Tarefa;
+import com.thiagoamorimm.takeatask.model.Usuario;
+import com.thiagoamorimm.takeatask.repository.BuscaTextualFunctionContributor;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Filtros e permissões da listagem de tarefas como Specification, compartilhados pela
+ * listagem paginada (TarefaServiceImpl) e pela exportação (TarefaExportador).
+ */
+@Component
+public class FiltroTarefas {
+
+    private final BuscaTextualService buscaTextualService;
+
+    public FiltroTarefas(BuscaTextualService buscaTextualService) {
+        this.buscaTextualService = buscaTextualService;
+    }
+
+    public Specification<Tarefa> montar(Usuario usuarioAutenticado, StatusTarefa status,
+            PrioridadeTarefa prioridade, Long responsavelIdParam, LocalDateTime dataPrazoInicio,
+            LocalDateTime dataPrazoFim, Set<Long> tagIds, String keyword, String tipoFiltro, boolean fetchTags) {
+
+        // Usuário padrão só pode filtrar por seu próprio ID se responsavelIdParam for
+        // fornecido.
+        if (usuarioAutenticado.getPerfil() != PerfilUsuario.ADMINISTRADOR_GESTOR && responsavelIdParam != null
+                && !responsavelIdParam.equals(usuarioAutenticado.getId())) {
+            throw new BadRequestException("Você não tem permissão para visualizar tarefas de outro usuário.");
+        }
+
+        return (root, query, cb) -> {
+            // Fetch joins só fazem sentido quando a query retorna a entidade (não em
+            // contagens nem em projeções como a visão resumida)
+            boolean retornaEntidade = query != null && Tarefa.class.equals(query.getResultType());
+
+            // Criador e responsável são to-one: o fetch join não interfere no LIMIT da
+            // paginação e evita um SELECT por linha na conversão para DTO
+            if (retornaEntidade) {
+                root.fetch("criador", JoinType.LEFT);
+                root.fetch("responsavel", JoinType.LEFT);
+            }
+            // Adiciona fetch para tags para evitar LazyInitializationException e problemas
+            // relacionados
+            if (fetchTags && retornaEntidade) {
+                root.fetch("tags", JoinType.LEFT);
+                // Se outras coleções fossem necessárias e problemáticas, poderiam ser
+                // adicionadas aqui:
+                // root.fetch("anexos", JoinType.LEFT);
+                // root.fetch("comentarios", JoinType.LEFT);
+                query.distinct(true); // Essencial ao usar fetch em coleções to-many para evitar duplicatas da
+                                      // entidade Tarefa
+            }
+
+            List<Predicate> predicates = new ArrayList<>();
+
+            String consulta = consultaTextual(keyword);
+            if (consulta != null) {
+                // Índices GIN de tarefas (nome, descrição) e de comentários (ver BuscaTextualService)
+                predicates.add(cb.isTrue(cb.function(BuscaTextualFunctionContributor.FUNCAO, Boolean.class,
+                        root.get("id"), cb.literal(consulta))));
+            } else if (keyword != null && !keyword.trim().isEmpty()) {
+                String searchTerm = "%" + keyword.toLowerCase() + "%";
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("nome")), searchTerm),
+                        cb.like(cb.lower(root.get("descricao")), searchTerm)));
+            }
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            if (prioridade != null) {
+                predicates.add(cb.equal(root.get("prioridade"), prioridade));
+            }
+            if (dataPrazoInicio != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("dataPrazo"), dataPrazoInicio));
+            }
+            if (dataPrazoFim != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("dataPrazo"), dataPrazoFim));
+            }
+            if (tagIds != null && !tagIds.isEmpty()) {
+                Join<Tarefa, Tag> tagJoin = root.join("tags");
+                predicates.add(tagJoin.get("id").in(tagIds));
+                query.distinct(true);
+            }
+
+            // Lógica de permissão e filtro por tipoFiltro
+            if (usuarioAutenticado.getPerfil() == PerfilUsuario.ADMINISTRADOR_GESTOR) {
+                if ("minhas".equalsIgnoreCase(tipoFiltro)) {
+                    predicates.add(cb.or(
+                            cb.equal(root.get("responsavel"), usuarioAutenticado),
+                            cb.equal(root.get("criador"), usuarioAutenticado)));
+                } else if (responsavelIdParam != null) {
+                    predicates.add(cb.equal(root.get("responsavel").get("id"), responsavelIdParam));
+                }
+                // Para ADMIN, se tipoFiltro for "equipe" ou "todas" e responsavelIdParam não
+                // for fornecido,
+                // não adiciona filtro de usuário específico, buscando todas (respeitando
+                // outros filtros).
+            } else { // Usuário Padrão
+                Predicate responsavelIsUser = cb.equal(root.get("responsavel"), usuarioAutenticado);
+                Predicate criadorIsUser = cb.equal(root.get("criador"), usuarioAutenticado);
+
+                if ("minhas".equalsIgnoreCase(tipoFiltro)) {
+                    predicates.add(cb.or(responsavelIsUser, criadorIsUser));
+                } else if ("equipe".equalsIgnoreCase(tipoFiltro)) {
+                    // Simplificado: Tarefas onde o usuário é responsável.
+                    // Poderia ser expandido para incluir uma entidade "Equipe".
+                    predicates.add(responsavelIsUser);
+                } else { // "todas" para usuário padrão (todas que ele pode ver)
+                    predicates.add(cb.or(responsavelIsUser, criadorIsUser));
+                }
+
+                // Adiciona o filtro pelo ID do responsável se for o próprio usuário (a
+                // permissão já foi verificada ao montar a Specification)
+                if (responsavelIdParam != null) {
+                    predicates.add(cb.equal(root.get("responsavel").get("id"), responsavelIdParam));
+                }
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // tsquery da busca textual, ou null quando ela não está disponível (LIKE como fallback)
+    public String consultaTextual(String keyword) {
+        if (keyword == null || keyword.trim().isEmpty() || !buscaTextualService.isDisponivel()) {
+            return null;
+        }
+        return buscaTextualService.montarConsulta(keyword);
+    }
+}
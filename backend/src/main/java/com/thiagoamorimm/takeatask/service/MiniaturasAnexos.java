@@ -0,0 +1,299 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.event.AnexoCriadoEvent;
+import com.thiagoamorimm.takeatask.model.BlobAnexo;
+import com.thiagoamorimm.takeatask.repository.BlobAnexoRepository;
+import com.thiagoamorimm.takeatask.storage.ArmazenamentoBlobs;
+import com.thiagoamorimm.takeatask.storage.ConteudoBlob;
+import jakarta.annotation.PreDestroy;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Miniaturas JPEG dos anexos (imagens pelo ImageIO, primeira página de PDFs pelo PDFBox), para a
+ * tela da tarefa não baixar o arquivo inteiro só para mostrar a prévia.
+ *
+ * - A geração é por blob: anexos com o mesmo conteúdo compartilham a miniatura, guardada ao lado
+ *   do blob (ArmazenamentoBlobs.gravarDerivado) e anunciada em blobs_anexos.tamanho_miniatura.
+ * - Cada anexo novo enfileira o blob depois do commit, em um pool de tamanho e fila limitados.
+ *   Com a fila cheia o blob fica para a varredura periódica, que também cobre reinícios e
+ *   blobs anteriores às miniaturas.
+ * - O formato é reconhecido pelo conteúdo, não pelo tipo informado no upload. Conteúdo que não
+ *   vira imagem fica com tamanho 0 e não é tentado de novo; falhas de leitura ou gravação no
+ *   armazenamento deixam o blob pendente para a próxima varredura.
+ */
+@Component
+public class MiniaturasAnexos {
+
+    private static final Logger log = LoggerFactory.getLogger(MiniaturasAnexos.class);
+
+    static final String SUFIXO = "miniatura.jpg";
+
+    // Maior lado da miniatura, em pixels
+    private static final int LADO = 320;
+    private static final float QUALIDADE_JPEG = 0.8f;
+    private static final byte[] ASSINATURA_PDF = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+
+    private final BlobAnexoRepository blobAnexoRepository;
+    private final ArmazenamentoBlobs armazenamento;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor executor;
+    private final ThreadPoolTaskScheduler scheduler;
+    private final Path diretorioTemporario;
+    private final int tamanhoFila;
+
+    // Blobs na fila ou em geração: anexos do mesmo conteúdo não geram a mesma miniatura duas vezes
+    private final Set<String> emAndamento = ConcurrentHashMap.newKeySet();
+
+    public MiniaturasAnexos(BlobAnexoRepository blobAnexoRepository, ArmazenamentoBlobs armazenamento,
+            PlatformTransactionManager transactionManager,
+            @Value("${file.upload-dir:./uploads}") String uploadDir,
+            @Value("${anexos.miniaturas.workers:2}") int workers,
+            @Value("${anexos.miniaturas.fila:100}") int tamanhoFila,
+            @Value("${anexos.miniaturas.varredura:PT5M}") Duration varredura) {
+        this.blobAnexoRepository = blobAnexoRepository;
+        this.armazenamento = armazenamento;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.diretorioTemporario = Paths.get(uploadDir).toAbsolutePath().normalize().resolve("tmp");
+        this.tamanhoFila = tamanhoFila;
+        try {
+            Files.createDirectories(diretorioTemporario);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível criar o diretório temporário de uploads", e);
+        }
+
+        // Trabalho de CPU e memória (decodificar imagens): poucas threads de plataforma
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(workers);
+        this.executor.setMaxPoolSize(workers);
+        this.executor.setQueueCapacity(tamanhoFila);
+        this.executor.setThreadNamePrefix("miniaturas-anexos-");
+        this.executor.initialize();
+
+        this.scheduler = new ThreadPoolTaskScheduler();
+        this.scheduler.setThreadNamePrefix("miniaturas-varredura-");
+        this.scheduler.initialize();
+        this.scheduler.scheduleWithFixedDelay(this::varrerPendentes, Instant.now().plus(varredura), varredura);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onAnexoCriado(AnexoCriadoEvent evento) {
+        if (evento.hashConteudo() != null) {
+            enfileirar(evento.hashConteudo());
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        scheduler.shutdown();
+        executor.shutdown();
+    }
+
+    void varrerPendentes() {
+        try {
+            blobAnexoRepository.findHashesSemMiniatura(PageRequest.of(0, tamanhoFila)).forEach(this::enfileirar);
+        } catch (RuntimeException e) {
+            log.error("Falha na varredura de miniaturas pendentes", e);
+        }
+    }
+
+    private void enfileirar(String hash) {
+        if (!emAndamento.add(hash)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    gerar(hash);
+                } finally {
+                    emAndamento.remove(hash);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            emAndamento.remove(hash);
+            log.debug("Fila de miniaturas cheia; blob {} fica para a varredura", hash);
+        }
+    }
+
+    /** Gera e registra a miniatura do blob, se ele ainda existe e não foi processado. */
+    void gerar(String hash) {
+        BlobAnexo blob = blobAnexoRepository.findById(hash).orElse(null);
+        if (blob == null || blob.getTamanhoMiniatura() != null) {
+            return;
+        }
+        Path origem = null;
+        Path miniatura = null;
+        try {
+            ConteudoBlob conteudo = armazenamento.ler(hash, blob.getTamanho());
+            origem = conteudo.arquivoLocal().orElse(null);
+            if (origem == null) {
+                // PDF precisa de acesso aleatório: o conteúdo remoto vem para um temporário
+                origem = Files.createTempFile(diretorioTemporario, "miniatura-", ".tmp");
+                try (InputStream entrada = conteudo.abrir()) {
+                    Files.copy(entrada, origem, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+
+            miniatura = Files.createTempFile(diretorioTemporario, "miniatura-", ".jpg");
+            long tamanho = renderizar(origem, miniatura) ? Files.size(miniatura) : 0;
+            if (tamanho > 0) {
+                armazenamento.gravarDerivado(hash, SUFIXO, miniatura);
+            }
+            Integer registrados = transactionTemplate.execute(
+                    status -> blobAnexoRepository.registrarMiniatura(hash, tamanho));
+            if (tamanho > 0 && (registrados == null || registrados == 0)) {
+                armazenamento.removerDerivado(hash, SUFIXO); // Blob removido pela limpeza nesse meio tempo
+            }
+        } catch (NoSuchFileException e) {
+            log.debug("Blob {} removido antes da miniatura", hash);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Miniatura do blob {} não gerada; nova tentativa na próxima varredura", hash, e);
+        } finally {
+            apagar(miniatura);
+            if (origem != null && origem.startsWith(diretorioTemporario)) {
+                apagar(origem);
+            }
+        }
+    }
+
+    // false quando o conteúdo não é uma imagem ou PDF legível: o blob fica sem miniatura
+    private boolean renderizar(Path origem, Path destino) {
+        try {
+            BufferedImage imagem = pdf(origem) ? primeiraPagina(origem) : imagem(origem);
+            if (imagem == null) {
+                return false;
+            }
+            gravarJpeg(reduzir(imagem), destino);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.debug("Conteúdo sem miniatura: {}", e.toString());
+            return false;
+        }
+    }
+
+    private static boolean pdf(Path arquivo) throws IOException {
+        try (InputStream entrada = Files.newInputStream(arquivo)) {
+            return Arrays.equals(entrada.readNBytes(ASSINATURA_PDF.length), ASSINATURA_PDF);
+        }
+    }
+
+    private static BufferedImage primeiraPagina(Path arquivo) throws IOException {
+        // Cache do PDFBox em arquivo temporário, não no heap
+        try (PDDocument documento = Loader.loadPDF(arquivo.toFile(), IOUtils.createTempFileOnlyStreamCache())) {
+            if (documento.getNumberOfPages() == 0) {
+                return null;
+            }
+            PDRectangle pagina = documento.getPage(0).getCropBox();
+            // Renderizada já perto do tamanho final: uma página A4 a 72 dpi tem 842 pontos de altura
+            float escala = LADO / Math.max(pagina.getWidth(), pagina.getHeight());
+            return new PDFRenderer(documento).renderImage(0, escala, ImageType.RGB);
+        }
+    }
+
+    private static BufferedImage imagem(Path arquivo) throws IOException {
+        try (ImageInputStream entrada = ImageIO.createImageInputStream(arquivo.toFile())) {
+            Iterator<ImageReader> leitores = ImageIO.getImageReaders(entrada);
+            if (!leitores.hasNext()) {
+                return null;
+            }
+            ImageReader leitor = leitores.next();
+            try {
+                leitor.setInput(entrada, true, true);
+                // Decodifica pulando linhas e colunas: uma foto de 8000x6000 não chega a ocupar
+                // 190 MB no heap, só o dobro do tamanho da miniatura, que a redução suaviza
+                int maiorLado = Math.max(leitor.getWidth(0), leitor.getHeight(0));
+                int passo = Math.max(1, maiorLado / (LADO * 2));
+                ImageReadParam parametros = leitor.getDefaultReadParam();
+                parametros.setSourceSubsampling(passo, passo, 0, 0);
+                return leitor.read(0, parametros);
+            } finally {
+                leitor.dispose();
+            }
+        }
+    }
+
+    // Fundo branco: JPEG não tem transparência
+    private static BufferedImage reduzir(BufferedImage imagem) {
+        double fator = Math.min(1.0, (double) LADO / Math.max(imagem.getWidth(), imagem.getHeight()));
+        int largura = Math.max(1, (int) Math.round(imagem.getWidth() * fator));
+        int altura = Math.max(1, (int) Math.round(imagem.getHeight() * fator));
+        BufferedImage reduzida = new BufferedImage(largura, altura, BufferedImage.TYPE_INT_RGB);
+        Graphics2D grafico = reduzida.createGraphics();
+        try {
+            grafico.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            grafico.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            grafico.drawImage(imagem, 0, 0, largura, altura, Color.WHITE, null);
+        } finally {
+            grafico.dispose();
+        }
+        return reduzida;
+    }
+
+    private static void gravarJpeg(BufferedImage imagem, Path destino) throws IOException {
+        ImageWriter escritor = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream saida = ImageIO.createImageOutputStream(destino.toFile())) {
+            ImageWriteParam parametros = escritor.getDefaultWriteParam();
+            parametros.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            parametros.setCompressionQuality(QUALIDADE_JPEG);
+            escritor.setOutput(saida);
+            escritor.write(null, new IIOImage(imagem, null, null), parametros);
+        } finally {
+            escritor.dispose();
+        }
+    }
+
+    private static void apagar(Path arquivo) {
+        if (arquivo == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            log.debug("Temporário {} não removido", arquivo, e);
+        }
+    }
+}
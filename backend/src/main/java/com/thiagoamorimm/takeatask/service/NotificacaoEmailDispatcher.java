@@ -0,0 +1,214 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.enums.StatusNotificacao;
+import com.thiagoamorimm.takeatask.event.NotificacaoEnfileiradaEvent;
+import com.thiagoamorimm.takeatask.model.NotificacaoEmail;
+import com.thiagoamorimm.takeatask.repository.NotificacaoEmailRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Envia as notificações da outbox em um pool fixo de threads (notificacao.email.workers).
+ *
+ * - Cada commit que enfileira notificações agenda o destinatário após uma pequena janela
+ *   (notificacao.email.janela); tudo que chegar para ele até lá vai em um único email (digest).
+ * - Há no máximo um envio agendado/em andamento por destinatário nesta instância.
+ * - Antes do envio as notificações são reservadas (EM_ENVIO) em uma transação curta, com
+ *   SELECT ... FOR UPDATE SKIP LOCKED: outras réplicas e a varredura concorrente não as
+ *   enviam de novo. A reserva vale por notificacao.email.reserva; se a instância cair no
+ *   meio do envio, a notificação volta a ficar pronta quando ela expira.
+ * - Falhas de SMTP ficam PENDENTE com backoff exponencial até notificacao.email.max-tentativas,
+ *   depois viram FALHA.
+ * - Uma varredura periódica reenvia o que ficou para trás (retries, reinício da aplicação).
+ *
+ * O pool é de threads de plataforma mesmo com spring.threads.virtual.enabled: o SMTPTransport
+ * do Jakarta Mail faz o I/O do socket dentro de métodos synchronized, o que no Java 21 prenderia
+ * a carrier thread durante todo o envio. Como o SMTP já está fora das requisições, um pool
+ * pequeno e dedicado não limita a vazão da API.
+ */
+@Component
+public class NotificacaoEmailDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificacaoEmailDispatcher.class);
+
+    // PENDENTE vencida ou EM_ENVIO com a reserva expirada (instância caiu durante o envio)
+    private static final Set<StatusNotificacao> PRONTAS = EnumSet.of(StatusNotificacao.PENDENTE,
+            StatusNotificacao.EM_ENVIO);
+
+    private final NotificacaoEmailRepository notificacaoEmailRepository;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskScheduler scheduler;
+    private final Duration janela;
+    private final int maxTentativas;
+    private final Duration backoffInicial;
+    private final Duration backoffMaximo;
+    private final int maxItensPorEmail;
+    private final Duration reserva;
+
+    // TRUE: há notificações novas para processar; FALSE: worker em andamento sem novidades
+    private final ConcurrentHashMap<String, Boolean> agendados = new ConcurrentHashMap<>();
+
+    public NotificacaoEmailDispatcher(NotificacaoEmailRepository notificacaoEmailRepository,
+            EmailService emailService,
+            PlatformTransactionManager transactionManager,
+            @Value("${notificacao.email.workers:2}") int workers,
+            @Value("${notificacao.email.janela:PT2S}") Duration janela,
+            @Value("${notificacao.email.max-tentativas:5}") int maxTentativas,
+            @Value("${notificacao.email.backoff-inicial:PT30S}") Duration backoffInicial,
+            @Value("${notificacao.email.backoff-maximo:PT30M}") Duration backoffMaximo,
+            @Value("${notificacao.email.max-itens-por-email:50}") int maxItensPorEmail,
+            @Value("${notificacao.email.reserva:PT5M}") Duration reserva,
+            @Value("${notificacao.email.varredura:PT1M}") Duration varredura) {
+        this.notificacaoEmailRepository = notificacaoEmailRepository;
+        this.emailService = emailService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.janela = janela;
+        this.maxTentativas = maxTentativas;
+        this.backoffInicial = backoffInicial;
+        this.backoffMaximo = backoffMaximo;
+        this.maxItensPorEmail = maxItensPorEmail;
+        this.reserva = reserva;
+
+        this.scheduler = new ThreadPoolTaskScheduler();
+        this.scheduler.setPoolSize(workers);
+        this.scheduler.setThreadNamePrefix("notificacao-email-");
+        this.scheduler.initialize();
+        this.scheduler.scheduleWithFixedDelay(this::varrerPendentes, Instant.now().plus(varredura), varredura);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onNotificacaoEnfileirada(NotificacaoEnfileiradaEvent evento) {
+        agendar(evento.destinatario(), janela);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * Envia, em um único email, as notificações prontas de um destinatário.
+     * Retorna true se ainda podem existir notificações prontas (lote cheio).
+     */
+    public boolean enviarPendentes(String destinatario) {
+        LocalDateTime agora = LocalDateTime.now();
+        List<NotificacaoEmail> itens = reservar(destinatario, agora);
+        if (itens.isEmpty()) {
+            return false;
+        }
+        List<Long> ids = itens.stream().map(NotificacaoEmail::getId).toList();
+
+        try {
+            if (itens.size() == 1) {
+                emailService.sendSimpleMessage(destinatario, itens.get(0).getAssunto(), itens.get(0).getMensagem());
+            } else {
+                emailService.sendSimpleMessage(destinatario, "Você tem " + itens.size() + " novas notificações",
+                        montarDigest(itens));
+            }
+        } catch (RuntimeException e) {
+            registrarFalha(destinatario, itens, ids, e);
+            return false;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> notificacaoEmailRepository.marcarEnviadas(ids,
+                LocalDateTime.now()));
+        return itens.size() == maxItensPorEmail;
+    }
+
+    // Lê e reserva na mesma transação; o commit libera as linhas já como EM_ENVIO
+    private List<NotificacaoEmail> reservar(String destinatario, LocalDateTime agora) {
+        return transactionTemplate.execute(status -> {
+            List<NotificacaoEmail> itens = notificacaoEmailRepository.findProntasParaEnvio(destinatario,
+                    PRONTAS, agora, PageRequest.of(0, maxItensPorEmail));
+            if (!itens.isEmpty()) {
+                notificacaoEmailRepository.reservar(itens.stream().map(NotificacaoEmail::getId).toList(), PRONTAS,
+                        agora.plus(reserva));
+            }
+            return itens;
+        });
+    }
+
+    void varrerPendentes() {
+        try {
+            notificacaoEmailRepository.findDestinatariosComPendencias(PRONTAS,
+                    LocalDateTime.now(), PageRequest.of(0, 500))
+                    .forEach(destinatario -> agendar(destinatario, Duration.ZERO));
+        } catch (RuntimeException e) {
+            log.error("Falha ao buscar notificações pendentes", e);
+        }
+    }
+
+    private void agendar(String destinatario, Duration atraso) {
+        if (agendados.put(destinatario, Boolean.TRUE) != null) {
+            return; // Já existe um envio agendado ou em andamento, que vai incluir esta notificação
+        }
+        try {
+            scheduler.schedule(() -> processar(destinatario), Instant.now().plus(atraso));
+        } catch (TaskRejectedException e) {
+            agendados.remove(destinatario);
+            log.warn("Envio para {} não agendado; será retomado pela varredura", destinatario);
+        }
+    }
+
+    private void processar(String destinatario) {
+        do {
+            agendados.put(destinatario, Boolean.FALSE);
+            try {
+                while (enviarPendentes(destinatario)) {
+                    // Continua enquanto os lotes vierem cheios
+                }
+            } catch (RuntimeException e) {
+                log.error("Falha ao processar notificações de {}", destinatario, e);
+            }
+        } while (!agendados.remove(destinatario, Boolean.FALSE));
+    }
+
+    private void registrarFalha(String destinatario, List<NotificacaoEmail> itens, List<Long> ids, RuntimeException e) {
+        int tentativas = itens.stream().mapToInt(NotificacaoEmail::getTentativas).max().orElse(0) + 1;
+        boolean desistir = tentativas >= maxTentativas;
+        Duration atraso = backoffInicial.multipliedBy(1L << Math.min(tentativas - 1, 20));
+        if (atraso.compareTo(backoffMaximo) > 0) {
+            atraso = backoffMaximo;
+        }
+        LocalDateTime proximaTentativa = LocalDateTime.now().plus(atraso);
+        String erro = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+
+        transactionTemplate.executeWithoutResult(status -> notificacaoEmailRepository.registrarFalha(ids,
+                desistir ? StatusNotificacao.FALHA : StatusNotificacao.PENDENTE, tentativas, proximaTentativa, erro));
+
+        if (desistir) {
+            log.error("Desistindo de enviar {} notificação(ões) para {} após {} tentativas", ids.size(), destinatario,
+                    tentativas, e);
+        } else {
+            log.warn("Falha ao enviar email para {} (tentativa {}), nova tentativa às {}: {}", destinatario,
+                    tentativas, proximaTentativa, erro);
+        }
+    }
+
+    private String montarDigest(List<NotificacaoEmail> itens) {
+        StringBuilder texto = new StringBuilder("Olá, você tem novas notificações:\n");
+        for (NotificacaoEmail item : itens) {
+            texto.append("\n- ").append(item.getAssunto()).append('\n').append(item.getMensagem()).append('\n');
+        }
+        return texto.toString();
+    }
+}
@@ -0,0 +1,33 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.event.NotificacaoEnfileiradaEvent;
+import com.thiagoamorimm.takeatask.model.NotificacaoEmail;
+import com.thiagoamorimm.takeatask.repository.NotificacaoEmailRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Ponto de entrada para notificações por email. Em vez de falar com o SMTP dentro da
+ * transação, grava a notificação na outbox (notificacoes_email); o envio acontece depois
+ * do commit, em segundo plano, pelo NotificacaoEmailDispatcher. Assim uma falha ou
+ * lentidão do SMTP não segura a conexão com o banco nem desfaz a escrita da tarefa.
+ */
+@Service
+public class NotificacaoService {
+
+    private final NotificacaoEmailRepository notificacaoEmailRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public NotificacaoService(NotificacaoEmailRepository notificacaoEmailRepository,
+            ApplicationEventPublisher eventPublisher) {
+        this.notificacaoEmailRepository = notificacaoEmailRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional
+    public void enfileirar(String destinatario, String assunto, String mensagem) {
+        notificacaoEmailRepository.save(new NotificacaoEmail(destinatario, assunto, mensagem));
+        eventPublisher.publishEvent(new NotificacaoEnfileiradaEvent(destinatario));
+    }
+}
@@ -4,19 +4,21 @@ import com.thiagoamorimm.takeatask.dto.SubtarefaCreateDTO;
 import com.thiagoamorimm.takeatask.dto.SubtarefaDTO;
 import com.thiagoamorimm.takeatask.dto.SubtarefaUpdateDTO;
 import com.thiagoamorimm.takeatask.model.Subtarefa; // Necessário para findSubtarefaEntityById
+import com.thiagoamorimm.takeatask.model.Usuario;
 
 import java.util.List;
 
+// Todas as operações exigem permissão de visualização na tarefa principal (AcessoTarefas)
 public interface SubtarefaService {
-    SubtarefaDTO criarSubtarefa(SubtarefaCreateDTO subtarefaCreateDTO, Long tarefaId); // tarefaId para associar
+    SubtarefaDTO criarSubtarefa(SubtarefaCreateDTO subtarefaCreateDTO, Long tarefaId, Usuario usuarioAutenticado); // tarefaId para associar
 
-    SubtarefaDTO buscarSubtarefaPorId(Long id);
+    SubtarefaDTO buscarSubtarefaPorId(Long id, Usuario usuarioAutenticado);
 
-    List<SubtarefaDTO> listarSubtarefasPorTarefaId(Long tarefaId);
+    List<SubtarefaDTO> listarSubtarefasPorTarefaId(Long tarefaId, Usuario usuarioAutenticado);
 
-    SubtarefaDTO atualizarSubtarefa(Long id, SubtarefaUpdateDTO subtarefaUpdateDTO);
+    SubtarefaDTO atualizarSubtarefa(Long id, SubtarefaUpdateDTO subtarefaUpdateDTO, Usuario usuarioAutenticado);
 
-    void deletarSubtarefa(Long id);
+    void deletarSubtarefa(Long id, Usuario usuarioAutenticado);
 
     Subtarefa findSubtarefaEntityById(Long id); // Método auxiliar
 }
@@ -3,18 +3,16 @@ package com.thiagoamorimm.takeatask.service;
 import com.thiagoamorimm.takeatask.dto.SubtarefaCreateDTO;
 import com.thiagoamorimm.takeatask.dto.SubtarefaDTO;
 import com.thiagoamorimm.takeatask.dto.SubtarefaUpdateDTO;
+import com.thiagoamorimm.takeatask.exception.ConflictException;
 import com.thiagoamorimm.takeatask.exception.ResourceNotFoundException;
 import com.thiagoamorimm.takeatask.model.Subtarefa;
 import com.thiagoamorimm.takeatask.model.Tarefa;
 import com.thiagoamorimm.takeatask.model.Usuario;
 import com.thiagoamorimm.takeatask.repository.SubtarefaRepository;
-// Import TarefaService para buscar a Tarefa principal. Evitar dependência cíclica direta se possível.
-// Alternativamente, o TarefaRepository pode ser injetado aqui se TarefaService for muito complexo.
-// Por simplicidade, vamos assumir que TarefaService existe e pode ser usado.
-// import com.thiagoamorimm.takeatask.repository.TarefaRepository; // Opção mais simples
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,22 +23,22 @@ import java.util.stream.Collectors;
 public class SubtarefaServiceImpl implements SubtarefaService {
 
     private final SubtarefaRepository subtarefaRepository;
-    private final TarefaService tarefaService; // Usar @Lazy para quebrar ciclo de dependência se necessário
+    private final AcessoTarefas acessoTarefas; // Permissão na tarefa principal, sem carregá-la nas leituras
     private final UsuarioService usuarioService; // Para buscar entidade Usuario
 
     @Autowired
     public SubtarefaServiceImpl(SubtarefaRepository subtarefaRepository,
-            @Lazy TarefaService tarefaService, // @Lazy aqui
+            AcessoTarefas acessoTarefas,
             @Lazy UsuarioService usuarioService) {
         this.subtarefaRepository = subtarefaRepository;
-        this.tarefaService = tarefaService;
+        this.acessoTarefas = acessoTarefas;
         this.usuarioService = usuarioService;
     }
 
     @Override
     @Transactional
-    public SubtarefaDTO criarSubtarefa(SubtarefaCreateDTO dto, Long tarefaId) {
-        Tarefa tarefaPrincipal = tarefaService.findTarefaEntityById(tarefaId); // Busca a tarefa principal
+    public SubtarefaDTO criarSubtarefa(SubtarefaCreateDTO dto, Long tarefaId, Usuario usuarioAutenticado) {
+        Tarefa tarefaPrincipal = acessoTarefas.tarefaVisivel(tarefaId, usuarioAutenticado); // Busca a tarefa principal
         Subtarefa subtarefa = new Subtarefa();
         subtarefa.setDescricao(dto.getDescricao());
         subtarefa.setTarefaPrincipal(tarefaPrincipal);
@@ -56,8 +54,9 @@ public class SubtarefaServiceImpl implements SubtarefaService {
 
     @Override
     @Transactional(readOnly = true)
-    public SubtarefaDTO buscarSubtarefaPorId(Long id) {
+    public SubtarefaDTO buscarSubtarefaPorId(Long id, Usuario usuarioAutenticado) {
         Subtarefa subtarefa = findSubtarefaEntityById(id);
+        acessoTarefas.verificarVisualizacao(subtarefa.getTarefaPrincipal().getId(), usuarioAutenticado);
         return convertToDTO(subtarefa);
     }
 
@@ -70,17 +69,18 @@ public class SubtarefaServiceImpl implements SubtarefaService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<SubtarefaDTO> listarSubtarefasPorTarefaId(Long tarefaId) {
-        Tarefa tarefaPrincipal = tarefaService.findTarefaEntityById(tarefaId);
-        return subtarefaRepository.findByTarefaPrincipal(tarefaPrincipal).stream()
+    public List<SubtarefaDTO> listarSubtarefasPorTarefaId(Long tarefaId, Usuario usuarioAutenticado) {
+        acessoTarefas.verificarVisualizacao(tarefaId, usuarioAutenticado);
+        return subtarefaRepository.findByTarefaPrincipalIdComResponsavel(tarefaId).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
     @Override
     @Transactional
-    public SubtarefaDTO atualizarSubtarefa(Long id, SubtarefaUpdateDTO dto) {
+    public SubtarefaDTO atualizarSubtarefa(Long id, SubtarefaUpdateDTO dto, Usuario usuarioAutenticado) {
         Subtarefa subtarefaExistente = findSubtarefaEntityById(id);
+        acessoTarefas.verificarVisualizacao(subtarefaExistente.getTarefaPrincipal().getId(), usuarioAutenticado);
 
         if (dto.getDescricao() != null) {
             subtarefaExistente.setDescricao(dto.getDescricao());
@@ -96,14 +96,18 @@ public class SubtarefaServiceImpl implements SubtarefaService {
             subtarefaExistente.setResponsavel(null);
         }
 
-        Subtarefa subtarefaAtualizada = subtarefaRepository.save(subtarefaExistente);
-        return convertToDTO(subtarefaAtualizada);
+        try {
+            return convertToDTO(subtarefaRepository.saveAndFlush(subtarefaExistente));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new ConflictException("A subtarefa foi alterada por outra requisição. Carregue-a novamente.");
+        }
     }
 
     @Override
     @Transactional
-    public void deletarSubtarefa(Long id) {
+    public void deletarSubtarefa(Long id, Usuario usuarioAutenticado) {
         Subtarefa subtarefa = findSubtarefaEntityById(id);
+        acessoTarefas.verificarVisualizacao(subtarefa.getTarefaPrincipal().getId(), usuarioAutenticado);
         subtarefaRepository.delete(subtarefa);
     }
 
@@ -0,0 +1,131 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.dto.SugestaoDTO;
+import com.thiagoamorimm.takeatask.dto.SugestoesDTO;
+import com.thiagoamorimm.takeatask.enums.PerfilUsuario;
+import com.thiagoamorimm.takeatask.event.TarefasAtualizadasEmLoteEvent;
+import com.thiagoamorimm.takeatask.model.Tag;
+import com.thiagoamorimm.takeatask.model.Tarefa;
+import com.thiagoamorimm.takeatask.model.Usuario;
+import com.thiagoamorimm.takeatask.repository.TagRepository;
+import com.thiagoamorimm.takeatask.repository.TarefaRepository;
+import com.thiagoamorimm.takeatask.repository.UsuarioRepository;
+import com.thiagoamorimm.takeatask.search.IndicePrefixos;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Sugestões de autocomplete (tarefas, tags e usuários) servidas de índices em memória,
+ * sem ida ao banco. Os índices são carregados na subida e atualizados após cada commit
+ * pelo SugestaoIndexListener.
+ */
+@Service
+public class SugestaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(SugestaoService.class);
+
+    public static final int LIMITE_PADRAO = 5;
+    public static final int LIMITE_MAXIMO = 20;
+
+    // Dados de visibilidade junto da sugestão (mesma regra de verificarPermissaoVisualizacao)
+    private record TarefaIndexada(SugestaoDTO sugestao, Long criadorId, Long responsavelId) {
+    }
+
+    private final TarefaRepository tarefaRepository;
+    private final TagRepository tagRepository;
+    private final UsuarioRepository usuarioRepository;
+
+    // Tags e usuários são poucos e de nomes curtos: aceitam prefixos menores que tarefas
+    private final IndicePrefixos<TarefaIndexada> tarefas = new IndicePrefixos<>();
+    private final IndicePrefixos<SugestaoDTO> tags = new IndicePrefixos<>(1);
+    private final IndicePrefixos<SugestaoDTO> usuarios = new IndicePrefixos<>(2);
+
+    public SugestaoService(TarefaRepository tarefaRepository, TagRepository tagRepository,
+            UsuarioRepository usuarioRepository) {
+        this.tarefaRepository = tarefaRepository;
+        this.tagRepository = tagRepository;
+        this.usuarioRepository = usuarioRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void carregarIndices() {
+        for (Object[] linha : tarefaRepository.findDadosSugestao()) {
+            indexarTarefa((Long) linha[0], (String) linha[1], (Long) linha[2], (Long) linha[3]);
+        }
+        tagRepository.findAll().forEach(this::indexarTag);
+        usuarioRepository.findAll().forEach(this::indexarUsuario);
+        log.info("Índices de sugestão carregados: {} tarefas, {} tags, {} usuários", tarefas.tamanho(),
+                tags.tamanho(), usuarios.tamanho());
+    }
+
+    public SugestoesDTO sugerir(String consulta, Usuario usuarioAutenticado, Integer limit) {
+        int limite = limit == null ? LIMITE_PADRAO : Math.max(1, Math.min(limit, LIMITE_MAXIMO));
+
+        Predicate<TarefaIndexada> visivel = null;
+        if (usuarioAutenticado.getPerfil() != PerfilUsuario.ADMINISTRADOR_GESTOR) {
+            Long usuarioId = usuarioAutenticado.getId();
+            visivel = t -> usuarioId.equals(t.criadorId()) || usuarioId.equals(t.responsavelId());
+        }
+
+        return new SugestoesDTO(
+                tarefas.buscar(consulta, visivel, limite).stream().map(TarefaIndexada::sugestao).toList(),
+                tags.buscar(consulta, null, limite),
+                usuarios.buscar(consulta, null, limite));
+    }
+
+    public void indexarTarefa(Tarefa tarefa) {
+        indexarTarefa(tarefa.getId(), tarefa.getNome(),
+                tarefa.getCriador() != null ? tarefa.getCriador().getId() : null,
+                tarefa.getResponsavel() != null ? tarefa.getResponsavel().getId() : null);
+    }
+
+    // Atualizações em massa não passam pelo SugestaoIndexListener: relê nome e usuários
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTarefasAtualizadasEmLote(TarefasAtualizadasEmLoteEvent evento) {
+        for (Object[] linha : tarefaRepository.findDadosSugestaoByIdIn(evento.ids())) {
+            indexarTarefa((Long) linha[0], (String) linha[1], (Long) linha[2], (Long) linha[3]);
+        }
+    }
+
+    public void removerTarefa(Long id) {
+        tarefas.remover(id);
+    }
+
+    public void indexarTag(Tag tag) {
+        tags.indexar(tag.getId(), tag.getNome(), new SugestaoDTO(tag.getId(), tag.getNome(), tag.getCor()));
+    }
+
+    public void removerTag(Long id) {
+        tags.remover(id);
+    }
+
+    // Busca por nome e login; usuários inativos não são sugeridos
+    public void indexarUsuario(Usuario usuario) {
+        if (!usuario.isAtivo()) {
+            usuarios.remover(usuario.getId());
+            return;
+        }
+        usuarios.indexar(usuario.getId(), usuario.getNome() + " " + usuario.getLogin(),
+                new SugestaoDTO(usuario.getId(), usuario.getNome(), usuario.getLogin()));
+    }
+
+    public void removerUsuario(Long id) {
+        usuarios.remover(id);
+    }
+
+    private void indexarTarefa(Long id, String nome, Long criadorId, Long responsavelId) {
+        Objects.requireNonNull(id, "id");
+        tarefas.indexar(id, nome, new TarefaIndexada(new SugestaoDTO(id, nome, null), criadorId, responsavelId));
+    }
+}
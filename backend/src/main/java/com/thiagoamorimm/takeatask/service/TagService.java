@@ -16,6 +16,8 @@ public interface TagService {
 
     List<TagDTO> listarTodasTags(String query); // Modificado para aceitar query
 
+    VersaoRecurso versaoTags(); // Validador (ETag) da listagem, sem carregar as tags
+
     TagDTO atualizarTag(Long id, TagCreateDTO tagCreateDTO);
 
     void deletarTag(Long id);
@@ -2,6 +2,7 @@ package com.thiagoamorimm.takeatask.service;
 
 import com.thiagoamorimm.takeatask.dto.TagCreateDTO;
 import com.thiagoamorimm.takeatask.dto.TagDTO;
+import com.thiagoamorimm.takeatask.exception.BadRequestException;
 import com.thiagoamorimm.takeatask.exception.ConflictException;
 import com.thiagoamorimm.takeatask.exception.ResourceNotFoundException;
 import com.thiagoamorimm.takeatask.model.Tag;
@@ -10,7 +11,10 @@ import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -66,6 +70,13 @@ public class TagServiceImpl implements TagService {
         return convertToDTO(tag);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public VersaoRecurso versaoTags() {
+        Object[] versao = tagRepository.findVersaoColecao().get(0);
+        return VersaoRecurso.de("tags", (LocalDateTime) versao[2], versao);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<TagDTO> listarTodasTags(String query) {
@@ -118,16 +129,45 @@ public class TagServiceImpl implements TagService {
     @Transactional
     public Set<Tag> buscarOuCriarTags(Set<String> nomesTags) {
         Set<Tag> tags = new HashSet<>();
-        if (nomesTags != null && !nomesTags.isEmpty()) {
-            for (String nomeTag : nomesTags) {
-                Tag tag = tagRepository.findByNome(nomeTag)
-                        .orElseGet(() -> tagRepository.save(new Tag(nomeTag)));
-                tags.add(tag);
-            }
+        if (nomesTags == null || nomesTags.isEmpty()) {
+            return tags;
+        }
+
+        Set<String> faltando = normalizarNomes(nomesTags);
+        if (faltando.isEmpty()) {
+            return tags;
         }
+
+        // Uma consulta para as existentes, um INSERT para as novas e uma releitura. Sem cache
+        // por nome: lida sempre do banco, a tag não volta com nome antigo nem id já excluído
+        // depois de uma alteração feita em outra instância
+        List<Tag> encontradas = new ArrayList<>(tagRepository.findByNomeIn(faltando));
+        encontradas.forEach(tag -> faltando.remove(tag.getNome()));
+        if (!faltando.isEmpty()) {
+            tagRepository.inserirIgnorandoExistentes(faltando.toArray(String[]::new));
+            encontradas.addAll(tagRepository.findByNomeIn(faltando));
+        }
+
+        tags.addAll(encontradas);
         return tags;
     }
 
+    private Set<String> normalizarNomes(Set<String> nomesTags) {
+        Set<String> nomes = new LinkedHashSet<>();
+        for (String nome : nomesTags) {
+            if (nome == null || nome.isBlank()) {
+                continue;
+            }
+            String nomeTag = nome.trim();
+            // Mesma regra de @Size em Tag.nome, já que o INSERT em lote não passa pela validação da entidade
+            if (nomeTag.length() < 2 || nomeTag.length() > 50) {
+                throw new BadRequestException("O nome da tag deve ter entre 2 e 50 caracteres.");
+            }
+            nomes.add(nomeTag);
+        }
+        return nomes;
+    }
+
     private TagDTO convertToDTO(Tag tag) {
         TagDTO dto = new TagDTO();
         BeanUtils.copyProperties(tag, dto);
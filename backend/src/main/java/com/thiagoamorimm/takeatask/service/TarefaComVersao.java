@@ -0,0 +1,10 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.dto.TarefaDTO;
+
+/**
+ * Resultado de PUT/PATCH: a tarefa gravada e o ETag dela, calculado na mesma transação para
+ * que o cliente encadeie a próxima alteração (If-Match) sem um GET intermediário.
+ */
+public record TarefaComVersao(TarefaDTO tarefa, VersaoRecurso versao) {
+}
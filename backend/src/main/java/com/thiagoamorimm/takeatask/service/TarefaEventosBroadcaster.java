@@ -0,0 +1,189 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.dto.TarefaEventoDTO;
+import com.thiagoamorimm.takeatask.enums.PerfilUsuario;
+import com.thiagoamorimm.takeatask.event.TarefaAlteradaEvent;
+import com.thiagoamorimm.takeatask.model.Usuario;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Feed de GET /api/tarefas/stream (Server-Sent Events). Um único broadcaster por instância
+ * recebe os TarefaAlteradaEvent depois do commit e repassa cada um aos assinantes que
+ * enxergam a tarefa.
+ *
+ * - Cada assinante tem uma fila limitada (tarefas.stream.buffer). Quando o cliente não
+ *   acompanha, os eventos mais antigos são descartados e o próximo evento entregue é
+ *   precedido de um "descartados" com a quantidade perdida, sinal para recarregar a listagem.
+ * - A entrega acontece fora da thread que fez o commit, em uma virtual thread por assinante
+ *   com eventos pendentes: um cliente lento só atrasa a própria fila.
+ * - Um comentário SSE a cada tarefas.stream.heartbeat mantém a conexão aberta em proxies e
+ *   revela conexões que caíram sem aviso.
+ *
+ * Os assinantes ficam em memória; com mais de uma instância, cada uma repassa apenas os
+ * próprios commits.
+ */
+@Component
+public class TarefaEventosBroadcaster {
+
+    private final Set<Assinante> assinantes = ConcurrentHashMap.newKeySet();
+    private final ExecutorService entregas = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("tarefa-stream-", 0).factory());
+    private final ThreadPoolTaskScheduler scheduler;
+    private final int capacidadeFila;
+    private final Duration timeout;
+
+    public TarefaEventosBroadcaster(@Value("${tarefas.stream.buffer:256}") int capacidadeFila,
+            @Value("${tarefas.stream.timeout:PT30M}") Duration timeout,
+            @Value("${tarefas.stream.heartbeat:PT25S}") Duration heartbeat) {
+        this.capacidadeFila = capacidadeFila;
+        this.timeout = timeout;
+
+        this.scheduler = new ThreadPoolTaskScheduler();
+        this.scheduler.setThreadNamePrefix("tarefa-stream-heartbeat-");
+        this.scheduler.initialize();
+        this.scheduler.scheduleAtFixedRate(() -> assinantes.forEach(Assinante::pingar),
+                Instant.now().plus(heartbeat), heartbeat);
+    }
+
+    // Ao fim do timeout a conexão é encerrada e o EventSource do navegador reconecta sozinho
+    public SseEmitter assinar(Usuario usuario) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        try {
+            // Enviado junto com os cabeçalhos, para o cliente saber que a assinatura está ativa
+            emitter.send(SseEmitter.event().comment("conectado").reconnectTime(5000));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        registrar(emitter, usuario.getId(), usuario.getPerfil() == PerfilUsuario.ADMINISTRADOR_GESTOR);
+        return emitter;
+    }
+
+    void registrar(SseEmitter emitter, Long usuarioId, boolean administrador) {
+        Assinante assinante = new Assinante(emitter, usuarioId, administrador);
+        emitter.onCompletion(() -> assinantes.remove(assinante));
+        emitter.onError(erro -> assinantes.remove(assinante));
+        assinantes.add(assinante);
+    }
+
+    // Mesma regra de visibilidade de GET /api/tarefas/{id}
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void publicar(TarefaAlteradaEvent evento) {
+        TarefaEventoDTO dto = new TarefaEventoDTO(evento.tipo(), evento.tarefaId(), evento.comentarioId());
+        for (Assinante assinante : assinantes) {
+            if (assinante.administrador || evento.usuarioIds().contains(assinante.usuarioId)) {
+                assinante.oferecer(dto);
+            }
+        }
+    }
+
+    public int quantidadeAssinantes() {
+        return assinantes.size();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        scheduler.shutdown();
+        assinantes.forEach(assinante -> assinante.emitter.complete());
+        entregas.shutdownNow();
+    }
+
+    private final class Assinante {
+
+        private final SseEmitter emitter;
+        private final Long usuarioId;
+        private final boolean administrador;
+
+        // Estado protegido pelo monitor do próprio assinante
+        private final ArrayDeque<TarefaEventoDTO> fila = new ArrayDeque<>();
+        private long descartados;
+        private boolean pingPendente;
+        private boolean entregando;
+
+        private Assinante(SseEmitter emitter, Long usuarioId, boolean administrador) {
+            this.emitter = emitter;
+            this.usuarioId = usuarioId;
+            this.administrador = administrador;
+        }
+
+        void oferecer(TarefaEventoDTO evento) {
+            synchronized (this) {
+                if (fila.size() == capacidadeFila) {
+                    fila.pollFirst();
+                    descartados++;
+                }
+                fila.addLast(evento);
+            }
+            agendarEntrega();
+        }
+
+        void pingar() {
+            synchronized (this) {
+                pingPendente = true;
+            }
+            agendarEntrega();
+        }
+
+        private void agendarEntrega() {
+            synchronized (this) {
+                if (entregando) {
+                    return; // A entrega em andamento esvazia a fila antes de terminar
+                }
+                entregando = true;
+            }
+            entregas.execute(this::entregar);
+        }
+
+        private void entregar() {
+            while (true) {
+                TarefaEventoDTO evento;
+                long perdidos;
+                boolean ping;
+                synchronized (this) {
+                    evento = fila.pollFirst();
+                    perdidos = descartados;
+                    ping = pingPendente;
+                    descartados = 0;
+                    pingPendente = false;
+                    if (evento == null && perdidos == 0 && !ping) {
+                        entregando = false;
+                        return;
+                    }
+                }
+                try {
+                    if (perdidos > 0) {
+                        emitter.send(SseEmitter.event().name("descartados")
+                                .data(Map.of("quantidade", perdidos), MediaType.APPLICATION_JSON));
+                    }
+                    if (evento != null) {
+                        emitter.send(SseEmitter.event().name("tarefa").data(evento, MediaType.APPLICATION_JSON));
+                    } else if (ping) {
+                        emitter.send(SseEmitter.event().comment("ping"));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // Cliente desconectado ou emitter já encerrado; o container conclui a requisição.
+                    // 'entregando' fica true para que nada mais seja agendado para este assinante
+                    assinantes.remove(this);
+                    return;
+                }
+            }
+        }
+    }
+}
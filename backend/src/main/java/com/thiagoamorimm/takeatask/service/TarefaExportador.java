@@ -0,0 +1,275 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.thiagoamorimm.takeatask.enums.FormatoArquivo;
+import com.thiagoamorimm.takeatask.enums.PrioridadeTarefa;
+import com.thiagoamorimm.takeatask.enums.StatusTarefa;
+import com.thiagoamorimm.takeatask.model.Tarefa;
+import com.thiagoamorimm.takeatask.model.Usuario;
+import com.thiagoamorimm.takeatask.repository.TarefaRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Escreve as tarefas de uma Specification em CSV ou NDJSON à medida que são lidas do banco.
+ * A leitura usa um cursor (ver TarefaRepositoryCustom#streamAll) e é feita em lotes: as tags
+ * de cada lote vêm em uma única query, o lote é enviado ao cliente e as entidades são
+ * desanexadas do contexto de persistência, de modo que a memória não cresce com o total.
+ */
+@Service
+public class TarefaExportador {
+
+    static final int TAMANHO_LOTE = 500;
+
+    // Ordem da chave primária: o banco percorre o índice sem ordenar o resultado inteiro
+    private static final Sort ORDENACAO = Sort.by(Sort.Order.asc("id"));
+
+    private static final String[] COLUNAS = { "id", "nome", "descricao", "status", "prioridade", "dataPrazo",
+            "dataCriacao", "dataAtualizacao", "criadorId", "nomeCriador", "responsavelId", "nomeResponsavel",
+            "tags" };
+
+    private final TarefaRepository tarefaRepository;
+    private final FiltroTarefas filtroTarefas;
+    private final TransactionTemplate leitura;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public TarefaExportador(TarefaRepository tarefaRepository, FiltroTarefas filtroTarefas,
+            PlatformTransactionManager transactionManager) {
+        this.tarefaRepository = tarefaRepository;
+        this.filtroTarefas = filtroTarefas;
+        this.leitura = new TransactionTemplate(transactionManager);
+        this.leitura.setReadOnly(true);
+    }
+
+    /**
+     * Mesmos filtros e permissões da listagem. A Specification (e a validação dos filtros) é
+     * montada agora, antes de a resposta começar a ser escrita; a leitura acontece quando o
+     * corpo é consumido, em uma transação só de leitura.
+     */
+    public StreamingResponseBody exportar(Usuario usuarioAutenticado, StatusTarefa status,
+            PrioridadeTarefa prioridade, Long responsavelIdParam, LocalDateTime dataPrazoInicio,
+            LocalDateTime dataPrazoFim, Set<Long> tagIds, String keyword, String tipoFiltro,
+            FormatoArquivo formato) {
+        // Sem fetch de tags: elas são carregadas por lote
+        Specification<Tarefa> spec = filtroTarefas.montar(usuarioAutenticado, status, prioridade,
+                responsavelIdParam, dataPrazoInicio, dataPrazoFim, tagIds, keyword, tipoFiltro, false);
+        return saida -> {
+            try {
+                leitura.executeWithoutResult(transacao -> {
+                    try {
+                        escrever(spec, formato, saida);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    private void escrever(Specification<Tarefa> spec, FormatoArquivo formato, OutputStream saida)
+            throws IOException {
+        EscritorLinhas escritor = formato == FormatoArquivo.NDJSON ? new EscritorNdjson(saida)
+                : new EscritorCsv(saida);
+
+        try (Stream<Tarefa> tarefas = tarefaRepository.streamAll(spec, ORDENACAO, TAMANHO_LOTE)) {
+            escritor.cabecalho();
+            List<Tarefa> lote = new ArrayList<>(TAMANHO_LOTE);
+            Iterator<Tarefa> iterator = tarefas.iterator();
+            while (iterator.hasNext()) {
+                lote.add(iterator.next());
+                if (lote.size() == TAMANHO_LOTE) {
+                    escreverLote(lote, escritor);
+                }
+            }
+            escreverLote(lote, escritor);
+        }
+        escritor.fechar();
+    }
+
+    private void escreverLote(List<Tarefa> lote, EscritorLinhas escritor) throws IOException {
+        if (lote.isEmpty()) {
+            return;
+        }
+        List<Long> ids = lote.stream().map(Tarefa::getId).collect(Collectors.toList());
+        Map<Long, List<String>> tagsPorTarefa = new HashMap<>();
+        for (Object[] linha : tarefaRepository.findTagNomesByTarefaIds(ids)) {
+            tagsPorTarefa.computeIfAbsent((Long) linha[0], k -> new ArrayList<>()).add((String) linha[1]);
+        }
+        for (Tarefa tarefa : lote) {
+            escritor.linha(tarefa, tagsPorTarefa.getOrDefault(tarefa.getId(), Collections.emptyList()));
+        }
+        // Envia o lote ao cliente e libera as entidades já escritas
+        escritor.flush();
+        lote.clear();
+        entityManager.clear();
+    }
+
+    private interface EscritorLinhas {
+        void cabecalho() throws IOException;
+
+        void linha(Tarefa tarefa, List<String> tags) throws IOException;
+
+        void flush() throws IOException;
+
+        void fechar() throws IOException;
+    }
+
+    private static final class EscritorCsv implements EscritorLinhas {
+
+        private final Writer writer;
+
+        EscritorCsv(OutputStream saida) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void cabecalho() throws IOException {
+            writer.write(String.join(",", COLUNAS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void linha(Tarefa tarefa, List<String> tags) throws IOException {
+            Usuario criador = tarefa.getCriador();
+            Usuario responsavel = tarefa.getResponsavel();
+            writer.write(String.valueOf(tarefa.getId()));
+            campo(tarefa.getNome());
+            campo(tarefa.getDescricao());
+            campo(tarefa.getStatus() != null ? tarefa.getStatus().name() : null);
+            campo(tarefa.getPrioridade() != null ? tarefa.getPrioridade().name() : null);
+            campo(data(tarefa.getDataPrazo()));
+            campo(data(tarefa.getDataCriacao()));
+            campo(data(tarefa.getDataAtualizacao()));
+            campo(criador != null ? String.valueOf(criador.getId()) : null);
+            campo(criador != null ? criador.getNome() : null);
+            campo(responsavel != null ? String.valueOf(responsavel.getId()) : null);
+            campo(responsavel != null ? responsavel.getNome() : null);
+            campo(String.join(";", tags));
+            writer.write("\r\n");
+        }
+
+        // RFC 4180: aspas apenas quando o valor contém separador, aspas ou quebra de linha
+        private void campo(String valor) throws IOException {
+            writer.write(',');
+            if (valor == null || valor.isEmpty()) {
+                return;
+            }
+            boolean precisaAspas = false;
+            for (int i = 0; i < valor.length() && !precisaAspas; i++) {
+                char c = valor.charAt(i);
+                precisaAspas = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!precisaAspas) {
+                writer.write(valor);
+                return;
+            }
+            writer.write('"');
+            writer.write(valor.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void fechar() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private final class EscritorNdjson implements EscritorLinhas {
+
+        private final JsonGenerator gerador;
+
+        EscritorNdjson(OutputStream saida) throws IOException {
+            // O stream da resposta é fechado pelo container, não pelo gerador. Sem o separador
+            // padrão (espaço) entre objetos: cada linha termina apenas com '\n'
+            this.gerador = jsonFactory.createGenerator(saida, JsonEncoding.UTF8)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .setRootValueSeparator(null);
+        }
+
+        @Override
+        public void cabecalho() {
+            // NDJSON não tem cabeçalho: cada linha é um objeto completo
+        }
+
+        @Override
+        public void linha(Tarefa tarefa, List<String> tags) throws IOException {
+            Usuario criador = tarefa.getCriador();
+            Usuario responsavel = tarefa.getResponsavel();
+            gerador.writeStartObject();
+            gerador.writeNumberField("id", tarefa.getId());
+            gerador.writeStringField("nome", tarefa.getNome());
+            gerador.writeStringField("descricao", tarefa.getDescricao());
+            gerador.writeStringField("status", tarefa.getStatus() != null ? tarefa.getStatus().name() : null);
+            gerador.writeStringField("prioridade",
+                    tarefa.getPrioridade() != null ? tarefa.getPrioridade().name() : null);
+            gerador.writeStringField("dataPrazo", data(tarefa.getDataPrazo()));
+            gerador.writeStringField("dataCriacao", data(tarefa.getDataCriacao()));
+            gerador.writeStringField("dataAtualizacao", data(tarefa.getDataAtualizacao()));
+            if (criador != null) {
+                gerador.writeNumberField("criadorId", criador.getId());
+                gerador.writeStringField("nomeCriador", criador.getNome());
+            }
+            if (responsavel != null) {
+                gerador.writeNumberField("responsavelId", responsavel.getId());
+                gerador.writeStringField("nomeResponsavel", responsavel.getNome());
+            }
+            gerador.writeArrayFieldStart("tags");
+            for (String tag : tags) {
+                gerador.writeString(tag);
+            }
+            gerador.writeEndArray();
+            gerador.writeEndObject();
+            gerador.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            gerador.flush();
+        }
+
+        @Override
+        public void fechar() throws IOException {
+            gerador.close();
+        }
+    }
+
+    private static String data(LocalDateTime data) {
+        return data != null ? data.toString() : null;
+    }
+}
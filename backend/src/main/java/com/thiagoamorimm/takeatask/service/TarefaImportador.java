@@ -0,0 +1,486 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thiagoamorimm.takeatask.dto.ErroImportacaoDTO;
+import com.thiagoamorimm.takeatask.dto.ImportacaoResultadoDTO;
+import com.thiagoamorimm.takeatask.dto.TarefaCreateDTO;
+import com.thiagoamorimm.takeatask.enums.FormatoArquivo;
+import com.thiagoamorimm.takeatask.enums.PrioridadeTarefa;
+import com.thiagoamorimm.takeatask.enums.StatusTarefa;
+import com.thiagoamorimm.takeatask.exception.BadRequestException;
+import com.thiagoamorimm.takeatask.model.Tag;
+import com.thiagoamorimm.takeatask.model.Tarefa;
+import com.thiagoamorimm.takeatask.model.Usuario;
+import com.thiagoamorimm.takeatask.repository.TarefaRepository;
+import com.thiagoamorimm.takeatask.repository.UsuarioRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Importação de tarefas em massa (CSV ou NDJSON). O arquivo é lido registro a registro;
+ * cada registro é validado isoladamente e os válidos são gravados em lotes de
+ * tarefa.importacao.tamanho-lote, cada lote em sua própria transação. Responsáveis e tags
+ * são resolvidos uma vez por lote e os INSERTs saem em lotes JDBC (ver Tarefa#id).
+ * Registros inválidos entram no resultado sem interromper o resto; um lote que falha ao ser
+ * gravado é refeito registro a registro, para que só os registros com problema fiquem de fora.
+ */
+@Service
+public class TarefaImportador {
+
+    private static final Logger log = LoggerFactory.getLogger(TarefaImportador.class);
+
+    // Erros detalhados na resposta; acima disso só o total em 'falhas'
+    static final int LIMITE_ERROS = 1000;
+    private static final int NOMES_POR_NOTIFICACAO = 10;
+
+    private final TarefaRepository tarefaRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final TagService tagService;
+    private final TarefaStatsService tarefaStatsService;
+    private final NotificacaoService notificacaoService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanhoLote;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public TarefaImportador(TarefaRepository tarefaRepository,
+            UsuarioRepository usuarioRepository,
+            @Lazy TagService tagService,
+            TarefaStatsService tarefaStatsService,
+            NotificacaoService notificacaoService,
+            Validator validator,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${tarefa.importacao.tamanho-lote:500}") int tamanhoLote) {
+        this.tarefaRepository = tarefaRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.tagService = tagService;
+        this.tarefaStatsService = tarefaStatsService;
+        this.notificacaoService = notificacaoService;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    // Sem @Transactional: cada lote é confirmado (ou descartado) independentemente
+    public ImportacaoResultadoDTO importar(InputStream entrada, FormatoArquivo formato, Charset charset,
+            Usuario criador) throws IOException {
+        Resultado resultado = new Resultado();
+        List<Linha> lote = new ArrayList<>(tamanhoLote);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(entrada, charset));
+        LeitorRegistros leitor = formato == FormatoArquivo.NDJSON ? new LeitorNdjson(reader)
+                : new LeitorCsv(reader);
+
+        while (leitor.avancar()) {
+            resultado.totalLinhas++;
+            int numero = leitor.linha();
+            TarefaCreateDTO dto;
+            try {
+                dto = leitor.registro();
+            } catch (RegistroInvalidoException e) {
+                resultado.erro(numero, e.getMessage());
+                continue;
+            }
+            String erro = validar(dto);
+            if (erro != null) {
+                resultado.erro(numero, erro);
+                continue;
+            }
+            lote.add(new Linha(numero, dto));
+            if (lote.size() == tamanhoLote) {
+                gravarLote(lote, criador, resultado);
+            }
+        }
+        gravarLote(lote, criador, resultado);
+
+        return new ImportacaoResultadoDTO(resultado.totalLinhas, resultado.importadas, resultado.falhas,
+                resultado.erros);
+    }
+
+    private void gravarLote(List<Linha> lote, Usuario criador, Resultado resultado) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        try {
+            if (!tentarGravar(lote, criador, resultado) && lote.size() > 1) {
+                for (Linha linha : lote) {
+                    tentarGravar(List.of(linha), criador, resultado);
+                }
+            }
+        } finally {
+            lote.clear();
+            // Com open-in-view o EntityManager vive a requisição inteira: libera o lote gravado
+            entityManager.clear();
+        }
+    }
+
+    // Grava as linhas em uma transação; false se ela foi descartada. Com uma única linha o erro
+    // já fica no resultado; com mais, quem chama decide como refazê-las.
+    private boolean tentarGravar(List<Linha> linhas, Usuario criador, Resultado resultado) {
+        try {
+            List<ErroImportacaoDTO> erros = new ArrayList<>();
+            Integer gravadas = transactionTemplate.execute(status -> gravar(linhas, criador, erros));
+            resultado.importadas += Objects.requireNonNullElse(gravadas, 0);
+            erros.forEach(erro -> resultado.erro(erro.getLinha(), erro.getMensagem()));
+            return true;
+        } catch (RuntimeException e) {
+            // Entidades da transação descartada não podem ser reaproveitadas na próxima tentativa
+            entityManager.clear();
+            if (linhas.size() == 1) {
+                log.warn("Registro da linha {} não importado", linhas.get(0).numero(), e);
+                resultado.erro(linhas.get(0).numero(),
+                        "Registro não importado: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            } else {
+                log.warn("Lote de importação com {} tarefas descartado (linhas {} a {}); refazendo por registro",
+                        linhas.size(), linhas.get(0).numero(), linhas.get(linhas.size() - 1).numero(), e);
+            }
+            return false;
+        }
+    }
+
+    private int gravar(List<Linha> lote, Usuario criador, List<ErroImportacaoDTO> erros) {
+        Set<Long> responsavelIds = lote.stream().map(linha -> linha.dto().getResponsavelId())
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, Usuario> responsaveis = responsavelIds.isEmpty() ? Map.of()
+                : usuarioRepository.findAllById(responsavelIds).stream()
+                        .collect(Collectors.toMap(Usuario::getId, Function.identity()));
+
+        Set<String> nomesTags = new LinkedHashSet<>();
+        lote.forEach(linha -> nomesTags.addAll(nomesDeTags(linha.dto())));
+        Map<String, Tag> tags = tagService.buscarOuCriarTags(nomesTags).stream()
+                .collect(Collectors.toMap(Tag::getNome, Function.identity(), (a, b) -> a));
+
+        List<Tarefa> tarefas = new ArrayList<>(lote.size());
+        for (Linha linha : lote) {
+            TarefaCreateDTO dto = linha.dto();
+            Usuario responsavel = criador;
+            if (dto.getResponsavelId() != null) {
+                responsavel = responsaveis.get(dto.getResponsavelId());
+                if (responsavel == null) {
+                    erros.add(new ErroImportacaoDTO(linha.numero(),
+                            String.format("Usuário não encontrado com id : '%s'", dto.getResponsavelId())));
+                    continue;
+                }
+            }
+            Tarefa tarefa = new Tarefa();
+            BeanUtils.copyProperties(dto, tarefa, "responsavelId", "tags");
+            tarefa.setCriador(criador);
+            tarefa.setResponsavel(responsavel);
+            nomesDeTags(dto).forEach(nome -> tarefa.getTags().add(tags.get(nome)));
+            tarefas.add(tarefa);
+        }
+
+        tarefaRepository.saveAll(tarefas);
+        tarefaRepository.flush();
+        tarefaStatsService.registrarCriacoes(tarefas);
+        notificarResponsaveis(tarefas, criador);
+        return tarefas.size();
+    }
+
+    // Um email por responsável e lote (e não um por tarefa), na mesma regra de criarTarefa
+    private void notificarResponsaveis(List<Tarefa> tarefas, Usuario criador) {
+        Map<String, List<String>> porDestinatario = new LinkedHashMap<>();
+        for (Tarefa tarefa : tarefas) {
+            Usuario responsavel = tarefa.getResponsavel();
+            if (!responsavel.getId().equals(criador.getId()) && responsavel.getLogin() != null
+                    && responsavel.getLogin().contains("@")) {
+                porDestinatario.computeIfAbsent(responsavel.getLogin(), r -> new ArrayList<>()).add(tarefa.getNome());
+            }
+        }
+        porDestinatario.forEach((destinatario, nomes) -> {
+            if (nomes.size() == 1) {
+                notificacaoService.enfileirar(destinatario, "Nova tarefa atribuída a você",
+                        "Olá, uma nova tarefa foi atribuída a você: " + nomes.get(0));
+                return;
+            }
+            String lista = String.join(", ", nomes.subList(0, Math.min(nomes.size(), NOMES_POR_NOTIFICACAO)));
+            if (nomes.size() > NOMES_POR_NOTIFICACAO) {
+                lista += " e mais " + (nomes.size() - NOMES_POR_NOTIFICACAO);
+            }
+            notificacaoService.enfileirar(destinatario, "Novas tarefas atribuídas a você",
+                    "Olá, " + nomes.size() + " novas tarefas foram atribuídas a você: " + lista);
+        });
+    }
+
+    // Bean Validation do DTO (as mesmas regras de POST /api/tarefas) e tamanho das tags
+    private String validar(TarefaCreateDTO dto) {
+        Set<ConstraintViolation<TarefaCreateDTO>> violacoes = validator.validate(dto);
+        if (!violacoes.isEmpty()) {
+            return violacoes.stream().map(ConstraintViolation::getMessage).sorted()
+                    .collect(Collectors.joining(" "));
+        }
+        for (String nome : nomesDeTags(dto)) {
+            if (nome.length() < 2 || nome.length() > 50) {
+                return "O nome da tag deve ter entre 2 e 50 caracteres.";
+            }
+        }
+        return null;
+    }
+
+    private Set<String> nomesDeTags(TarefaCreateDTO dto) {
+        Set<String> nomes = new LinkedHashSet<>();
+        if (dto.getTags() != null) {
+            for (String nome : dto.getTags()) {
+                if (nome != null && !nome.isBlank()) {
+                    nomes.add(nome.trim());
+                }
+            }
+        }
+        return nomes;
+    }
+
+    private record Linha(int numero, TarefaCreateDTO dto) {
+    }
+
+    private static final class Resultado {
+        private int totalLinhas;
+        private int importadas;
+        private int falhas;
+        private final List<ErroImportacaoDTO> erros = new ArrayList<>();
+
+        void erro(int linha, String mensagem) {
+            falhas++;
+            if (erros.size() < LIMITE_ERROS) {
+                erros.add(new ErroImportacaoDTO(linha, mensagem));
+            }
+        }
+    }
+
+    private static final class RegistroInvalidoException extends RuntimeException {
+        RegistroInvalidoException(String message) {
+            super(message);
+        }
+    }
+
+    private interface LeitorRegistros {
+        // Posiciona no próximo registro; false no fim do arquivo
+        boolean avancar() throws IOException;
+
+        // Linha do arquivo em que o registro atual começa
+        int linha();
+
+        TarefaCreateDTO registro();
+    }
+
+    private final class LeitorNdjson implements LeitorRegistros {
+
+        private final BufferedReader reader;
+        private int linha;
+        private String atual;
+
+        LeitorNdjson(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean avancar() throws IOException {
+            String texto;
+            while ((texto = reader.readLine()) != null) {
+                linha++;
+                if (!texto.isBlank()) {
+                    atual = texto;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int linha() {
+            return linha;
+        }
+
+        @Override
+        public TarefaCreateDTO registro() {
+            try {
+                TarefaCreateDTO dto = objectMapper.readValue(atual, TarefaCreateDTO.class);
+                if (dto == null) {
+                    throw new RegistroInvalidoException("A linha deve conter um objeto JSON.");
+                }
+                return dto;
+            } catch (JsonMappingException e) {
+                String campo = e.getPath().isEmpty() ? null : e.getPath().get(e.getPath().size() - 1).getFieldName();
+                throw new RegistroInvalidoException(campo != null ? "Valor inválido para o campo '" + campo + "'."
+                        : "A linha deve conter um objeto JSON.");
+            } catch (JsonProcessingException e) {
+                throw new RegistroInvalidoException("JSON inválido: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * CSV (RFC 4180) com cabeçalho. Colunas reconhecidas: nome, descricao, status,
+     * prioridade, responsavelId, dataPrazo (ISO-8601) e tags (separadas por ';'); as demais
+     * são ignoradas, de modo que um arquivo de GET /api/tarefas/export pode ser reimportado.
+     */
+    private static final class LeitorCsv implements LeitorRegistros {
+
+        private final BufferedReader reader;
+        private final Map<String, Integer> colunas = new HashMap<>();
+        private int linhaAtual = 1;
+        private int inicioRegistro;
+        private List<String> campos;
+
+        LeitorCsv(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            List<String> cabecalho = lerRegistro();
+            if (cabecalho == null) {
+                throw new BadRequestException("O arquivo CSV está vazio.");
+            }
+            for (int i = 0; i < cabecalho.size(); i++) {
+                // Remove o BOM que planilhas costumam gravar no início de arquivos UTF-8
+                String coluna = cabecalho.get(i).replace("\uFEFF", "").trim();
+                colunas.putIfAbsent(coluna, i);
+            }
+            if (!colunas.containsKey("nome")) {
+                throw new BadRequestException("O cabeçalho do CSV deve conter a coluna 'nome'.");
+            }
+        }
+
+        @Override
+        public boolean avancar() throws IOException {
+            do {
+                inicioRegistro = linhaAtual;
+                campos = lerRegistro();
+            } while (campos != null && campos.size() == 1 && campos.get(0).isBlank());
+            return campos != null;
+        }
+
+        @Override
+        public int linha() {
+            return inicioRegistro;
+        }
+
+        @Override
+        public TarefaCreateDTO registro() {
+            TarefaCreateDTO dto = new TarefaCreateDTO();
+            dto.setNome(valor("nome"));
+            dto.setDescricao(valor("descricao"));
+            dto.setStatus(enumValor(StatusTarefa.class, "status"));
+            dto.setPrioridade(enumValor(PrioridadeTarefa.class, "prioridade"));
+            String responsavelId = valor("responsavelId");
+            if (responsavelId != null) {
+                try {
+                    dto.setResponsavelId(Long.valueOf(responsavelId.trim()));
+                } catch (NumberFormatException e) {
+                    throw new RegistroInvalidoException("Valor inválido para o campo 'responsavelId'.");
+                }
+            }
+            String dataPrazo = valor("dataPrazo");
+            if (dataPrazo != null) {
+                try {
+                    dto.setDataPrazo(LocalDateTime.parse(dataPrazo.trim()));
+                } catch (DateTimeParseException e) {
+                    throw new RegistroInvalidoException("Valor inválido para o campo 'dataPrazo'.");
+                }
+            }
+            String tags = valor("tags");
+            if (tags != null) {
+                dto.setTags(new LinkedHashSet<>(List.of(tags.split(";"))));
+            }
+            return dto;
+        }
+
+        private String valor(String coluna) {
+            Integer indice = colunas.get(coluna);
+            if (indice == null || indice >= campos.size() || campos.get(indice).isEmpty()) {
+                return null;
+            }
+            return campos.get(indice);
+        }
+
+        private <E extends Enum<E>> E enumValor(Class<E> tipo, String coluna) {
+            String valor = valor(coluna);
+            if (valor == null) {
+                return null;
+            }
+            try {
+                return Enum.valueOf(tipo, valor.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new RegistroInvalidoException("Valor inválido para o campo '" + coluna + "'.");
+            }
+        }
+
+        // Lê um registro, que pode ocupar várias linhas quando um campo entre aspas tem quebras
+        private List<String> lerRegistro() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> registro = new ArrayList<>();
+            StringBuilder campo = new StringBuilder();
+            boolean entreAspas = false;
+            while (c != -1) {
+                if (entreAspas) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int proximo = reader.read();
+                        if (proximo == '"') {
+                            campo.append('"');
+                        } else {
+                            entreAspas = false;
+                            if (proximo != -1) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        if (c == '\n') {
+                            linhaAtual++;
+                        }
+                        campo.append((char) c);
+                    }
+                } else if (c == '"' && campo.length() == 0) {
+                    entreAspas = true;
+                } else if (c == ',') {
+                    registro.add(campo.toString());
+                    campo.setLength(0);
+                } else if (c == '\n') {
+                    linhaAtual++;
+                    break;
+                } else if (c != '\r') {
+                    campo.append((char) c);
+                }
+                c = reader.read();
+            }
+            registro.add(campo.toString());
+            return registro;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.thiagoamorimm.takeatask.dto.TarefaUpdateDTO;
+import com.thiagoamorimm.takeatask.enums.PrioridadeTarefa;
+import com.thiagoamorimm.takeatask.enums.StatusTarefa;
+import com.thiagoamorimm.takeatask.exception.BadRequestException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Corpo de PATCH /api/tarefas/{id} (JSON Merge Patch, RFC 7396) traduzido para as alterações
+ * de atualizarTarefa: membro ausente não muda, valor presente substitui (tags inclusive, como
+ * conjunto inteiro) e null remove, o que só vale para os campos opcionais.
+ */
+record TarefaMergePatch(TarefaUpdateDTO valores, Set<String> removidos) {
+
+    private static final Set<String> REMOVIVEIS = Set.of("descricao", "responsavelId", "dataPrazo", "tags");
+    private static final Set<String> OBRIGATORIOS = Set.of("nome", "status", "prioridade");
+
+    static TarefaMergePatch ler(JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new BadRequestException("O merge patch da tarefa deve ser um objeto JSON.");
+        }
+        TarefaUpdateDTO valores = new TarefaUpdateDTO();
+        Set<String> removidos = new HashSet<>();
+        for (Map.Entry<String, JsonNode> membro : patch.properties()) {
+            String campo = membro.getKey();
+            JsonNode valor = membro.getValue();
+            if (valor.isNull()) {
+                if (REMOVIVEIS.contains(campo)) {
+                    removidos.add(campo);
+                    continue;
+                }
+                if (OBRIGATORIOS.contains(campo)) {
+                    throw new BadRequestException("O campo '" + campo + "' é obrigatório e não pode ser removido.");
+                }
+            }
+            switch (campo) {
+                case "nome" -> valores.setNome(nome(valor));
+                case "descricao" -> valores.setDescricao(texto(campo, valor));
+                case "status" -> valores.setStatus(constante(StatusTarefa.class, campo, valor));
+                case "prioridade" -> valores.setPrioridade(constante(PrioridadeTarefa.class, campo, valor));
+                case "responsavelId" -> valores.setResponsavelId(id(campo, valor));
+                case "dataPrazo" -> valores.setDataPrazo(dataHora(campo, valor));
+                case "tags" -> valores.setTags(nomesTags(valor));
+                default -> throw new BadRequestException("O campo '" + campo + "' não existe ou não pode ser alterado.");
+            }
+        }
+        return new TarefaMergePatch(valores, removidos);
+    }
+
+    boolean vazio() {
+        return removidos.isEmpty() && valores.getNome() == null && valores.getDescricao() == null
+                && valores.getStatus() == null && valores.getPrioridade() == null
+                && valores.getResponsavelId() == null && valores.getDataPrazo() == null && valores.getTags() == null;
+    }
+
+    // Mesma regra do @Size de TarefaUpdateDTO, que aqui não passa pelo Bean Validation
+    private static String nome(JsonNode valor) {
+        String nome = texto("nome", valor);
+        if (nome.length() < 3 || nome.length() > 150) {
+            throw new BadRequestException("O nome da tarefa deve ter entre 3 e 150 caracteres.");
+        }
+        return nome;
+    }
+
+    private static String texto(String campo, JsonNode valor) {
+        if (!valor.isTextual()) {
+            throw new BadRequestException("O campo '" + campo + "' deve ser um texto.");
+        }
+        return valor.textValue();
+    }
+
+    private static <E extends Enum<E>> E constante(Class<E> tipo, String campo, JsonNode valor) {
+        try {
+            return Enum.valueOf(tipo, texto(campo, valor));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Valor inválido para '" + campo + "': " + valor.asText());
+        }
+    }
+
+    private static Long id(String campo, JsonNode valor) {
+        if (!valor.isIntegralNumber() || !valor.canConvertToLong()) {
+            throw new BadRequestException("O campo '" + campo + "' deve ser um número inteiro.");
+        }
+        return valor.longValue();
+    }
+
+    // Mesmo formato aceito pelo Jackson no PUT (ISO-8601 sem fuso, ex.: 2025-06-30T18:00:00)
+    private static LocalDateTime dataHora(String campo, JsonNode valor) {
+        try {
+            return LocalDateTime.parse(texto(campo, valor));
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("O campo '" + campo + "' deve estar no formato YYYY-MM-DDTHH:mm:ss.");
+        }
+    }
+
+    private static Set<String> nomesTags(JsonNode valor) {
+        if (!valor.isArray()) {
+            throw new BadRequestException("O campo 'tags' deve ser uma lista de nomes.");
+        }
+        Set<String> nomes = new LinkedHashSet<>();
+        for (JsonNode nome : valor) {
+            nomes.add(texto("tags", nome));
+        }
+        return nomes;
+    }
+}
@@ -1,8 +1,13 @@
 package com.thiagoamorimm.takeatask.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.thiagoamorimm.takeatask.dto.PaginaCursorDTO;
 import com.thiagoamorimm.takeatask.dto.TarefaCreateDTO;
 import com.thiagoamorimm.takeatask.dto.TarefaDTO;
+import com.thiagoamorimm.takeatask.dto.TarefaLoteResultadoDTO;
+import com.thiagoamorimm.takeatask.dto.TarefaLoteUpdateDTO;
 import com.thiagoamorimm.takeatask.dto.TarefaStatsDTO;
+import com.thiagoamorimm.takeatask.dto.TarefaSummaryDTO;
 import com.thiagoamorimm.takeatask.dto.TarefaUpdateDTO;
 import com.thiagoamorimm.takeatask.enums.PrioridadeTarefa;
 import com.thiagoamorimm.takeatask.enums.StatusTarefa;
@@ -18,6 +23,9 @@ public interface TarefaService {
 
         TarefaDTO buscarTarefaPorId(Long id, Usuario usuarioAutenticado); // Considera permissões
 
+        // ETag/Last-Modified de buscarTarefaPorId com as mesmas regras de permissão, sem montar o DTO
+        VersaoRecurso versaoTarefa(Long id, Usuario usuarioAutenticado);
+
         List<TarefaDTO> listarTarefasPorUsuario(Usuario usuarioAutenticado,
                         StatusTarefa status,
                         PrioridadeTarefa prioridade,
@@ -35,7 +43,15 @@ public interface TarefaService {
 
         List<TarefaDTO> pesquisarTarefas(String keyword, Usuario usuarioAutenticado);
 
-        TarefaDTO atualizarTarefa(Long id, TarefaUpdateDTO tarefaUpdateDTO, Usuario usuarioAutenticado);
+        // ifMatch: cabeçalho If-Match da requisição (null = sem pré-condição)
+        TarefaComVersao atualizarTarefa(Long id, TarefaUpdateDTO tarefaUpdateDTO, String ifMatch,
+                        Usuario usuarioAutenticado);
+
+        // JSON Merge Patch (RFC 7396): só os membros presentes mudam; null remove campos opcionais
+        TarefaComVersao aplicarMergePatch(Long id, JsonNode patch, String ifMatch, Usuario usuarioAutenticado);
+
+        // Atualização parcial de várias tarefas (por ids ou filtro) em um único UPDATE
+        TarefaLoteResultadoDTO atualizarTarefasEmLote(TarefaLoteUpdateDTO dto, Usuario usuarioAutenticado);
 
         void deletarTarefa(Long id, Usuario usuarioAutenticado);
 
@@ -52,4 +68,33 @@ public interface TarefaService {
                         Set<Long> tagIds,
                         String keyword,
                         String tipoFiltro);
+
+        // Paginação keyset: 'after' é o token opaco retornado em nextCursor da página anterior
+        PaginaCursorDTO<TarefaDTO> listarTarefasPaginadas(Usuario usuarioAutenticado,
+                        StatusTarefa status,
+                        PrioridadeTarefa prioridade,
+                        Long responsavelId,
+                        LocalDateTime dataPrazoInicio,
+                        LocalDateTime dataPrazoFim,
+                        Set<Long> tagIds,
+                        String keyword,
+                        String tipoFiltro,
+                        String after,
+                        Integer limit);
+
+        PaginaCursorDTO<TarefaDTO> pesquisarTarefasPaginadas(String keyword, Usuario usuarioAutenticado,
+                        String after, Integer limit);
+
+        // Visão resumida (projeção, sem anexos/comentários), sempre paginada
+        PaginaCursorDTO<TarefaSummaryDTO> listarResumosPaginados(Usuario usuarioAutenticado,
+                        StatusTarefa status,
+                        PrioridadeTarefa prioridade,
+                        Long responsavelId,
+                        LocalDateTime dataPrazoInicio,
+                        LocalDateTime dataPrazoFim,
+                        Set<Long> tagIds,
+                        String keyword,
+                        String tipoFiltro,
+                        String after,
+                        Integer limit);
 }
@@ -1,43 +1,85 @@
 package com.thiagoamorimm.takeatask.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.thiagoamorimm.takeatask.dto.*;
 import com.thiagoamorimm.takeatask.enums.PerfilUsuario;
 import com.thiagoamorimm.takeatask.enums.PrioridadeTarefa;
 import com.thiagoamorimm.takeatask.enums.StatusTarefa;
+import com.thiagoamorimm.takeatask.enums.TipoAlteracaoTarefa;
+import com.thiagoamorimm.takeatask.event.TarefaAlteradaEvent;
+import com.thiagoamorimm.takeatask.event.TarefasAtualizadasEmLoteEvent;
 import com.thiagoamorimm.takeatask.exception.BadRequestException;
+import com.thiagoamorimm.takeatask.exception.ConflictException;
+import com.thiagoamorimm.takeatask.exception.PreconditionFailedException;
 import com.thiagoamorimm.takeatask.exception.ResourceNotFoundException;
 import com.thiagoamorimm.takeatask.model.*;
+import com.thiagoamorimm.takeatask.repository.AnexoRepository;
+import com.thiagoamorimm.takeatask.repository.ComentarioRepository;
 import com.thiagoamorimm.takeatask.repository.TarefaRepository;
+import com.thiagoamorimm.takeatask.repository.TarefaRepositoryCustom.AlvoAtualizacao;
 import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import jakarta.persistence.criteria.Join;
-import jakarta.persistence.criteria.JoinType; // Adicionado
-import jakarta.persistence.criteria.Predicate;
 import java.util.ArrayList;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class TarefaServiceImpl implements TarefaService {
 
+    private static final int LIMITE_PADRAO_PAGINA = 20;
+    private static final int LIMITE_MAXIMO_PAGINA = 100;
+    // Tarefas por chamada de PATCH /api/tarefas/batch (tamanho da lista do IN)
+    private static final int LIMITE_ATUALIZACAO_LOTE = 1000;
+    private static final int LINHAS_POR_NOTIFICACAO = 10;
+    // Comentários embutidos em cada TarefaDTO; o histórico completo é paginado em ComentarioService
+    private static final int COMENTARIOS_RECENTES = 5;
+    private static final Sort ORDENACAO_CURSOR = Sort.by(Sort.Order.desc("dataCriacao"), Sort.Order.desc("id"));
+
     private final TarefaRepository tarefaRepository;
+    private final AnexoRepository anexoRepository;
+    private final ComentarioRepository comentarioRepository;
     private final UsuarioService usuarioService;
     private final TagService tagService;
-    private final EmailService emailService;
+    private final NotificacaoService notificacaoService;
+    private final TarefaStatsService tarefaStatsService;
+    private final FiltroTarefas filtroTarefas;
+    private final BlobsAnexos blobsAnexos;
+    private final ApplicationEventPublisher eventPublisher;
 
     public TarefaServiceImpl(TarefaRepository tarefaRepository,
+            AnexoRepository anexoRepository,
+            ComentarioRepository comentarioRepository,
             @Lazy UsuarioService usuarioService,
             @Lazy TagService tagService,
-            @Lazy EmailService emailService) {
+            NotificacaoService notificacaoService,
+            TarefaStatsService tarefaStatsService,
+            FiltroTarefas filtroTarefas,
+            BlobsAnexos blobsAnexos,
+            ApplicationEventPublisher eventPublisher) {
         this.tarefaRepository = tarefaRepository;
+        this.anexoRepository = anexoRepository;
+        this.comentarioRepository = comentarioRepository;
         this.usuarioService = usuarioService;
         this.tagService = tagService;
-        this.emailService = emailService;
+        this.notificacaoService = notificacaoService;
+        this.tarefaStatsService = tarefaStatsService;
+        this.filtroTarefas = filtroTarefas;
+        this.blobsAnexos = blobsAnexos;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -60,14 +102,17 @@ public class TarefaServiceImpl implements TarefaService {
         if (dto.getTags() != null && !dto.getTags().isEmpty()) {
             Set<Tag> tags = tagService.buscarOuCriarTags(dto.getTags());
             tarefa.setTags(tags);
+            tarefa.registrarAlteracao();
         }
 
         Tarefa novaTarefa = tarefaRepository.save(tarefa);
+        tarefaStatsService.registrarCriacao(novaTarefa);
+        publicarAlteracao(TipoAlteracaoTarefa.CRIADA, novaTarefa, null);
 
-        // Envia email se a tarefa for atribuída a outro usuário
+        // Notifica por email (enviado após o commit) se a tarefa for atribuída a outro usuário
         if (responsavel != null && !responsavel.getId().equals(criadorAutenticado.getId())) {
             if (responsavel.getLogin() != null && responsavel.getLogin().contains("@")) {
-                emailService.sendSimpleMessage(
+                notificacaoService.enfileirar(
                     responsavel.getLogin(),
                     "Nova tarefa atribuída a você",
                     "Olá, uma nova tarefa foi atribuída a você: " + tarefa.getNome()
@@ -86,6 +131,39 @@ public class TarefaServiceImpl implements TarefaService {
         return convertToDTO(tarefa);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public VersaoRecurso versaoTarefa(Long id, Usuario usuarioAutenticado) {
+        List<Object[]> linhas = tarefaRepository.findVersao(id);
+        if (linhas.isEmpty()) {
+            throw new ResourceNotFoundException("Tarefa", "id", id);
+        }
+        Long criadorId = (Long) linhas.get(0)[0];
+        Long responsavelId = (Long) linhas.get(0)[1];
+        // Mesma regra de verificarPermissaoVisualizacao
+        if (!AcessoTarefas.podeVisualizar(usuarioAutenticado, criadorId, responsavelId)) {
+            throw new ResourceNotFoundException("Tarefa", "id", id);
+        }
+        return versaoTarefa(id, (Long) linhas.get(0)[2], (Long) linhas.get(0)[3], (LocalDateTime) linhas.get(0)[4]);
+    }
+
+    // versao muda a cada gravação da tarefa (inclusive tags) e versaoFilhos a cada comentário ou
+    // anexo, então o ETag não depende da precisão com que a data foi gravada
+    private VersaoRecurso versaoTarefa(Long id, Long versao, Long versaoFilhos, LocalDateTime alteradaEm) {
+        // O DTO também traz nomes de tags e de usuários (responsável, autores, uploads), que
+        // mudam sem alterar a tarefa
+        VersaoRecurso tags = tagService.versaoTags();
+        VersaoRecurso usuarios = usuarioService.versaoUsuarios();
+        return VersaoRecurso.de("tarefa",
+                VersaoRecurso.maisRecente(alteradaEm, tags.ultimaAlteracao(), usuarios.ultimaAlteracao()),
+                id, versao, versaoFilhos, tags.etag(), usuarios.etag());
+    }
+
+    private VersaoRecurso versaoTarefa(Tarefa tarefa) {
+        return versaoTarefa(tarefa.getId(), tarefa.getVersao(), tarefa.getVersaoFilhos(),
+                Objects.requireNonNullElse(tarefa.getDataAtualizacao(), tarefa.getDataCriacao()));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Tarefa findTarefaEntityById(Long id) {
@@ -125,18 +203,53 @@ public class TarefaServiceImpl implements TarefaService {
     @Override
     @Transactional(readOnly = true)
     public List<TarefaDTO> pesquisarTarefas(String keyword, Usuario usuarioAutenticado) {
+        String consulta = filtroTarefas.consultaTextual(keyword);
+        if (consulta != null) {
+            List<Object[]> linhas = tarefaRepository.buscarIdsPorRelevancia(consulta,
+                    restricaoDeVisibilidade(usuarioAutenticado), null, null, null);
+            return carregarNaOrdem(linhas);
+        }
         return listarTarefasFiltradas(usuarioAutenticado, null, null, null, null, null, null, keyword, "todas");
     }
 
     @Override
     @Transactional
-    public TarefaDTO atualizarTarefa(Long id, TarefaUpdateDTO dto, Usuario usuarioAutenticado) {
+    public TarefaComVersao atualizarTarefa(Long id, TarefaUpdateDTO dto, String ifMatch,
+            Usuario usuarioAutenticado) {
+        return aplicarAlteracoes(id, dto, Set.of(), ifMatch, usuarioAutenticado);
+    }
+
+    @Override
+    @Transactional
+    public TarefaComVersao aplicarMergePatch(Long id, JsonNode patch, String ifMatch,
+            Usuario usuarioAutenticado) {
+        TarefaMergePatch alteracoes = TarefaMergePatch.ler(patch);
+        if (alteracoes.vazio()) {
+            throw new BadRequestException("Nenhuma alteração informada.");
+        }
+        return aplicarAlteracoes(id, alteracoes.valores(), alteracoes.removidos(), ifMatch, usuarioAutenticado);
+    }
+
+    /**
+     * Caminho comum de PUT e PATCH. 'dto' traz os valores novos (null = mantém) e 'removidos'
+     * os campos opcionais a limpar, só usados pelo merge patch. Com @DynamicUpdate o UPDATE
+     * grava apenas as colunas que de fato mudaram, mais versao e dataAtualizacao.
+     */
+    private TarefaComVersao aplicarAlteracoes(Long id, TarefaUpdateDTO dto, Set<String> removidos, String ifMatch,
+            Usuario usuarioAutenticado) {
         Tarefa tarefa = findTarefaEntityById(id);
         verificarPermissaoModificacao(tarefa, usuarioAutenticado);
+        // Comparado com a versão da própria entidade carregada: o UPDATE confere essa mesma
+        // versão, então nada gravado depois desta leitura é sobrescrito
+        if (ifMatch != null && !versaoTarefa(tarefa).atendeIfMatch(ifMatch)) {
+            throw new PreconditionFailedException(
+                    "A tarefa foi alterada desde a versão informada em If-Match. Carregue-a novamente.");
+        }
 
         boolean mudouResponsavel = false;
         Long idResponsavelAnterior = tarefa.getResponsavel() != null ? tarefa.getResponsavel().getId() : null;
         StatusTarefa statusAnterior = tarefa.getStatus();
+        PrioridadeTarefa prioridadeAnterior = tarefa.getPrioridade();
 
         if (dto.getNome() != null)
             tarefa.setNome(dto.getNome());
@@ -148,6 +261,12 @@ public class TarefaServiceImpl implements TarefaService {
             tarefa.setPrioridade(dto.getPrioridade());
         if (dto.getDataPrazo() != null)
             tarefa.setDataPrazo(dto.getDataPrazo());
+        if (removidos.contains("descricao"))
+            tarefa.setDescricao(null);
+        if (removidos.contains("dataPrazo"))
+            tarefa.setDataPrazo(null);
+        if (removidos.contains("responsavelId"))
+            tarefa.setResponsavel(null);
 
         if (dto.getResponsavelId() != null) {
             Usuario novoResponsavel = usuarioService.findUsuarioEntityById(dto.getResponsavelId());
@@ -162,16 +281,33 @@ public class TarefaServiceImpl implements TarefaService {
             tarefa.setResponsavel(novoResponsavel);
         }
 
-        if (dto.getTags() != null) {
-            Set<Tag> tags = tagService.buscarOuCriarTags(dto.getTags());
-            tarefa.setTags(tags);
+        if (dto.getTags() != null || removidos.contains("tags")) {
+            Set<Tag> tags = dto.getTags() != null ? tagService.buscarOuCriarTags(dto.getTags()) : new HashSet<>();
+            if (!tags.equals(tarefa.getTags())) {
+                tarefa.setTags(tags);
+                tarefa.registrarAlteracao();
+            }
         }
 
-        Tarefa tarefaAtualizada = tarefaRepository.save(tarefa);
+        // Flush aqui, e não no commit, para que um conflito de versão vire resposta HTTP
+        // antes de contadores e notificações serem registrados
+        Tarefa tarefaAtualizada;
+        try {
+            tarefaAtualizada = tarefaRepository.saveAndFlush(tarefa);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            if (ifMatch != null) {
+                throw new PreconditionFailedException(
+                        "A tarefa foi alterada desde a versão informada em If-Match. Carregue-a novamente.");
+            }
+            throw new ConflictException("A tarefa foi alterada por outra requisição. Carregue-a novamente.");
+        }
+        tarefaStatsService.registrarAlteracao(idResponsavelAnterior, statusAnterior, prioridadeAnterior,
+                tarefaAtualizada);
+        publicarAlteracao(TipoAlteracaoTarefa.ATUALIZADA, tarefaAtualizada, idResponsavelAnterior);
 
         // Notifica novo responsável se mudou
         if (mudouResponsavel && tarefa.getResponsavel() != null && tarefa.getResponsavel().getLogin() != null && tarefa.getResponsavel().getLogin().contains("@")) {
-            emailService.sendSimpleMessage(
+            notificacaoService.enfileirar(
                 tarefa.getResponsavel().getLogin(),
                 "Tarefa atribuída a você",
                 "Olá, uma tarefa foi atribuída a você: " + tarefa.getNome()
@@ -180,7 +316,7 @@ public class TarefaServiceImpl implements TarefaService {
         // Notifica responsável sobre alteração de status
         if (dto.getStatus() != null && tarefa.getResponsavel() != null && tarefa.getResponsavel().getLogin() != null && tarefa.getResponsavel().getLogin().contains("@")) {
             if (!dto.getStatus().equals(statusAnterior)) {
-                emailService.sendSimpleMessage(
+                notificacaoService.enfileirar(
                     tarefa.getResponsavel().getLogin(),
                     "Status da tarefa alterado",
                     "O status da tarefa '" + tarefa.getNome() + "' foi alterado para: " + tarefa.getStatus()
@@ -188,7 +324,165 @@ public class TarefaServiceImpl implements TarefaService {
             }
         }
 
-        return convertToDTO(tarefaAtualizada);
+        return new TarefaComVersao(convertToDTO(tarefaAtualizada), versaoTarefa(tarefaAtualizada));
+    }
+
+    @Override
+    @Transactional
+    public TarefaLoteResultadoDTO atualizarTarefasEmLote(TarefaLoteUpdateDTO dto, Usuario usuarioAutenticado) {
+        TarefaUpdateDTO alteracoes = dto.getAlteracoes();
+        if (alteracoes.getNome() == null && alteracoes.getDescricao() == null && alteracoes.getStatus() == null
+                && alteracoes.getPrioridade() == null && alteracoes.getResponsavelId() == null
+                && alteracoes.getDataPrazo() == null && alteracoes.getTags() == null) {
+            throw new BadRequestException("Informe ao menos um campo em 'alteracoes'.");
+        }
+        boolean porIds = dto.getIds() != null && !dto.getIds().isEmpty();
+        if (porIds == (dto.getFiltro() != null)) {
+            throw new BadRequestException("Informe 'ids' ou 'filtro' (apenas um deles).");
+        }
+
+        // Estado atual de todas as tarefas em uma única query
+        List<AlvoAtualizacao> alvos;
+        if (porIds) {
+            if (dto.getIds().size() > LIMITE_ATUALIZACAO_LOTE) {
+                throw new BadRequestException(
+                        "Informe no máximo " + LIMITE_ATUALIZACAO_LOTE + " tarefas por atualização em lote.");
+            }
+            alvos = tarefaRepository.findAlvosAtualizacao((root, query, cb) -> root.get("id").in(dto.getIds()),
+                    LIMITE_ATUALIZACAO_LOTE);
+            Set<Long> encontrados = alvos.stream().map(AlvoAtualizacao::id).collect(Collectors.toSet());
+            List<Long> faltando = dto.getIds().stream().filter(id -> !encontrados.contains(id)).sorted()
+                    .collect(Collectors.toList());
+            if (!faltando.isEmpty()) {
+                throw new ResourceNotFoundException("Tarefas não encontradas: " + faltando);
+            }
+        } else {
+            TarefaFiltroDTO filtro = dto.getFiltro();
+            Specification<Tarefa> spec = filtroTarefas.montar(usuarioAutenticado, filtro.getStatus(),
+                    filtro.getPrioridade(), filtro.getResponsavelId(), filtro.getDataPrazoInicio(),
+                    filtro.getDataPrazoFim(), filtro.getTagIds(), filtro.getQ(),
+                    filtro.getTipo() != null ? filtro.getTipo() : "todas", false);
+            alvos = tarefaRepository.findAlvosAtualizacao(spec, LIMITE_ATUALIZACAO_LOTE + 1);
+            if (alvos.size() > LIMITE_ATUALIZACAO_LOTE) {
+                throw new BadRequestException("O filtro seleciona mais de " + LIMITE_ATUALIZACAO_LOTE
+                        + " tarefas; refine os critérios.");
+            }
+        }
+        if (alvos.isEmpty()) {
+            return new TarefaLoteResultadoDTO(0, new ArrayList<>());
+        }
+        // Trava as linhas selecionadas e relê: permissões e deltas dos contadores partem do
+        // estado atual, não de uma leitura que outra transação pode ter alterado nesse meio tempo
+        List<Long> selecionados = alvos.stream().map(AlvoAtualizacao::id).collect(Collectors.toList());
+        tarefaRepository.travarParaAtualizacao(selecionados);
+        alvos = tarefaRepository.findAlvosAtualizacao((root, query, cb) -> root.get("id").in(selecionados),
+                LIMITE_ATUALIZACAO_LOTE);
+        if (alvos.isEmpty()) {
+            return new TarefaLoteResultadoDTO(0, new ArrayList<>());
+        }
+
+        Usuario novoResponsavel = alteracoes.getResponsavelId() != null
+                ? usuarioService.findUsuarioEntityById(alteracoes.getResponsavelId())
+                : null;
+        verificarPermissaoModificacaoEmLote(alvos, novoResponsavel, usuarioAutenticado);
+
+        Map<String, Object> campos = new LinkedHashMap<>();
+        if (alteracoes.getNome() != null)
+            campos.put("nome", alteracoes.getNome());
+        if (alteracoes.getDescricao() != null)
+            campos.put("descricao", alteracoes.getDescricao());
+        if (alteracoes.getStatus() != null)
+            campos.put("status", alteracoes.getStatus());
+        if (alteracoes.getPrioridade() != null)
+            campos.put("prioridade", alteracoes.getPrioridade());
+        if (alteracoes.getDataPrazo() != null)
+            campos.put("dataPrazo", alteracoes.getDataPrazo());
+        if (novoResponsavel != null)
+            campos.put("responsavel", novoResponsavel);
+
+        List<Long> ids = alvos.stream().map(AlvoAtualizacao::id).collect(Collectors.toList());
+        tarefaRepository.atualizarCampos(ids, campos);
+        if (alteracoes.getTags() != null) {
+            Set<Tag> tags = tagService.buscarOuCriarTags(alteracoes.getTags());
+            tarefaRepository.removerTags(ids);
+            if (!tags.isEmpty()) {
+                tarefaRepository.associarTags(ids, tags.stream().map(Tag::getId).collect(Collectors.toSet()));
+            }
+        }
+
+        Map<TarefaStatsService.Bucket, Long> deltas = new HashMap<>();
+        for (AlvoAtualizacao alvo : alvos) {
+            deltas.merge(TarefaStatsService.Bucket.de(alvo.responsavelId(), alvo.status(), alvo.prioridade()), -1L,
+                    Long::sum);
+            deltas.merge(TarefaStatsService.Bucket.de(
+                    novoResponsavel != null ? novoResponsavel.getId() : alvo.responsavelId(),
+                    alteracoes.getStatus() != null ? alteracoes.getStatus() : alvo.status(),
+                    alteracoes.getPrioridade() != null ? alteracoes.getPrioridade() : alvo.prioridade()), 1L,
+                    Long::sum);
+        }
+        tarefaStatsService.registrarDeltas(deltas);
+
+        notificarAlteracoesEmLote(alvos, alteracoes, novoResponsavel);
+        eventPublisher.publishEvent(new TarefasAtualizadasEmLoteEvent(ids));
+        for (AlvoAtualizacao alvo : alvos) {
+            eventPublisher.publishEvent(TarefaAlteradaEvent.de(TipoAlteracaoTarefa.ATUALIZADA, alvo.id(), null,
+                    alvo.criadorId(), alvo.responsavelId(), novoResponsavel != null ? novoResponsavel.getId() : null));
+        }
+        return new TarefaLoteResultadoDTO(ids.size(), ids);
+    }
+
+    // Mesmas regras de atualizarTarefa, avaliadas para o conjunto antes de qualquer escrita
+    private void verificarPermissaoModificacaoEmLote(List<AlvoAtualizacao> alvos, Usuario novoResponsavel,
+            Usuario usuario) {
+        if (usuario.getPerfil() == PerfilUsuario.ADMINISTRADOR_GESTOR) {
+            return;
+        }
+        List<Long> semPermissao = alvos.stream()
+                .filter(alvo -> !usuario.getId().equals(alvo.criadorId())
+                        && !usuario.getId().equals(alvo.responsavelId()))
+                .map(AlvoAtualizacao::id).collect(Collectors.toList());
+        if (!semPermissao.isEmpty()) {
+            throw new BadRequestException("Você não tem permissão para modificar as tarefas: " + semPermissao);
+        }
+        if (novoResponsavel != null && !novoResponsavel.getId().equals(usuario.getId())) {
+            List<Long> semPermissaoAtribuir = alvos.stream()
+                    .filter(alvo -> !usuario.getId().equals(alvo.criadorId()))
+                    .map(AlvoAtualizacao::id).collect(Collectors.toList());
+            if (!semPermissaoAtribuir.isEmpty()) {
+                throw new BadRequestException(
+                        "Você não tem permissão para atribuir a outro usuário as tarefas: " + semPermissaoAtribuir);
+            }
+        }
+    }
+
+    // Um email por responsável afetado, reunindo as atribuições e mudanças de status do lote
+    private void notificarAlteracoesEmLote(List<AlvoAtualizacao> alvos, TarefaUpdateDTO alteracoes,
+            Usuario novoResponsavel) {
+        Map<String, List<String>> linhasPorDestinatario = new LinkedHashMap<>();
+        for (AlvoAtualizacao alvo : alvos) {
+            String nome = alteracoes.getNome() != null ? alteracoes.getNome() : alvo.nome();
+            String destinatario = novoResponsavel != null ? novoResponsavel.getLogin() : alvo.loginResponsavel();
+            if (destinatario == null || !destinatario.contains("@")) {
+                continue;
+            }
+            if (novoResponsavel != null && !novoResponsavel.getId().equals(alvo.responsavelId())) {
+                linhasPorDestinatario.computeIfAbsent(destinatario, d -> new ArrayList<>())
+                        .add("Tarefa atribuída a você: " + nome);
+            }
+            if (alteracoes.getStatus() != null && alteracoes.getStatus() != alvo.status()) {
+                linhasPorDestinatario.computeIfAbsent(destinatario, d -> new ArrayList<>())
+                        .add("O status da tarefa '" + nome + "' foi alterado para: " + alteracoes.getStatus());
+            }
+        }
+        linhasPorDestinatario.forEach((destinatario, linhas) -> {
+            List<String> exibidas = linhas.subList(0, Math.min(linhas.size(), LINHAS_POR_NOTIFICACAO));
+            String mensagem = String.join("\n", exibidas);
+            if (linhas.size() > LINHAS_POR_NOTIFICACAO) {
+                mensagem += "\n... e mais " + (linhas.size() - LINHAS_POR_NOTIFICACAO) + " alterações.";
+            }
+            notificacaoService.enfileirar(destinatario,
+                    linhas.size() == 1 ? "Tarefa atualizada" : linhas.size() + " tarefas atualizadas", mensagem);
+        });
     }
 
     @Override
@@ -196,9 +490,21 @@ public class TarefaServiceImpl implements TarefaService {
     public void deletarTarefa(Long id, Usuario usuarioAutenticado) {
         Tarefa tarefa = findTarefaEntityById(id);
         verificarPermissaoModificacao(tarefa, usuarioAutenticado);
+        tarefaStatsService.registrarRemocao(tarefa);
+        publicarAlteracao(TipoAlteracaoTarefa.REMOVIDA, tarefa, null);
+        // Os anexos saem em cascata com a tarefa; os blobs deles perdem uma referência por anexo
+        anexoRepository.findHashesConteudoByTarefaId(id).stream()
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()))
+                .forEach((hash, quantidade) -> blobsAnexos.removerReferencias(hash, quantidade.intValue()));
         tarefaRepository.delete(tarefa);
     }
 
+    // Evento do feed GET /api/tarefas/stream, entregue pelo TarefaEventosBroadcaster após o commit
+    private void publicarAlteracao(TipoAlteracaoTarefa tipo, Tarefa tarefa, Long responsavelAnteriorId) {
+        eventPublisher.publishEvent(TarefaAlteradaEvent.de(tipo, tarefa.getId(), null, tarefa.getCriador().getId(),
+                tarefa.getResponsavel() != null ? tarefa.getResponsavel().getId() : null, responsavelAnteriorId));
+    }
+
     private void verificarPermissaoVisualizacao(Tarefa tarefa, Usuario usuario) {
         if (usuario.getPerfil() == PerfilUsuario.ADMINISTRADOR_GESTOR)
             return;
@@ -222,6 +528,83 @@ public class TarefaServiceImpl implements TarefaService {
     }
 
     private TarefaDTO convertToDTO(Tarefa tarefa) {
+        TarefaDTO dto = converterDadosBasicos(tarefa);
+
+        if (tarefa.getTags() != null) {
+            // Hibernate.initialize(tarefa.getTags()); // Removido, confiando no fetch join
+            // da Specification
+            dto.setTags(tarefa.getTags().stream().map(this::convertTagToDTO).collect(Collectors.toSet()));
+        } else {
+            dto.setTags(java.util.Collections.emptySet());
+        }
+
+        if (tarefa.getAnexos() != null) {
+            dto.setAnexos(tarefa.getAnexos().stream().map(this::convertAnexoToDTO).collect(Collectors.toList()));
+        }
+
+        preencherComentarios(List.of(dto));
+        return dto;
+    }
+
+    /**
+     * Caminho de leitura das listagens: converte uma página de tarefas carregando as
+     * coleções de todas elas de uma vez (uma query por coleção, com IN nos ids), em vez
+     * de inicializar os proxies lazy linha a linha. Criador e responsável já vêm no
+     * fetch join da Specification.
+     */
+    private List<TarefaDTO> converterListagem(List<Tarefa> tarefas, boolean tagsCarregadas) {
+        if (tarefas.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = tarefas.stream().map(Tarefa::getId).collect(Collectors.toList());
+
+        Map<Long, Set<TagDTO>> tagsPorTarefa = new HashMap<>();
+        if (tagsCarregadas) {
+            for (Tarefa tarefa : tarefas) {
+                tagsPorTarefa.put(tarefa.getId(),
+                        tarefa.getTags().stream().map(this::convertTagToDTO).collect(Collectors.toSet()));
+            }
+        } else {
+            for (Object[] linha : tarefaRepository.findTagsByTarefaIds(ids)) {
+                tagsPorTarefa.computeIfAbsent((Long) linha[0], k -> new HashSet<>())
+                        .add(convertTagToDTO((Tag) linha[1]));
+            }
+        }
+
+        Map<Long, List<AnexoDTO>> anexosPorTarefa = anexoRepository.findByTarefaIdInComUsuario(ids).stream()
+                .map(this::convertAnexoToDTO)
+                .collect(Collectors.groupingBy(AnexoDTO::getTarefaId));
+
+        List<TarefaDTO> dtos = new ArrayList<>(tarefas.size());
+        for (Tarefa tarefa : tarefas) {
+            TarefaDTO dto = converterDadosBasicos(tarefa);
+            dto.setTags(tagsPorTarefa.getOrDefault(tarefa.getId(), java.util.Collections.emptySet()));
+            dto.setAnexos(anexosPorTarefa.getOrDefault(tarefa.getId(), new ArrayList<>()));
+            dtos.add(dto);
+        }
+        preencherComentarios(dtos);
+        return dtos;
+    }
+
+    // Só os comentários mais recentes e o total de cada tarefa, em duas consultas para todas elas:
+    // uma tarefa com milhares de comentários não os traz a cada leitura
+    private void preencherComentarios(List<TarefaDTO> dtos) {
+        List<Long> ids = dtos.stream().map(TarefaDTO::getId).collect(Collectors.toList());
+        Map<Long, List<ComentarioDTO>> recentesPorTarefa = comentarioRepository
+                .findMaisRecentesPorTarefa(ids, COMENTARIOS_RECENTES).stream()
+                .map(this::convertComentarioToDTO)
+                .collect(Collectors.groupingBy(ComentarioDTO::getTarefaId));
+        Map<Long, Long> totalPorTarefa = new HashMap<>();
+        for (Object[] linha : comentarioRepository.countByTarefaIds(ids)) {
+            totalPorTarefa.put((Long) linha[0], (Long) linha[1]);
+        }
+        for (TarefaDTO dto : dtos) {
+            dto.setComentarios(recentesPorTarefa.getOrDefault(dto.getId(), new ArrayList<>()));
+            dto.setTotalComentarios(totalPorTarefa.getOrDefault(dto.getId(), 0L));
+        }
+    }
+
+    private TarefaDTO converterDadosBasicos(Tarefa tarefa) {
         TarefaDTO dto = new TarefaDTO();
         BeanUtils.copyProperties(tarefa, dto, "tags", "anexos", "comentarios", "criador", "responsavel");
 
@@ -233,78 +616,74 @@ public class TarefaServiceImpl implements TarefaService {
             dto.setResponsavelId(tarefa.getResponsavel().getId());
             dto.setNomeResponsavel(tarefa.getResponsavel().getNome());
         }
+        return dto;
+    }
 
-        if (tarefa.getTags() != null) {
-            // Hibernate.initialize(tarefa.getTags()); // Removido, confiando no fetch join
-            // da Specification
-            if (!tarefa.getTags().isEmpty()) {
-                Set<TagDTO> tagDTOs = new java.util.HashSet<>();
-                for (Tag tag : tarefa.getTags()) { // Iterar sobre a coleção já potencialmente inicializada pelo fetch
-                                                   // join
-                    TagDTO tagDTO = new TagDTO();
-                    BeanUtils.copyProperties(tag, tagDTO);
-                    tagDTOs.add(tagDTO);
-                }
-                dto.setTags(tagDTOs);
-            } else {
-                dto.setTags(java.util.Collections.emptySet());
-            }
-        } else {
-            dto.setTags(java.util.Collections.emptySet());
+    private TagDTO convertTagToDTO(Tag tag) {
+        TagDTO tagDTO = new TagDTO();
+        BeanUtils.copyProperties(tag, tagDTO);
+        return tagDTO;
+    }
+
+    private AnexoDTO convertAnexoToDTO(Anexo anexo) {
+        AnexoDTO anexoDTO = new AnexoDTO();
+        BeanUtils.copyProperties(anexo, anexoDTO, "tarefa", "usuarioUpload");
+        if (anexo.getTarefa() != null)
+            anexoDTO.setTarefaId(anexo.getTarefa().getId());
+        if (anexo.getUsuarioUpload() != null) {
+            anexoDTO.setUsuarioUploadId(anexo.getUsuarioUpload().getId());
+            anexoDTO.setNomeUsuarioUpload(anexo.getUsuarioUpload().getNome());
         }
+        return anexoDTO;
+    }
 
-        if (tarefa.getAnexos() != null) {
-            dto.setAnexos(tarefa.getAnexos().stream().map(anexo -> {
-                AnexoDTO anexoDTO = new AnexoDTO();
-                BeanUtils.copyProperties(anexo, anexoDTO, "tarefa", "usuarioUpload");
-                if (anexo.getTarefa() != null)
-                    anexoDTO.setTarefaId(anexo.getTarefa().getId());
-                if (anexo.getUsuarioUpload() != null) {
-                    anexoDTO.setUsuarioUploadId(anexo.getUsuarioUpload().getId());
-                    anexoDTO.setNomeUsuarioUpload(anexo.getUsuarioUpload().getNome());
-                }
-                return anexoDTO;
-            }).collect(Collectors.toList()));
-        }
-
-        if (tarefa.getComentarios() != null) {
-            dto.setComentarios(tarefa.getComentarios().stream().map(comentario -> {
-                ComentarioDTO comentarioDTO = new ComentarioDTO();
-                BeanUtils.copyProperties(comentario, comentarioDTO, "tarefa", "autor");
-                if (comentario.getTarefa() != null)
-                    comentarioDTO.setTarefaId(comentario.getTarefa().getId());
-                if (comentario.getAutor() != null) {
-                    comentarioDTO.setAutorId(comentario.getAutor().getId());
-                    comentarioDTO.setNomeAutor(comentario.getAutor().getNome());
-                }
-                return comentarioDTO;
-            }).collect(Collectors.toList()));
+    private ComentarioDTO convertComentarioToDTO(Comentario comentario) {
+        ComentarioDTO comentarioDTO = new ComentarioDTO();
+        BeanUtils.copyProperties(comentario, comentarioDTO, "tarefa", "autor");
+        if (comentario.getTarefa() != null)
+            comentarioDTO.setTarefaId(comentario.getTarefa().getId());
+        if (comentario.getAutor() != null) {
+            comentarioDTO.setAutorId(comentario.getAutor().getId());
+            comentarioDTO.setNomeAutor(comentario.getAutor().getNome());
         }
-        return dto;
+        comentarioDTO.setCursor(new CursorKeyset<>(comentario.getDataCriacao(), comentario.getId()).encode());
+        return comentarioDTO;
     }
 
     @Override
     @Transactional(readOnly = true)
     public TarefaStatsDTO getTarefaStats(Usuario usuarioAutenticado) {
-        long totalTarefas;
-        long concluidas;
-        long emAndamento;
-        long atrasadas;
-
-        if (usuarioAutenticado.getPerfil() == PerfilUsuario.ADMINISTRADOR_GESTOR) {
-            totalTarefas = tarefaRepository.count();
-            concluidas = tarefaRepository.countByStatus(StatusTarefa.CONCLUIDA);
-            emAndamento = tarefaRepository.countByStatus(StatusTarefa.EM_ANDAMENTO);
-            atrasadas = tarefaRepository.countByStatusNotAndDataPrazoBefore(StatusTarefa.CONCLUIDA,
-                    LocalDateTime.now());
-        } else {
-            totalTarefas = tarefaRepository.countByResponsavel(usuarioAutenticado);
-            concluidas = tarefaRepository.countByResponsavelAndStatus(usuarioAutenticado, StatusTarefa.CONCLUIDA);
-            emAndamento = tarefaRepository.countByResponsavelAndStatus(usuarioAutenticado, StatusTarefa.EM_ANDAMENTO);
-            atrasadas = tarefaRepository.countByResponsavelAndStatusNotAndDataPrazoBefore(usuarioAutenticado,
-                    StatusTarefa.CONCLUIDA, LocalDateTime.now());
+        boolean admin = usuarioAutenticado.getPerfil() == PerfilUsuario.ADMINISTRADOR_GESTOR;
+        LocalDateTime agora = LocalDateTime.now();
+        TarefaStatsDTO stats = new TarefaStatsDTO();
+
+        if (tarefaStatsService.isHabilitado()) {
+            // Contadores materializados: leitura proporcional ao número de buckets, não de
+            // tarefas. "Atrasada" depende do relógio e não pode ser mantida incrementalmente.
+            List<Object[]> buckets = admin ? tarefaStatsService.somarTodos()
+                    : tarefaStatsService.buscarPorResponsavel(usuarioAutenticado.getId());
+            for (Object[] linha : buckets) {
+                stats.acumular((StatusTarefa) linha[0], (PrioridadeTarefa) linha[1], ((Number) linha[2]).longValue());
+            }
+            stats.setTarefasAtrasadas(admin
+                    ? tarefaRepository.countByStatusNotAndDataPrazoBefore(StatusTarefa.CONCLUIDA, agora)
+                    : tarefaRepository.countByResponsavelAndStatusNotAndDataPrazoBefore(usuarioAutenticado,
+                            StatusTarefa.CONCLUIDA, agora));
+            return stats;
         }
-        return new TarefaStatsDTO(totalTarefas, concluidas, emAndamento, atrasadas);
+
+        List<Object[]> buckets = admin
+                ? tarefaRepository.agregarEstatisticas(StatusTarefa.CONCLUIDA, agora)
+                : tarefaRepository.agregarEstatisticasPorResponsavel(usuarioAutenticado, StatusTarefa.CONCLUIDA, agora);
+        long atrasadas = 0;
+        for (Object[] linha : buckets) {
+            stats.acumular((StatusTarefa) linha[0], (PrioridadeTarefa) linha[1], ((Number) linha[2]).longValue());
+            if (linha[3] != null) {
+                atrasadas += ((Number) linha[3]).longValue();
+            }
+        }
+        stats.setTarefasAtrasadas(atrasadas);
+        return stats;
     }
 
     @Override
@@ -313,92 +692,156 @@ public class TarefaServiceImpl implements TarefaService {
             PrioridadeTarefa prioridade, Long responsavelIdParam, LocalDateTime dataPrazoInicio,
             LocalDateTime dataPrazoFim, Set<Long> tagIds, String keyword, String tipoFiltro) {
 
-        Specification<Tarefa> spec = (root, query, cb) -> {
-            // Adiciona fetch para tags para evitar LazyInitializationException e problemas
-            // relacionados
-            // Apenas aplicar fetch se não for uma query de contagem (geralmente usada para
-            // paginação)
-            if (query != null && query.getResultType() != Long.class && query.getResultType() != long.class) {
-                root.fetch("tags", JoinType.LEFT);
-                // Se outras coleções fossem necessárias e problemáticas, poderiam ser
-                // adicionadas aqui:
-                // root.fetch("anexos", JoinType.LEFT);
-                // root.fetch("comentarios", JoinType.LEFT);
-            }
-            query.distinct(true); // Essencial ao usar fetch em coleções to-many para evitar duplicatas da
-                                  // entidade Tarefa
+        Specification<Tarefa> spec = filtroTarefas.montar(usuarioAutenticado, status, prioridade, responsavelIdParam,
+                dataPrazoInicio, dataPrazoFim, tagIds, keyword, tipoFiltro, true);
 
-            List<Predicate> predicates = new ArrayList<>();
+        List<Tarefa> tarefasEncontradas = tarefaRepository.findAll(spec);
 
-            if (keyword != null && !keyword.trim().isEmpty()) {
-                String searchTerm = "%" + keyword.toLowerCase() + "%";
-                predicates.add(cb.or(
-                        cb.like(cb.lower(root.get("nome")), searchTerm),
-                        cb.like(cb.lower(root.get("descricao")), searchTerm)));
-            }
-            if (status != null) {
-                predicates.add(cb.equal(root.get("status"), status));
-            }
-            if (prioridade != null) {
-                predicates.add(cb.equal(root.get("prioridade"), prioridade));
+        return converterListagem(tarefasEncontradas, true);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<TarefaDTO> listarTarefasPaginadas(Usuario usuarioAutenticado, StatusTarefa status,
+            PrioridadeTarefa prioridade, Long responsavelIdParam, LocalDateTime dataPrazoInicio,
+            LocalDateTime dataPrazoFim, Set<Long> tagIds, String keyword, String tipoFiltro,
+            String after, Integer limit) {
+
+        int limite = normalizarLimite(limit);
+        CursorKeyset<LocalDateTime> cursor = CursorKeyset.porData(after);
+
+        // Sem fetch join de tags: com paginação o Hibernate aplicaria o LIMIT em memória
+        Specification<Tarefa> spec = filtroTarefas.montar(usuarioAutenticado, status, prioridade, responsavelIdParam,
+                dataPrazoInicio, dataPrazoFim, tagIds, keyword, tipoFiltro, false);
+        if (cursor != null) {
+            spec = spec.and(aposCursor(cursor));
+        }
+
+        // Busca um registro a mais apenas para saber se existe próxima página
+        List<Tarefa> tarefas = tarefaRepository.findBy(spec, q -> q
+                .sortBy(ORDENACAO_CURSOR)
+                .limit(limite + 1)
+                .all());
+
+        boolean temMais = tarefas.size() > limite;
+        if (temMais) {
+            tarefas = tarefas.subList(0, limite);
+        }
+
+        String nextCursor = null;
+        if (temMais) {
+            Tarefa ultima = tarefas.get(tarefas.size() - 1);
+            nextCursor = new CursorKeyset<>(ultima.getDataCriacao(), ultima.getId()).encode();
+        }
+
+        List<TarefaDTO> itens = converterListagem(tarefas, false);
+        return new PaginaCursorDTO<>(itens, nextCursor, temMais, limite);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<TarefaDTO> pesquisarTarefasPaginadas(String keyword, Usuario usuarioAutenticado,
+            String after, Integer limit) {
+        String consulta = filtroTarefas.consultaTextual(keyword);
+        if (consulta != null) {
+            // Ordenado por relevância: o cursor carrega (rank, id) em vez de (dataCriacao, id)
+            int limite = normalizarLimite(limit);
+            CursorKeyset<Float> cursor = CursorKeyset.porRank(after);
+            List<Object[]> linhas = tarefaRepository.buscarIdsPorRelevancia(consulta,
+                    restricaoDeVisibilidade(usuarioAutenticado),
+                    cursor != null ? cursor.chave() : null, cursor != null ? cursor.id() : null, limite + 1);
+
+            boolean temMais = linhas.size() > limite;
+            if (temMais) {
+                linhas = linhas.subList(0, limite);
             }
-            if (dataPrazoInicio != null) {
-                predicates.add(cb.greaterThanOrEqualTo(root.get("dataPrazo"), dataPrazoInicio));
+            String nextCursor = null;
+            if (temMais) {
+                Object[] ultima = linhas.get(linhas.size() - 1);
+                nextCursor = new CursorKeyset<>((Float) ultima[1], (Long) ultima[0]).encode();
             }
-            if (dataPrazoFim != null) {
-                predicates.add(cb.lessThanOrEqualTo(root.get("dataPrazo"), dataPrazoFim));
+            return new PaginaCursorDTO<>(carregarNaOrdem(linhas), nextCursor, temMais, limite);
+        }
+        return listarTarefasPaginadas(usuarioAutenticado, null, null, null, null, null, null, keyword, "todas",
+                after, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<TarefaSummaryDTO> listarResumosPaginados(Usuario usuarioAutenticado, StatusTarefa status,
+            PrioridadeTarefa prioridade, Long responsavelIdParam, LocalDateTime dataPrazoInicio,
+            LocalDateTime dataPrazoFim, Set<Long> tagIds, String keyword, String tipoFiltro,
+            String after, Integer limit) {
+
+        int limite = normalizarLimite(limit);
+        Specification<Tarefa> spec = filtroTarefas.montar(usuarioAutenticado, status, prioridade, responsavelIdParam,
+                dataPrazoInicio, dataPrazoFim, tagIds, keyword, tipoFiltro, false);
+        CursorKeyset<LocalDateTime> cursor = CursorKeyset.porData(after);
+        if (cursor != null) {
+            spec = spec.and(aposCursor(cursor));
+        }
+
+        List<TarefaSummaryDTO> resumos = tarefaRepository.findSummaries(spec, ORDENACAO_CURSOR, limite + 1);
+
+        boolean temMais = resumos.size() > limite;
+        if (temMais) {
+            resumos = resumos.subList(0, limite);
+        }
+
+        String nextCursor = null;
+        if (temMais) {
+            TarefaSummaryDTO ultimo = resumos.get(resumos.size() - 1);
+            nextCursor = new CursorKeyset<>(ultimo.getDataCriacao(), ultimo.getId()).encode();
+        }
+
+        if (!resumos.isEmpty()) {
+            Map<Long, Set<Long>> tagIdsPorTarefa = new HashMap<>();
+            List<Long> ids = resumos.stream().map(TarefaSummaryDTO::getId).collect(Collectors.toList());
+            for (Object[] linha : tarefaRepository.findTagIdsByTarefaIds(ids)) {
+                tagIdsPorTarefa.computeIfAbsent((Long) linha[0], k -> new HashSet<>()).add((Long) linha[1]);
             }
-            if (tagIds != null && !tagIds.isEmpty()) {
-                Join<Tarefa, Tag> tagJoin = root.join("tags");
-                predicates.add(tagJoin.get("id").in(tagIds));
-                query.distinct(true);
+            for (TarefaSummaryDTO resumo : resumos) {
+                resumo.setTagIds(tagIdsPorTarefa.getOrDefault(resumo.getId(), java.util.Collections.emptySet()));
             }
+        }
+        return new PaginaCursorDTO<>(resumos, nextCursor, temMais, limite);
+    }
 
-            // Lógica de permissão e filtro por tipoFiltro
-            if (usuarioAutenticado.getPerfil() == PerfilUsuario.ADMINISTRADOR_GESTOR) {
-                if ("minhas".equalsIgnoreCase(tipoFiltro)) {
-                    predicates.add(cb.or(
-                            cb.equal(root.get("responsavel"), usuarioAutenticado),
-                            cb.equal(root.get("criador"), usuarioAutenticado)));
-                } else if (responsavelIdParam != null) {
-                    predicates.add(cb.equal(root.get("responsavel").get("id"), responsavelIdParam));
-                }
-                // Para ADMIN, se tipoFiltro for "equipe" ou "todas" e responsavelIdParam não
-                // for fornecido,
-                // não adiciona filtro de usuário específico, buscando todas (respeitando
-                // outros filtros).
-            } else { // Usuário Padrão
-                Predicate responsavelIsUser = cb.equal(root.get("responsavel"), usuarioAutenticado);
-                Predicate criadorIsUser = cb.equal(root.get("criador"), usuarioAutenticado);
-
-                if ("minhas".equalsIgnoreCase(tipoFiltro)) {
-                    predicates.add(cb.or(responsavelIsUser, criadorIsUser));
-                } else if ("equipe".equalsIgnoreCase(tipoFiltro)) {
-                    // Simplificado: Tarefas onde o usuário é responsável.
-                    // Poderia ser expandido para incluir uma entidade "Equipe".
-                    predicates.add(responsavelIsUser);
-                } else { // "todas" para usuário padrão (todas que ele pode ver)
-                    predicates.add(cb.or(responsavelIsUser, criadorIsUser));
-                }
-
-                // Usuário padrão só pode filtrar por seu próprio ID se responsavelIdParam for
-                // fornecido.
-                if (responsavelIdParam != null) {
-                    if (!responsavelIdParam.equals(usuarioAutenticado.getId())) {
-                        throw new BadRequestException(
-                                "Você não tem permissão para visualizar tarefas de outro usuário.");
-                    }
-                    // Adiciona o filtro pelo ID do responsável se for o próprio usuário
-                    predicates.add(cb.equal(root.get("responsavel").get("id"), responsavelIdParam));
-                }
-            }
-            return cb.and(predicates.toArray(new Predicate[0]));
-        };
+    // Mesma regra do filtro "todas": usuário padrão vê apenas as tarefas de que é responsável ou criador
+    private Long restricaoDeVisibilidade(Usuario usuarioAutenticado) {
+        return usuarioAutenticado.getPerfil() == PerfilUsuario.ADMINISTRADOR_GESTOR ? null
+                : usuarioAutenticado.getId();
+    }
 
-        List<Tarefa> tarefasEncontradas = tarefaRepository.findAll(spec);
+    // Converte as linhas (id, rank) da busca textual preservando a ordem de relevância
+    private List<TarefaDTO> carregarNaOrdem(List<Object[]> linhas) {
+        if (linhas.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = linhas.stream().map(linha -> (Long) linha[0]).collect(Collectors.toList());
+        Map<Long, Tarefa> porId = tarefaRepository.findByIdInComUsuarios(ids).stream()
+                .collect(Collectors.toMap(Tarefa::getId, Function.identity()));
+        List<Tarefa> tarefas = ids.stream().map(porId::get).filter(Objects::nonNull).collect(Collectors.toList());
+        return converterListagem(tarefas, false);
+    }
+
+    private int normalizarLimite(Integer limit) {
+        if (limit == null) {
+            return LIMITE_PADRAO_PAGINA;
+        }
+        if (limit < 1) {
+            throw new BadRequestException("O parâmetro 'limit' deve ser maior que zero.");
+        }
+        return Math.min(limit, LIMITE_MAXIMO_PAGINA);
+    }
 
-        return tarefasEncontradas.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    // Keyset: (dataCriacao, id) estritamente menor que o último item da página anterior,
+    // na mesma ordem de ORDENACAO_CURSOR
+    private Specification<Tarefa> aposCursor(CursorKeyset<LocalDateTime> cursor) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("dataCriacao"), cursor.chave()),
+                cb.and(
+                        cb.equal(root.get("dataCriacao"), cursor.chave()),
+                        cb.lessThan(root.get("id"), cursor.id())));
     }
 }
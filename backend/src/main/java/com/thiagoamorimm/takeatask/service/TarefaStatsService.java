@@ -0,0 +1,174 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.enums.PrioridadeTarefa;
+import com.thiagoamorimm.takeatask.enums.StatusTarefa;
+import com.thiagoamorimm.takeatask.model.Tarefa;
+import com.thiagoamorimm.takeatask.model.TarefaStatsContador;
+import com.thiagoamorimm.takeatask.model.TarefaStatsEstado;
+import com.thiagoamorimm.takeatask.repository.TarefaStatsContadorRepository;
+import com.thiagoamorimm.takeatask.repository.TarefaStatsEstadoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Mantém a tabela tarefa_stats (contadores por responsável/status/prioridade). Os
+ * métodos registrar* exigem uma transação ativa para que o contador seja gravado
+ * junto com a escrita da tarefa. Desligado por padrão (tarefa.stats.contadores.enabled).
+ */
+@Service
+public class TarefaStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(TarefaStatsService.class);
+
+    private final TarefaStatsContadorRepository contadorRepository;
+    private final TarefaStatsEstadoRepository estadoRepository;
+    private final boolean habilitado;
+
+    public TarefaStatsService(TarefaStatsContadorRepository contadorRepository,
+            TarefaStatsEstadoRepository estadoRepository,
+            @Value("${tarefa.stats.contadores.enabled:false}") boolean habilitado) {
+        this.contadorRepository = contadorRepository;
+        this.estadoRepository = estadoRepository;
+        this.habilitado = habilitado;
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCriacao(Tarefa tarefa) {
+        if (habilitado) {
+            ajustar(idResponsavel(tarefa), tarefa.getStatus(), tarefa.getPrioridade(), 1);
+        }
+    }
+
+    // Criação em lote: um upsert por bucket em vez de um por tarefa
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCriacoes(Collection<Tarefa> tarefas) {
+        if (!habilitado) {
+            return;
+        }
+        Map<Bucket, Long> deltas = new HashMap<>();
+        for (Tarefa tarefa : tarefas) {
+            deltas.merge(new Bucket(idResponsavel(tarefa), tarefa.getStatus(), tarefa.getPrioridade()), 1L, Long::sum);
+        }
+        registrarDeltas(deltas);
+    }
+
+    // Deltas já agregados por bucket (ex.: atualização em lote); deltas zerados são ignorados
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarDeltas(Map<Bucket, Long> deltas) {
+        if (!habilitado) {
+            return;
+        }
+        deltas.forEach((bucket, delta) -> {
+            if (delta != 0) {
+                ajustar(bucket.responsavelId(), bucket.status(), bucket.prioridade(), delta);
+            }
+        });
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarRemocao(Tarefa tarefa) {
+        if (habilitado) {
+            ajustar(idResponsavel(tarefa), tarefa.getStatus(), tarefa.getPrioridade(), -1);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarAlteracao(Long responsavelAnteriorId, StatusTarefa statusAnterior,
+            PrioridadeTarefa prioridadeAnterior, Tarefa tarefaAtualizada) {
+        if (!habilitado) {
+            return;
+        }
+        long anterior = responsavelAnteriorId != null ? responsavelAnteriorId : TarefaStatsContador.SEM_RESPONSAVEL;
+        long atual = idResponsavel(tarefaAtualizada);
+        if (anterior == atual && statusAnterior == tarefaAtualizada.getStatus()
+                && prioridadeAnterior == tarefaAtualizada.getPrioridade()) {
+            return; // Bucket não mudou
+        }
+        ajustar(anterior, statusAnterior, prioridadeAnterior, -1);
+        ajustar(atual, tarefaAtualizada.getStatus(), tarefaAtualizada.getPrioridade(), 1);
+    }
+
+    // Linhas (status, prioridade, quantidade) somadas para todos os responsáveis
+    @Transactional(readOnly = true)
+    public List<Object[]> somarTodos() {
+        return contadorRepository.somarPorStatusEPrioridade();
+    }
+
+    // Linhas (status, prioridade, quantidade) de um responsável
+    @Transactional(readOnly = true)
+    public List<Object[]> buscarPorResponsavel(Long responsavelId) {
+        return contadorRepository.findByResponsavelIdAgrupado(responsavelId);
+    }
+
+    // Os contadores só são reconstruídos quando tarefa_stats_estado diz que estão inválidos:
+    // uma instância com o recurso desligado os invalida ao subir, porque suas escritas não os
+    // manterão. Ligado, só a instância que obtém a trava reconstrói; as demais sobem sem
+    // esperar e sem travar tarefa_stats. Durante a reconstrução a tabela fica travada: escritas
+    // em andamento terminam antes da contagem e as seguintes aplicam seus deltas sobre o
+    // resultado, então nenhuma é perdida nem contada duas vezes.
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void inicializarContadores() {
+        if (!habilitado) {
+            estadoRepository.findById(TarefaStatsEstado.ID)
+                    .filter(TarefaStatsEstado::isValido)
+                    .ifPresent(estado -> marcar(estado, false));
+            return;
+        }
+        if (!contadorRepository.travarReconstrucao()) {
+            log.info("Contadores de tarefas sendo reconstruídos por outra instância");
+            return;
+        }
+        // Lido depois da trava: uma reconstrução recém-confirmada por outra instância já aparece
+        TarefaStatsEstado estado = estadoRepository.findById(TarefaStatsEstado.ID).orElseGet(TarefaStatsEstado::new);
+        if (estado.isValido()) {
+            return;
+        }
+        contadorRepository.bloquearAlteracoes();
+        contadorRepository.removerTodos();
+        int buckets = contadorRepository.recalcularAPartirDeTarefas();
+        marcar(estado, true);
+        log.info("Contadores de tarefas reconstruídos ({} buckets)", buckets);
+    }
+
+    private void marcar(TarefaStatsEstado estado, boolean valido) {
+        estado.setValido(valido);
+        estado.setAtualizadoEm(LocalDateTime.now());
+        estadoRepository.save(estado);
+    }
+
+    private void ajustar(long responsavelId, StatusTarefa status, PrioridadeTarefa prioridade, long delta) {
+        Objects.requireNonNull(status, "status");
+        Objects.requireNonNull(prioridade, "prioridade");
+        contadorRepository.incrementar(responsavelId, status.name(), prioridade.name(), delta);
+    }
+
+    public record Bucket(long responsavelId, StatusTarefa status, PrioridadeTarefa prioridade) {
+
+        public static Bucket de(Long responsavelId, StatusTarefa status, PrioridadeTarefa prioridade) {
+            return new Bucket(responsavelId != null ? responsavelId : TarefaStatsContador.SEM_RESPONSAVEL, status,
+                    prioridade);
+        }
+    }
+
+    private long idResponsavel(Tarefa tarefa) {
+        return tarefa.getResponsavel() != null ? tarefa.getResponsavel().getId() : TarefaStatsContador.SEM_RESPONSAVEL;
+    }
+}
@@ -0,0 +1,184 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.exception.ConflictException;
+import com.thiagoamorimm.takeatask.repository.UploadAnexoRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Arquivos parciais dos uploads retomáveis (UploadAnexo), em {file.upload-dir}/parciais.
+ *
+ * - O tamanho do parcial é o offset de onde o cliente continua; nada muda no banco a cada parte.
+ *   Na conclusão o parcial vira o temporário de um upload comum e segue para o ArmazenamentoBlobs,
+ *   sem ser copiado.
+ * - Uma trava no arquivo (FileLock) recusa duas partes simultâneas do mesmo upload.
+ * - O SHA-256 acompanha as partes em memória. Quando a sequência se perde (parte interrompida,
+ *   reinício, parte recebida por outra instância), a conclusão relê o parcial para calculá-lo.
+ * - Parciais sem gravação há mais que anexos.upload.expiracao são apagados com a sessão.
+ */
+@Component
+public class UploadsRetomaveis {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadsRetomaveis.class);
+
+    private final UploadAnexoRepository uploadAnexoRepository;
+    private final BlobsAnexos blobsAnexos;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskScheduler scheduler;
+    private final Path diretorio;
+    private final Duration expiracao;
+    private final Map<String, HashParcial> hashes = new ConcurrentHashMap<>();
+
+    public UploadsRetomaveis(UploadAnexoRepository uploadAnexoRepository, BlobsAnexos blobsAnexos,
+            PlatformTransactionManager transactionManager,
+            @Value("${file.upload-dir:./uploads}") String uploadDir,
+            @Value("${anexos.upload.expiracao:P1D}") Duration expiracao,
+            @Value("${anexos.blobs.limpeza:PT15M}") Duration limpeza) {
+        this.uploadAnexoRepository = uploadAnexoRepository;
+        this.blobsAnexos = blobsAnexos;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.expiracao = expiracao;
+        this.diretorio = Paths.get(uploadDir).toAbsolutePath().normalize().resolve("parciais");
+        try {
+            Files.createDirectories(diretorio);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível criar o diretório de uploads parciais", e);
+        }
+
+        this.scheduler = new ThreadPoolTaskScheduler();
+        this.scheduler.setThreadNamePrefix("uploads-anexos-");
+        this.scheduler.initialize();
+        this.scheduler.scheduleWithFixedDelay(this::removerExpirados, Instant.now().plus(limpeza), limpeza);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        scheduler.shutdown();
+    }
+
+    void criar(String uploadId) throws IOException {
+        Files.createFile(parcial(uploadId));
+        hashes.put(uploadId, new HashParcial(0, BlobsAnexos.novoSha256()));
+    }
+
+    long recebido(String uploadId) throws IOException {
+        return Files.size(parcial(uploadId));
+    }
+
+    /**
+     * Grava uma parte a partir de offset, que precisa ser exatamente o que o parcial já tem.
+     * Retorna o total recebido; o que passaria de tamanhoTotal é recusado sem ser gravado.
+     */
+    long anexar(String uploadId, long offset, ReadableByteChannel conteudo, long tamanhoTotal) throws IOException {
+        try (FileChannel destino = FileChannel.open(parcial(uploadId), StandardOpenOption.WRITE);
+                FileLock trava = travar(destino, uploadId)) {
+            long recebido = destino.size();
+            if (offset != recebido) {
+                throw new ConflictException("O upload " + uploadId + " já recebeu " + recebido
+                        + " bytes; envie a próxima parte a partir desse offset.");
+            }
+            // Retirado do mapa durante a parte: se ela falhar no meio, a conclusão recalcula
+            HashParcial hash = hashes.remove(uploadId);
+            MessageDigest sha256 = hash != null && hash.offset() == recebido ? hash.sha256() : null;
+            destino.position(recebido);
+            long total = recebido + blobsAnexos.copiar(conteudo, destino, sha256, tamanhoTotal - recebido);
+            if (sha256 != null) {
+                hashes.put(uploadId, new HashParcial(total, sha256));
+            }
+            return total;
+        }
+    }
+
+    /** Entrega o parcial completo como BlobRecebido, para BlobsAnexos.adicionarReferencia. */
+    BlobsAnexos.BlobRecebido concluir(String uploadId, long tamanhoTotal) throws IOException {
+        Path parcial = parcial(uploadId);
+        try (FileChannel canal = FileChannel.open(parcial, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                FileLock trava = travar(canal, uploadId)) {
+            long recebido = canal.size();
+            if (recebido != tamanhoTotal) {
+                throw new ConflictException("O upload " + uploadId + " recebeu " + recebido + " de "
+                        + tamanhoTotal + " bytes.");
+            }
+            HashParcial hash = hashes.remove(uploadId);
+            String hex = hash != null && hash.offset() == recebido
+                    ? BlobsAnexos.hex(hash.sha256())
+                    : blobsAnexos.calcularHash(canal);
+            return new BlobsAnexos.BlobRecebido(hex, recebido, parcial);
+        }
+    }
+
+    void descartar(String uploadId) throws IOException {
+        hashes.remove(uploadId);
+        Files.deleteIfExists(parcial(uploadId));
+    }
+
+    /** Apaga parciais parados além da expiração e sessões que ficaram sem parcial. */
+    void removerExpirados() {
+        Instant limite = Instant.now().minus(expiracao);
+        try (DirectoryStream<Path> parciais = Files.newDirectoryStream(diretorio, "*.part")) {
+            for (Path parcial : parciais) {
+                if (Files.getLastModifiedTime(parcial).toInstant().isBefore(limite)) {
+                    String uploadId = parcial.getFileName().toString().replace(".part", "");
+                    transactionTemplate.executeWithoutResult(status -> uploadAnexoRepository.removerPorId(uploadId));
+                    descartar(uploadId);
+                }
+            }
+            // Sessões cujo parcial já não existe (conclusão que falhou depois de consumi-lo)
+            LocalDateTime criadosAntes = LocalDateTime.now().minus(expiracao);
+            for (String uploadId : uploadAnexoRepository.findIdsCriadosAntesDe(criadosAntes, PageRequest.of(0, 500))) {
+                if (!Files.exists(parcial(uploadId))) {
+                    transactionTemplate.executeWithoutResult(status -> uploadAnexoRepository.removerPorId(uploadId));
+                }
+            }
+        } catch (RuntimeException | IOException e) {
+            log.error("Falha na limpeza de uploads expirados", e);
+        }
+    }
+
+    // O id vira nome de arquivo: só UUIDs, nunca um caminho vindo da requisição
+    private Path parcial(String uploadId) {
+        return diretorio.resolve(UUID.fromString(uploadId) + ".part");
+    }
+
+    private static FileLock travar(FileChannel canal, String uploadId) throws IOException {
+        FileLock trava;
+        try {
+            trava = canal.tryLock();
+        } catch (OverlappingFileLockException e) {
+            trava = null; // Travado por outra requisição nesta mesma JVM
+        }
+        if (trava == null) {
+            throw new ConflictException("O upload " + uploadId + " está recebendo outra parte.");
+        }
+        return trava;
+    }
+
+    private record HashParcial(long offset, MessageDigest sha256) {
+    }
+}
@@ -16,6 +16,8 @@ public interface UsuarioService {
 
     List<UsuarioDTO> listarTodosUsuarios(String query); // Modificado para aceitar query
 
+    VersaoRecurso versaoUsuarios(); // Validador (ETag) da listagem, sem carregar os usuários
+
     UsuarioDTO atualizarUsuario(Long id, UsuarioUpdateDTO usuarioUpdateDTO);
 
     void deletarUsuario(Long id); // Ou desativar
@@ -3,29 +3,38 @@ package com.thiagoamorimm.takeatask.service;
 import com.thiagoamorimm.takeatask.dto.UsuarioCreateDTO;
 import com.thiagoamorimm.takeatask.dto.UsuarioDTO;
 import com.thiagoamorimm.takeatask.dto.UsuarioUpdateDTO;
+import com.thiagoamorimm.takeatask.event.UsuarioAlteradoEvent;
 import com.thiagoamorimm.takeatask.exception.ConflictException;
 import com.thiagoamorimm.takeatask.exception.ResourceNotFoundException;
 import com.thiagoamorimm.takeatask.model.Usuario;
 import com.thiagoamorimm.takeatask.repository.UsuarioRepository;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class UsuarioServiceImpl implements UsuarioService {
 
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public UsuarioServiceImpl(UsuarioRepository usuarioRepository, PasswordEncoder passwordEncoder) {
+    public UsuarioServiceImpl(UsuarioRepository usuarioRepository, PasswordEncoder passwordEncoder,
+            ApplicationEventPublisher eventPublisher) {
         this.usuarioRepository = usuarioRepository;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -66,6 +75,13 @@ public class UsuarioServiceImpl implements UsuarioService {
         return convertToDTO(usuario);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public VersaoRecurso versaoUsuarios() {
+        Object[] versao = usuarioRepository.findVersaoColecao().get(0);
+        return VersaoRecurso.de("usuarios", (LocalDateTime) versao[2], versao);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<UsuarioDTO> listarTodosUsuarios(String query) {
@@ -84,6 +100,8 @@ public class UsuarioServiceImpl implements UsuarioService {
     @Transactional
     public UsuarioDTO atualizarUsuario(Long id, UsuarioUpdateDTO usuarioUpdateDTO) {
         Usuario usuarioExistente = findUsuarioEntityById(id);
+        String loginAnterior = usuarioExistente.getLogin();
+        boolean revogarTokens = false;
 
         if (usuarioUpdateDTO.getNome() != null) {
             usuarioExistente.setNome(usuarioUpdateDTO.getNome());
@@ -93,6 +111,7 @@ public class UsuarioServiceImpl implements UsuarioService {
                 throw new ConflictException("Usuário", "login", usuarioUpdateDTO.getLogin());
             }
             usuarioExistente.setLogin(usuarioUpdateDTO.getLogin());
+            revogarTokens = true;
         }
         if (usuarioUpdateDTO.getEmail() != null && !usuarioUpdateDTO.getEmail().equals(usuarioExistente.getEmail())) {
             if (usuarioRepository.findByEmailAndIdNot(usuarioUpdateDTO.getEmail(), id).isPresent()) {
@@ -103,8 +122,10 @@ public class UsuarioServiceImpl implements UsuarioService {
 
         if (usuarioUpdateDTO.getSenha() != null && !usuarioUpdateDTO.getSenha().isEmpty()) {
             usuarioExistente.setSenha(passwordEncoder.encode(usuarioUpdateDTO.getSenha()));
+            revogarTokens = true;
         }
         if (usuarioUpdateDTO.getPerfil() != null) {
+            revogarTokens |= usuarioUpdateDTO.getPerfil() != usuarioExistente.getPerfil();
             usuarioExistente.setPerfil(usuarioUpdateDTO.getPerfil());
         }
         if (usuarioUpdateDTO.getCargo() != null) {
@@ -118,6 +139,7 @@ public class UsuarioServiceImpl implements UsuarioService {
         }
 
         if (usuarioUpdateDTO.getAtivo() != null) {
+            revogarTokens |= usuarioUpdateDTO.getAtivo() != usuarioExistente.isAtivo();
             usuarioExistente.setAtivo(usuarioUpdateDTO.getAtivo());
         }
 
@@ -137,7 +159,16 @@ public class UsuarioServiceImpl implements UsuarioService {
             usuarioExistente.setFormatoHora(usuarioUpdateDTO.getFormatoHora());
         }
 
+        if (revogarTokens) {
+            // Persistido: vale após reinício e nas demais réplicas (ver PrincipalCache)
+            usuarioExistente.setTokensInvalidosAntes(Instant.now());
+        }
+
         Usuario usuarioAtualizado = usuarioRepository.save(usuarioExistente);
+        // Invalida o principal em cache (login antigo e novo) após o commit; os dois são iguais
+        // quando o login não muda, por isso não Set.of
+        Set<String> logins = Stream.of(loginAnterior, usuarioAtualizado.getLogin()).collect(Collectors.toSet());
+        eventPublisher.publishEvent(new UsuarioAlteradoEvent(logins));
         return convertToDTO(usuarioAtualizado);
     }
 
@@ -146,6 +177,7 @@ public class UsuarioServiceImpl implements UsuarioService {
     public void deletarUsuario(Long id) {
         Usuario usuario = findUsuarioEntityById(id);
         usuarioRepository.delete(usuario); 
+        eventPublisher.publishEvent(new UsuarioAlteradoEvent(Set.of(usuario.getLogin())));
     }
 
     private UsuarioDTO convertToDTO(Usuario usuario) {
@@ -0,0 +1,52 @@
+package com.thiagoamorimm.takeatask.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Validadores de uma representação para requisições condicionais (ETag / Last-Modified),
+ * obtidos sem carregar nem converter o recurso. O ETag é forte: muda sempre que muda
+ * qualquer dado que aparece na resposta.
+ */
+public record VersaoRecurso(String etag, LocalDateTime ultimaAlteracao) {
+
+    static VersaoRecurso de(String tipo, LocalDateTime ultimaAlteracao, Object... partes) {
+        String valor = tipo + '|' + Arrays.stream(partes).map(String::valueOf).collect(Collectors.joining("|"));
+        try {
+            byte[] resumo = MessageDigest.getInstance("SHA-256").digest(valor.getBytes(StandardCharsets.UTF_8));
+            return new VersaoRecurso(HexFormat.of().formatHex(resumo, 0, 16), ultimaAlteracao);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // SHA-256 é obrigatório em toda JVM
+        }
+    }
+
+    static LocalDateTime maisRecente(LocalDateTime... datas) {
+        return Arrays.stream(datas).filter(Objects::nonNull).max(LocalDateTime::compareTo).orElse(null);
+    }
+
+    /**
+     * Avalia um cabeçalho If-Match (RFC 9110, 13.1.1): "*" ou uma lista de ETags. A comparação
+     * é forte, então ETags fracos (W/"...") nunca atendem.
+     */
+    public boolean atendeIfMatch(String ifMatch) {
+        for (String candidato : ifMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.equals("*") || valor.equals('"' + etag + '"')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Valor para Last-Modified (-1 = desconhecido); as datas são gravadas no fuso da JVM
+    public long ultimaAlteracaoEmMillis() {
+        return ultimaAlteracao == null ? -1 : ultimaAlteracao.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
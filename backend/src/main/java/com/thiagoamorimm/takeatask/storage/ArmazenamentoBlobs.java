@@ -0,0 +1,42 @@
+package com.thiagoamorimm.takeatask.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Onde fica o conteúdo dos anexos, endereçado pelo SHA-256 (hex minúsculo). A chave define o
+ * conteúdo, então gravar de novo a mesma chave nunca muda o que já está armazenado, e o mesmo
+ * arquivo anexado a várias tarefas ocupa espaço uma única vez.
+ *
+ * A contagem de referências e a decisão de remover ficam no banco (BlobsAnexos); as
+ * implementações só movem bytes. Implementação escolhida por anexos.armazenamento.tipo.
+ */
+public interface ArmazenamentoBlobs {
+
+    /**
+     * Guarda o conteúdo de um arquivo local cujo hash já foi calculado. O arquivo de origem é
+     * consumido: movido para o armazenamento ou removido depois do envio (inclusive quando o
+     * blob já existia).
+     */
+    void gravar(String hash, Path origem) throws IOException;
+
+    ConteudoBlob ler(String hash, long tamanho) throws IOException;
+
+    void remover(String hash) throws IOException;
+
+    /**
+     * Arquivos derivados do conteúdo (miniatura), ao lado do blob na chave {hash}.{sufixo}.
+     * Ao contrário do blob, um derivado gravado de novo substitui o anterior. A origem também
+     * é consumida.
+     */
+    void gravarDerivado(String hash, String sufixo, Path origem) throws IOException;
+
+    ConteudoBlob lerDerivado(String hash, String sufixo, long tamanho) throws IOException;
+
+    void removerDerivado(String hash, String sufixo) throws IOException;
+
+    // Mesma organização nos dois backends: dois níveis de diretório evitam pastas com milhões de entradas
+    static String chave(String hash) {
+        return hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+    }
+}
@@ -0,0 +1,91 @@
+package com.thiagoamorimm.takeatask.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Blobs em {file.upload-dir}/blobs/ab/cd/{hash}. O upload é recebido no mesmo sistema de
+ * arquivos e só renomeado para o lugar definitivo, então cada byte é escrito uma vez. Para
+ * várias instâncias, o diretório precisa ser compartilhado (NFS etc.) ou usar o backend S3.
+ */
+@Component
+@ConditionalOnProperty(name = "anexos.armazenamento.tipo", havingValue = "local", matchIfMissing = true)
+public class ArmazenamentoLocal implements ArmazenamentoBlobs {
+
+    private final Path raiz;
+
+    public ArmazenamentoLocal(@Value("${file.upload-dir:./uploads}") String uploadDir) {
+        this.raiz = Paths.get(uploadDir).toAbsolutePath().normalize().resolve("blobs");
+        try {
+            Files.createDirectories(raiz);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível criar o diretório de blobs " + raiz, e);
+        }
+    }
+
+    @Override
+    public void gravar(String hash, Path origem) throws IOException {
+        Path destino = caminho(hash);
+        if (Files.exists(destino)) {
+            Files.delete(origem); // Mesmo conteúdo já armazenado
+            return;
+        }
+        Files.createDirectories(destino.getParent());
+        try {
+            // Rename atômico: ninguém lê um blob pela metade
+            Files.move(origem, destino, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(origem, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public ConteudoBlob ler(String hash, long tamanho) throws IOException {
+        Path caminho = caminho(hash);
+        return ConteudoBlob.arquivo(caminho, Files.size(caminho));
+    }
+
+    @Override
+    public void remover(String hash) throws IOException {
+        Files.deleteIfExists(caminho(hash));
+    }
+
+    @Override
+    public void gravarDerivado(String hash, String sufixo, Path origem) throws IOException {
+        Path destino = derivado(hash, sufixo);
+        Files.createDirectories(destino.getParent());
+        try {
+            Files.move(origem, destino, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(origem, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public ConteudoBlob lerDerivado(String hash, String sufixo, long tamanho) throws IOException {
+        Path caminho = derivado(hash, sufixo);
+        return ConteudoBlob.arquivo(caminho, Files.size(caminho));
+    }
+
+    @Override
+    public void removerDerivado(String hash, String sufixo) throws IOException {
+        Files.deleteIfExists(derivado(hash, sufixo));
+    }
+
+    private Path caminho(String hash) {
+        return raiz.resolve(ArmazenamentoBlobs.chave(hash));
+    }
+
+    private Path derivado(String hash, String sufixo) {
+        return raiz.resolve(ArmazenamentoBlobs.chave(hash) + "." + sufixo);
+    }
+}
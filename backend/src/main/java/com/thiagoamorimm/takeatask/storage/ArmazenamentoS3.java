@@ -0,0 +1,178 @@
+package com.thiagoamorimm.takeatask.storage;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Blobs em um bucket S3 ou compatível (MinIO, S3Mock), com chaves {prefixo}ab/cd/{hash}; todas
+ * as instâncias do backend enxergam os mesmos anexos. Sem access-key, as credenciais vêm da
+ * cadeia padrão do SDK (variáveis de ambiente, perfil, IAM role).
+ */
+@Component
+@ConditionalOnProperty(name = "anexos.armazenamento.tipo", havingValue = "s3")
+public class ArmazenamentoS3 implements ArmazenamentoBlobs {
+
+    private final S3Client s3;
+    private final String bucket;
+    private final String prefixo;
+
+    public ArmazenamentoS3(@Value("${anexos.armazenamento.s3.bucket}") String bucket,
+            @Value("${anexos.armazenamento.s3.prefixo:anexos/}") String prefixo,
+            @Value("${anexos.armazenamento.s3.regiao:us-east-1}") String regiao,
+            @Value("${anexos.armazenamento.s3.endpoint:}") String endpoint,
+            @Value("${anexos.armazenamento.s3.path-style:false}") boolean pathStyle,
+            @Value("${anexos.armazenamento.s3.access-key:}") String accessKey,
+            @Value("${anexos.armazenamento.s3.secret-key:}") String secretKey) {
+        this.bucket = bucket;
+        this.prefixo = prefixo;
+        S3ClientBuilder builder = S3Client.builder().region(Region.of(regiao)).forcePathStyle(pathStyle);
+        if (StringUtils.hasText(endpoint)) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        if (StringUtils.hasText(accessKey)) {
+            builder.credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)));
+        }
+        this.s3 = builder.build();
+    }
+
+    @Override
+    public void gravar(String hash, Path origem) throws IOException {
+        try {
+            if (!existe(hash)) {
+                s3.putObject(requisicao -> requisicao.bucket(bucket).key(chave(hash)), RequestBody.fromFile(origem));
+            }
+        } catch (SdkException e) {
+            throw new IOException("Falha ao gravar o blob " + hash + " no bucket " + bucket, e);
+        } finally {
+            Files.deleteIfExists(origem);
+        }
+    }
+
+    @Override
+    public ConteudoBlob ler(String hash, long tamanho) {
+        // O tamanho vem do banco: nenhuma chamada ao S3 até o conteúdo ser lido
+        return new ConteudoRemoto(chave(hash), tamanho);
+    }
+
+    @Override
+    public void remover(String hash) throws IOException {
+        try {
+            s3.deleteObject(requisicao -> requisicao.bucket(bucket).key(chave(hash)));
+        } catch (SdkException e) {
+            throw new IOException("Falha ao remover o blob " + hash + " do bucket " + bucket, e);
+        }
+    }
+
+    @Override
+    public void gravarDerivado(String hash, String sufixo, Path origem) throws IOException {
+        try {
+            s3.putObject(requisicao -> requisicao.bucket(bucket).key(chave(hash) + "." + sufixo),
+                    RequestBody.fromFile(origem));
+        } catch (SdkException e) {
+            throw new IOException("Falha ao gravar " + sufixo + " do blob " + hash + " no bucket " + bucket, e);
+        } finally {
+            Files.deleteIfExists(origem);
+        }
+    }
+
+    @Override
+    public ConteudoBlob lerDerivado(String hash, String sufixo, long tamanho) {
+        return new ConteudoRemoto(chave(hash) + "." + sufixo, tamanho);
+    }
+
+    @Override
+    public void removerDerivado(String hash, String sufixo) throws IOException {
+        try {
+            s3.deleteObject(requisicao -> requisicao.bucket(bucket).key(chave(hash) + "." + sufixo));
+        } catch (SdkException e) {
+            throw new IOException("Falha ao remover " + sufixo + " do blob " + hash + " do bucket " + bucket, e);
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        s3.close();
+    }
+
+    private boolean existe(String hash) {
+        try {
+            s3.headObject(requisicao -> requisicao.bucket(bucket).key(chave(hash)));
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return false; // HEAD não tem corpo, então alguns serviços não informam NoSuchKey
+            }
+            throw e;
+        }
+    }
+
+    private String chave(String hash) {
+        return prefixo + ArmazenamentoBlobs.chave(hash);
+    }
+
+    private final class ConteudoRemoto implements ConteudoBlob {
+
+        private final String chave;
+        private final long tamanho;
+
+        private ConteudoRemoto(String chave, long tamanho) {
+            this.chave = chave;
+            this.tamanho = tamanho;
+        }
+
+        @Override
+        public long tamanho() {
+            return tamanho;
+        }
+
+        @Override
+        public Optional<Path> arquivoLocal() {
+            return Optional.empty();
+        }
+
+        @Override
+        public InputStream abrir() throws IOException {
+            return obter(null);
+        }
+
+        // Só o intervalo pedido sai do bucket: retomar um download não baixa o início de novo
+        @Override
+        public void copiar(long inicio, long fim, OutputStream destino) throws IOException {
+            try (InputStream conteudo = obter("bytes=" + inicio + "-" + fim)) {
+                conteudo.transferTo(destino);
+            }
+        }
+
+        private ResponseInputStream<GetObjectResponse> obter(String range) throws IOException {
+            try {
+                return s3.getObject(requisicao -> requisicao.bucket(bucket).key(chave).range(range));
+            } catch (SdkException e) {
+                throw new IOException("Falha ao ler " + chave + " do bucket " + bucket, e);
+            }
+        }
+    }
+}
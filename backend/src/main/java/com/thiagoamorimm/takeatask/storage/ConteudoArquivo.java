@@ -0,0 +1,40 @@
+package com.thiagoamorimm.takeatask.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+record ConteudoArquivo(Path caminho, long tamanho) implements ConteudoBlob {
+
+    @Override
+    public Optional<Path> arquivoLocal() {
+        return Optional.of(caminho);
+    }
+
+    @Override
+    public InputStream abrir() throws IOException {
+        return Files.newInputStream(caminho);
+    }
+
+    @Override
+    public void copiar(long inicio, long fim, OutputStream destino) throws IOException {
+        try (FileChannel canal = FileChannel.open(caminho, StandardOpenOption.READ)) {
+            WritableByteChannel saida = Channels.newChannel(destino);
+            long posicao = inicio;
+            while (posicao <= fim) {
+                long enviados = canal.transferTo(posicao, fim + 1 - posicao, saida);
+                if (enviados <= 0) {
+                    break; // Arquivo menor que o tamanho informado; quem lê percebe pelo Content-Length
+                }
+                posicao += enviados;
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.thiagoamorimm.takeatask.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Conteúdo de um blob pronto para leitura. Quando há um arquivo local, o download pode
+ * entregá-lo direto ao conector (sendfile); senão os bytes são copiados de copiar().
+ */
+public interface ConteudoBlob {
+
+    long tamanho();
+
+    Optional<Path> arquivoLocal();
+
+    InputStream abrir() throws IOException;
+
+    // Copia os bytes de inicio a fim (inclusive) para o destino
+    void copiar(long inicio, long fim, OutputStream destino) throws IOException;
+
+    static ConteudoBlob arquivo(Path caminho, long tamanho) {
+        return new ConteudoArquivo(caminho, tamanho);
+    }
+}
@@ -0,0 +1,5 @@
+-- Instante até o qual os tokens do usuário não têm claims confiáveis (perfil/ativo alterados,
+-- senha ou login trocados). Persistido para que a revogação sobreviva a reinícios e valha em
+-- todas as réplicas; usuários existentes começam sem nenhuma revogação.
+ALTER TABLE usuarios ADD COLUMN IF NOT EXISTS tokens_invalidos_antes TIMESTAMP(6) WITH TIME ZONE NOT NULL
+    DEFAULT TIMESTAMPTZ '1970-01-01 00:00:00+00';
@@ -0,0 +1,5 @@
+-- Notificações reservadas por uma instância durante o envio (NotificacaoEmailDispatcher); a
+-- reserva expira em proxima_tentativa, então o índice de pendentes também atende a recuperação
+ALTER TABLE notificacoes_email DROP CONSTRAINT IF EXISTS notificacoes_email_status_check;
+ALTER TABLE notificacoes_email ADD CONSTRAINT notificacoes_email_status_check
+    CHECK (status IN ('PENDENTE', 'EM_ENVIO', 'ENVIADA', 'FALHA'));
@@ -0,0 +1,42 @@
+-- Texto dos comentários indexado em comentarios.search_vector, e não mais agregado em
+-- tarefas.search_vector: cada comentário gravado só calcula o próprio vetor, sem reler todos
+-- os comentários da tarefa nem travar a linha dela, e tarefas muito comentadas não chegam ao
+-- limite de 1 MB do tsvector. A busca casa a tarefa pelo vetor dela ou pelo de um comentário.
+-- Um comentário isolado também é limitado (primeiros 100 mil caracteres).
+
+ALTER TABLE comentarios ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+CREATE INDEX IF NOT EXISTS idx_comentarios_search_vector ON comentarios USING GIN (search_vector);
+
+DROP TRIGGER IF EXISTS trg_comentarios_search_vector ON comentarios;
+DROP FUNCTION IF EXISTS comentarios_search_vector_trigger();
+
+CREATE FUNCTION comentarios_search_vector_trigger() RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector := setweight(to_tsvector('portuguese', left(coalesce(NEW.texto, ''), 100000)), 'C');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_comentarios_search_vector
+    BEFORE INSERT OR UPDATE OF texto ON comentarios
+    FOR EACH ROW EXECUTE FUNCTION comentarios_search_vector_trigger();
+
+-- search_vector da tarefa = nome (peso A) + descrição (peso B)
+CREATE OR REPLACE FUNCTION tarefa_search_vector(p_nome TEXT, p_descricao TEXT)
+RETURNS tsvector AS $$
+    SELECT setweight(to_tsvector('portuguese', coalesce(p_nome, '')), 'A')
+        || setweight(to_tsvector('portuguese', coalesce(p_descricao, '')), 'B')
+$$ LANGUAGE sql IMMUTABLE;
+
+CREATE OR REPLACE FUNCTION tarefas_search_vector_trigger() RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector := tarefa_search_vector(NEW.nome, NEW.descricao);
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP FUNCTION IF EXISTS tarefa_search_vector(TEXT, TEXT, BIGINT);
+
+UPDATE comentarios SET search_vector = setweight(to_tsvector('portuguese', left(texto, 100000)), 'C');
+UPDATE tarefas SET search_vector = tarefa_search_vector(nome, descricao);
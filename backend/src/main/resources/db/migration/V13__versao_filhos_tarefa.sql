@@ -0,0 +1,3 @@
+-- Contador de alterações em comentários e anexos, fora do lock otimista: incrementado por um
+-- UPDATE atômico que não confere nem incrementa versao, e somado a ela no ETag da tarefa
+ALTER TABLE tarefas ADD COLUMN IF NOT EXISTS versao_filhos BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,11 @@
+-- Diz se tarefa_stats acompanhou todas as escritas desde a última reconstrução. Uma instância
+-- com os contadores desligados a marca como inválida ao subir; a próxima com eles ligados
+-- reconstrói a tabela uma vez e volta a marcá-la como válida.
+CREATE TABLE IF NOT EXISTS tarefa_stats_estado (
+    id SMALLINT PRIMARY KEY CHECK (id = 1),
+    valido BOOLEAN NOT NULL,
+    atualizado_em TIMESTAMP NOT NULL
+);
+
+INSERT INTO tarefa_stats_estado (id, valido, atualizado_em) VALUES (1, FALSE, CURRENT_TIMESTAMP)
+ON CONFLICT (id) DO NOTHING;
@@ -0,0 +1,113 @@
+-- Schema inicial, equivalente ao que o Hibernate gerava com ddl-auto=update.
+-- Idempotente: bancos criados antes do Flyway recebem baseline na versão 0 e passam por
+-- esta migração, que cria apenas o que ainda não existe (tabelas, sequência e índices).
+
+CREATE TABLE IF NOT EXISTS usuarios (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nome VARCHAR(100) NOT NULL,
+    login VARCHAR(50) NOT NULL UNIQUE,
+    email VARCHAR(100) NOT NULL UNIQUE,
+    senha VARCHAR(255) NOT NULL,
+    perfil VARCHAR(30) CHECK (perfil IN ('USUARIO_PADRAO', 'ADMINISTRADOR_GESTOR')),
+    cargo VARCHAR(100) NOT NULL,
+    telefone VARCHAR(20) NOT NULL,
+    departamento VARCHAR(100) NOT NULL,
+    data_criacao TIMESTAMP(6) NOT NULL,
+    data_atualizacao TIMESTAMP(6),
+    ativo BOOLEAN NOT NULL,
+    tema VARCHAR(20),
+    idioma VARCHAR(10),
+    fuso_horario VARCHAR(50),
+    formato_data VARCHAR(20),
+    formato_hora VARCHAR(10)
+);
+
+CREATE TABLE IF NOT EXISTS tags (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nome VARCHAR(50) NOT NULL UNIQUE,
+    cor VARCHAR(7),
+    descricao VARCHAR(255),
+    data_criacao TIMESTAMP(6) NOT NULL
+);
+
+-- Ids de tarefas em blocos de 50 (allocationSize de Tarefa), usados pelas inserções em lote
+CREATE SEQUENCE IF NOT EXISTS tarefas_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS tarefas (
+    id BIGINT NOT NULL PRIMARY KEY,
+    nome VARCHAR(150) NOT NULL,
+    descricao TEXT,
+    status VARCHAR(30) NOT NULL
+        CHECK (status IN ('A_FAZER', 'EM_ANDAMENTO', 'BLOQUEADA', 'EM_REVISAO', 'CONCLUIDA')),
+    prioridade VARCHAR(30) NOT NULL CHECK (prioridade IN ('BAIXA', 'MEDIA', 'ALTA', 'URGENTE')),
+    responsavel_id BIGINT CONSTRAINT fk_tarefas_responsavel REFERENCES usuarios,
+    criador_id BIGINT NOT NULL CONSTRAINT fk_tarefas_criador REFERENCES usuarios,
+    data_criacao TIMESTAMP(6) NOT NULL,
+    data_atualizacao TIMESTAMP(6),
+    data_prazo TIMESTAMP(6)
+);
+
+-- Bancos em que tarefas.id era IDENTITY: a sequência nova começa depois do maior id
+-- existente. O +50 cobre o bloco que o Hibernate reserva abaixo do valor retornado.
+SELECT setval('tarefas_seq', GREATEST(nextval('tarefas_seq'), (SELECT COALESCE(MAX(id), 0) FROM tarefas) + 50));
+
+CREATE TABLE IF NOT EXISTS tarefa_tags (
+    tag_id BIGINT NOT NULL CONSTRAINT fk_tarefa_tags_tag REFERENCES tags,
+    tarefa_id BIGINT NOT NULL CONSTRAINT fk_tarefa_tags_tarefa REFERENCES tarefas,
+    PRIMARY KEY (tag_id, tarefa_id)
+);
+
+CREATE TABLE IF NOT EXISTS subtarefas (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    descricao VARCHAR(255) NOT NULL,
+    concluida BOOLEAN NOT NULL,
+    tarefa_id BIGINT NOT NULL CONSTRAINT fk_subtarefas_tarefa REFERENCES tarefas,
+    responsavel_id BIGINT CONSTRAINT fk_subtarefas_responsavel REFERENCES usuarios,
+    data_criacao TIMESTAMP(6) NOT NULL,
+    data_atualizacao TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS comentarios (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    texto TEXT NOT NULL,
+    tarefa_id BIGINT NOT NULL CONSTRAINT fk_comentarios_tarefa REFERENCES tarefas,
+    autor_id BIGINT NOT NULL CONSTRAINT fk_comentarios_autor REFERENCES usuarios,
+    data_criacao TIMESTAMP(6) NOT NULL,
+    data_atualizacao TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS anexos (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nome_arquivo VARCHAR(255) NOT NULL,
+    tipo_arquivo VARCHAR(100) NOT NULL,
+    tamanho_arquivo BIGINT NOT NULL,
+    caminho_arquivo TEXT NOT NULL,
+    tarefa_id BIGINT NOT NULL CONSTRAINT fk_anexos_tarefa REFERENCES tarefas,
+    usuario_id BIGINT NOT NULL CONSTRAINT fk_anexos_usuario REFERENCES usuarios,
+    data_upload TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS notificacoes_email (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    destinatario VARCHAR(255) NOT NULL,
+    assunto VARCHAR(255) NOT NULL,
+    mensagem TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL CHECK (status IN ('PENDENTE', 'ENVIADA', 'FALHA')),
+    tentativas INTEGER NOT NULL,
+    proxima_tentativa TIMESTAMP(6) NOT NULL,
+    ultimo_erro TEXT,
+    data_criacao TIMESTAMP(6) NOT NULL,
+    data_envio TIMESTAMP(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_notificacoes_email_pendentes ON notificacoes_email (status, proxima_tentativa);
+
+CREATE TABLE IF NOT EXISTS tarefa_stats (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    responsavel_id BIGINT NOT NULL,
+    status VARCHAR(30) NOT NULL
+        CHECK (status IN ('A_FAZER', 'EM_ANDAMENTO', 'BLOQUEADA', 'EM_REVISAO', 'CONCLUIDA')),
+    prioridade VARCHAR(30) NOT NULL CHECK (prioridade IN ('BAIXA', 'MEDIA', 'ALTA', 'URGENTE')),
+    quantidade BIGINT NOT NULL,
+    CONSTRAINT uk_tarefa_stats_bucket UNIQUE (responsavel_id, status, prioridade)
+);
@@ -0,0 +1,28 @@
+-- Índices das consultas frequentes de tarefas (listagens, dashboard e carga de coleções).
+-- Até aqui só existiam as chaves primárias e as restrições UNIQUE.
+
+-- Filtro por responsável (tipo "equipe", responsavelId), countByResponsavelAndStatus e
+-- agregação do dashboard por responsável
+CREATE INDEX IF NOT EXISTS idx_tarefas_responsavel_status ON tarefas (responsavel_id, status);
+
+-- Outro lado do filtro "minhas" (responsável OU criador), combinado com o índice acima
+CREATE INDEX IF NOT EXISTS idx_tarefas_criador ON tarefas (criador_id);
+
+-- Ordem da paginação por cursor (dataCriacao desc, id desc): a primeira página lê só LIMIT linhas
+CREATE INDEX IF NOT EXISTS idx_tarefas_data_criacao_id ON tarefas (data_criacao DESC, id DESC);
+
+-- Tarefas atrasadas (prazo vencido e não concluídas). Parciais: tarefas concluídas, a maior
+-- parte da tabela com o tempo, ficam fora do índice
+CREATE INDEX IF NOT EXISTS idx_tarefas_prazo_pendentes ON tarefas (data_prazo)
+    WHERE status <> 'CONCLUIDA';
+CREATE INDEX IF NOT EXISTS idx_tarefas_responsavel_prazo_pendentes ON tarefas (responsavel_id, data_prazo)
+    WHERE status <> 'CONCLUIDA';
+
+-- A chave primária de tarefa_tags (tag_id, tarefa_id) já atende o filtro por tag; este índice
+-- cobre o caminho inverso (tags de um conjunto de tarefas, remoção em lote)
+CREATE INDEX IF NOT EXISTS idx_tarefa_tags_tarefa ON tarefa_tags (tarefa_id, tag_id);
+
+-- Coleções carregadas por tarefa (comentários já na ordem de findByTarefaOrderByDataCriacaoDesc)
+CREATE INDEX IF NOT EXISTS idx_comentarios_tarefa ON comentarios (tarefa_id, data_criacao);
+CREATE INDEX IF NOT EXISTS idx_anexos_tarefa ON anexos (tarefa_id);
+CREATE INDEX IF NOT EXISTS idx_subtarefas_tarefa ON subtarefas (tarefa_id);
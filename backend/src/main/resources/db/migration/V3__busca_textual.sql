@@ -0,0 +1,50 @@
+-- Busca textual de tarefas (PostgreSQL). Idempotente: bancos que já tinham estes objetos,
+-- criados na subida da aplicação antes do Flyway, apenas os recriam.
+-- search_vector = nome (peso A) + descrição (peso B) + texto dos comentários (peso C),
+-- mantido por triggers a cada escrita em tarefas/comentarios.
+
+ALTER TABLE tarefas ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+CREATE INDEX IF NOT EXISTS idx_tarefas_search_vector ON tarefas USING GIN (search_vector);
+
+CREATE OR REPLACE FUNCTION tarefa_search_vector(p_nome TEXT, p_descricao TEXT, p_tarefa_id BIGINT)
+RETURNS tsvector AS $$
+    SELECT setweight(to_tsvector('portuguese', coalesce(p_nome, '')), 'A')
+        || setweight(to_tsvector('portuguese', coalesce(p_descricao, '')), 'B')
+        || setweight(to_tsvector('portuguese', coalesce(
+               (SELECT string_agg(c.texto, ' ') FROM comentarios c WHERE c.tarefa_id = p_tarefa_id), '')), 'C')
+$$ LANGUAGE sql STABLE;
+
+CREATE OR REPLACE FUNCTION tarefas_search_vector_trigger() RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector := tarefa_search_vector(NEW.nome, NEW.descricao, NEW.id);
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_tarefas_search_vector ON tarefas;
+CREATE TRIGGER trg_tarefas_search_vector
+    BEFORE INSERT OR UPDATE OF nome, descricao ON tarefas
+    FOR EACH ROW EXECUTE FUNCTION tarefas_search_vector_trigger();
+
+CREATE OR REPLACE FUNCTION comentarios_search_vector_trigger() RETURNS trigger AS $$
+DECLARE
+    v_tarefa_id BIGINT;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        v_tarefa_id := OLD.tarefa_id;
+    ELSE
+        v_tarefa_id := NEW.tarefa_id;
+    END IF;
+    UPDATE tarefas t SET search_vector = tarefa_search_vector(t.nome, t.descricao, t.id) WHERE t.id = v_tarefa_id;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_comentarios_search_vector ON comentarios;
+CREATE TRIGGER trg_comentarios_search_vector
+    AFTER INSERT OR UPDATE OF texto OR DELETE ON comentarios
+    FOR EACH ROW EXECUTE FUNCTION comentarios_search_vector_trigger();
+
+-- Preenche tarefas gravadas antes da criação da coluna
+UPDATE tarefas t SET search_vector = tarefa_search_vector(t.nome, t.descricao, t.id) WHERE t.search_vector IS NULL;
@@ -0,0 +1,2 @@
+-- Última alteração de cada tag: compõe a versão da listagem de tags (ETag de GET /api/tags)
+ALTER TABLE tags ADD COLUMN IF NOT EXISTS data_atualizacao TIMESTAMP(6);
@@ -0,0 +1,5 @@
+-- Contador de versão para lock otimista (@Version): cada UPDATE/DELETE do Hibernate confere e
+-- incrementa a coluna, e uma gravação baseada em leitura antiga deixa de sobrescrever a outra
+ALTER TABLE tarefas ADD COLUMN IF NOT EXISTS versao BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE subtarefas ADD COLUMN IF NOT EXISTS versao BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE comentarios ADD COLUMN IF NOT EXISTS versao BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,19 @@
+-- Conteúdo dos anexos endereçado por SHA-256 (armazenamento local ou S3): arquivos idênticos
+-- são guardados uma vez e contados por referência. Anexos anteriores continuam servidos pelo
+-- caminho_arquivo, sem hash_conteudo
+CREATE TABLE IF NOT EXISTS blobs_anexos (
+    hash VARCHAR(64) PRIMARY KEY,
+    tamanho BIGINT NOT NULL,
+    referencias INTEGER NOT NULL,
+    data_criacao TIMESTAMP(6) NOT NULL,
+    sem_referencias_desde TIMESTAMP(6)
+);
+
+-- Varredura da limpeza: só os blobs sem referências
+CREATE INDEX IF NOT EXISTS idx_blobs_anexos_sem_referencias ON blobs_anexos (sem_referencias_desde)
+    WHERE referencias = 0;
+
+ALTER TABLE anexos ADD COLUMN IF NOT EXISTS hash_conteudo VARCHAR(64)
+    CONSTRAINT fk_anexos_blob REFERENCES blobs_anexos;
+ALTER TABLE anexos ALTER COLUMN caminho_arquivo DROP NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_anexos_hash_conteudo ON anexos (hash_conteudo);
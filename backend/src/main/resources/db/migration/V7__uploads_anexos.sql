@@ -0,0 +1,14 @@
+-- Uploads retomáveis de anexos: o conteúdo chega em partes em um arquivo parcial e vira anexo
+-- na conclusão. Sessões de tarefas ou usuários removidos saem junto
+CREATE TABLE IF NOT EXISTS uploads_anexos (
+    id VARCHAR(36) PRIMARY KEY,
+    tarefa_id BIGINT NOT NULL CONSTRAINT fk_uploads_anexos_tarefa REFERENCES tarefas ON DELETE CASCADE,
+    usuario_id BIGINT NOT NULL CONSTRAINT fk_uploads_anexos_usuario REFERENCES usuarios ON DELETE CASCADE,
+    nome_arquivo VARCHAR(255) NOT NULL,
+    tipo_arquivo VARCHAR(100) NOT NULL,
+    tamanho_arquivo BIGINT NOT NULL,
+    data_criacao TIMESTAMP(6) NOT NULL
+);
+
+-- Expiração: sessões antigas, das mais velhas para as mais novas
+CREATE INDEX IF NOT EXISTS idx_uploads_anexos_data_criacao ON uploads_anexos (data_criacao);
@@ -0,0 +1,7 @@
+-- Miniaturas dos anexos (imagens e primeira página de PDFs), geradas em segundo plano e guardadas
+-- ao lado do blob. NULL: ainda não processado; 0: conteúdo sem miniatura
+ALTER TABLE blobs_anexos ADD COLUMN IF NOT EXISTS tamanho_miniatura BIGINT;
+
+-- Varredura dos blobs em uso que ainda não passaram pelo gerador (inclusive os anteriores a esta versão)
+CREATE INDEX IF NOT EXISTS idx_blobs_anexos_sem_miniatura ON blobs_anexos (hash)
+    WHERE tamanho_miniatura IS NULL AND referencias > 0;
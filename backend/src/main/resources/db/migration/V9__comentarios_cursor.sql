@@ -0,0 +1,6 @@
+-- Comentários paginados por cursor (dataCriacao, id) nos dois sentidos: páginas anteriores
+-- (?after=) e comentários novos (?since=). Com o id no índice o desempate entre comentários do
+-- mesmo instante também sai dele, e os últimos comentários de cada tarefa (TarefaDTO) e a
+-- contagem são lidos só do índice. Mesmo nome: as consultas por tarefa continuam nele.
+DROP INDEX IF EXISTS idx_comentarios_tarefa;
+CREATE INDEX idx_comentarios_tarefa ON comentarios (tarefa_id, data_criacao, id);
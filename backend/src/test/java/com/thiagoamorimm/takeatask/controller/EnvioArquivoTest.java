@@ -0,0 +1,118 @@
+package com.thiagoamorimm.takeatask.controller;
+
+import com.thiagoamorimm.takeatask.service.ArquivoAnexo;
+import com.thiagoamorimm.takeatask.service.VersaoRecurso;
+import com.thiagoamorimm.takeatask.storage.ConteudoBlob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Download de anexos: intervalos para retomar, If-Range contra versão antiga e revalidação por
+ * ETag, sem depender de um servidor.
+ */
+class EnvioArquivoTest {
+
+    private static final String CONTEUDO = "0123456789abcdefghij";
+
+    @TempDir
+    Path diretorio;
+
+    private ArquivoAnexo arquivo;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path caminho = Files.writeString(diretorio.resolve("relatorio.txt"), CONTEUDO);
+        arquivo = new ArquivoAnexo("relatório.txt", "text/plain", ConteudoBlob.arquivo(caminho, CONTEUDO.length()),
+                new VersaoRecurso("abc123", LocalDateTime.of(2025, 6, 1, 10, 0)));
+    }
+
+    @Test
+    void arquivoInteiroComValidadores() throws Exception {
+        MockHttpServletResponse response = enviar(new MockHttpServletRequest("GET", "/download"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString(StandardCharsets.UTF_8)).isEqualTo(CONTEUDO);
+        assertThat(response.getHeader("ETag")).isEqualTo("\"abc123\"");
+        assertThat(response.getHeader("Accept-Ranges")).isEqualTo("bytes");
+        assertThat(response.getHeader("Cache-Control")).isEqualTo("no-cache, private");
+        assertThat(response.getHeader("Content-Disposition")).contains("filename*=UTF-8''relat%C3%B3rio.txt");
+    }
+
+    @Test
+    void intervaloRetomaODownload() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/download");
+        request.addHeader("Range", "bytes=10-");
+        request.addHeader("If-Range", "\"abc123\"");
+        MockHttpServletResponse response = enviar(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 10-19/20");
+        assertThat(response.getContentLengthLong()).isEqualTo(10);
+        assertThat(response.getContentAsString()).isEqualTo("abcdefghij");
+    }
+
+    @Test
+    void ifRangeDeOutraVersaoRecebeOArquivoInteiro() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/download");
+        request.addHeader("Range", "bytes=10-");
+        request.addHeader("If-Range", "\"versao-antiga\"");
+        MockHttpServletResponse response = enviar(request);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo(CONTEUDO);
+    }
+
+    @Test
+    void intervaloForaDoArquivoEhRecusado() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/download");
+        request.addHeader("Range", "bytes=20-30");
+        MockHttpServletResponse response = enviar(request);
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes */20");
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void etagAtualRespondeNaoModificado() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/download");
+        request.addHeader("If-None-Match", "\"abc123\"");
+        MockHttpServletResponse response = enviar(request);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void comSendfileOCorpoFicaParaOConector() throws Exception {
+        Path grande = Files.write(diretorio.resolve("grande.bin"), new byte[100 * 1024]);
+        arquivo = new ArquivoAnexo("grande.bin", null, ConteudoBlob.arquivo(grande, 100 * 1024), arquivo.versao());
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/download");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader("Range", "bytes=1024-");
+        MockHttpServletResponse response = enviar(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename")).isEqualTo(grande.toString());
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(1024L);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(100L * 1024);
+        assertThat(response.getContentType()).isEqualTo("application/octet-stream");
+    }
+
+    private MockHttpServletResponse enviar(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        EnvioArquivo.enviar(request, response, arquivo);
+        return response;
+    }
+}
@@ -0,0 +1,254 @@
+package com.thiagoamorimm.takeatask.repository;
+
+import com.thiagoamorimm.takeatask.enums.StatusTarefa;
+import com.thiagoamorimm.takeatask.model.Tarefa;
+import com.thiagoamorimm.takeatask.model.Usuario;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Aplica as migrações Flyway em um PostgreSQL real (o Hibernate valida o schema resultante)
+ * e confere, via EXPLAIN do SQL que os repositórios de fato geram, que as consultas
+ * frequentes usam os índices de V2__indices_consultas.sql. Também cobre a busca textual
+ * sobre tarefas e comentários (V12__busca_comentarios.sql).
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.thiagoamorimm.takeatask.repository.IndicesConsultasTest$SqlCapturado"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Dados gravados uma vez e analisados (VACUUM)
+class IndicesConsultasTest {
+
+    // Iniciado na primeira resolução da URL; parado pelo shutdown hook do EmbeddedPostgres
+    private static EmbeddedPostgres postgres;
+    private static boolean populado;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres().getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    private static synchronized EmbeddedPostgres postgres() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return postgres;
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TarefaRepository tarefaRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private ComentarioRepository comentarioRepository;
+
+    @Autowired
+    private AnexoRepository anexoRepository;
+
+    @Autowired
+    private SubtarefaRepository subtarefaRepository;
+
+    private Usuario usuario;
+    private Tarefa tarefa;
+
+    @BeforeEach
+    void setUp() {
+        if (!populado) {
+            popular();
+            populado = true;
+        }
+        usuario = usuarioRepository.findById(7L).orElseThrow();
+        tarefa = tarefaRepository.findById(4242L).orElseThrow();
+    }
+
+    @Test
+    void tarefasDoResponsavelPorStatus() {
+        assertThat(plano(() -> tarefaRepository.countByResponsavelAndStatus(usuario, StatusTarefa.EM_ANDAMENTO),
+                usuario.getId(), StatusTarefa.EM_ANDAMENTO.name()))
+                .contains("idx_tarefas_responsavel_status");
+    }
+
+    @Test
+    void tarefasDoCriador() {
+        assertThat(plano(() -> tarefaRepository.findByCriador(usuario), usuario.getId()))
+                .contains("idx_tarefas_criador");
+    }
+
+    @Test
+    void tarefasAtrasadasUsamIndicesParciais() {
+        LocalDateTime agora = LocalDateTime.now();
+        assertThat(plano(() -> tarefaRepository.countByStatusNotAndDataPrazoBefore(StatusTarefa.CONCLUIDA, agora),
+                StatusTarefa.CONCLUIDA.name(), agora))
+                .contains("idx_tarefas_prazo_pendentes");
+        assertThat(plano(() -> tarefaRepository.countByResponsavelAndStatusNotAndDataPrazoBefore(usuario,
+                StatusTarefa.CONCLUIDA, agora), usuario.getId(), StatusTarefa.CONCLUIDA.name(), agora))
+                .contains("idx_tarefas_responsavel_prazo_pendentes");
+    }
+
+    @Test
+    void primeiraPaginaDaListagemPorCursor() {
+        Sort ordenacao = Sort.by(Sort.Order.desc("dataCriacao"), Sort.Order.desc("id"));
+        assertThat(plano(() -> tarefaRepository.findBy((root, query, cb) -> null,
+                q -> q.sortBy(ordenacao).limit(21).all()), 21))
+                .contains("idx_tarefas_data_criacao_id")
+                .doesNotContain("Sort");
+    }
+
+    @Test
+    void tagsDeUmConjuntoDeTarefas() {
+        List<Long> ids = List.of(10L, 20L, 30L);
+        assertThat(plano(() -> tarefaRepository.findTagIdsByTarefaIds(ids), ids.toArray()))
+                .contains("idx_tarefa_tags_tarefa");
+    }
+
+    @Test
+    void colecoesDaTarefa() {
+        assertThat(plano(() -> comentarioRepository.findByTarefaOrderByDataCriacaoDesc(tarefa), tarefa.getId()))
+                .contains("idx_comentarios_tarefa");
+        assertThat(plano(() -> anexoRepository.findByTarefa(tarefa), tarefa.getId()))
+                .contains("idx_anexos_tarefa");
+        assertThat(plano(() -> subtarefaRepository.findByTarefaPrincipal(tarefa), tarefa.getId()))
+                .contains("idx_subtarefas_tarefa");
+    }
+
+    @Test
+    void comentariosDaTarefaPorCursor() {
+        LocalDateTime agora = LocalDateTime.now();
+        PageRequest pagina = PageRequest.of(0, 21);
+        assertThat(plano(() -> comentarioRepository.findAnteriores(tarefa.getId(), agora, 40000L, pagina),
+                tarefa.getId(), agora, 40000L, 21))
+                .contains("idx_comentarios_tarefa")
+                .contains("ROW(data_criacao, id) < ROW("); // O cursor é condição do índice, não filtro
+        assertThat(plano(() -> comentarioRepository.findPosteriores(tarefa.getId(), agora, 1L, pagina),
+                tarefa.getId(), agora, 1L, 21))
+                .contains("idx_comentarios_tarefa")
+                .contains("ROW(data_criacao, id) > ROW(");
+    }
+
+    @Test
+    void comentariosRecentesEContagemDeUmConjuntoDeTarefas() {
+        List<Long> ids = List.of(10L, 20L, 30L);
+        assertThat(plano(() -> comentarioRepository.findMaisRecentesPorTarefa(ids, 5), 10L, 20L, 30L, 5L))
+                .contains("Index Only Scan using idx_comentarios_tarefa");
+        assertThat(plano(() -> comentarioRepository.countByTarefaIds(ids), ids.toArray()))
+                .contains("Index Only Scan using idx_comentarios_tarefa");
+    }
+
+    @Test
+    void buscaTextualCasaComentariosPeloVetorDoComentario() {
+        jdbcTemplate.update("INSERT INTO tarefas (id, nome, status, prioridade, responsavel_id, criador_id, "
+                + "data_criacao) VALUES (30001, 'Migrar servidor de arquivos', 'A_FAZER', 'ALTA', 7, 7, now())");
+        jdbcTemplate.update("INSERT INTO comentarios (texto, tarefa_id, autor_id, data_criacao) "
+                + "VALUES ('Orçamento aprovado pela diretoria', 30001, 7, now())");
+
+        assertThat(tarefaRepository.buscarIdsPorRelevancia("diretoria:*", null, null, null, 10))
+                .extracting(linha -> linha[0]).containsExactly(30001L);
+        assertThat(tarefaRepository.buscarIdsPorRelevancia("servidor:* & arquivos:*", 7L, null, null, 10))
+                .extracting(linha -> linha[0]).containsExactly(30001L);
+        assertThat(tarefaRepository.buscarIdsPorRelevancia("diretoria:*", 8L, null, null, 10)).isEmpty();
+        assertThat(tarefaRepository.findAll((root, query, cb) -> cb.isTrue(cb.function(
+                BuscaTextualFunctionContributor.FUNCAO, Boolean.class, root.get("id"), cb.literal("diretoria:*")))))
+                .extracting(Tarefa::getId).containsExactly(30001L);
+        // O texto dos comentários não é mais agregado no vetor da tarefa
+        assertThat(jdbcTemplate.queryForObject("SELECT search_vector @@ to_tsquery('portuguese', 'diretoria:*') "
+                + "FROM tarefas WHERE id = 30001", Boolean.class)).isFalse();
+    }
+
+    // Executa a consulta, captura o SQL gerado e devolve o EXPLAIN dele com os mesmos parâmetros
+    private String plano(Runnable consulta, Object... parametros) {
+        SqlCapturado.SQL.clear();
+        consulta.run();
+        assertThat(SqlCapturado.SQL).hasSize(1);
+        return String.join("\n",
+                jdbcTemplate.queryForList("EXPLAIN " + SqlCapturado.SQL.get(0), String.class, parametros));
+    }
+
+    // Volume e distribuição próximos de produção: 20 mil tarefas, 70% concluídas, 50 usuários
+    private void popular() {
+        List<String> comandos = List.of(
+                // Sem triggers (busca textual) e sem verificação de FKs durante a carga
+                "SET session_replication_role = replica",
+                "INSERT INTO usuarios (id, nome, login, email, senha, perfil, cargo, telefone, "
+                + "departamento, data_criacao, ativo) SELECT i, 'Usuário ' || i, 'usuario' || i, "
+                + "'usuario' || i || '@takeatask.com', 'x', 'USUARIO_PADRAO', 'Analista', '11999999999', 'TI', "
+                + "now(), true FROM generate_series(1, 50) i",
+                "INSERT INTO tags (id, nome, data_criacao) "
+                + "SELECT i, 'Tag ' || i, now() FROM generate_series(1, 20) i",
+                "INSERT INTO tarefas (id, nome, status, prioridade, responsavel_id, criador_id, "
+                + "data_criacao, data_prazo) SELECT i, 'Tarefa ' || i, "
+                + "CASE WHEN i % 10 < 7 THEN 'CONCLUIDA' WHEN i % 10 = 7 THEN 'A_FAZER' "
+                + "WHEN i % 10 = 8 THEN 'EM_ANDAMENTO' ELSE 'EM_REVISAO' END, "
+                + "(ARRAY['BAIXA', 'MEDIA', 'ALTA', 'URGENTE'])[i % 4 + 1], (i / 10) % 50 + 1, (i / 7) % 50 + 1, "
+                + "now() - i * interval '10 minutes', now() + ((i % 365) - 30) * interval '1 day' "
+                + "FROM generate_series(1, 20000) i",
+                "INSERT INTO tarefa_tags (tarefa_id, tag_id) "
+                + "SELECT i, i % 20 + 1 FROM generate_series(1, 20000) i "
+                + "UNION ALL SELECT i, (i + 7) % 20 + 1 FROM generate_series(1, 20000) i",
+                "INSERT INTO comentarios (texto, tarefa_id, autor_id, data_criacao) "
+                + "SELECT 'Comentário ' || i, i % 20000 + 1, i % 50 + 1, now() FROM generate_series(1, 40000) i",
+                "INSERT INTO anexos (nome_arquivo, tipo_arquivo, tamanho_arquivo, caminho_arquivo, "
+                + "tarefa_id, usuario_id, data_upload) SELECT 'arquivo' || i || '.pdf', 'application/pdf', 1024, "
+                + "'/uploads/arquivo' || i || '.pdf', i % 20000 + 1, i % 50 + 1, now() "
+                + "FROM generate_series(1, 10000) i",
+                "INSERT INTO subtarefas (descricao, concluida, tarefa_id, data_criacao) "
+                + "SELECT 'Subtarefa ' || i, false, i % 20000 + 1, now() FROM generate_series(1, 10000) i",
+                "SET session_replication_role = DEFAULT",
+                "VACUUM ANALYZE");
+        // Mesma conexão para todos os comandos: o SET acima vale para a sessão
+        jdbcTemplate.execute((ConnectionCallback<Void>) conexao -> {
+            try (Statement statement = conexao.createStatement()) {
+                for (String comando : comandos) {
+                    statement.execute(comando);
+                }
+            }
+            return null;
+        });
+    }
+
+    public static class SqlCapturado implements StatementInspector {
+
+        static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            SQL.add(sql);
+            return sql;
+        }
+    }
+}
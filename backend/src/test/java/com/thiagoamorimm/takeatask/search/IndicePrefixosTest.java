@@ -0,0 +1,100 @@
+package com.thiagoamorimm.takeatask.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndicePrefixosTest {
+
+    @Test
+    void casaTodosOsTermosPorPrefixoSemDiferenciarAcentos() {
+        IndicePrefixos<String> indice = new IndicePrefixos<>();
+        indice.indexar(1L, "Relatório financeiro mensal", "relatorio");
+        indice.indexar(2L, "Corrigir relatório de acesso", "corrigir");
+        indice.indexar(3L, "Deploy em produção", "deploy");
+
+        assertThat(indice.buscar("rel", null, 10)).containsExactly("relatorio", "corrigir");
+        assertThat(indice.buscar("RELATORIO fin", null, 10)).containsExactly("relatorio");
+        assertSemResultados(indice, "producao xyz");
+        assertThat(indice.buscar("produ", null, 10)).containsExactly("deploy");
+    }
+
+    @Test
+    void ordenaPorTermoExatoEAplicaFiltroELimite() {
+        IndicePrefixos<String> indice = new IndicePrefixos<>();
+        indice.indexar(1L, "Tag backend legado", "legado");
+        indice.indexar(2L, "Back", "back");
+        indice.indexar(3L, "Backend", "backend");
+
+        assertThat(indice.buscar("back", null, 10)).containsExactly("back", "backend", "legado");
+        assertThat(indice.buscar("back", d -> !d.equals("back"), 1)).containsExactly("backend");
+    }
+
+    @Test
+    void reindexarERemoverAtualizamAsListas() {
+        IndicePrefixos<String> indice = new IndicePrefixos<>();
+        indice.indexar(1L, "Implementar autenticação", "v1");
+        indice.indexar(1L, "Revisar documentação", "v2");
+
+        assertSemResultados(indice, "autent");
+        assertThat(indice.buscar("document", null, 10)).containsExactly("v2");
+
+        indice.remover(1L);
+        assertSemResultados(indice, "revis");
+        assertThat(indice.tamanho()).isZero();
+    }
+
+    @Test
+    void termosMaioresQueOPrefixoIndexadoSaoConferidos() {
+        IndicePrefixos<String> indice = new IndicePrefixos<>();
+        indice.indexar(1L, "internacionalização", "i18n");
+        indice.indexar(2L, "internacionalmente", "outro");
+
+        assertThat(indice.buscar("internacionaliza", null, 10)).containsExactly("i18n");
+    }
+
+    @Test
+    void exigeUmTermoComOTamanhoMinimo() {
+        IndicePrefixos<String> indice = new IndicePrefixos<>();
+        indice.indexar(1L, "Revisar API de pagamentos", "api");
+
+        assertSemResultados(indice, "re");
+        assertSemResultados(indice, "a de");
+        assertThat(indice.buscar("a pag", null, 10)).containsExactly("api");
+        assertThat(new IndicePrefixos<String>(1)).satisfies(curto -> {
+            curto.indexar(1L, "UI", "ui");
+            assertThat(curto.buscar("u", null, 10)).containsExactly("ui");
+        });
+    }
+
+    @Test
+    void limiteDevolveOsMelhoresNaMesmaOrdemDaListaCompleta() {
+        IndicePrefixos<String> indice = new IndicePrefixos<>();
+        Random random = new Random(42);
+        String[] palavras = { "rel", "relatorio", "relato", "relogio", "mensal", "release", "rele" };
+        for (long id = 1; id <= 500; id++) {
+            StringBuilder texto = new StringBuilder();
+            for (int i = 0; i < 1 + random.nextInt(4); i++) {
+                texto.append(palavras[random.nextInt(palavras.length)]).append(' ');
+            }
+            indice.indexar(id, texto.toString().trim(), id + ":" + texto.toString().trim());
+        }
+
+        for (String consulta : List.of("rel", "rele", "relato men", "mensal rel")) {
+            List<String> completa = indice.buscar(consulta, null, Integer.MAX_VALUE);
+            assertThat(completa).isNotEmpty();
+            assertThat(indice.buscar(consulta, null, 7)).containsExactlyElementsOf(completa.subList(0, 7));
+            Predicate<String> pares = d -> Long.parseLong(d.substring(0, d.indexOf(':'))) % 2 == 0;
+            assertThat(indice.buscar(consulta, pares, 5))
+                    .containsExactlyElementsOf(completa.stream().filter(pares).limit(5).toList());
+        }
+    }
+
+    private void assertSemResultados(IndicePrefixos<String> indice, String consulta) {
+        assertThat(indice.buscar(consulta, null, 10)).isEmpty();
+    }
+}
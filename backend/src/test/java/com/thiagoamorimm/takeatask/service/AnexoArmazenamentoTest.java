@@ -0,0 +1,121 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.dto.AnexoDTO;
+import com.thiagoamorimm.takeatask.enums.PerfilUsuario;
+import com.thiagoamorimm.takeatask.enums.PrioridadeTarefa;
+import com.thiagoamorimm.takeatask.enums.StatusTarefa;
+import com.thiagoamorimm.takeatask.model.Anexo;
+import com.thiagoamorimm.takeatask.model.BlobAnexo;
+import com.thiagoamorimm.takeatask.model.Tarefa;
+import com.thiagoamorimm.takeatask.model.Usuario;
+import com.thiagoamorimm.takeatask.storage.ArmazenamentoLocal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Anexos com o mesmo conteúdo compartilham um blob: gravado uma vez, contado por referência e
+ * apagado pela limpeza só depois que o último anexo sai.
+ */
+@DataJpaTest
+@Import({ AnexoServiceImpl.class, AcessoTarefas.class, BlobsAnexos.class, UploadsRetomaveis.class, ArmazenamentoLocal.class })
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "anexos.blobs.retencao=PT0S"
+})
+class AnexoArmazenamentoTest {
+
+    @TempDir
+    static Path uploads;
+
+    @DynamicPropertySource
+    static void diretorioUploads(DynamicPropertyRegistry registry) {
+        registry.add("file.upload-dir", () -> uploads.toString());
+    }
+
+    @Autowired
+    private AnexoService anexoService;
+
+    @Autowired
+    private BlobsAnexos blobsAnexos;
+
+    @Autowired
+    private TestEntityManager em;
+
+    private Usuario admin;
+    private Tarefa contrato;
+    private Tarefa auditoria;
+
+    @BeforeEach
+    void setUp() {
+        admin = em.persist(new Usuario("Usuário admin", "admin", "admin@takeatask.com", "senha123",
+                PerfilUsuario.ADMINISTRADOR_GESTOR, "Analista", "11999999999", "TI"));
+        contrato = em.persist(new Tarefa("Revisar contrato", null, StatusTarefa.A_FAZER, PrioridadeTarefa.MEDIA, admin,
+                admin, null));
+        auditoria = em.persist(new Tarefa("Preparar auditoria", null, StatusTarefa.A_FAZER, PrioridadeTarefa.ALTA,
+                admin, admin, null));
+        em.flush();
+    }
+
+    @Test
+    void mesmoConteudoEhGuardadoUmaVezAteOUltimoAnexoSair() throws Exception {
+        byte[] especificacao = "%PDF-1.7 especificação do contrato".getBytes(StandardCharsets.UTF_8);
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(especificacao));
+
+        AnexoDTO primeiro = anexoService.salvarAnexo(
+                new MockMultipartFile("arquivo", "spec.pdf", "application/pdf", especificacao), contrato.getId(), admin);
+        AnexoDTO segundo = anexoService.salvarAnexo(
+                new MockMultipartFile("arquivo", "spec-v2.pdf", "application/pdf", especificacao), auditoria.getId(),
+                admin);
+
+        assertThat(em.find(Anexo.class, primeiro.getId()).getHashConteudo()).isEqualTo(hash);
+        assertThat(em.find(Anexo.class, segundo.getId()).getHashConteudo()).isEqualTo(hash);
+        assertThat(arquivos(uploads.resolve("blobs"))).containsExactly(hash);
+        assertThat(arquivos(uploads.resolve("tmp"))).isEmpty();
+        assertThat(blob(hash).getReferencias()).isEqualTo(2);
+
+        anexoService.deletarAnexo(primeiro.getId(), admin);
+        blobsAnexos.removerSemReferencias();
+        assertThat(blob(hash).getReferencias()).isEqualTo(1);
+        assertThat(arquivos(uploads.resolve("blobs"))).containsExactly(hash);
+
+        anexoService.deletarAnexo(segundo.getId(), admin);
+        assertThat(blob(hash).getSemReferenciasDesde()).isNotNull();
+        Thread.sleep(5); // Retenção zero: basta o relógio andar
+        blobsAnexos.removerSemReferencias();
+        em.clear();
+        assertThat(em.find(BlobAnexo.class, hash)).isNull();
+        assertThat(arquivos(uploads.resolve("blobs"))).isEmpty();
+    }
+
+    private BlobAnexo blob(String hash) {
+        em.clear(); // As contagens mudam por UPDATE direto no banco
+        return em.find(BlobAnexo.class, hash);
+    }
+
+    private static Stream<String> arquivos(Path diretorio) throws Exception {
+        try (Stream<Path> caminhos = Files.walk(diretorio)) {
+            return caminhos.filter(Files::isRegularFile).map(caminho -> caminho.getFileName().toString()).toList()
+                    .stream();
+        }
+    }
+}
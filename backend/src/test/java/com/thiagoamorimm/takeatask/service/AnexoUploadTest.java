@@ -0,0 +1,178 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.dto.AnexoDTO;
+import com.thiagoamorimm.takeatask.dto.UploadAnexoCreateDTO;
+import com.thiagoamorimm.takeatask.dto.UploadAnexoDTO;
+import com.thiagoamorimm.takeatask.enums.PerfilUsuario;
+import com.thiagoamorimm.takeatask.enums.PrioridadeTarefa;
+import com.thiagoamorimm.takeatask.enums.StatusTarefa;
+import com.thiagoamorimm.takeatask.exception.ConflictException;
+import com.thiagoamorimm.takeatask.exception.PayloadTooLargeException;
+import com.thiagoamorimm.takeatask.model.Anexo;
+import com.thiagoamorimm.takeatask.model.Tarefa;
+import com.thiagoamorimm.takeatask.model.UploadAnexo;
+import com.thiagoamorimm.takeatask.model.Usuario;
+import com.thiagoamorimm.takeatask.storage.ArmazenamentoLocal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Uploads pelo corpo da requisição e retomáveis: o conteúdo vai ao disco uma vez, já com o hash,
+ * e nada fica para trás em tmp/ ou parciais/ quando o upload termina ou é recusado.
+ */
+@DataJpaTest
+@Import({ AnexoServiceImpl.class, AcessoTarefas.class, BlobsAnexos.class, UploadsRetomaveis.class, ArmazenamentoLocal.class })
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "anexos.upload.tamanho-maximo=2MB"
+})
+class AnexoUploadTest {
+
+    @TempDir
+    static Path uploads;
+
+    @DynamicPropertySource
+    static void diretorioUploads(DynamicPropertyRegistry registry) {
+        registry.add("file.upload-dir", () -> uploads.toString());
+    }
+
+    @Autowired
+    private AnexoService anexoService;
+
+    @Autowired
+    private TestEntityManager em;
+
+    private Usuario admin;
+    private Tarefa tarefa;
+
+    @BeforeEach
+    void setUp() {
+        admin = em.persist(new Usuario("Usuário admin", "admin", "admin@takeatask.com", "senha123",
+                PerfilUsuario.ADMINISTRADOR_GESTOR, "Analista", "11999999999", "TI"));
+        tarefa = em.persist(new Tarefa("Gravar treinamento", null, StatusTarefa.A_FAZER, PrioridadeTarefa.MEDIA, admin,
+                admin, null));
+        em.flush();
+    }
+
+    @Test
+    void corpoDaRequisicaoViraAnexoEmUmaPassada() throws Exception {
+        byte[] conteudo = aleatorio(700 * 1024); // Mais de um buffer do pool
+
+        AnexoDTO anexo = anexoService.receberAnexo(tarefa.getId(), "aula.mp4", null, conteudo.length,
+                canal(conteudo), admin);
+
+        Anexo salvo = em.find(Anexo.class, anexo.getId());
+        assertThat(salvo.getHashConteudo()).isEqualTo(sha256(conteudo));
+        assertThat(salvo.getTipoArquivo()).isEqualTo("application/octet-stream");
+        assertThat(Files.readAllBytes(blob(salvo.getHashConteudo()))).isEqualTo(conteudo);
+        assertThat(uploads.resolve("tmp")).isEmptyDirectory();
+
+        assertThatThrownBy(() -> anexoService.receberAnexo(tarefa.getId(), "grande.mp4", "video/mp4", -1,
+                canal(aleatorio(2 * 1024 * 1024 + 1)), admin))
+                .isInstanceOf(PayloadTooLargeException.class);
+        assertThat(uploads.resolve("tmp")).isEmptyDirectory();
+    }
+
+    @Test
+    void uploadRetomavelContinuaDoQueChegouAoDisco() throws Exception {
+        byte[] conteudo = aleatorio(1024 * 1024);
+        UploadAnexoDTO upload = anexoService.iniciarUpload(tarefa.getId(),
+                new UploadAnexoCreateDTO("aula.mp4", "video/mp4", (long) conteudo.length), admin);
+
+        anexoService.receberParteUpload(tarefa.getId(), upload.getId(), 0, canal(parte(conteudo, 0, 400_000)), admin);
+        assertThatThrownBy(() -> anexoService.receberParteUpload(tarefa.getId(), upload.getId(), 0,
+                canal(parte(conteudo, 0, 400_000)), admin))
+                .isInstanceOf(ConflictException.class);
+        // Conexão que cai no meio da parte: o que foi gravado fica, e o hash é recalculado na conclusão
+        assertThatThrownBy(() -> anexoService.receberParteUpload(tarefa.getId(), upload.getId(), 400_000,
+                interrompido(parte(conteudo, 400_000, 800_000)), admin))
+                .isInstanceOf(IOException.class);
+        long recebido = anexoService.buscarUpload(tarefa.getId(), upload.getId(), admin).getRecebido();
+        assertThat(recebido).isGreaterThan(400_000).isLessThan(800_000);
+        assertThatThrownBy(() -> anexoService.concluirUpload(tarefa.getId(), upload.getId(), admin))
+                .isInstanceOf(ConflictException.class);
+
+        anexoService.receberParteUpload(tarefa.getId(), upload.getId(), recebido,
+                canal(parte(conteudo, (int) recebido, conteudo.length)), admin);
+        AnexoDTO anexo = anexoService.concluirUpload(tarefa.getId(), upload.getId(), admin);
+
+        assertThat(em.find(Anexo.class, anexo.getId()).getHashConteudo()).isEqualTo(sha256(conteudo));
+        assertThat(Files.readAllBytes(blob(sha256(conteudo)))).isEqualTo(conteudo);
+        assertThat(uploads.resolve("parciais")).isEmptyDirectory();
+        em.clear();
+        assertThat(em.find(UploadAnexo.class, upload.getId())).isNull();
+    }
+
+    private static ReadableByteChannel canal(byte[] conteudo) {
+        return Channels.newChannel(new ByteArrayInputStream(conteudo));
+    }
+
+    // Entrega metade do conteúdo em blocos pequenos e falha, como um cliente que desconecta
+    private static ReadableByteChannel interrompido(byte[] conteudo) {
+        ReadableByteChannel origem = canal(Arrays.copyOf(conteudo, conteudo.length / 2));
+        return new ReadableByteChannel() {
+            @Override
+            public int read(ByteBuffer destino) throws IOException {
+                ByteBuffer bloco = destino.slice().limit(Math.min(destino.remaining(), 64 * 1024));
+                int lidos = origem.read(bloco);
+                if (lidos == -1) {
+                    throw new IOException("Conexão encerrada pelo cliente");
+                }
+                destino.position(destino.position() + lidos);
+                return lidos;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static Path blob(String hash) {
+        return uploads.resolve("blobs").resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private static byte[] parte(byte[] conteudo, int inicio, int fim) {
+        return Arrays.copyOfRange(conteudo, inicio, fim);
+    }
+
+    private static byte[] aleatorio(int tamanho) {
+        byte[] conteudo = new byte[tamanho];
+        new Random(tamanho).nextBytes(conteudo);
+        return conteudo;
+    }
+
+    private static String sha256(byte[] conteudo) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(conteudo));
+    }
+}
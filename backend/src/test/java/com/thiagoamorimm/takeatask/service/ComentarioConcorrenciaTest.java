@@ -0,0 +1,183 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.dto.ComentarioCreateDTO;
+import com.thiagoamorimm.takeatask.dto.ComentarioDTO;
+import com.thiagoamorimm.takeatask.enums.PerfilUsuario;
+import com.thiagoamorimm.takeatask.enums.PrioridadeTarefa;
+import com.thiagoamorimm.takeatask.enums.StatusTarefa;
+import com.thiagoamorimm.takeatask.model.Comentario;
+import com.thiagoamorimm.takeatask.model.Tarefa;
+import com.thiagoamorimm.takeatask.model.Usuario;
+import com.thiagoamorimm.takeatask.repository.ComentarioRepository;
+import com.thiagoamorimm.takeatask.repository.TarefaRepository;
+import com.thiagoamorimm.takeatask.repository.UsuarioRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comentários gravados ao mesmo tempo que outras escritas na mesma tarefa (PostgreSQL real,
+ * transações em threads separadas): nenhum deles falha no lock otimista da tarefa, e o ETag
+ * muda pela versão dos filhos.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ ComentarioServiceImpl.class, AcessoTarefas.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Cada thread abre e confirma a sua transação
+class ComentarioConcorrenciaTest {
+
+    // Iniciado na primeira resolução da URL; parado pelo shutdown hook do EmbeddedPostgres
+    private static EmbeddedPostgres postgres;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres().getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    private static synchronized EmbeddedPostgres postgres() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return postgres;
+    }
+
+    @Autowired
+    private ComentarioService comentarioService;
+
+    @Autowired
+    private ComentarioRepository comentarioRepository;
+
+    @Autowired
+    private TarefaRepository tarefaRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transacao;
+    private ExecutorService executor;
+    private Usuario admin;
+    private Long tarefaId;
+
+    @BeforeEach
+    void setUp() {
+        transacao = new TransactionTemplate(transactionManager);
+        executor = Executors.newFixedThreadPool(2);
+        admin = usuarioRepository.save(new Usuario("Usuário admin", "admin", "admin@takeatask.com", "senha123",
+                PerfilUsuario.ADMINISTRADOR_GESTOR, "Analista", "11999999999", "TI"));
+        tarefaId = tarefaRepository.save(new Tarefa("Incidente em produção", null, StatusTarefa.EM_ANDAMENTO,
+                PrioridadeTarefa.URGENTE, admin, admin, null)).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        jdbcTemplate.update("DELETE FROM comentarios");
+        jdbcTemplate.update("DELETE FROM tarefas");
+        jdbcTemplate.update("DELETE FROM usuarios");
+    }
+
+    @Test
+    void doisComentariosSimultaneosNaMesmaTarefa() throws Exception {
+        // As duas transações carregam a mesma versão da tarefa antes de comentar
+        CyclicBarrier carregadas = new CyclicBarrier(2);
+        Future<ComentarioDTO> primeiro = executor.submit(() -> comentarAposCarregar("Primeiro", carregadas));
+        Future<ComentarioDTO> segundo = executor.submit(() -> comentarAposCarregar("Segundo", carregadas));
+
+        assertThat(primeiro.get(30, TimeUnit.SECONDS).getId()).isNotNull();
+        assertThat(segundo.get(30, TimeUnit.SECONDS).getId()).isNotNull();
+        assertThat(comentarioRepository.findMaisRecentes(tarefaId, Pageable.unpaged()))
+                .extracting(Comentario::getTexto)
+                .containsExactlyInAnyOrder("Primeiro", "Segundo");
+        Tarefa tarefa = tarefaRepository.findById(tarefaId).orElseThrow();
+        assertThat(tarefa.getVersao()).isZero();
+        assertThat(tarefa.getVersaoFilhos()).isEqualTo(2L);
+    }
+
+    @Test
+    void comentarioNaoInvalidaEdicaoEmAndamento() throws Exception {
+        CountDownLatch carregada = new CountDownLatch(1);
+        CountDownLatch comentada = new CountDownLatch(1);
+        Future<?> edicao = executor.submit(() -> transacao.executeWithoutResult(status -> {
+            Tarefa tarefa = tarefaRepository.findById(tarefaId).orElseThrow();
+            carregada.countDown();
+            aguardar(comentada);
+            tarefa.setNome("Incidente resolvido");
+        }));
+
+        aguardar(carregada);
+        transacao.execute(status -> comentarioService.adicionarComentario(tarefaId, comentario("Causa encontrada"), admin));
+        comentada.countDown();
+        edicao.get(30, TimeUnit.SECONDS);
+
+        Tarefa tarefa = tarefaRepository.findById(tarefaId).orElseThrow();
+        assertThat(tarefa.getNome()).isEqualTo("Incidente resolvido");
+        assertThat(tarefa.getVersao()).isEqualTo(1L);
+        assertThat(tarefa.getVersaoFilhos()).isEqualTo(1L);
+    }
+
+    private ComentarioDTO comentarAposCarregar(String texto, CyclicBarrier carregadas) {
+        return transacao.execute(status -> {
+            tarefaRepository.findById(tarefaId).orElseThrow();
+            try {
+                carregadas.await(30, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return comentarioService.adicionarComentario(tarefaId, comentario(texto), admin);
+        });
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ComentarioCreateDTO comentario(String texto) {
+        ComentarioCreateDTO dto = new ComentarioCreateDTO();
+        dto.setTexto(texto);
+        return dto;
+    }
+}
@@ -0,0 +1,125 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.dto.ComentarioDTO;
+import com.thiagoamorimm.takeatask.dto.PaginaCursorDTO;
+import com.thiagoamorimm.takeatask.dto.TarefaDTO;
+import com.thiagoamorimm.takeatask.enums.PerfilUsuario;
+import com.thiagoamorimm.takeatask.enums.PrioridadeTarefa;
+import com.thiagoamorimm.takeatask.enums.StatusTarefa;
+import com.thiagoamorimm.takeatask.exception.BadRequestException;
+import com.thiagoamorimm.takeatask.exception.ResourceNotFoundException;
+import com.thiagoamorimm.takeatask.model.Comentario;
+import com.thiagoamorimm.takeatask.model.Tarefa;
+import com.thiagoamorimm.takeatask.model.Usuario;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Comentários de uma tarefa movimentada: a TarefaDTO traz só os mais recentes e o total, o
+ * histórico sai em páginas keyset e uma atualização com 'since' traz só o que é novo.
+ */
+@BancoH2
+@Import({ ComentarioServiceImpl.class, AcessoTarefas.class })
+class ComentarioPaginacaoTest extends TarefaServiceTestBase {
+
+    @Autowired
+    private ComentarioService comentarioService;
+
+    private Usuario admin;
+    private Tarefa incidente;
+
+    @BeforeEach
+    void setUp() {
+        admin = em.persist(new Usuario("Usuário admin", "admin", "admin@takeatask.com", "senha123",
+                PerfilUsuario.ADMINISTRADOR_GESTOR, "Analista", "11999999999", "TI"));
+        incidente = em.persist(new Tarefa("Incidente em produção", null, StatusTarefa.EM_ANDAMENTO,
+                PrioridadeTarefa.URGENTE, admin, admin, null));
+        comentar(0, 12);
+    }
+
+    @Test
+    void tarefaTrazSoOsComentariosMaisRecentesEOTotal() {
+        TarefaDTO tarefa = tarefaService.buscarTarefaPorId(incidente.getId(), admin);
+
+        assertThat(tarefa.getTotalComentarios()).isEqualTo(12);
+        assertThat(tarefa.getComentarios()).extracting(ComentarioDTO::getTexto)
+                .containsExactly("Comentário 11", "Comentário 10", "Comentário 9", "Comentário 8", "Comentário 7");
+    }
+
+    @Test
+    void historicoEmPaginasDoMaisRecenteAoMaisAntigo() {
+        List<String> textos = new ArrayList<>();
+        String after = null;
+        int paginas = 0;
+        do {
+            PaginaCursorDTO<ComentarioDTO> pagina = comentarioService.listarComentariosPaginados(incidente.getId(),
+                    admin, after, null, 5);
+            pagina.getItens().forEach(comentario -> textos.add(comentario.getTexto()));
+            after = pagina.getNextCursor();
+            assertThat(pagina.isHasMore()).isEqualTo(after != null);
+            paginas++;
+        } while (after != null);
+
+        assertThat(paginas).isEqualTo(3);
+        assertThat(textos).hasSize(12).doesNotHaveDuplicates().startsWith("Comentário 11").endsWith("Comentário 0");
+    }
+
+    @Test
+    void sinceTrazSoOsComentariosNovosEmOrdemDeCriacao() {
+        String ultimoRecebido = tarefaService.buscarTarefaPorId(incidente.getId(), admin).getComentarios().get(0)
+                .getCursor();
+        assertThat(comentarioService.listarComentariosPaginados(incidente.getId(), admin, null, ultimoRecebido, null)
+                .getItens()).isEmpty();
+
+        comentar(12, 3);
+        PaginaCursorDTO<ComentarioDTO> novos = comentarioService.listarComentariosPaginados(incidente.getId(), admin,
+                null, ultimoRecebido, 2);
+        assertThat(novos.getItens()).extracting(ComentarioDTO::getTexto)
+                .containsExactly("Comentário 12", "Comentário 13");
+        assertThat(novos.isHasMore()).isTrue();
+
+        PaginaCursorDTO<ComentarioDTO> restante = comentarioService.listarComentariosPaginados(incidente.getId(),
+                admin, null, novos.getNextCursor(), 2);
+        assertThat(restante.getItens()).extracting(ComentarioDTO::getTexto).containsExactly("Comentário 14");
+        assertThat(restante.isHasMore()).isFalse();
+        assertThat(restante.getNextCursor()).isNull();
+    }
+
+    @Test
+    void cursorInvalidoOuAfterComSinceSaoRecusados() {
+        String cursor = tarefaService.buscarTarefaPorId(incidente.getId(), admin).getComentarios().get(0).getCursor();
+
+        assertThatThrownBy(() -> comentarioService.listarComentariosPaginados(incidente.getId(), admin, cursor, cursor,
+                null)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> comentarioService.listarComentariosPaginados(incidente.getId(), admin, null,
+                "nao-e-um-cursor", null)).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void usuarioSemAcessoATarefaNaoVeNemComentaComoSeElaNaoExistisse() {
+        Usuario colaborador = em.persist(new Usuario("Colaborador", "colab", "colab@takeatask.com", "senha123",
+                PerfilUsuario.USUARIO_PADRAO, "Dev", "11988888888", "TI"));
+
+        assertThatThrownBy(() -> comentarioService.listarComentariosPaginados(incidente.getId(), colaborador, null,
+                null, null)).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> comentarioService.listarComentariosPorTarefaId(incidente.getId(), colaborador))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    // Persistidos em sequência: vários podem cair no mesmo instante, e o id desempata
+    private void comentar(int primeiro, int quantidade) {
+        for (int i = primeiro; i < primeiro + quantidade; i++) {
+            em.persist(new Comentario("Comentário " + i, incidente, admin));
+        }
+        em.flush();
+        em.clear();
+    }
+}
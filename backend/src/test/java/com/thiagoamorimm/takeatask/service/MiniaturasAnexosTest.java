@@ -0,0 +1,154 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.model.BlobAnexo;
+import com.thiagoamorimm.takeatask.storage.ArmazenamentoLocal;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Miniaturas por blob: imagens reduzidas sem decodificar a resolução inteira, primeira página
+ * de PDFs, e conteúdo sem prévia marcado para não ser tentado de novo.
+ */
+@DataJpaTest
+@Import({ MiniaturasAnexos.class, BlobsAnexos.class, ArmazenamentoLocal.class })
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "anexos.blobs.retencao=PT0S"
+})
+class MiniaturasAnexosTest {
+
+    @TempDir
+    static Path uploads;
+
+    @DynamicPropertySource
+    static void diretorioUploads(DynamicPropertyRegistry registry) {
+        registry.add("file.upload-dir", () -> uploads.toString());
+    }
+
+    @Autowired
+    private MiniaturasAnexos miniaturasAnexos;
+
+    @Autowired
+    private BlobsAnexos blobsAnexos;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Test
+    void imagensEPdfsGanhamMiniaturaJpegNoLimiteDeTamanho() throws Exception {
+        String foto = armazenar(png(2400, 1200));
+        String contrato = armazenar(pdfA4());
+
+        miniaturasAnexos.gerar(foto);
+        miniaturasAnexos.gerar(contrato);
+
+        BufferedImage miniaturaFoto = miniatura(foto);
+        assertThat(miniaturaFoto.getWidth()).isEqualTo(320);
+        assertThat(miniaturaFoto.getHeight()).isEqualTo(160);
+        // Vermelho da metade esquerda preservado na redução
+        assertThat(new Color(miniaturaFoto.getRGB(40, 80)).getRed()).isGreaterThan(200);
+
+        BufferedImage miniaturaContrato = miniatura(contrato);
+        assertThat(miniaturaContrato.getHeight()).isEqualTo(320);
+        assertThat(miniaturaContrato.getWidth()).isBetween(225, 227); // Proporção do A4
+    }
+
+    @Test
+    void conteudoSemPreviaNaoEhTentadoDeNovoEMiniaturaSaiComOBlob() throws Exception {
+        String texto = armazenar("relatório em texto puro".getBytes(StandardCharsets.UTF_8));
+        String pdfCorrompido = armazenar("%PDF-1.7 sem estrutura".getBytes(StandardCharsets.US_ASCII));
+        String foto = armazenar(png(100, 50));
+
+        miniaturasAnexos.gerar(texto);
+        miniaturasAnexos.gerar(pdfCorrompido);
+        miniaturasAnexos.gerar(foto);
+
+        assertThat(blob(texto).getTamanhoMiniatura()).isZero();
+        assertThat(blob(pdfCorrompido).getTamanhoMiniatura()).isZero();
+        // Imagem menor que o limite não é ampliada
+        assertThat(miniatura(foto).getWidth()).isEqualTo(100);
+
+        blobsAnexos.removerReferencias(foto, 1);
+        em.flush();
+        Thread.sleep(5); // Retenção zero: basta o relógio andar
+        blobsAnexos.removerSemReferencias();
+        assertThatThrownBy(() -> blobsAnexos.lerMiniatura(foto, 1).abrir().close())
+                .isInstanceOf(NoSuchFileException.class);
+    }
+
+    private String armazenar(byte[] conteudo) throws Exception {
+        BlobsAnexos.BlobRecebido recebido = blobsAnexos.receber(
+                Channels.newChannel(new ByteArrayInputStream(conteudo)), Long.MAX_VALUE);
+        blobsAnexos.adicionarReferencia(recebido);
+        return recebido.hash();
+    }
+
+    private BufferedImage miniatura(String hash) throws Exception {
+        BlobAnexo blob = blob(hash);
+        assertThat(blob.getTamanhoMiniatura()).isPositive();
+        try (InputStream entrada = blobsAnexos.lerMiniatura(hash, blob.getTamanhoMiniatura()).abrir()) {
+            return ImageIO.read(entrada);
+        }
+    }
+
+    private BlobAnexo blob(String hash) {
+        em.clear(); // tamanho_miniatura muda por UPDATE direto no banco
+        return em.find(BlobAnexo.class, hash);
+    }
+
+    private static byte[] png(int largura, int altura) throws Exception {
+        BufferedImage imagem = new BufferedImage(largura, altura, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D grafico = imagem.createGraphics();
+        grafico.setColor(Color.RED);
+        grafico.fillRect(0, 0, largura / 2, altura);
+        grafico.setColor(Color.BLUE);
+        grafico.fillRect(largura / 2, 0, largura - largura / 2, altura);
+        grafico.dispose();
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        ImageIO.write(imagem, "png", saida);
+        return saida.toByteArray();
+    }
+
+    private static byte[] pdfA4() throws Exception {
+        try (PDDocument documento = new PDDocument()) {
+            PDPage pagina = new PDPage(PDRectangle.A4);
+            documento.addPage(pagina);
+            try (PDPageContentStream conteudo = new PDPageContentStream(documento, pagina)) {
+                conteudo.addRect(50, 50, 200, 300);
+                conteudo.fill();
+            }
+            documento.addPage(new PDPage(PDRectangle.A4));
+            ByteArrayOutputStream saida = new ByteArrayOutputStream();
+            documento.save(saida);
+            return saida.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.enums.StatusNotificacao;
+import com.thiagoamorimm.takeatask.model.NotificacaoEmail;
+import com.thiagoamorimm.takeatask.repository.NotificacaoEmailRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Outbox de notificações contra um JavaMailSender falso: digest por destinatário,
+ * backoff em caso de falha, desistência após o limite de tentativas e reserva que impede
+ * o envio duplicado.
+ */
+@DataJpaTest
+@Import({ NotificacaoService.class, NotificacaoEmailDispatcher.class, EmailService.class,
+        NotificacaoEmailDispatcherTest.Config.class })
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "notificacao.email.max-tentativas=2",
+        "notificacao.email.varredura=PT1H"
+})
+class NotificacaoEmailDispatcherTest {
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        FakeMailSender fakeMailSender() {
+            return new FakeMailSender();
+        }
+    }
+
+    // Guarda as mensagens em memória; pode ser configurado para falhar
+    static class FakeMailSender extends JavaMailSenderImpl {
+        final List<SimpleMailMessage> enviadas = new ArrayList<>();
+        boolean falhar;
+        Runnable durante; // Executado no meio do envio (ex.: outro worker concorrente)
+
+        @Override
+        public void send(SimpleMailMessage... mensagens) {
+            if (durante != null) {
+                Runnable acao = durante;
+                durante = null;
+                acao.run();
+            }
+            if (falhar) {
+                throw new MailSendException("SMTP indisponível");
+            }
+            enviadas.addAll(List.of(mensagens));
+        }
+    }
+
+    @Autowired
+    private NotificacaoService notificacaoService;
+
+    @Autowired
+    private NotificacaoEmailDispatcher dispatcher;
+
+    @Autowired
+    private NotificacaoEmailRepository repository;
+
+    @Autowired
+    private FakeMailSender mailSender;
+
+    @BeforeEach
+    void setUp() {
+        mailSender.enviadas.clear();
+        mailSender.falhar = false;
+        mailSender.durante = null;
+    }
+
+    @Test
+    void agrupaNotificacoesDoMesmoDestinatarioEmUmEmail() {
+        notificacaoService.enfileirar("ana@takeatask.com", "Nova tarefa atribuída a você", "Tarefa A");
+        notificacaoService.enfileirar("ana@takeatask.com", "Status da tarefa alterado", "Tarefa B");
+        notificacaoService.enfileirar("bruno@takeatask.com", "Nova tarefa atribuída a você", "Tarefa C");
+
+        dispatcher.enviarPendentes("ana@takeatask.com");
+        dispatcher.enviarPendentes("bruno@takeatask.com");
+
+        assertThat(mailSender.enviadas).hasSize(2);
+        SimpleMailMessage digest = mailSender.enviadas.get(0);
+        assertThat(digest.getTo()).containsExactly("ana@takeatask.com");
+        assertThat(digest.getSubject()).isEqualTo("Você tem 2 novas notificações");
+        assertThat(digest.getText()).contains("Tarefa A", "Tarefa B");
+        assertThat(mailSender.enviadas.get(1).getSubject()).isEqualTo("Nova tarefa atribuída a você");
+        assertThat(repository.findAll()).allSatisfy(n -> {
+            assertThat(n.getStatus()).isEqualTo(StatusNotificacao.ENVIADA);
+            assertThat(n.getDataEnvio()).isNotNull();
+        });
+
+        // Nada mais a enviar
+        assertThat(dispatcher.enviarPendentes("ana@takeatask.com")).isFalse();
+        assertThat(mailSender.enviadas).hasSize(2);
+    }
+
+    @Test
+    void falhaDeSmtpAgendaNovaTentativaEDesisteAposOLimite() {
+        notificacaoService.enfileirar("ana@takeatask.com", "Nova tarefa atribuída a você", "Tarefa A");
+        mailSender.falhar = true;
+
+        dispatcher.enviarPendentes("ana@takeatask.com");
+
+        NotificacaoEmail notificacao = repository.findAll().get(0);
+        assertThat(notificacao.getStatus()).isEqualTo(StatusNotificacao.PENDENTE);
+        assertThat(notificacao.getTentativas()).isEqualTo(1);
+        assertThat(notificacao.getProximaTentativa()).isAfter(LocalDateTime.now());
+        assertThat(notificacao.getUltimoErro()).contains("SMTP indisponível");
+
+        // Ainda no backoff: não tenta de novo
+        dispatcher.enviarPendentes("ana@takeatask.com");
+        assertThat(repository.findAll().get(0).getTentativas()).isEqualTo(1);
+
+        // Vence o backoff e falha novamente: atinge o limite (2) e desiste
+        notificacao.setProximaTentativa(LocalDateTime.now().minusSeconds(1));
+        repository.saveAndFlush(notificacao);
+        dispatcher.enviarPendentes("ana@takeatask.com");
+
+        notificacao = repository.findAll().get(0);
+        assertThat(notificacao.getStatus()).isEqualTo(StatusNotificacao.FALHA);
+        assertThat(notificacao.getTentativas()).isEqualTo(2);
+        assertThat(mailSender.enviadas).isEmpty();
+    }
+
+    @Test
+    void notificacaoReservadaNaoEEnviadaDuasVezes() {
+        notificacaoService.enfileirar("ana@takeatask.com", "Nova tarefa atribuída a você", "Tarefa A");
+        List<Boolean> concorrente = new ArrayList<>();
+        // A varredura (ou outra réplica) tenta o mesmo destinatário enquanto o SMTP responde
+        mailSender.durante = () -> concorrente.add(dispatcher.enviarPendentes("ana@takeatask.com"));
+
+        dispatcher.enviarPendentes("ana@takeatask.com");
+
+        assertThat(concorrente).containsExactly(false);
+        assertThat(mailSender.enviadas).hasSize(1);
+        assertThat(repository.findAll()).singleElement()
+                .satisfies(n -> assertThat(n.getStatus()).isEqualTo(StatusNotificacao.ENVIADA));
+    }
+
+    @Test
+    void reservaExpiradaVoltaParaOEnvio() {
+        notificacaoService.enfileirar("ana@takeatask.com", "Nova tarefa atribuída a você", "Tarefa A");
+        NotificacaoEmail notificacao = repository.findAll().get(0);
+        // Reservada por uma instância que caiu antes de concluir o envio
+        notificacao.setStatus(StatusNotificacao.EM_ENVIO);
+        notificacao.setProximaTentativa(LocalDateTime.now().plusMinutes(5));
+        repository.saveAndFlush(notificacao);
+
+        assertThat(dispatcher.enviarPendentes("ana@takeatask.com")).isFalse();
+        assertThat(mailSender.enviadas).isEmpty();
+
+        notificacao.setProximaTentativa(LocalDateTime.now().minusSeconds(1));
+        repository.saveAndFlush(notificacao);
+        dispatcher.enviarPendentes("ana@takeatask.com");
+
+        assertThat(mailSender.enviadas).hasSize(1);
+        assertThat(repository.findAll().get(0).getStatus()).isEqualTo(StatusNotificacao.ENVIADA);
+    }
+}
@@ -0,0 +1,101 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.model.Tag;
+import com.thiagoamorimm.takeatask.repository.TagRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Resolução de tags em lote: quantidade de queries independente do número de nomes, e
+ * sempre a partir do banco, mesmo depois de alterações feitas por outra instância.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(TagServiceImpl.class)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tags;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class TagServiceImplTest {
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void resolveExistentesENovasComQuantidadeConstanteDeQueries() {
+        em.persist(new Tag("Backend"));
+        em.persist(new Tag("Frontend"));
+
+        Set<String> nomes = new LinkedHashSet<>(Set.of("Backend", "Frontend"));
+        nomes.addAll(IntStream.range(0, 18).mapToObj(i -> "Nova " + i).collect(Collectors.toSet()));
+
+        AtomicReference<Set<Tag>> resultado = new AtomicReference<>();
+        long statements = contarStatements(() -> resultado.set(tagService.buscarOuCriarTags(nomes)));
+
+        // SELECT ... IN, INSERT ... ON CONFLICT DO NOTHING, SELECT ... IN
+        assertThat(statements).isEqualTo(3);
+        assertThat(resultado.get()).hasSize(20).allSatisfy(tag -> assertThat(tag.getId()).isNotNull());
+        assertThat(tagRepository.findByNomeIn(nomes)).hasSize(20);
+    }
+
+    @Test
+    void tagAlteradaOuExcluidaForaDestaInstanciaNaoVoltaDesatualizada() {
+        Tag urgente = tagService.buscarOuCriarTags(Set.of("Urgente")).iterator().next();
+        Tag database = tagService.buscarOuCriarTags(Set.of("Database")).iterator().next();
+
+        // Escritas de outra réplica: direto no banco, sem passar por este serviço
+        em.getEntityManager().createNativeQuery("UPDATE tags SET nome = 'Crítica' WHERE id = :id")
+                .setParameter("id", urgente.getId())
+                .executeUpdate();
+        em.getEntityManager().createNativeQuery("DELETE FROM tags WHERE id = :id")
+                .setParameter("id", database.getId())
+                .executeUpdate();
+        em.clear();
+
+        Set<Tag> resultado = tagService.buscarOuCriarTags(Set.of("Urgente", "Database", "Crítica"));
+
+        assertThat(resultado).extracting(Tag::getNome).containsExactlyInAnyOrder("Urgente", "Database", "Crítica");
+        assertThat(resultado).filteredOn(tag -> tag.getNome().equals("Crítica"))
+                .singleElement().extracting(Tag::getId).isEqualTo(urgente.getId());
+        assertThat(resultado).extracting(Tag::getId).doesNotContain(database.getId())
+                .allSatisfy(id -> assertThat(tagRepository.existsById(id)).isTrue());
+    }
+
+    private long contarStatements(Runnable acao) {
+        em.flush();
+        em.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        acao.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,130 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.dto.TarefaEventoDTO;
+import com.thiagoamorimm.takeatask.enums.TipoAlteracaoTarefa;
+import com.thiagoamorimm.takeatask.event.TarefaAlteradaEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Distribuição do feed de tarefas: cada assinante recebe só o que enxerga, e quem não
+ * acompanha perde os eventos mais antigos com aviso, sem atrasar os demais.
+ */
+class TarefaEventosBroadcasterTest {
+
+    private final TarefaEventosBroadcaster broadcaster =
+            new TarefaEventosBroadcaster(3, Duration.ofMinutes(1), Duration.ofHours(1));
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.encerrar();
+    }
+
+    @Test
+    void entregaApenasParaQuemEnxergaATarefa() throws Exception {
+        EmitterFalso ana = new EmitterFalso(2);
+        EmitterFalso bruno = new EmitterFalso(1);
+        EmitterFalso admin = new EmitterFalso(2);
+        broadcaster.registrar(ana, 1L, false);
+        broadcaster.registrar(bruno, 2L, false);
+        broadcaster.registrar(admin, 3L, true);
+
+        broadcaster.publicar(TarefaAlteradaEvent.de(TipoAlteracaoTarefa.ATUALIZADA, 10L, null, 1L, null));
+        broadcaster.publicar(TarefaAlteradaEvent.de(TipoAlteracaoTarefa.COMENTARIO_ADICIONADO, 11L, 5L, 1L, 2L));
+
+        assertThat(ana.aguardar()).containsExactly(
+                new TarefaEventoDTO(TipoAlteracaoTarefa.ATUALIZADA, 10L, null),
+                new TarefaEventoDTO(TipoAlteracaoTarefa.COMENTARIO_ADICIONADO, 11L, 5L));
+        assertThat(bruno.aguardar()).containsExactly(
+                new TarefaEventoDTO(TipoAlteracaoTarefa.COMENTARIO_ADICIONADO, 11L, 5L));
+        assertThat(admin.aguardar()).hasSize(2);
+    }
+
+    @Test
+    void clienteLentoPerdeOsMaisAntigosComAviso() throws Exception {
+        CountDownLatch emEnvio = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        EmitterFalso lento = new EmitterFalso(5) {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                emEnvio.countDown();
+                try {
+                    liberar.await(10, TimeUnit.SECONDS); // Conexão parada até o teste liberar
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(builder);
+            }
+        };
+        EmitterFalso rapido = new EmitterFalso(6);
+        broadcaster.registrar(lento, 1L, false);
+        broadcaster.registrar(rapido, 1L, false);
+
+        broadcaster.publicar(TarefaAlteradaEvent.de(TipoAlteracaoTarefa.ATUALIZADA, 1L, null, 1L));
+        assertThat(emEnvio.await(10, TimeUnit.SECONDS)).isTrue();
+        for (long tarefaId = 2; tarefaId <= 6; tarefaId++) {
+            broadcaster.publicar(TarefaAlteradaEvent.de(TipoAlteracaoTarefa.ATUALIZADA, tarefaId, null, 1L));
+            rapido.aguardarAte((int) tarefaId); // O cliente rápido acompanha cada evento
+        }
+        assertThat(rapido.aguardar()).extracting(TarefasOuAviso::de).containsExactly(
+                "tarefa 1", "tarefa 2", "tarefa 3", "tarefa 4", "tarefa 5", "tarefa 6");
+
+        liberar.countDown();
+        // O 1 já estava em envio; dos 5 seguintes, a fila de 3 guardou os últimos
+        assertThat(lento.aguardar()).extracting(TarefasOuAviso::de).containsExactly(
+                "tarefa 1", "descartados 2", "tarefa 4", "tarefa 5", "tarefa 6");
+    }
+
+    // Guarda os dados enviados em vez de escrever em uma resposta HTTP
+    static class EmitterFalso extends SseEmitter {
+        final List<Object> enviados = new CopyOnWriteArrayList<>();
+        final CountDownLatch esperados;
+
+        EmitterFalso(int esperados) {
+            this.esperados = new CountDownLatch(esperados);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            builder.build().stream()
+                    .map(DataWithMediaType::getData)
+                    .filter(dado -> !(dado instanceof String))
+                    .forEach(dado -> {
+                        enviados.add(dado);
+                        esperados.countDown();
+                    });
+        }
+
+        void aguardarAte(int quantidade) throws InterruptedException {
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (enviados.size() < quantidade && System.nanoTime() < limite) {
+                Thread.sleep(5);
+            }
+        }
+
+        List<Object> aguardar() throws InterruptedException {
+            assertThat(esperados.await(10, TimeUnit.SECONDS)).isTrue();
+            return enviados;
+        }
+    }
+
+    private static final class TarefasOuAviso {
+        static String de(Object dado) {
+            if (dado instanceof TarefaEventoDTO evento) {
+                return "tarefa " + evento.getTarefaId();
+            }
+            return "descartados " + ((Map<?, ?>) dado).get("quantidade");
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.enums.FormatoArquivo;
+import com.thiagoamorimm.takeatask.enums.PerfilUsuario;
+import com.thiagoamorimm.takeatask.enums.PrioridadeTarefa;
+import com.thiagoamorimm.takeatask.enums.StatusTarefa;
+import com.thiagoamorimm.takeatask.exception.BadRequestException;
+import com.thiagoamorimm.takeatask.model.Tag;
+import com.thiagoamorimm.takeatask.model.Tarefa;
+import com.thiagoamorimm.takeatask.model.Usuario;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static com.thiagoamorimm.takeatask.service.Usuarios.novoUsuario;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@BancoH2
+@Import(TarefaExportador.class)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class TarefaExportacaoTest extends TarefaServiceTestBase {
+
+    @Autowired
+    private TarefaExportador tarefaExportador;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Usuario admin;
+    private Usuario usuario;
+
+    @BeforeEach
+    void setUp() {
+        admin = em.persist(novoUsuario("admin", PerfilUsuario.ADMINISTRADOR_GESTOR));
+        usuario = em.persist(novoUsuario("usuario", PerfilUsuario.USUARIO_PADRAO));
+    }
+
+    @Test
+    void csvRespeitaPermissoesEEscapaCampos() throws IOException {
+        Tag backend = em.persist(new Tag("Backend"));
+        Tag urgente = em.persist(new Tag("Urgente"));
+        Tarefa visivel = new Tarefa("Revisar \"contrato\", cliente", "Linha 1\nLinha 2", StatusTarefa.A_FAZER,
+                PrioridadeTarefa.ALTA, usuario, admin, LocalDateTime.of(2030, 1, 15, 10, 0));
+        visivel.getTags().add(urgente);
+        visivel.getTags().add(backend);
+        em.persist(visivel);
+        em.persist(new Tarefa("Tarefa de outro", "Não aparece", StatusTarefa.A_FAZER, PrioridadeTarefa.BAIXA,
+                admin, admin, null));
+
+        String csv = exportar(usuario, FormatoArquivo.CSV);
+
+        String[] linhas = csv.split("\r\n");
+        assertThat(linhas).hasSize(2);
+        assertThat(linhas[0]).isEqualTo("id,nome,descricao,status,prioridade,dataPrazo,dataCriacao,"
+                + "dataAtualizacao,criadorId,nomeCriador,responsavelId,nomeResponsavel,tags");
+        assertThat(linhas[1])
+                .startsWith(visivel.getId() + ",\"Revisar \"\"contrato\"\", cliente\",\"Linha 1\nLinha 2\",A_FAZER,ALTA,"
+                        + "2030-01-15T10:00,")
+                .endsWith("," + admin.getId() + ",Usuário admin," + usuario.getId() + ",Usuário usuario,Backend;Urgente");
+
+        assertThatThrownBy(() -> tarefaExportador.exportar(usuario, null, null, admin.getId(), null, null, null, null,
+                "todas", FormatoArquivo.CSV))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void ndjsonEscreveUmaLinhaPorTarefaComQueriesPorLote() throws IOException {
+        int quantidade = TarefaExportador.TAMANHO_LOTE * 2 + 1;
+        for (int i = 0; i < quantidade; i++) {
+            em.persist(new Tarefa("Tarefa " + i, null, StatusTarefa.EM_ANDAMENTO, PrioridadeTarefa.MEDIA, usuario,
+                    admin, null));
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        em.flush();
+        em.clear();
+        statistics.clear();
+        String ndjson = exportar(admin, FormatoArquivo.NDJSON);
+
+        String[] linhas = ndjson.split("\n");
+        assertThat(linhas).hasSize(quantidade).allSatisfy(linha -> assertThat(linha).startsWith("{").endsWith("}"));
+        assertThat(linhas[0]).startsWith("{\"id\":").contains("\"nome\":\"Tarefa 0\"", "\"tags\":[]");
+        // Uma query para o cursor e uma de tags por lote, sem N+1 em criador/responsável
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1 + 3);
+    }
+
+    private String exportar(Usuario autenticado, FormatoArquivo formato) throws IOException {
+        em.flush();
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        tarefaExportador.exportar(autenticado, null, null, null, null, null, null, null, "todas", formato)
+                .writeTo(saida);
+        return saida.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,213 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.dto.ErroImportacaoDTO;
+import com.thiagoamorimm.takeatask.dto.ImportacaoResultadoDTO;
+import com.thiagoamorimm.takeatask.enums.FormatoArquivo;
+import com.thiagoamorimm.takeatask.enums.PerfilUsuario;
+import com.thiagoamorimm.takeatask.enums.StatusTarefa;
+import com.thiagoamorimm.takeatask.model.Tag;
+import com.thiagoamorimm.takeatask.model.Tarefa;
+import com.thiagoamorimm.takeatask.model.Usuario;
+import com.thiagoamorimm.takeatask.repository.TagRepository;
+import com.thiagoamorimm.takeatask.repository.UsuarioRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+import static com.thiagoamorimm.takeatask.service.Usuarios.novoUsuario;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Importação em massa: erros por registro sem abortar o arquivo e gravação em lotes.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ TarefaImportador.class, TagServiceImpl.class })
+@ImportAutoConfiguration({ JacksonAutoConfiguration.class, ValidationAutoConfiguration.class })
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:importacao;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "tarefa.importacao.tamanho-lote=50"
+})
+class TarefaImportadorTest {
+
+    @Autowired
+    private TarefaImportador tarefaImportador;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private NotificacaoService notificacaoService;
+
+    @MockitoBean
+    private TarefaStatsService tarefaStatsService;
+
+    private Usuario admin;
+    private Usuario ana;
+
+    @BeforeEach
+    void setUp() {
+        // Repositórios em vez do TestEntityManager: também servem aos testes sem transação
+        admin = usuarioRepository.save(novoUsuario("admin", PerfilUsuario.ADMINISTRADOR_GESTOR));
+        ana = usuarioRepository.save(novoUsuario("ana@takeatask.com", PerfilUsuario.USUARIO_PADRAO));
+        tagRepository.save(new Tag("Backend"));
+    }
+
+    @Test
+    void csvReportaErrosPorRegistroEImportaOsDemais() throws IOException {
+        String csv = String.join("\r\n",
+                "nome,descricao,status,prioridade,responsavelId,dataPrazo,tags",
+                "Configurar CI,,A_FAZER,ALTA," + ana.getId() + ",2030-01-15T10:00,Backend; Infra",
+                "Status inválido,,PARADA,ALTA,,,",
+                ",Sem nome,A_FAZER,BAIXA,,,",
+                "Responsável inexistente,,A_FAZER,MEDIA,999999,,",
+                "Documentar API,\"Linha 1",
+                "Linha 2, com vírgula\",em_andamento,media,,,",
+                "\"Revisar \"\"PRs\"\"\",,A_FAZER,BAIXA," + ana.getId() + ",,");
+
+        ImportacaoResultadoDTO resultado = importar(csv, FormatoArquivo.CSV);
+
+        assertThat(resultado.getTotalLinhas()).isEqualTo(6);
+        assertThat(resultado.getImportadas()).isEqualTo(3);
+        assertThat(resultado.getFalhas()).isEqualTo(3);
+        assertThat(resultado.getErros()).extracting(ErroImportacaoDTO::getLinha).containsExactly(3, 4, 5);
+        assertThat(resultado.getErros().get(0).getMensagem()).contains("status");
+        assertThat(resultado.getErros().get(1).getMensagem()).isEqualTo("O nome da tarefa é obrigatório.");
+        assertThat(resultado.getErros().get(2).getMensagem()).contains("999999");
+
+        List<Tarefa> tarefas = em.getEntityManager()
+                .createQuery("SELECT t FROM Tarefa t LEFT JOIN FETCH t.tags ORDER BY t.id", Tarefa.class)
+                .getResultList();
+        assertThat(tarefas).extracting(Tarefa::getNome)
+                .containsExactly("Configurar CI", "Documentar API", "Revisar \"PRs\"");
+        assertThat(tarefas.get(0).getTags()).extracting(Tag::getNome).containsExactlyInAnyOrder("Backend", "Infra");
+        assertThat(tarefas.get(0).getResponsavel().getId()).isEqualTo(ana.getId());
+        assertThat(tarefas.get(1).getDescricao()).isEqualTo("Linha 1\r\nLinha 2, com vírgula");
+        assertThat(tarefas.get(1).getStatus()).isEqualTo(StatusTarefa.EM_ANDAMENTO);
+        assertThat(tarefas.get(1).getResponsavel().getId()).isEqualTo(admin.getId());
+
+        // As duas tarefas da Ana no mesmo lote geram um único email
+        verify(notificacaoService, times(1)).enfileirar(eq("ana@takeatask.com"), eq("Novas tarefas atribuídas a você"),
+                contains("2 novas tarefas"));
+        verify(tarefaStatsService, times(1)).registrarCriacoes(anyCollection());
+    }
+
+    @Test
+    void ndjsonGravaEmLotesJdbc() throws IOException {
+        int quantidade = 120;
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < quantidade; i++) {
+            ndjson.append("{\"nome\":\"Tarefa ").append(i)
+                    .append("\",\"status\":\"A_FAZER\",\"prioridade\":\"MEDIA\",\"tags\":[\"Backend\"]}\n");
+            if (i == 10) {
+                ndjson.append("{\"nome\":\"Quebrada\",\"status\":\n");
+            }
+        }
+
+        em.flush();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        ImportacaoResultadoDTO resultado = importar(ndjson.toString(), FormatoArquivo.NDJSON);
+
+        assertThat(resultado.getImportadas()).isEqualTo(quantidade);
+        assertThat(resultado.getErros()).singleElement()
+                .satisfies(erro -> assertThat(erro.getLinha()).isEqualTo(12));
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(quantidade);
+        // Três lotes: sem lotes JDBC seriam ao menos 240 statements (tarefa + tarefa_tags por linha)
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(30);
+        verify(tarefaStatsService, times(3)).registrarCriacoes(anyCollection());
+    }
+
+    @Nested
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // Cada lote confirma ou descarta a sua transação
+    class LoteComFalha {
+
+        @AfterEach
+        void tearDown() {
+            jdbcTemplate.update("DELETE FROM tarefa_tags");
+            jdbcTemplate.update("DELETE FROM tarefas");
+            jdbcTemplate.update("DELETE FROM tags");
+            jdbcTemplate.update("DELETE FROM usuarios");
+        }
+
+        @Test
+        void refazOLoteRegistroARegistroEReportaSoOQueFalhou() throws IOException {
+            // Uma violação de constraint ao gravar só um dos registros
+            doThrow(new DataIntegrityViolationException("violação simulada")).when(tarefaStatsService)
+                    .registrarCriacoes(argThat((Collection<Tarefa> tarefas) -> tarefas.stream()
+                            .anyMatch(tarefa -> tarefa.getNome().equals("Quebrada"))));
+            String ndjson = String.join("\n",
+                    "{\"nome\":\"Primeira\",\"status\":\"A_FAZER\",\"prioridade\":\"MEDIA\",\"tags\":[\"Backend\"]}",
+                    "{\"nome\":\"Quebrada\",\"status\":\"A_FAZER\",\"prioridade\":\"MEDIA\"}",
+                    "{\"nome\":\"Terceira\",\"status\":\"A_FAZER\",\"prioridade\":\"ALTA\",\"tags\":[\"Nova\"]}");
+
+            ImportacaoResultadoDTO resultado = importar(ndjson, FormatoArquivo.NDJSON);
+
+            assertThat(resultado.getImportadas()).isEqualTo(2);
+            assertThat(resultado.getErros()).singleElement().satisfies(erro -> {
+                assertThat(erro.getLinha()).isEqualTo(2);
+                assertThat(erro.getMensagem()).isEqualTo("Registro não importado: violação simulada");
+            });
+            assertThat(jdbcTemplate.queryForList("SELECT nome FROM tarefas ORDER BY nome", String.class))
+                    .containsExactly("Primeira", "Terceira");
+            assertThat(jdbcTemplate.queryForList("SELECT nome FROM tags ORDER BY nome", String.class))
+                    .containsExactly("Backend", "Nova");
+            // O lote inteiro uma vez e depois cada registro
+            verify(tarefaStatsService, times(1 + 3)).registrarCriacoes(anyCollection());
+        }
+    }
+
+    private ImportacaoResultadoDTO importar(String conteudo, FormatoArquivo formato) throws IOException {
+        return tarefaImportador.importar(new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8)),
+                formato, StandardCharsets.UTF_8, admin);
+    }
+}
@@ -0,0 +1,114 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.dto.TarefaLoteResultadoDTO;
+import com.thiagoamorimm.takeatask.dto.TarefaLoteUpdateDTO;
+import com.thiagoamorimm.takeatask.dto.TarefaUpdateDTO;
+import com.thiagoamorimm.takeatask.enums.PerfilUsuario;
+import com.thiagoamorimm.takeatask.enums.PrioridadeTarefa;
+import com.thiagoamorimm.takeatask.enums.StatusTarefa;
+import com.thiagoamorimm.takeatask.exception.BadRequestException;
+import com.thiagoamorimm.takeatask.exception.ResourceNotFoundException;
+import com.thiagoamorimm.takeatask.model.Tag;
+import com.thiagoamorimm.takeatask.model.Tarefa;
+import com.thiagoamorimm.takeatask.model.Usuario;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.thiagoamorimm.takeatask.service.Usuarios.novoUsuario;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Atualização em lote: um único UPDATE para o conjunto, verificação de permissão antes de
+ * qualquer escrita e uma notificação por destinatário.
+ */
+@BancoH2
+class TarefaLoteTest extends TarefaServiceTestBase {
+
+    // No lugar do real da base, para conferir os deltas enviados
+    @MockitoBean
+    private TarefaStatsService tarefaStatsService;
+
+    private Usuario admin;
+    private Usuario ana;
+
+    @BeforeEach
+    void setUp() {
+        admin = em.persist(novoUsuario("admin", PerfilUsuario.ADMINISTRADOR_GESTOR));
+        ana = em.persist(novoUsuario("ana@takeatask.com", PerfilUsuario.USUARIO_PADRAO));
+    }
+
+    @Test
+    void atualizaStatusResponsavelETagsDeTodasAsTarefas() {
+        Tag urgente = em.persist(new Tag("Urgente"));
+        Tarefa primeira = em.persist(novaTarefa("Primeira", admin, admin));
+        Tarefa segunda = em.persist(novaTarefa("Segunda", admin, admin));
+        Tarefa outra = em.persist(novaTarefa("Fora do lote", admin, admin));
+        em.flush();
+        when(usuarioService.findUsuarioEntityById(ana.getId())).thenReturn(ana);
+        when(tagService.buscarOuCriarTags(anySet())).thenReturn(Set.of(urgente));
+
+        TarefaUpdateDTO alteracoes = new TarefaUpdateDTO(null, null, StatusTarefa.EM_ANDAMENTO, null, ana.getId(),
+                null, Set.of("Urgente"));
+        TarefaLoteResultadoDTO resultado = tarefaService.atualizarTarefasEmLote(
+                new TarefaLoteUpdateDTO(Set.of(primeira.getId(), segunda.getId()), null, alteracoes), admin);
+
+        assertThat(resultado.getAtualizadas()).isEqualTo(2);
+        em.clear();
+        List<Tarefa> tarefas = em.getEntityManager()
+                .createQuery("SELECT t FROM Tarefa t LEFT JOIN FETCH t.tags ORDER BY t.id", Tarefa.class)
+                .getResultList();
+        assertThat(tarefas.subList(0, 2)).allSatisfy(tarefa -> {
+            assertThat(tarefa.getStatus()).isEqualTo(StatusTarefa.EM_ANDAMENTO);
+            assertThat(tarefa.getResponsavel().getId()).isEqualTo(ana.getId());
+            assertThat(tarefa.getTags()).extracting(Tag::getNome).containsExactly("Urgente");
+        });
+        assertThat(tarefas.get(2).getId()).isEqualTo(outra.getId());
+        assertThat(tarefas.get(2).getStatus()).isEqualTo(StatusTarefa.A_FAZER);
+
+        // Duas atribuições e duas mudanças de status resultam em um único email
+        verify(notificacaoService, times(1)).enfileirar(eq("ana@takeatask.com"), eq("4 tarefas atualizadas"),
+                contains("Primeira"));
+        verify(tarefaStatsService).registrarDeltas(Map.of(
+                TarefaStatsService.Bucket.de(admin.getId(), StatusTarefa.A_FAZER, PrioridadeTarefa.MEDIA), -2L,
+                TarefaStatsService.Bucket.de(ana.getId(), StatusTarefa.EM_ANDAMENTO, PrioridadeTarefa.MEDIA), 2L));
+    }
+
+    @Test
+    void rejeitaOLoteInteiroQuandoFaltaPermissaoOuTarefa() {
+        Tarefa daAna = em.persist(novaTarefa("Da Ana", ana, ana));
+        Tarefa doAdmin = em.persist(novaTarefa("Do admin", admin, admin));
+        em.flush();
+        TarefaUpdateDTO alteracoes = new TarefaUpdateDTO(null, null, StatusTarefa.CONCLUIDA, null, null, null, null);
+
+        assertThatThrownBy(() -> tarefaService.atualizarTarefasEmLote(
+                new TarefaLoteUpdateDTO(Set.of(daAna.getId(), doAdmin.getId()), null, alteracoes), ana))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining(String.valueOf(doAdmin.getId()));
+        assertThatThrownBy(() -> tarefaService.atualizarTarefasEmLote(
+                new TarefaLoteUpdateDTO(Set.of(daAna.getId(), 999999L), null, alteracoes), admin))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("999999");
+
+        em.clear();
+        assertThat(em.find(Tarefa.class, daAna.getId()).getStatus()).isEqualTo(StatusTarefa.A_FAZER);
+        verify(tarefaStatsService, never()).registrarDeltas(anyMap());
+    }
+
+    private Tarefa novaTarefa(String nome, Usuario criador, Usuario responsavel) {
+        return new Tarefa(nome, null, StatusTarefa.A_FAZER, PrioridadeTarefa.MEDIA, responsavel, criador, null);
+    }
+}
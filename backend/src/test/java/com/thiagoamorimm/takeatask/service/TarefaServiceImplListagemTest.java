@@ -0,0 +1,150 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.dto.PaginaCursorDTO;
+import com.thiagoamorimm.takeatask.dto.TarefaDTO;
+import com.thiagoamorimm.takeatask.dto.TarefaSummaryDTO;
+import com.thiagoamorimm.takeatask.enums.PerfilUsuario;
+import com.thiagoamorimm.takeatask.enums.PrioridadeTarefa;
+import com.thiagoamorimm.takeatask.enums.StatusTarefa;
+import com.thiagoamorimm.takeatask.model.Anexo;
+import com.thiagoamorimm.takeatask.model.Comentario;
+import com.thiagoamorimm.takeatask.model.Tag;
+import com.thiagoamorimm.takeatask.model.Tarefa;
+import com.thiagoamorimm.takeatask.model.Usuario;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+
+import static com.thiagoamorimm.takeatask.service.Usuarios.novoUsuario;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Garante que as listagens de tarefas executam um número de queries que não cresce
+ * com o tamanho da página (sem N+1 em tags, anexos, comentários, criador e responsável).
+ */
+@BancoH2
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class TarefaServiceImplListagemTest extends TarefaServiceTestBase {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Usuario admin;
+    private Usuario usuario;
+    private Tag backend;
+    private Tag frontend;
+
+    @BeforeEach
+    void setUp() {
+        admin = em.persist(novoUsuario("admin", PerfilUsuario.ADMINISTRADOR_GESTOR));
+        usuario = em.persist(novoUsuario("usuario", PerfilUsuario.USUARIO_PADRAO));
+        backend = em.persist(new Tag("Backend"));
+        frontend = em.persist(new Tag("Frontend"));
+    }
+
+    @Test
+    void listagemPaginadaExecutaQuantidadeConstanteDeQueries() {
+        criarTarefas(25);
+
+        long paginaPequena = contarStatements(() -> tarefaService.listarTarefasPaginadas(admin, null, null, null,
+                null, null, null, null, "todas", null, 2));
+        long paginaGrande = contarStatements(() -> tarefaService.listarTarefasPaginadas(admin, null, null, null,
+                null, null, null, null, "todas", null, 20));
+
+        assertThat(paginaGrande).isEqualTo(paginaPequena);
+    }
+
+    @Test
+    void listagemCompletaExecutaQuantidadeConstanteDeQueries() {
+        criarTarefas(3);
+        long poucasTarefas = contarStatements(() -> tarefaService.listarTarefasFiltradas(usuario, null, null, null,
+                null, null, null, null, "todas"));
+
+        criarTarefas(15);
+        long muitasTarefas = contarStatements(() -> tarefaService.listarTarefasFiltradas(usuario, null, null, null,
+                null, null, null, null, "todas"));
+
+        assertThat(muitasTarefas).isEqualTo(poucasTarefas);
+    }
+
+    @Test
+    void listagemPaginadaPreencheColecoesDeCadaTarefa() {
+        criarTarefas(5);
+        em.flush();
+        em.clear();
+
+        PaginaCursorDTO<TarefaDTO> pagina = tarefaService.listarTarefasPaginadas(admin, null, null, null,
+                null, null, null, null, "todas", null, 3);
+
+        assertThat(pagina.getItens()).hasSize(3);
+        assertThat(pagina.isHasMore()).isTrue();
+        for (TarefaDTO dto : pagina.getItens()) {
+            assertThat(dto.getNomeCriador()).isEqualTo("Usuário admin");
+            assertThat(dto.getNomeResponsavel()).isEqualTo("Usuário usuario");
+            assertThat(dto.getTags()).hasSize(2);
+            assertThat(dto.getAnexos()).hasSize(2);
+            assertThat(dto.getComentarios()).hasSize(2)
+                    .allSatisfy(c -> assertThat(c.getNomeAutor()).isEqualTo("Usuário usuario"));
+        }
+
+        PaginaCursorDTO<TarefaDTO> proxima = tarefaService.listarTarefasPaginadas(admin, null, null, null,
+                null, null, null, null, "todas", pagina.getNextCursor(), 3);
+        assertThat(proxima.getItens()).hasSize(2);
+        assertThat(proxima.isHasMore()).isFalse();
+        assertThat(proxima.getItens()).extracting(TarefaDTO::getId)
+                .doesNotContainAnyElementsOf(pagina.getItens().stream().map(TarefaDTO::getId).toList());
+    }
+
+    @Test
+    void visaoResumidaPreencheContadoresComQuantidadeConstanteDeQueries() {
+        criarTarefas(12);
+
+        long paginaPequena = contarStatements(() -> tarefaService.listarResumosPaginados(admin, null, null, null,
+                null, null, null, null, "todas", null, 2));
+        long paginaGrande = contarStatements(() -> tarefaService.listarResumosPaginados(admin, null, null, null,
+                null, null, null, null, "todas", null, 10));
+        assertThat(paginaGrande).isEqualTo(paginaPequena).isEqualTo(2);
+
+        PaginaCursorDTO<TarefaSummaryDTO> pagina = tarefaService.listarResumosPaginados(admin, null, null, null,
+                null, null, null, null, "todas", null, 10);
+        assertThat(pagina.getItens()).hasSize(10);
+        assertThat(pagina.isHasMore()).isTrue();
+        assertThat(pagina.getItens()).allSatisfy(resumo -> {
+            assertThat(resumo.getNomeResponsavel()).isEqualTo("Usuário usuario");
+            assertThat(resumo.getTagIds()).containsExactlyInAnyOrder(backend.getId(), frontend.getId());
+            assertThat(resumo.getQuantidadeAnexos()).isEqualTo(2);
+            assertThat(resumo.getQuantidadeComentarios()).isEqualTo(2);
+            assertThat(resumo.getQuantidadeSubtarefas()).isZero();
+        });
+    }
+
+    private long contarStatements(Runnable listagem) {
+        em.flush();
+        em.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        listagem.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void criarTarefas(int quantidade) {
+        for (int i = 0; i < quantidade; i++) {
+            Tarefa tarefa = new Tarefa("Tarefa " + i, "Descrição " + i, StatusTarefa.A_FAZER, PrioridadeTarefa.MEDIA,
+                    usuario, admin, LocalDateTime.now().plusDays(i));
+            tarefa.getTags().add(backend);
+            tarefa.getTags().add(frontend);
+            em.persist(tarefa);
+            for (int j = 0; j < 2; j++) {
+                em.persist(new Anexo("arquivo" + j + ".pdf", "application/pdf", 1024L, "/tmp/arquivo" + j, tarefa,
+                        usuario));
+                em.persist(new Comentario("Comentário " + j, tarefa, usuario));
+            }
+        }
+    }
+}
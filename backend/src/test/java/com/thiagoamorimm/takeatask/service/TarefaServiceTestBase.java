@@ -0,0 +1,38 @@
+package com.thiagoamorimm.takeatask.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+/**
+ * Fatia JPA com o TarefaServiceImpl real. Os colaboradores que não são do banco ficam
+ * simulados; o TarefaStatsService é o real, que não grava nada enquanto os contadores
+ * estiverem desligados (padrão). O banco é escolhido pela subclasse (ver BancoH2).
+ */
+@DataJpaTest
+@Import({ TarefaServiceImpl.class, FiltroTarefas.class, TarefaStatsService.class })
+abstract class TarefaServiceTestBase {
+
+    @Autowired
+    protected TarefaService tarefaService;
+
+    @Autowired
+    protected TestEntityManager em;
+
+    @MockitoBean
+    protected UsuarioService usuarioService;
+
+    @MockitoBean
+    protected TagService tagService;
+
+    @MockitoBean
+    protected NotificacaoService notificacaoService;
+
+    @MockitoBean
+    protected BuscaTextualService buscaTextualService;
+
+    @MockitoBean
+    protected BlobsAnexos blobsAnexos;
+}
@@ -0,0 +1,188 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.dto.TarefaCreateDTO;
+import com.thiagoamorimm.takeatask.dto.TarefaDTO;
+import com.thiagoamorimm.takeatask.dto.TarefaLoteUpdateDTO;
+import com.thiagoamorimm.takeatask.dto.TarefaStatsDTO;
+import com.thiagoamorimm.takeatask.dto.TarefaUpdateDTO;
+import com.thiagoamorimm.takeatask.enums.PerfilUsuario;
+import com.thiagoamorimm.takeatask.enums.PrioridadeTarefa;
+import com.thiagoamorimm.takeatask.enums.StatusTarefa;
+import com.thiagoamorimm.takeatask.model.TarefaStatsEstado;
+import com.thiagoamorimm.takeatask.model.Usuario;
+import com.thiagoamorimm.takeatask.repository.TarefaRepository;
+import com.thiagoamorimm.takeatask.repository.TarefaStatsContadorRepository;
+import com.thiagoamorimm.takeatask.repository.TarefaStatsEstadoRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static com.thiagoamorimm.takeatask.service.Usuarios.novoUsuario;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Contadores materializados em tarefa_stats (PostgreSQL real: upsert ON CONFLICT, LOCK
+ * TABLE e trava consultiva): depois de criações, alterações, remoções e atualizações em lote,
+ * e depois de uma reconstrução, devem coincidir com a agregação direta sobre tarefas. A
+ * reconstrução só acontece quando os contadores foram invalidados.
+ */
+@TestPropertySource(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.show-sql=false",
+        "tarefa.stats.contadores.enabled=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TarefaStatsServiceTest extends TarefaServiceTestBase {
+
+    // Iniciado na primeira resolução da URL; parado pelo shutdown hook do EmbeddedPostgres
+    private static EmbeddedPostgres postgres;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres().getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    private static synchronized EmbeddedPostgres postgres() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return postgres;
+    }
+
+    @Autowired
+    private TarefaStatsService tarefaStatsService;
+
+    @Autowired
+    private TarefaRepository tarefaRepository;
+
+    @Autowired
+    private TarefaStatsContadorRepository contadorRepository;
+
+    @Autowired
+    private TarefaStatsEstadoRepository estadoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Usuario admin;
+    private Usuario ana;
+
+    @BeforeEach
+    void setUp() {
+        admin = em.persist(novoUsuario("admin", PerfilUsuario.ADMINISTRADOR_GESTOR));
+        ana = em.persist(novoUsuario("ana", PerfilUsuario.USUARIO_PADRAO));
+        em.flush();
+        when(usuarioService.findUsuarioEntityById(admin.getId())).thenReturn(admin);
+        when(usuarioService.findUsuarioEntityById(ana.getId())).thenReturn(ana);
+        when(tagService.versaoTags()).thenReturn(VersaoRecurso.de("tags", null, 0L, 0L, null));
+        when(usuarioService.versaoUsuarios()).thenReturn(VersaoRecurso.de("usuarios", null, 2L, 2L, null));
+        tarefaStatsService.inicializarContadores();
+    }
+
+    @Test
+    void contadoresAcompanhamCriacaoAlteracaoRemocaoELote() {
+        TarefaDTO primeira = criar("Primeira", StatusTarefa.A_FAZER, PrioridadeTarefa.ALTA, admin.getId());
+        TarefaDTO segunda = criar("Segunda", StatusTarefa.A_FAZER, PrioridadeTarefa.MEDIA, ana.getId());
+        TarefaDTO terceira = criar("Terceira", StatusTarefa.EM_ANDAMENTO, PrioridadeTarefa.MEDIA, ana.getId());
+        criar("Quarta", StatusTarefa.CONCLUIDA, PrioridadeTarefa.BAIXA, admin.getId());
+        conferirComAgregacao();
+
+        TarefaUpdateDTO alteracao = new TarefaUpdateDTO();
+        alteracao.setStatus(StatusTarefa.EM_REVISAO);
+        alteracao.setResponsavelId(ana.getId());
+        tarefaService.atualizarTarefa(primeira.getId(), alteracao, null, admin);
+        conferirComAgregacao();
+
+        TarefaUpdateDTO lote = new TarefaUpdateDTO(null, null, StatusTarefa.CONCLUIDA, PrioridadeTarefa.URGENTE,
+                admin.getId(), null, null);
+        tarefaService.atualizarTarefasEmLote(
+                new TarefaLoteUpdateDTO(Set.of(primeira.getId(), segunda.getId()), null, lote), admin);
+        em.clear();
+        conferirComAgregacao();
+
+        tarefaService.deletarTarefa(terceira.getId(), admin);
+        em.flush();
+        conferirComAgregacao();
+    }
+
+    @Test
+    void reconstroiApenasContadoresInvalidados() {
+        criar("Primeira", StatusTarefa.A_FAZER, PrioridadeTarefa.ALTA, admin.getId());
+        criar("Segunda", StatusTarefa.EM_ANDAMENTO, PrioridadeTarefa.MEDIA, ana.getId());
+        // Escritas feitas com o recurso desligado não mantêm os contadores
+        jdbcTemplate.update("UPDATE tarefa_stats SET quantidade = quantidade + 5");
+        jdbcTemplate.update("INSERT INTO tarefa_stats (responsavel_id, status, prioridade, quantidade) "
+                + "VALUES (?, 'CONCLUIDA', 'BAIXA', 3)", ana.getId());
+
+        // Ainda marcados como válidos: a subida de outra instância não trava nem reconstrói a tabela
+        tarefaStatsService.inicializarContadores();
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(quantidade) FROM tarefa_stats", Long.class))
+                .isEqualTo(tarefaRepository.count() + 2 * 5 + 3);
+
+        // Uma instância que sobe com o recurso desligado os invalida; a próxima ligada reconstrói
+        new TarefaStatsService(contadorRepository, estadoRepository, false).inicializarContadores();
+        tarefaStatsService.inicializarContadores();
+
+        conferirComAgregacao();
+        assertThat(estadoRepository.findById(TarefaStatsEstado.ID)).hasValueSatisfying(
+                estado -> assertThat(estado.isValido()).isTrue());
+    }
+
+    // Total geral e por responsável, pelos contadores e pela agregação sobre tarefas
+    private void conferirComAgregacao() {
+        LocalDateTime agora = LocalDateTime.now();
+        assertThat(porBucket(tarefaStatsService.somarTodos()))
+                .isEqualTo(porBucket(tarefaRepository.agregarEstatisticas(StatusTarefa.CONCLUIDA, agora)))
+                .isNotEmpty();
+        for (Usuario usuario : new Usuario[] { admin, ana }) {
+            assertThat(porBucket(tarefaStatsService.buscarPorResponsavel(usuario.getId())))
+                    .isEqualTo(porBucket(tarefaRepository.agregarEstatisticasPorResponsavel(usuario,
+                            StatusTarefa.CONCLUIDA, agora)));
+        }
+        TarefaStatsDTO stats = tarefaService.getTarefaStats(admin);
+        assertThat(stats.getTotalTarefas()).isEqualTo(tarefaRepository.count());
+    }
+
+    // Buckets zerados continuam como linhas em tarefa_stats, mas não existem na agregação
+    private static Map<String, Long> porBucket(Iterable<Object[]> linhas) {
+        Map<String, Long> buckets = new HashMap<>();
+        for (Object[] linha : linhas) {
+            long quantidade = ((Number) linha[2]).longValue();
+            if (quantidade != 0) {
+                buckets.put(linha[0] + "/" + linha[1], quantidade);
+            }
+        }
+        return buckets;
+    }
+
+    private TarefaDTO criar(String nome, StatusTarefa status, PrioridadeTarefa prioridade, Long responsavelId) {
+        TarefaCreateDTO dto = new TarefaCreateDTO();
+        dto.setNome(nome);
+        dto.setStatus(status);
+        dto.setPrioridade(prioridade);
+        dto.setResponsavelId(responsavelId);
+        TarefaDTO criada = tarefaService.criarTarefa(dto, admin);
+        em.flush();
+        return criada;
+    }
+}
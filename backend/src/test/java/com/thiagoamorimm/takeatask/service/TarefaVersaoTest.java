@@ -0,0 +1,140 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thiagoamorimm.takeatask.dto.TarefaUpdateDTO;
+import com.thiagoamorimm.takeatask.enums.PerfilUsuario;
+import com.thiagoamorimm.takeatask.enums.PrioridadeTarefa;
+import com.thiagoamorimm.takeatask.enums.StatusTarefa;
+import com.thiagoamorimm.takeatask.exception.BadRequestException;
+import com.thiagoamorimm.takeatask.exception.ConflictException;
+import com.thiagoamorimm.takeatask.exception.PreconditionFailedException;
+import com.thiagoamorimm.takeatask.exception.ResourceNotFoundException;
+import com.thiagoamorimm.takeatask.model.Tarefa;
+import com.thiagoamorimm.takeatask.model.Usuario;
+import com.thiagoamorimm.takeatask.repository.TarefaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+
+import static com.thiagoamorimm.takeatask.service.Usuarios.novoUsuario;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+/**
+ * ETag de GET /api/tarefas/{id}: estável enquanto nada muda, novo a cada alteração da tarefa
+ * ou das coleções citadas nela, e sujeito à mesma permissão da leitura. O mesmo ETag é a
+ * pré-condição (If-Match) de PUT e PATCH.
+ */
+@BancoH2
+class TarefaVersaoTest extends TarefaServiceTestBase {
+
+    @Autowired
+    private TarefaRepository tarefaRepository;
+
+    private Usuario admin;
+    private Usuario ana;
+    private Tarefa tarefa;
+
+    @BeforeEach
+    void setUp() {
+        admin = em.persist(novoUsuario("admin", PerfilUsuario.ADMINISTRADOR_GESTOR));
+        ana = em.persist(novoUsuario("ana", PerfilUsuario.USUARIO_PADRAO));
+        tarefa = em.persist(new Tarefa("Revisar contrato", null, StatusTarefa.A_FAZER, PrioridadeTarefa.MEDIA, admin,
+                admin, null));
+        em.flush();
+        when(tagService.versaoTags()).thenReturn(VersaoRecurso.de("tags", null, 3L, 3L, null));
+        when(usuarioService.versaoUsuarios()).thenReturn(VersaoRecurso.de("usuarios", null, 2L, 2L, null));
+    }
+
+    @Test
+    void etagMudaComATarefaEComAsColecoesCitadas() {
+        VersaoRecurso inicial = tarefaService.versaoTarefa(tarefa.getId(), admin);
+        assertThat(tarefaService.versaoTarefa(tarefa.getId(), admin)).isEqualTo(inicial);
+        assertThat(inicial.ultimaAlteracao()).isEqualTo(tarefa.getDataAtualizacao());
+
+        // Comentários e anexos mudam o ETag pela versão dos filhos, sem passar pelo @Version
+        long versaoAnterior = tarefa.getVersao();
+        tarefaRepository.registrarAlteracaoFilhos(tarefa.getId(), LocalDateTime.now());
+        VersaoRecurso aposComentario = tarefaService.versaoTarefa(tarefa.getId(), admin);
+        assertThat(aposComentario.etag()).isNotEqualTo(inicial.etag());
+        em.refresh(tarefa);
+        assertThat(tarefa.getVersao()).isEqualTo(versaoAnterior);
+        assertThat(tarefa.getVersaoFilhos()).isEqualTo(1L);
+
+        LocalDateTime renomeadaEm = aposComentario.ultimaAlteracao().plusMinutes(1);
+        when(tagService.versaoTags()).thenReturn(VersaoRecurso.de("tags", renomeadaEm, 3L, 3L, renomeadaEm));
+        VersaoRecurso aposRenomearTag = tarefaService.versaoTarefa(tarefa.getId(), admin);
+        assertThat(aposRenomearTag.etag()).isNotEqualTo(aposComentario.etag());
+        assertThat(aposRenomearTag.ultimaAlteracao()).isEqualTo(renomeadaEm);
+    }
+
+    @Test
+    void semPermissaoDeLeituraNaoExpoeAVersao() {
+        assertThatThrownBy(() -> tarefaService.versaoTarefa(tarefa.getId(), ana))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> tarefaService.versaoTarefa(999999L, admin))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void ifMatchAceitaSoAVersaoAtual() {
+        String lida = '"' + tarefaService.versaoTarefa(tarefa.getId(), admin).etag() + '"';
+        TarefaUpdateDTO alteracao = new TarefaUpdateDTO();
+        alteracao.setStatus(StatusTarefa.EM_ANDAMENTO);
+
+        TarefaComVersao resultado = tarefaService.atualizarTarefa(tarefa.getId(), alteracao, lida, admin);
+        assertThat(resultado.versao()).isEqualTo(tarefaService.versaoTarefa(tarefa.getId(), admin));
+
+        // Segundo cliente com a leitura anterior: recusado sem gravar nada
+        alteracao.setStatus(StatusTarefa.CONCLUIDA);
+        assertThatThrownBy(() -> tarefaService.atualizarTarefa(tarefa.getId(), alteracao, lida, admin))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThat(tarefa.getStatus()).isEqualTo(StatusTarefa.EM_ANDAMENTO);
+
+        assertThatThrownBy(() -> tarefaService.atualizarTarefa(tarefa.getId(), alteracao, "W/" + lida, admin))
+                .isInstanceOf(PreconditionFailedException.class);
+        tarefaService.atualizarTarefa(tarefa.getId(), alteracao, "*", admin);
+        assertThat(tarefa.getStatus()).isEqualTo(StatusTarefa.CONCLUIDA);
+    }
+
+    @Test
+    void gravacaoSobreVersaoAntigaEhRecusada() {
+        // Outra transação grava a tarefa depois que ela foi carregada nesta
+        em.getEntityManager().createNativeQuery("UPDATE tarefas SET versao = versao + 1 WHERE id = :id")
+                .setParameter("id", tarefa.getId())
+                .executeUpdate();
+        TarefaUpdateDTO alteracao = new TarefaUpdateDTO();
+        alteracao.setNome("Contrato revisado");
+
+        assertThatThrownBy(() -> tarefaService.atualizarTarefa(tarefa.getId(), alteracao, null, admin))
+                .isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+    void mergePatchAlteraSoOsCamposEnviados() throws Exception {
+        LocalDateTime prazo = LocalDateTime.of(2030, 1, 15, 18, 0);
+        tarefa.setDescricao("Cláusulas 3 a 7");
+        tarefa.setDataPrazo(prazo);
+        em.flush();
+        long versaoAnterior = tarefa.getVersao();
+
+        tarefaService.aplicarMergePatch(tarefa.getId(),
+                new ObjectMapper().readTree("{\"prioridade\": \"ALTA\", \"descricao\": null}"), null, admin);
+
+        assertThat(tarefa.getPrioridade()).isEqualTo(PrioridadeTarefa.ALTA);
+        assertThat(tarefa.getDescricao()).isNull();
+        assertThat(tarefa.getNome()).isEqualTo("Revisar contrato");
+        assertThat(tarefa.getDataPrazo()).isEqualTo(prazo);
+        assertThat(tarefa.getVersao()).isEqualTo(versaoAnterior + 1);
+
+        assertThatThrownBy(() -> tarefaService.aplicarMergePatch(tarefa.getId(),
+                new ObjectMapper().readTree("{\"nome\": null}"), null, admin))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> tarefaService.aplicarMergePatch(tarefa.getId(),
+                new ObjectMapper().readTree("{\"criadorId\": 2}"), null, admin))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
@@ -0,0 +1,109 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.dto.UsuarioDTO;
+import com.thiagoamorimm.takeatask.dto.UsuarioUpdateDTO;
+import com.thiagoamorimm.takeatask.enums.PerfilUsuario;
+import com.thiagoamorimm.takeatask.event.UsuarioAlteradoEvent;
+import com.thiagoamorimm.takeatask.model.Usuario;
+import com.thiagoamorimm.takeatask.repository.UsuarioRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Atualização de usuários: o evento de invalidação do principal em cache leva os logins
+ * envolvidos, mantendo ou trocando o login, e só alterações que afetam a autenticação
+ * revogam os tokens já emitidos.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({UsuarioServiceImpl.class, BCryptPasswordEncoder.class})
+@RecordApplicationEvents
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:usuarios;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class UsuarioServiceImplTest {
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private ApplicationEvents eventos;
+
+    @Test
+    void atualizaSemTrocarOLogin() {
+        Usuario usuario = em.persistAndFlush(new Usuario("Maria Silva", "maria", "maria@exemplo.com", "segredo123",
+                PerfilUsuario.USUARIO_PADRAO, "Analista", "11999990000", "TI"));
+
+        UsuarioUpdateDTO dto = new UsuarioUpdateDTO();
+        dto.setNome("Maria Souza");
+        dto.setLogin("maria");
+        dto.setPerfil(PerfilUsuario.ADMINISTRADOR_GESTOR);
+        UsuarioDTO atualizado = usuarioService.atualizarUsuario(usuario.getId(), dto);
+
+        assertThat(atualizado.getNome()).isEqualTo("Maria Souza");
+        assertThat(atualizado.getLogin()).isEqualTo("maria");
+        assertThat(eventos.stream(UsuarioAlteradoEvent.class))
+                .singleElement()
+                .satisfies(evento -> assertThat(evento.logins()).containsExactly("maria"));
+    }
+
+    @Test
+    void trocaDeLoginInvalidaOLoginAntigoEONovo() {
+        Usuario usuario = em.persistAndFlush(new Usuario("João Lima", "joao", "joao@exemplo.com", "segredo123",
+                PerfilUsuario.USUARIO_PADRAO, "Analista", "11999990001", "TI"));
+
+        UsuarioUpdateDTO dto = new UsuarioUpdateDTO();
+        dto.setLogin("joao.lima");
+        usuarioService.atualizarUsuario(usuario.getId(), dto);
+
+        assertThat(eventos.stream(UsuarioAlteradoEvent.class))
+                .singleElement()
+                .satisfies(evento -> assertThat(evento.logins()).containsExactlyInAnyOrder("joao", "joao.lima"));
+    }
+
+    @Test
+    void revogaTokensSoQuandoPerfilOuAtivoMudam() {
+        Usuario usuario = em.persistAndFlush(new Usuario("Ana Costa", "ana", "ana@exemplo.com", "segredo123",
+                PerfilUsuario.USUARIO_PADRAO, "Analista", "11999990002", "TI"));
+
+        UsuarioUpdateDTO tema = new UsuarioUpdateDTO();
+        tema.setTema("escuro");
+        tema.setPerfil(PerfilUsuario.USUARIO_PADRAO);
+        usuarioService.atualizarUsuario(usuario.getId(), tema);
+        assertThat(usuarioRepository.findTokensInvalidosAntesByLogin("ana")).contains(Instant.EPOCH);
+
+        Instant antes = Instant.now();
+        UsuarioUpdateDTO desativar = new UsuarioUpdateDTO();
+        desativar.setAtivo(false);
+        usuarioService.atualizarUsuario(usuario.getId(), desativar);
+        em.flush();
+        assertThat(usuarioRepository.findTokensInvalidosAntesByLogin("ana"))
+                .hasValueSatisfying(revogadoEm -> assertThat(revogadoEm).isAfterOrEqualTo(antes));
+
+        usuarioService.deletarUsuario(usuario.getId());
+        em.flush();
+        assertThat(usuarioRepository.findTokensInvalidosAntesByLogin("ana")).isEmpty();
+    }
+}
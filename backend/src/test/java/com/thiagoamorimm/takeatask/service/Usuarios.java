@@ -0,0 +1,16 @@
+package com.thiagoamorimm.takeatask.service;
+
+import com.thiagoamorimm.takeatask.enums.PerfilUsuario;
+import com.thiagoamorimm.takeatask.model.Usuario;
+
+/** Usuários de teste: um login com "@" é usado também como email. */
+final class Usuarios {
+
+    private Usuarios() {
+    }
+
+    static Usuario novoUsuario(String login, PerfilUsuario perfil) {
+        String email = login.contains("@") ? login : login + "@takeatask.com";
+        return new Usuario("Usuário " + login, login, email, "senha123", perfil, "Analista", "11999999999", "TI");
+    }
+}
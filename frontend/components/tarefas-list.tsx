@@ -124,6 +124,7 @@ async function fetchTarefasFromAPI(filtro: string, searchQuery?: string): Promis
   }
 
   params.append("tipo", tipoFiltroApi);
+  params.append("limit", "100");
   if (statusFiltroApi) {
     params.append("status", statusFiltroApi);
   }
@@ -152,7 +153,9 @@ async function fetchTarefasFromAPI(filtro: string, searchQuery?: string): Promis
     console.error("Erro ao buscar tarefas da API (TarefasList):", response.status, errorData);
     throw new Error(`Erro ao buscar tarefas (TarefasList): ${response.statusText} - ${errorData}`);
   }
-  const data: TarefaApiDTO[] = await response.json();
+  // A API devolve uma página keyset ({ itens, nextCursor, hasMore, limit })
+  const pagina: { itens: TarefaApiDTO[] } = await response.json();
+  const data = pagina.itens;
 
   return data.map((dto): Tarefa => ({
     id: Number(dto.id), // Garantir que o ID seja um número
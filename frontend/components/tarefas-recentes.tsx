@@ -74,7 +74,8 @@ async function fetchTarefasAPI(tipo: TipoFiltro, searchQuery?: string): Promise<
 
   try {
     // Usar o novo serviço de API com autenticação
-    const data: TarefaApiDTO[] = await apiService.get<TarefaApiDTO[]>(`/api/tarefas?${params.toString()}`);
+    // A API devolve uma página keyset; as mais recentes vêm na primeira
+    const { itens: data } = await apiService.get<{ itens: TarefaApiDTO[] }>(`/api/tarefas?${params.toString()}`);
     console.log('Tarefas carregadas com sucesso:', data.length);
     
     // Mapear do DTO do backend para a interface Tarefa do frontend